@@ -0,0 +1,156 @@
+/*
+ * Copyright 2024 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * MODIFICATION NOTICE
+ * as per the licence its required to give notice that this code has been modified by a third party.
+ * 2026 - Helgi Steinarr Juliusson, changes can be found in version control.
+ */
+package com.google.projectgameface;
+
+/**
+ * Tracks the resting (baseline) score of every blendshape during a session and shifts the
+ * trigger thresholds by how far the baseline has drifted since the session started, for example
+ * when lighting or camera pose changes.
+ */
+class AdaptiveThresholdTracker {
+
+  /** Thresholds never move more than this from what user has set. */
+  static final float MAX_DRIFT = 0.1f;
+
+  /** Effective threshold bounds, unless user's own threshold is already outside. */
+  static final float MIN_THRESHOLD = 0.05f;
+  static final float MAX_THRESHOLD = 0.95f;
+
+  /** Baseline is the median of a sliding window of about 20 s of idle frames. */
+  static final int WINDOW_SAMPLES = 600;
+
+  /** Idle frames needed before the baseline is trusted, about 2 s. */
+  static final int MIN_SAMPLES = 60;
+
+  private static final double BASELINE_QUANTILE = 0.5;
+
+  /** Per channel state, indexed by MediaPipe blendshape index. */
+  private final Channel[] channels = new Channel[BlendshapeCalibration.TOTAL_BLENDSHAPES];
+
+  /**
+   * Two estimators half a window apart, so the baseline follows the last full window without
+   * keeping any sample history.
+   */
+  private static class Channel {
+    final StreamingQuantile first = new StreamingQuantile(BASELINE_QUANTILE);
+    final StreamingQuantile second = new StreamingQuantile(BASELINE_QUANTILE);
+    float baseline = 0.f;
+    boolean hasBaseline = false;
+
+    /** Baseline at session start, drift is measured from here. */
+    float reference = 0.f;
+    boolean hasReference = false;
+
+    void add(float score) {
+      first.add(score);
+      if (second.getCount() > 0 || first.getCount() >= WINDOW_SAMPLES / 2) {
+        second.add(score);
+      }
+
+      if (first.getCount() >= WINDOW_SAMPLES) {
+        setBaseline((float) first.get());
+        first.reset();
+      } else if (second.getCount() >= WINDOW_SAMPLES) {
+        setBaseline((float) second.get());
+        second.reset();
+      } else if (!hasReference && first.getCount() >= MIN_SAMPLES) {
+        // First estimate of the session, before any window is full.
+        setBaseline((float) first.get());
+      }
+    }
+
+    private void setBaseline(float value) {
+      baseline = value;
+      hasBaseline = true;
+      if (!hasReference) {
+        reference = value;
+        hasReference = true;
+      }
+    }
+  }
+
+  AdaptiveThresholdTracker() {
+    for (BlendshapeEventTriggerConfig.Blendshape blendshape :
+        BlendshapeEventTriggerConfig.Blendshape.values()) {
+      if (blendshape != BlendshapeEventTriggerConfig.Blendshape.NONE) {
+        channels[blendshape.value] = new Channel();
+      }
+    }
+  }
+
+  /** Forget every baseline, for example after the score scale changed. */
+  void reset() {
+    for (int i = 0; i < channels.length; i++) {
+      if (channels[i] != null) {
+        channels[i] = new Channel();
+      }
+    }
+  }
+
+  /**
+   * Add one score of a frame where no gesture is being performed on this channel.
+   *
+   * @param blendshape Channel of the score.
+   * @param score Score in the same scale the thresholds are compared against.
+   */
+  void addIdleSample(BlendshapeEventTriggerConfig.Blendshape blendshape, float score) {
+    if (blendshape == BlendshapeEventTriggerConfig.Blendshape.NONE) {
+      return;
+    }
+    channels[blendshape.value].add(score);
+  }
+
+  /** Current resting score of the channel, 0 until enough idle frames were seen. */
+  float getBaseline(BlendshapeEventTriggerConfig.Blendshape blendshape) {
+    if (blendshape == BlendshapeEventTriggerConfig.Blendshape.NONE) {
+      return 0.f;
+    }
+    return channels[blendshape.value].baseline;
+  }
+
+  /** How far the baseline moved since session start, clamped to +-{@value MAX_DRIFT}. */
+  float getDrift(BlendshapeEventTriggerConfig.Blendshape blendshape) {
+    if (blendshape == BlendshapeEventTriggerConfig.Blendshape.NONE) {
+      return 0.f;
+    }
+    Channel channel = channels[blendshape.value];
+    if (!channel.hasBaseline) {
+      return 0.f;
+    }
+    float drift = channel.baseline - channel.reference;
+    return Math.max(-MAX_DRIFT, Math.min(MAX_DRIFT, drift));
+  }
+
+  /**
+   * Shift a threshold by a baseline drift, keeping it within safe bounds.
+   *
+   * @param threshold Threshold user has set, range 0 - 1.0.
+   * @param drift Baseline drift from {@link #getDrift}.
+   */
+  static float applyDrift(float threshold, float drift) {
+    float low = Math.min(threshold, MIN_THRESHOLD);
+    float high = Math.max(threshold, MAX_THRESHOLD);
+    return Math.max(low, Math.min(high, threshold + drift));
+  }
+
+  float getEffectiveThreshold(BlendshapeEventTriggerConfig.Blendshape blendshape, float threshold) {
+    return applyDrift(threshold, getDrift(blendshape));
+  }
+}
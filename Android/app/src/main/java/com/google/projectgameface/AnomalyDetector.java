@@ -0,0 +1,111 @@
+/*
+ * Copyright 2024 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * MODIFICATION NOTICE
+ * as per the licence its required to give notice that this code has been modified by a third party.
+ * 2026 - Helgi Steinarr Juliusson, changes can be found in version control.
+ */
+package com.google.projectgameface;
+
+/**
+ * Spots the ticks a user would report as "the cursor jumped" or "it clicked by itself", so the
+ * {@link FlightRecorder} is written while the cause is still in it. Allocates nothing per tick.
+ */
+class AnomalyDetector {
+  static final String REASON_CURSOR_JUMP = "cursor_jump";
+  static final String REASON_GESTURE_BURST = "gesture_burst";
+  static final String REASON_FRAME_GAP = "frame_gap";
+  static final String REASON_LANDMARKER_ERROR = "landmarker_error";
+
+  /** Cursor moving this fraction of the screen diagonal in one tick is a jump. */
+  static final float JUMP_SCREEN_FRACTION = 0.25f;
+
+  /** This many gestures within {@link #BURST_WINDOW_MS} is a burst. */
+  static final int BURST_EVENT_COUNT = 6;
+
+  static final long BURST_WINDOW_MS = 1000;
+
+  /** No landmarker result for this long while tracking is a gap. */
+  static final long FRAME_GAP_MS = 1000;
+
+  private boolean hasPreviousCursor = false;
+  private int previousCursorX = 0;
+  private int previousCursorY = 0;
+
+  /** Times of the last gestures, a ring of {@link #BURST_EVENT_COUNT}. */
+  private final long[] eventTimesMs = new long[BURST_EVENT_COUNT];
+  private int eventCount = 0;
+
+  /** Whether the current gap was reported already. */
+  private boolean isInFrameGap = false;
+
+  private int landmarkerErrorCount = 0;
+
+  /**
+   * Check one tick.
+   *
+   * @param isCursorActive Whether the cursor is moved by the head this tick.
+   * @param isMoveRequested Whether the cursor was moved on purpose this tick, a reset, teleport or
+   *     drift rewind. Such a move is no jump.
+   * @param isEventFired Whether a gesture event fired this tick.
+   * @param resultAgeMs Time since the last landmarker result, negative if not tracking.
+   * @param landmarkerErrorCount Landmarker errors so far.
+   * @return A {@code REASON_} constant, null if nothing happened.
+   */
+  String check(long timeMs, boolean isCursorActive, int cursorX, int cursorY,
+      boolean isMoveRequested, int screenWidth, int screenHeight, boolean isEventFired,
+      long resultAgeMs, int landmarkerErrorCount) {
+    String reason = null;
+
+    if (landmarkerErrorCount != this.landmarkerErrorCount) {
+      this.landmarkerErrorCount = landmarkerErrorCount;
+      reason = REASON_LANDMARKER_ERROR;
+    }
+
+    if (resultAgeMs >= FRAME_GAP_MS) {
+      if (!isInFrameGap) {
+        isInFrameGap = true;
+        reason = REASON_FRAME_GAP;
+      }
+    } else {
+      isInFrameGap = false;
+    }
+
+    if (isEventFired) {
+      eventTimesMs[eventCount % BURST_EVENT_COUNT] = timeMs;
+      eventCount++;
+      // Oldest of the last BURST_EVENT_COUNT events, this one included.
+      long oldestMs = eventTimesMs[eventCount % BURST_EVENT_COUNT];
+      if (eventCount >= BURST_EVENT_COUNT && timeMs - oldestMs <= BURST_WINDOW_MS) {
+        reason = REASON_GESTURE_BURST;
+        // Report a burst once, not on every further event of it.
+        eventCount = 0;
+      }
+    }
+
+    if (isCursorActive) {
+      if (hasPreviousCursor && !isMoveRequested) {
+        double jumpPx = Math.hypot(cursorX - previousCursorX, cursorY - previousCursorY);
+        if (jumpPx > JUMP_SCREEN_FRACTION * Math.hypot(screenWidth, screenHeight)) {
+          reason = REASON_CURSOR_JUMP;
+        }
+      }
+      previousCursorX = cursorX;
+      previousCursorY = cursorY;
+    }
+    hasPreviousCursor = isCursorActive;
+    return reason;
+  }
+}
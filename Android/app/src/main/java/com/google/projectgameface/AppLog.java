@@ -0,0 +1,210 @@
+/*
+ * Copyright 2024 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * MODIFICATION NOTICE
+ * as per the licence its required to give notice that this code has been modified by a third party.
+ * 2026 - Helgi Steinarr Juliusson, changes can be found in version control.
+ */
+package com.google.projectgameface;
+
+import android.util.Log;
+import java.io.PrintWriter;
+
+/**
+ * Logging of the app. Records go to an in-memory {@link LogRing} printed by the service dump,
+ * and optionally to logcat.
+ *
+ * <p>Messages are templates with {@value LogRing#PLACEHOLDER} placeholders, formatted only when
+ * the record is printed, so a call at a level nobody reads builds no string. Levels below
+ * {@link #COMPILED_LEVEL} compile to nothing. Arguments are still evaluated, and primitives
+ * boxed, by the caller before the level check, wrap expensive or frequent calls in
+ * {@link #isLoggable}. A call that is kept allocates its ring record.
+ *
+ * <p>The ring holds the arguments themselves until the record is overwritten, and prints them
+ * at dump time. Pass only values that do not change: strings, boxed primitives, enums. Copy
+ * anything else at the call with {@link String#valueOf(Object)}, so it prints its state at the
+ * call and is not kept alive by the ring.
+ */
+final class AppLog {
+
+  /** Calls below this priority are removed by the compiler. */
+  static final int COMPILED_LEVEL = Log.DEBUG;
+
+  /** Level that lets nothing through. */
+  static final int LEVEL_OFF = Log.ASSERT + 1;
+
+  static final int RING_CAPACITY = 1024;
+
+  private static final LogRing ring = new LogRing(RING_CAPACITY);
+
+  private static volatile int ringLevel = Log.DEBUG;
+  private static volatile int logcatLevel = Log.INFO;
+
+  /** Lower of the two levels, the only check a filtered call makes. */
+  private static volatile int minLevel = Log.DEBUG;
+
+  private AppLog() {}
+
+  /** Lowest priority kept in the ring, {@link #LEVEL_OFF} for none. */
+  static synchronized void setRingLevel(int level) {
+    ringLevel = level;
+    minLevel = Math.min(ringLevel, logcatLevel);
+  }
+
+  /** Lowest priority also written to logcat, {@link #LEVEL_OFF} for none. */
+  static synchronized void setLogcatLevel(int level) {
+    logcatLevel = level;
+    minLevel = Math.min(ringLevel, logcatLevel);
+  }
+
+  static int getLogcatLevel() {
+    return logcatLevel;
+  }
+
+  /** Level named by its letter in the dump, such as "d", or "off". -1 if unknown. */
+  static int parseLevel(String name) {
+    if ("off".equals(name)) {
+      return LEVEL_OFF;
+    }
+    return name.length() == 1 ? LogRing.priorityOf(name.charAt(0)) : -1;
+  }
+
+  /** Whether a call at this priority goes anywhere. */
+  static boolean isLoggable(int priority) {
+    return priority >= COMPILED_LEVEL && priority >= minLevel;
+  }
+
+  /** Print the ring, oldest record first. */
+  static void dump(PrintWriter writer) {
+    ring.dump(writer);
+  }
+
+  static void d(String tag, String message) {
+    if (Log.DEBUG >= COMPILED_LEVEL && Log.DEBUG >= minLevel) {
+      log(Log.DEBUG, tag, message, 0, null, null, null, null);
+    }
+  }
+
+  static void d(String tag, String template, Object arg1) {
+    if (Log.DEBUG >= COMPILED_LEVEL && Log.DEBUG >= minLevel) {
+      log(Log.DEBUG, tag, template, 1, arg1, null, null, null);
+    }
+  }
+
+  static void d(String tag, String template, Object arg1, Object arg2) {
+    if (Log.DEBUG >= COMPILED_LEVEL && Log.DEBUG >= minLevel) {
+      log(Log.DEBUG, tag, template, 2, arg1, arg2, null, null);
+    }
+  }
+
+  static void d(String tag, String template, Object arg1, Object arg2, Object arg3) {
+    if (Log.DEBUG >= COMPILED_LEVEL && Log.DEBUG >= minLevel) {
+      log(Log.DEBUG, tag, template, 3, arg1, arg2, arg3, null);
+    }
+  }
+
+  static void i(String tag, String message) {
+    if (Log.INFO >= COMPILED_LEVEL && Log.INFO >= minLevel) {
+      log(Log.INFO, tag, message, 0, null, null, null, null);
+    }
+  }
+
+  static void i(String tag, String template, Object arg1) {
+    if (Log.INFO >= COMPILED_LEVEL && Log.INFO >= minLevel) {
+      log(Log.INFO, tag, template, 1, arg1, null, null, null);
+    }
+  }
+
+  static void i(String tag, String template, Object arg1, Object arg2) {
+    if (Log.INFO >= COMPILED_LEVEL && Log.INFO >= minLevel) {
+      log(Log.INFO, tag, template, 2, arg1, arg2, null, null);
+    }
+  }
+
+  static void i(String tag, String template, Object arg1, Object arg2, Object arg3) {
+    if (Log.INFO >= COMPILED_LEVEL && Log.INFO >= minLevel) {
+      log(Log.INFO, tag, template, 3, arg1, arg2, arg3, null);
+    }
+  }
+
+  static void w(String tag, String message) {
+    if (Log.WARN >= COMPILED_LEVEL && Log.WARN >= minLevel) {
+      log(Log.WARN, tag, message, 0, null, null, null, null);
+    }
+  }
+
+  static void w(String tag, String template, Object arg1) {
+    if (Log.WARN >= COMPILED_LEVEL && Log.WARN >= minLevel) {
+      log(Log.WARN, tag, template, 1, arg1, null, null, null);
+    }
+  }
+
+  static void w(String tag, String template, Object arg1, Object arg2) {
+    if (Log.WARN >= COMPILED_LEVEL && Log.WARN >= minLevel) {
+      log(Log.WARN, tag, template, 2, arg1, arg2, null, null);
+    }
+  }
+
+  static void w(String tag, String template, Object arg1, Object arg2, Object arg3) {
+    if (Log.WARN >= COMPILED_LEVEL && Log.WARN >= minLevel) {
+      log(Log.WARN, tag, template, 3, arg1, arg2, arg3, null);
+    }
+  }
+
+  static void w(String tag, String message, Throwable throwable) {
+    if (Log.WARN >= COMPILED_LEVEL && Log.WARN >= minLevel) {
+      log(Log.WARN, tag, message, 0, null, null, null, throwable);
+    }
+  }
+
+  static void e(String tag, String message) {
+    if (Log.ERROR >= COMPILED_LEVEL && Log.ERROR >= minLevel) {
+      log(Log.ERROR, tag, message, 0, null, null, null, null);
+    }
+  }
+
+  static void e(String tag, String template, Object arg1) {
+    if (Log.ERROR >= COMPILED_LEVEL && Log.ERROR >= minLevel) {
+      log(Log.ERROR, tag, template, 1, arg1, null, null, null);
+    }
+  }
+
+  static void e(String tag, String template, Object arg1, Object arg2) {
+    if (Log.ERROR >= COMPILED_LEVEL && Log.ERROR >= minLevel) {
+      log(Log.ERROR, tag, template, 2, arg1, arg2, null, null);
+    }
+  }
+
+  static void e(String tag, String message, Throwable throwable) {
+    if (Log.ERROR >= COMPILED_LEVEL && Log.ERROR >= minLevel) {
+      log(Log.ERROR, tag, message, 0, null, null, null, throwable);
+    }
+  }
+
+  private static void log(int priority, String tag, String template, int argCount,
+      Object arg1, Object arg2, Object arg3, Throwable throwable) {
+    if (priority >= ringLevel) {
+      ring.add(System.currentTimeMillis(), priority, tag, template, argCount,
+          arg1, arg2, arg3, throwable);
+    }
+    if (priority >= logcatLevel) {
+      String message = LogRing.format(template, argCount, arg1, arg2, arg3);
+      if (throwable != null) {
+        message += '\n' + Log.getStackTraceString(throwable);
+      }
+      Log.println(priority, tag, message);
+    }
+  }
+}
@@ -0,0 +1,200 @@
+/*
+ * Copyright 2024 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * MODIFICATION NOTICE
+ * as per the licence its required to give notice that this code has been modified by a third party.
+ * 2026 - Helgi Steinarr Juliusson, changes can be found in version control.
+ */
+package com.google.projectgameface;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.view.accessibility.AccessibilityEvent;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Switches to the profile of the app in the foreground, found from window state change events.
+ * Apps without their own profile use the profile that was active before the first such switch.
+ *
+ * <p>The foreground app must stay for {@value SETTLE_DELAY_MS} ms before its profile is applied,
+ * and windows of ignored packages such as the notification shade or the keyboard never count, so
+ * passing through them does not switch back and forth. The switch itself runs on the main thread,
+ * {@link ProfileStore} applies the cached profile there and writes the files in the background.
+ *
+ * <p>Used from the main thread only.
+ */
+class AppProfileSwitcher {
+  private static final String TAG = "AppProfileSwitcher";
+
+  /** Foreground app must stay this long before its profile is applied. */
+  static final long SETTLE_DELAY_MS = 400;
+
+  /** System windows shown over apps, they never change the profile. */
+  private static final String SYSTEM_UI_PACKAGE = "com.android.systemui";
+
+  private final ProfileStore profileStore;
+  private final Set<String> ignoredPackages = new HashSet<>();
+
+  private boolean isEnabled = false;
+  private Handler handler;
+
+  /** App waiting to settle, null if none. */
+  private String pendingPackage = null;
+  private long pendingSinceNs = 0;
+
+  /** Settled foreground app. */
+  private String foregroundPackage = null;
+
+  /** Whether the active profile was chosen for the foreground app. */
+  private boolean isOnAppProfile = false;
+
+  /** Profile of the apps without their own. */
+  private String baseProfileName = null;
+
+  private int switchCount = 0;
+  private int debouncedCount = 0;
+
+  /**
+   * Time from the window event of an app to its profile being in use, settle delay included, in
+   * milliseconds.
+   */
+  private final StreamingQuantile switchLatencyP50Ms = new StreamingQuantile(0.5);
+  private final StreamingQuantile switchLatencyP90Ms = new StreamingQuantile(0.9);
+
+  /** Time {@link ProfileStore#switchTo} held the main thread, in microseconds. */
+  private final StreamingQuantile switchBlockP90Us = new StreamingQuantile(0.9);
+
+  private final Runnable settleRunnable = this::settle;
+
+  /**
+   * @param profileStore Where the profiles and app assignments are.
+   * @param ownPackage Package of this app, its setting pages never change the profile.
+   */
+  AppProfileSwitcher(ProfileStore profileStore, String ownPackage) {
+    this.profileStore = profileStore;
+    ignoredPackages.add(SYSTEM_UI_PACKAGE);
+    ignoredPackages.add(ownPackage);
+  }
+
+  /** Never switch for windows of this package, for example a keyboard. */
+  void addIgnoredPackage(String packageName) {
+    ignoredPackages.add(packageName);
+  }
+
+  /** Follow the foreground app or stop, stopping keeps the profile in use. */
+  void setEnabled(boolean isEnabled) {
+    if (isEnabled == this.isEnabled) {
+      return;
+    }
+    this.isEnabled = isEnabled;
+    if (!isEnabled) {
+      cancelPending();
+      foregroundPackage = null;
+      isOnAppProfile = false;
+    }
+  }
+
+  boolean isEnabled() {
+    return isEnabled;
+  }
+
+  /** Feed an event from {@link android.accessibilityservice.AccessibilityService}. */
+  void onAccessibilityEvent(AccessibilityEvent event) {
+    if (!isEnabled || event.getEventType() != AccessibilityEvent.TYPE_WINDOW_STATE_CHANGED) {
+      return;
+    }
+    CharSequence packageName = event.getPackageName();
+    if (packageName != null) {
+      onForegroundPackage(packageName.toString());
+    }
+  }
+
+  /** An app brought a window to the foreground. */
+  void onForegroundPackage(String packageName) {
+    if (ignoredPackages.contains(packageName) || packageName.equals(pendingPackage)) {
+      return;
+    }
+    if (pendingPackage != null) {
+      // Left before it settled.
+      debouncedCount++;
+    }
+    cancelPending();
+    if (packageName.equals(foregroundPackage)) {
+      return;
+    }
+    pendingPackage = packageName;
+    pendingSinceNs = SystemClock.elapsedRealtimeNanos();
+    if (handler == null) {
+      handler = new Handler(Looper.getMainLooper());
+    }
+    handler.postDelayed(settleRunnable, SETTLE_DELAY_MS);
+  }
+
+  private void cancelPending() {
+    if (handler != null) {
+      handler.removeCallbacks(settleRunnable);
+    }
+    pendingPackage = null;
+  }
+
+  /** The pending app stayed in the foreground, use its profile. */
+  void settle() {
+    if (pendingPackage == null) {
+      return;
+    }
+    foregroundPackage = pendingPackage;
+    pendingPackage = null;
+
+    String targetProfile = profileStore.getAppProfile(foregroundPackage);
+    if (targetProfile == null) {
+      if (!isOnAppProfile) {
+        return;
+      }
+      targetProfile = baseProfileName;
+    } else if (!isOnAppProfile) {
+      baseProfileName = profileStore.getActiveProfileName();
+    }
+    long switchStartNs = SystemClock.elapsedRealtimeNanos();
+    if (targetProfile == null || !profileStore.switchTo(targetProfile)) {
+      AppLog.w(TAG, "Cannot use profile {} for {}", targetProfile, foregroundPackage);
+      return;
+    }
+    long nowNs = SystemClock.elapsedRealtimeNanos();
+    switchBlockP90Us.add((nowNs - switchStartNs) / 1000);
+    isOnAppProfile = profileStore.getAppProfile(foregroundPackage) != null;
+    switchCount++;
+    float latencyMs = (nowNs - pendingSinceNs) / 1e6f;
+    switchLatencyP50Ms.add(latencyMs);
+    switchLatencyP90Ms.add(latencyMs);
+    AppLog.i(TAG, "{} uses profile {}", foregroundPackage, targetProfile);
+  }
+
+  int getSwitchCount() {
+    return switchCount;
+  }
+
+  int getDebouncedCount() {
+    return debouncedCount;
+  }
+
+  String getStatsSummary() {
+    return "switches=" + switchCount + " debounced=" + debouncedCount
+        + " latency p50=" + Math.round(switchLatencyP50Ms.get()) + "ms"
+        + " p90=" + Math.round(switchLatencyP90Ms.get()) + "ms"
+        + " main thread p90=" + Math.round(switchBlockP90Us.get()) + "us";
+  }
+}
@@ -0,0 +1,277 @@
+/*
+ * Copyright 2024 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * MODIFICATION NOTICE
+ * as per the licence its required to give notice that this code has been modified by a third party.
+ * 2026 - Helgi Steinarr Juliusson, changes can be found in version control.
+ */
+package com.google.projectgameface;
+
+import android.content.SharedPreferences;
+
+/**
+ * Per-user calibration of the blendshape scores.
+ *
+ * <p>Records the neutral face mean and variance of every blendshape plus the user's maximum
+ * voluntary activation, then maps raw MediaPipe scores onto the user's own range so the same
+ * threshold means the same effort for everyone.
+ */
+public class BlendshapeCalibration {
+  private static final String TAG = "BlendshapeCalibration";
+
+  /** Number of blendshapes MediaPipe outputs. */
+  public static final int TOTAL_BLENDSHAPES = 52;
+
+  /** SharedPreference key prefix, stored next to the gesture bindings. */
+  static final String PREFERENCE_KEY_PREFIX = "CALIBRATION_";
+
+  /** Config name announced through {@link ConfigRepository} when calibration changes. */
+  public static final String CONFIG_NAME = "CALIBRATION";
+
+  /** Raw score must be this many standard deviations above neutral before it counts. */
+  static final float NOISE_GATE_Z = 3.f;
+
+  /** Neutral noise floor so a perfectly still channel does not gate on float noise. */
+  private static final float MIN_NEUTRAL_STD = 0.005f;
+
+  /** Channels with less range than this between neutral and max are left uncalibrated. */
+  private static final float MIN_ACTIVATION_RANGE = 0.05f;
+
+  /** Minimum neutral frames before the neutral phase is accepted. */
+  static final int MIN_NEUTRAL_SAMPLES = 15;
+
+  /** Calibration session phase. */
+  public enum Phase {
+    IDLE,
+    /** User keeps a relaxed face, record mean and variance of every channel. */
+    NEUTRAL,
+    /** User performs one gesture as strongly as comfortable, record its peak. */
+    MAX
+  }
+
+  private final float[] neutralMean = new float[TOTAL_BLENDSHAPES];
+  private final float[] neutralStd = new float[TOTAL_BLENDSHAPES];
+  private final float[] maxActivation = new float[TOTAL_BLENDSHAPES];
+  private final boolean[] isChannelCalibrated = new boolean[TOTAL_BLENDSHAPES];
+
+  // Recording state of an ongoing session, committed only on finishSession().
+  private Phase phase = Phase.IDLE;
+  private int neutralSampleCount = 0;
+  private final double[] runningMean = new double[TOTAL_BLENDSHAPES];
+  private final double[] runningM2 = new double[TOTAL_BLENDSHAPES];
+  private final float[] recordedMax = new float[TOTAL_BLENDSHAPES];
+  private int recordingMaxIndex = -1;
+
+  /** Start a new session, drop anything recorded so far. */
+  public void startSession() {
+    phase = Phase.IDLE;
+    neutralSampleCount = 0;
+    recordingMaxIndex = -1;
+    for (int i = 0; i < TOTAL_BLENDSHAPES; i++) {
+      runningMean[i] = 0;
+      runningM2[i] = 0;
+      recordedMax[i] = 0.f;
+    }
+  }
+
+  /** Start recording the neutral face. */
+  public void startNeutralPhase() {
+    phase = Phase.NEUTRAL;
+  }
+
+  /**
+   * Start recording the maximum voluntary activation of one blendshape.
+   *
+   * @param blendshape The gesture user is asked to perform.
+   */
+  public void startMaxPhase(BlendshapeEventTriggerConfig.Blendshape blendshape) {
+    if (blendshape == BlendshapeEventTriggerConfig.Blendshape.NONE) {
+      AppLog.w(TAG, "Cannot record max activation of NONE.");
+      return;
+    }
+    phase = Phase.MAX;
+    recordingMaxIndex = blendshape.value;
+  }
+
+  /** Stop recording until the next phase starts. */
+  public void stopPhase() {
+    phase = Phase.IDLE;
+    recordingMaxIndex = -1;
+  }
+
+  public Phase getPhase() {
+    return phase;
+  }
+
+  public int getNeutralSampleCount() {
+    return neutralSampleCount;
+  }
+
+  /**
+   * Feed one frame of blendshapes into the current phase. Should be called once per new
+   * FaceLandmarker result, not per UI tick.
+   *
+   * @param blendshapes The blendshapes array from MediaPipe FaceLandmarks model.
+   */
+  public void addSample(float[] blendshapes) {
+    switch (phase) {
+      case NEUTRAL:
+        // Welford's online mean and variance.
+        neutralSampleCount++;
+        for (int i = 0; i < TOTAL_BLENDSHAPES; i++) {
+          double delta = blendshapes[i] - runningMean[i];
+          runningMean[i] += delta / neutralSampleCount;
+          runningM2[i] += delta * (blendshapes[i] - runningMean[i]);
+        }
+        break;
+      case MAX:
+        if (blendshapes[recordingMaxIndex] > recordedMax[recordingMaxIndex]) {
+          recordedMax[recordingMaxIndex] = blendshapes[recordingMaxIndex];
+        }
+        break;
+      default:
+        break;
+    }
+  }
+
+  /**
+   * Commit the recorded session as the active calibration.
+   *
+   * @return false if not enough neutral frames were recorded, calibration is unchanged.
+   */
+  public boolean finishSession() {
+    phase = Phase.IDLE;
+    recordingMaxIndex = -1;
+    if (neutralSampleCount < MIN_NEUTRAL_SAMPLES) {
+      AppLog.w(TAG, "Not enough neutral samples: {}", neutralSampleCount);
+      return false;
+    }
+    for (int i = 0; i < TOTAL_BLENDSHAPES; i++) {
+      float mean = (float) runningMean[i];
+      float std = (float) Math.sqrt(runningM2[i] / (neutralSampleCount - 1));
+      setChannel(i, mean, std, recordedMax[i]);
+    }
+    return true;
+  }
+
+  private void setChannel(int index, float mean, float std, float max) {
+    neutralMean[index] = mean;
+    neutralStd[index] = Math.max(std, MIN_NEUTRAL_STD);
+    maxActivation[index] = max;
+    isChannelCalibrated[index] = (max - mean) >= MIN_ACTIVATION_RANGE;
+  }
+
+  /** Whether this blendshape has usable calibration data. */
+  public boolean isCalibrated(BlendshapeEventTriggerConfig.Blendshape blendshape) {
+    return blendshape != BlendshapeEventTriggerConfig.Blendshape.NONE
+        && isChannelCalibrated[blendshape.value];
+  }
+
+  /**
+   * Map a raw score onto the user's range, 0 at neutral and 1 at maximum voluntary activation.
+   * Scores within {@value NOISE_GATE_Z} standard deviations of neutral are gated to 0. Falls back
+   * to the raw score if the channel is not calibrated.
+   *
+   * @param blendshape Which blendshape the score belongs to.
+   * @param rawScore Raw score from MediaPipe, range 0 - 1.0.
+   * @return Normalized score, range 0 - 1.0.
+   */
+  public float normalize(BlendshapeEventTriggerConfig.Blendshape blendshape, float rawScore) {
+    if (!isCalibrated(blendshape)) {
+      return rawScore;
+    }
+    int i = blendshape.value;
+    if ((rawScore - neutralMean[i]) < NOISE_GATE_Z * neutralStd[i]) {
+      return 0.f;
+    }
+    float normalized = (rawScore - neutralMean[i]) / (maxActivation[i] - neutralMean[i]);
+    return Math.max(0.f, Math.min(1.f, normalized));
+  }
+
+  /** Remove all calibration, scores are used raw again. */
+  public void reset() {
+    for (int i = 0; i < TOTAL_BLENDSHAPES; i++) {
+      isChannelCalibrated[i] = false;
+    }
+  }
+
+  /**
+   * Load calibration of the blendshapes usable in the app from SharedPreference.
+   *
+   * @param sharedPreferences The GameFaceLocalConfig preference.
+   */
+  public void updateFromSharedPreference(SharedPreferences sharedPreferences) {
+    reset();
+    for (BlendshapeEventTriggerConfig.Blendshape blendshape :
+        BlendshapeEventTriggerConfig.Blendshape.values()) {
+      if (blendshape == BlendshapeEventTriggerConfig.Blendshape.NONE) {
+        continue;
+      }
+      String key = PREFERENCE_KEY_PREFIX + blendshape.name();
+      if (!sharedPreferences.contains(key + "_max")) {
+        continue;
+      }
+      setChannel(
+          blendshape.value,
+          sharedPreferences.getFloat(key + "_mean", 0.f),
+          sharedPreferences.getFloat(key + "_std", MIN_NEUTRAL_STD),
+          sharedPreferences.getFloat(key + "_max", 0.f));
+    }
+  }
+
+  /**
+   * Load calibration from a compiled profile, channels it does not have are uncalibrated.
+   *
+   * @param snapshot The compiled profile.
+   */
+  void applySnapshot(ProfileSnapshot snapshot) {
+    reset();
+    for (BlendshapeEventTriggerConfig.Blendshape blendshape :
+        BlendshapeEventTriggerConfig.Blendshape.values()) {
+      float[] channel = snapshot.getCalibration(blendshape);
+      if (blendshape == BlendshapeEventTriggerConfig.Blendshape.NONE || channel == null) {
+        continue;
+      }
+      setChannel(blendshape.value, channel[0], channel[1], channel[2]);
+    }
+  }
+
+  /**
+   * Write calibration of the blendshapes usable in the app to SharedPreference.
+   *
+   * @param sharedPreferences The GameFaceLocalConfig preference.
+   */
+  public void writeToSharedPreference(SharedPreferences sharedPreferences) {
+    SharedPreferences.Editor editor = sharedPreferences.edit();
+    for (BlendshapeEventTriggerConfig.Blendshape blendshape :
+        BlendshapeEventTriggerConfig.Blendshape.values()) {
+      if (blendshape == BlendshapeEventTriggerConfig.Blendshape.NONE) {
+        continue;
+      }
+      String key = PREFERENCE_KEY_PREFIX + blendshape.name();
+      int i = blendshape.value;
+      if (isChannelCalibrated[i]) {
+        editor.putFloat(key + "_mean", neutralMean[i]);
+        editor.putFloat(key + "_std", neutralStd[i]);
+        editor.putFloat(key + "_max", maxActivation[i]);
+      } else {
+        editor.remove(key + "_mean");
+        editor.remove(key + "_std");
+        editor.remove(key + "_max");
+      }
+    }
+    editor.apply();
+  }
+}
@@ -12,13 +12,15 @@
  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
  * See the License for the specific language governing permissions and
  * limitations under the License.
+ *
+ * MODIFICATION NOTICE
+ * as per the licence its required to give notice that this code has been modified by a third party.
+ * 2026 - Helgi Steinarr Juliusson, changes can be found in version control.
  */
 package com.google.projectgameface;
 
 import android.content.Context;
-import android.content.Intent;
 import android.content.SharedPreferences;
-import android.util.Log;
 import androidx.annotation.Nullable;
 import com.google.auto.value.AutoValue;
 
@@ -155,10 +157,8 @@ public class BlendshapeEventTriggerConfig {
     public static BlendshapeAndThreshold createFromIndexInUi(
         int blendshapeIndexInUi, float threshold) {
       if ((blendshapeIndexInUi > BLENDSHAPE_FROM_ORDER_IN_UI.size()) || (blendshapeIndexInUi < 0)) {
-        Log.w(
-            TAG,
-            "Cannot create BlendshapeAndThreshold from blendshapeIndexInUi: "
-                + blendshapeIndexInUi);
+        AppLog.w(TAG, "Cannot create BlendshapeAndThreshold from blendshapeIndexInUi: {}",
+            blendshapeIndexInUi);
         return null;
       }
       Blendshape shape = BLENDSHAPE_FROM_ORDER_IN_UI.get(blendshapeIndexInUi);
@@ -168,6 +168,8 @@ public class BlendshapeEventTriggerConfig {
 
   private final HashMap<EventType, BlendshapeAndThreshold> configMap;
 
+  /** Per-user neutral face calibration, thresholds are compared against normalized scores. */
+  private final BlendshapeCalibration calibration = new BlendshapeCalibration();
 
 
 
@@ -177,7 +179,7 @@ public class BlendshapeEventTriggerConfig {
    * @param context Context for open SharedPreference in device's local storage.
    */
   public BlendshapeEventTriggerConfig(Context context) {
-    Log.i(TAG, "Create BlendshapeEventTriggerConfig.");
+    AppLog.i(TAG, "Create BlendshapeEventTriggerConfig.");
     // Create or retrieve SharedPreference.
     sharedPreferences = context.getSharedPreferences("GameFaceLocalConfig", Context.MODE_PRIVATE);
 
@@ -186,16 +188,44 @@ public class BlendshapeEventTriggerConfig {
     updateAllConfigFromSharedPreference();
   }
 
+  public BlendshapeCalibration getCalibration() {
+    return calibration;
+  }
+
+  /**
+   * Get the score of a blendshape that thresholds should be compared against. This is the
+   * calibrated score if user has done the calibration, otherwise the raw MediaPipe score.
+   *
+   * @param blendshapes The blendshapes array from MediaPipe FaceLandmarks model.
+   * @param shape Target blendshape.
+   */
+  public float getScore(float[] blendshapes, Blendshape shape) {
+    return calibration.normalize(shape, blendshapes[shape.value]);
+  }
+
   /** Get every EventType-BlendshapeAndThreshold pairs. */
   public HashMap<EventType, BlendshapeAndThreshold> getAllConfig() {
     return configMap;
   }
 
+  /**
+   * Replace the bindings and calibration with the ones of a profile, without touching
+   * SharedPreference.
+   *
+   * @param snapshot The compiled profile.
+   */
+  void applySnapshot(ProfileSnapshot snapshot) {
+    configMap.clear();
+    configMap.putAll(snapshot.getBindings());
+    calibration.applySnapshot(snapshot);
+  }
+
   public void updateAllConfigFromSharedPreference() {
-    Log.i(TAG, "Update all config from local SharedPreference...");
+    AppLog.i(TAG, "Update all config from local SharedPreference...");
     for (EventType eventType : EventType.values()) {
       updateOneConfigFromSharedPreference(eventType.name());
     }
+    updateOneConfigFromSharedPreference(BlendshapeCalibration.CONFIG_NAME);
   }
 
   /**
@@ -204,10 +234,15 @@ public class BlendshapeEventTriggerConfig {
    * @param eventTypeString String of {@link EventType} to update, such as "TOUCH" or "SWIPE_LEFT".
    */
   public void updateOneConfigFromSharedPreference(String eventTypeString) {
-    Log.i(TAG, "updateOneConfigFromSharedPreference: " + eventTypeString);
+    AppLog.i(TAG, "updateOneConfigFromSharedPreference: {}", eventTypeString);
 
     if (sharedPreferences == null) {
-      Log.w(TAG, "sharedPreferences instance does not exist.");
+      AppLog.w(TAG, "sharedPreferences instance does not exist.");
+      return;
+    }
+
+    if (BlendshapeCalibration.CONFIG_NAME.equals(eventTypeString)) {
+      calibration.updateFromSharedPreference(sharedPreferences);
       return;
     }
 
@@ -215,22 +250,21 @@ public class BlendshapeEventTriggerConfig {
     try {
       eventType = EventType.valueOf(eventTypeString);
     } catch (IllegalArgumentException e) {
-      Log.w(TAG, eventTypeString + " not exist in EventType enum.");
+      AppLog.w(TAG, "{} not exist in EventType enum.", eventTypeString);
       return;
     }
 
     int blendshapeIndexInUi = sharedPreferences.getInt(eventTypeString, -1);
     if (blendshapeIndexInUi == -1) {
-      Log.i(
-          TAG,
-          "Key " + eventTypeString + " not found in SharedPreference, keep using default value.");
+      AppLog.i(TAG, "Key {} not found in SharedPreference, keep using default value.",
+          eventTypeString);
       return;
     }
 
     int thresholdInUi =
         sharedPreferences.getInt(eventTypeString + "_size", PREFERENCE_INT_NOT_FOUND);
     if (thresholdInUi == PREFERENCE_INT_NOT_FOUND) {
-      Log.w(TAG, "Cannot find " + eventTypeString + "_size" + " in SharedPreference.");
+      AppLog.w(TAG, "Cannot find {}_size in SharedPreference.", eventTypeString);
       return;
     }
 
@@ -240,21 +274,15 @@ public class BlendshapeEventTriggerConfig {
 
     if (blendshapeAndThreshold != null) {
       configMap.put(eventType, blendshapeAndThreshold);
-      Log.i(
-          TAG,
-          "Apply "
-              + eventType.name()
-              + " with value: "
-              + blendshapeAndThreshold.shape()
-              + " "
-              + blendshapeAndThreshold.threshold());
+      AppLog.i(TAG, "Apply {} with value: {} {}",
+          eventType.name(), blendshapeAndThreshold.shape(), blendshapeAndThreshold.threshold());
     }
   }
 
 
   /**
-   * Write binding config to local sharedpref a
-   * nd also send broadcast to tell background service to update its config.
+   * Write binding config to local sharedpref and also tell the background service to update its
+   * config.
    * @param blendshape What face gesture needed to perform.
    * @param eventType What event action to trigger.
    * @param thresholdInUI threshold in UI unit from 0 to 100.
@@ -262,7 +290,8 @@ public class BlendshapeEventTriggerConfig {
   static void writeBindingConfig(Context context, Blendshape blendshape, EventType eventType,
       int thresholdInUI)
   {
-    Log.i(TAG, "writeBindingConfig: " + blendshape.toString() +" "+ eventType.toString() + " " + thresholdInUI);
+    AppLog.i(TAG, "writeBindingConfig: {} {} {}",
+        blendshape.toString(), eventType.toString(), thresholdInUI);
 
     SharedPreferences preferences = context.getSharedPreferences("GameFaceLocalConfig", Context.MODE_PRIVATE);
     SharedPreferences.Editor editor = preferences.edit();
@@ -271,9 +300,22 @@ public class BlendshapeEventTriggerConfig {
     editor.apply();
 
     // Tell service to refresh its config.
-    Intent intent = new Intent("LOAD_SHARED_CONFIG_GESTURE");
-    intent.putExtra("configName", eventType.toString());
-    context.sendBroadcast(intent);
+    ConfigRepository.getInstance(context).notifyGestureConfigChanged(eventType.toString());
+  }
+
+  /**
+   * Commit the ongoing calibration session and store it alongside the bindings.
+   *
+   * @return false if the session did not record enough data, nothing is changed.
+   */
+  public boolean finishCalibrationSession() {
+    if (!calibration.finishSession()) {
+      return false;
+    }
+    if (sharedPreferences != null) {
+      calibration.writeToSharedPreference(sharedPreferences);
+    }
+    return true;
   }
 
   /**
@@ -0,0 +1,166 @@
+/*
+ * Copyright 2024 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * MODIFICATION NOTICE
+ * as per the licence its required to give notice that this code has been modified by a third party.
+ * 2026 - Helgi Steinarr Juliusson, changes can be found in version control.
+ */
+package com.google.projectgameface;
+
+import com.google.projectgameface.BlendshapeEventTriggerConfig.Blendshape;
+
+/**
+ * In-process stream of blendshape scores from the service to the settings pages, one frame per
+ * FaceLandmarker result. Replaces a system broadcast per UI tick.
+ *
+ * <p>A frame holds a timestamp and {@link #CHANNEL_COUNT} values: the raw score of every
+ * blendshape, then for each {@link Blendshape} the score the trigger compares against, its resting
+ * baseline and its threshold drift. Frames go into a fixed ring; each {@link Reader} picks its own
+ * channels and keeps its own position, so a live graph gets every frame and a meter can take only
+ * the newest.
+ */
+class BlendshapeScoreChannel {
+
+  static final int RAW_CHANNEL_COUNT = FaceLandmarkerHelper.TOTAL_BLENDSHAPES;
+
+  /** Score, baseline and drift of each {@link Blendshape}. */
+  static final int TRIGGER_CHANNEL_COUNT = 3 * Blendshape.values().length;
+
+  static final int CHANNEL_COUNT = RAW_CHANNEL_COUNT + TRIGGER_CHANNEL_COUNT;
+
+  /** About four seconds of frames at 30 fps. */
+  static final int CAPACITY = 128;
+
+  private static final BlendshapeScoreChannel INSTANCE = new BlendshapeScoreChannel();
+
+  /** The channel shared by the service and the activities of this process. */
+  static BlendshapeScoreChannel getInstance() {
+    return INSTANCE;
+  }
+
+  static int rawChannel(int blendshapeIndex) {
+    return blendshapeIndex;
+  }
+
+  static int scoreChannel(Blendshape shape) {
+    return RAW_CHANNEL_COUNT + 3 * shape.ordinal();
+  }
+
+  static int baselineChannel(Blendshape shape) {
+    return scoreChannel(shape) + 1;
+  }
+
+  static int driftChannel(Blendshape shape) {
+    return scoreChannel(shape) + 2;
+  }
+
+  private final float[] values = new float[CAPACITY * CHANNEL_COUNT];
+  private final long[] timestampsMs = new long[CAPACITY];
+
+  /** Frames published so far, the next frame goes to slot publishedCount % CAPACITY. */
+  private long publishedCount = 0;
+
+  private int readerCount = 0;
+
+  /** Whether anyone reads, the service skips publishing otherwise. */
+  synchronized boolean hasReaders() {
+    return readerCount > 0;
+  }
+
+  /**
+   * Publish one frame. The lock is only held to copy the values, readers never wait on the
+   * service for longer than that.
+   *
+   * @param rawScores Score of every blendshape, {@link #RAW_CHANNEL_COUNT} long.
+   * @param triggerValues {@link #TRIGGER_CHANNEL_COUNT} values, laid out as the trigger channels.
+   */
+  synchronized void publish(long timestampMs, float[] rawScores, float[] triggerValues) {
+    int slot = (int) (publishedCount % CAPACITY);
+    int base = slot * CHANNEL_COUNT;
+    System.arraycopy(rawScores, 0, values, base, RAW_CHANNEL_COUNT);
+    System.arraycopy(triggerValues, 0, values, base + RAW_CHANNEL_COUNT, TRIGGER_CHANNEL_COUNT);
+    timestampsMs[slot] = timestampMs;
+    publishedCount++;
+  }
+
+  /**
+   * Start reading the given channels from the next published frame. Close the reader when done.
+   */
+  synchronized Reader openReader(int[] channels) {
+    readerCount++;
+    return new Reader(channels.clone(), publishedCount);
+  }
+
+  private synchronized int read(Reader reader, float[] outValues, long[] outTimestampsMs, int maxFrames) {
+    long oldest = Math.max(reader.nextFrame, publishedCount - CAPACITY);
+    reader.missedFrameCount += oldest - reader.nextFrame;
+    // Newest frames are kept when there are more than asked for.
+    long first = Math.max(oldest, publishedCount - maxFrames);
+    reader.missedFrameCount += first - oldest;
+    int frameCount = (int) (publishedCount - first);
+    int channelCount = reader.channels.length;
+    for (int i = 0; i < frameCount; i++) {
+      int slot = (int) ((first + i) % CAPACITY);
+      int base = slot * CHANNEL_COUNT;
+      for (int c = 0; c < channelCount; c++) {
+        outValues[i * channelCount + c] = values[base + reader.channels[c]];
+      }
+      outTimestampsMs[i] = timestampsMs[slot];
+    }
+    reader.nextFrame = publishedCount;
+    return frameCount;
+  }
+
+  private synchronized void close(Reader reader) {
+    if (!reader.isClosed) {
+      reader.isClosed = true;
+      readerCount--;
+    }
+  }
+
+  /** Position of one subscriber in the ring, not thread safe itself. */
+  final class Reader {
+    private final int[] channels;
+    private long nextFrame;
+    private long missedFrameCount = 0;
+    private boolean isClosed = false;
+
+    private Reader(int[] channels, long nextFrame) {
+      this.channels = channels;
+      this.nextFrame = nextFrame;
+    }
+
+    /**
+     * Copy the frames published since the last poll, oldest first.
+     *
+     * @param outValues Receives {@code channels.length} values per frame, frame after frame.
+     * @param outTimestampsMs Receives the timestamp of each frame.
+     * @param maxFrames Most frames to copy, the newest are kept.
+     * @return Number of frames copied.
+     */
+    int poll(float[] outValues, long[] outTimestampsMs, int maxFrames) {
+      return read(this, outValues, outTimestampsMs, maxFrames);
+    }
+
+    /** Frames that were overwritten or skipped before this reader got to them. */
+    long getMissedFrameCount() {
+      return missedFrameCount;
+    }
+
+    void close() {
+      BlendshapeScoreChannel.this.close(this);
+    }
+  }
+}
@@ -0,0 +1,302 @@
+/*
+ * Copyright 2024 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * MODIFICATION NOTICE
+ * as per the licence its required to give notice that this code has been modified by a third party.
+ * 2026 - Helgi Steinarr Juliusson, changes can be found in version control.
+ */
+
+package com.google.projectgameface;
+
+import android.content.BroadcastReceiver;
+import android.content.Context;
+import android.content.Intent;
+import android.content.IntentFilter;
+import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
+import android.view.MenuItem;
+import android.view.ViewTreeObserver;
+import android.view.WindowManager.LayoutParams;
+import android.widget.Button;
+import android.widget.LinearLayout;
+import android.widget.ProgressBar;
+import android.widget.TextView;
+import android.widget.Toast;
+import androidx.annotation.NonNull;
+import androidx.appcompat.app.AppCompatActivity;
+import com.google.projectgameface.CursorAccessibilityService.ServiceState;
+
+import java.util.Objects;
+
+/**
+ * Calibration session page. Records the neutral face then the maximum activation of every
+ * gesture, the recording itself happens in {@link CursorAccessibilityService}.
+ */
+public class CalibrationActivity extends AppCompatActivity {
+
+    private static final String TAG = "CalibrationActivity";
+
+    /** How long user holds a relaxed face. */
+    private static final long NEUTRAL_DURATION_MS = 4000;
+
+    /** How long user holds each gesture. */
+    private static final long GESTURE_DURATION_MS = 2500;
+
+    /** Short pause between steps so the previous gesture is released. */
+    private static final long STEP_GAP_MS = 1000;
+
+    private static final long PROGRESS_UPDATE_MS = 50;
+
+    BroadcastReceiver stateReceiver;
+    BroadcastReceiver resultReceiver;
+    private boolean isServicePreviouslyEnabled = false;
+
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private LinearLayout cameraBoxPlaceHolder;
+    private Boolean isPlaceHolderLaidOut = false;
+    private TextView stepText;
+    private ProgressBar progressBar;
+    private Button startBtn;
+
+    /** Index of current step, 0 is neutral face and 1.. are the gestures. -1 when not running. */
+    private int currentStep = -1;
+    private long stepStartTimeMs = 0;
+    private long stepDurationMs = 0;
+
+    @Override
+    protected void onCreate(Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+        setContentView(R.layout.activity_calibration);
+        getWindow().addFlags(LayoutParams.FLAG_KEEP_SCREEN_ON);
+
+        Objects.requireNonNull(getSupportActionBar()).setDisplayHomeAsUpEnabled(true);
+        getSupportActionBar().setTitle("Calibrate face");
+
+        checkIfServiceEnabled();
+
+        stepText = findViewById(R.id.calibrationStep);
+        progressBar = findViewById(R.id.calibrationProgressBar);
+        progressBar.setMax(100);
+        startBtn = findViewById(R.id.startBtn);
+
+        stateReceiver = new BroadcastReceiver() {
+            @Override
+            public void onReceive(Context context, Intent intent) {
+                int stateIndex = intent.getIntExtra("state", ServiceState.DISABLE.ordinal());
+                isServicePreviouslyEnabled =
+                    Objects.requireNonNull(ServiceState.values()[stateIndex]) != ServiceState.DISABLE;
+            }
+        };
+
+        resultReceiver = new BroadcastReceiver() {
+            @Override
+            public void onReceive(Context context, Intent intent) {
+                boolean success = intent.getBooleanExtra("success", false);
+                String text = success
+                    ? "Calibration completed!"
+                    : "Calibration failed, keep your face in the camera view and try again.";
+                Toast.makeText(getBaseContext(), text, Toast.LENGTH_LONG).show();
+                if (success) {
+                    finish();
+                } else {
+                    stepText.setText("Calibrate face");
+                    startBtn.setEnabled(true);
+                }
+            }
+        };
+
+        cameraBoxPlaceHolder = findViewById(R.id.cameraBoxPlaceHolder);
+
+        // Move camera window to match the cameraBoxPlaceHolder in the layout.
+        cameraBoxPlaceHolder.getViewTreeObserver().addOnGlobalLayoutListener(new ViewTreeObserver.OnGlobalLayoutListener() {
+            @Override
+            public void onGlobalLayout() {
+                isPlaceHolderLaidOut = true;
+                int[] locationOnScreen = new int[2];
+                cameraBoxPlaceHolder.getLocationOnScreen(locationOnScreen);
+                fitCameraBoxToPlaceHolder(locationOnScreen[0], locationOnScreen[1],
+                    cameraBoxPlaceHolder.getWidth(), cameraBoxPlaceHolder.getHeight());
+
+                cameraBoxPlaceHolder.getViewTreeObserver().removeOnGlobalLayoutListener(this);
+            }
+        });
+
+        startBtn.setOnClickListener(v -> {
+            startBtn.setEnabled(false);
+            sendCalibrationCommand("START", null);
+            startStep(0);
+        });
+
+        findViewById(R.id.resetCalibrationBtn).setOnClickListener(v -> {
+            // An empty calibration removes the stored keys.
+            new BlendshapeCalibration().writeToSharedPreference(
+                getSharedPreferences("GameFaceLocalConfig", Context.MODE_PRIVATE));
+            ConfigRepository.getInstance(this).notifyGestureConfigChanged(BlendshapeCalibration.CONFIG_NAME);
+            Toast.makeText(getBaseContext(), "Calibration removed", Toast.LENGTH_SHORT).show();
+        });
+
+        findViewById(R.id.backBtn).setOnClickListener(v -> finish());
+
+        registerReceiver(resultReceiver, new IntentFilter("CALIBRATION_RESULT"), RECEIVER_EXPORTED);
+        registerReceiver(stateReceiver, new IntentFilter("SERVICE_STATE_GESTURE"), RECEIVER_EXPORTED);
+    }
+
+    /** Gestures user can bind, each one gets its own max activation step. */
+    private static BlendshapeEventTriggerConfig.Blendshape getStepBlendshape(int step) {
+        return BlendshapeEventTriggerConfig.BLENDSHAPE_FROM_ORDER_IN_UI.get(step - 1);
+    }
+
+    private static int getTotalSteps() {
+        // Every gesture in UI except NONE, plus the neutral step.
+        return BlendshapeEventTriggerConfig.BLENDSHAPE_FROM_ORDER_IN_UI.size();
+    }
+
+    private void startStep(int step) {
+        currentStep = step;
+        if (step >= getTotalSteps()) {
+            currentStep = -1;
+            stepText.setText("Saving...");
+            sendCalibrationCommand("FINISH", null);
+            return;
+        }
+
+        if (step == 0) {
+            stepText.setText("Relax your face and look at the camera");
+            sendCalibrationCommand("NEUTRAL", null);
+            stepDurationMs = NEUTRAL_DURATION_MS;
+        } else {
+            BlendshapeEventTriggerConfig.Blendshape blendshape = getStepBlendshape(step);
+            stepText.setText("Perform \"" + BlendshapeEventTriggerConfig.BEAUTIFY_BLENDSHAPE_NAME.get(blendshape) + "\" as big as is comfortable");
+            sendCalibrationCommand("MAX", blendshape.name());
+            stepDurationMs = GESTURE_DURATION_MS;
+        }
+        stepStartTimeMs = System.currentTimeMillis();
+        handler.post(updateProgress);
+    }
+
+    private final Runnable updateProgress = new Runnable() {
+        @Override
+        public void run() {
+            if (currentStep < 0) {
+                return;
+            }
+            long elapsed = System.currentTimeMillis() - stepStartTimeMs;
+            progressBar.setProgress((int) Math.min(100, elapsed * 100 / stepDurationMs));
+            if (elapsed < stepDurationMs) {
+                handler.postDelayed(this, PROGRESS_UPDATE_MS);
+                return;
+            }
+            // Step done, let the gesture relax before the next one.
+            sendCalibrationCommand("STOP", null);
+            stepText.setText("Relax");
+            int nextStep = currentStep + 1;
+            handler.postDelayed(() -> startStep(nextStep), STEP_GAP_MS);
+        }
+    };
+
+    private void sendCalibrationCommand(String phase, String blendshapeName) {
+        Intent intent = new Intent("CALIBRATION");
+        intent.putExtra("phase", phase);
+        if (blendshapeName != null) {
+            intent.putExtra("blendshape", blendshapeName);
+        }
+        sendBroadcast(intent);
+    }
+
+    private void fitCameraBoxToPlaceHolder(int placeholderX, int placeholderY,
+                                           int placeHolderWidth, int placeHolderHeight) {
+
+        // Temporary change to GLOBAL_STICK state, calibration samples are recorded there.
+        Intent intentChangeServiceState = new Intent("CHANGE_SERVICE_STATE");
+        intentChangeServiceState.putExtra("state", ServiceState.GLOBAL_STICK.ordinal());
+        sendBroadcast(intentChangeServiceState);
+
+        Intent intentFlyIn = new Intent("FLY_IN_FLOAT_WINDOW");
+        intentFlyIn.putExtra("positionX", placeholderX);
+        intentFlyIn.putExtra("positionY", placeholderY);
+        intentFlyIn.putExtra("width", placeHolderWidth);
+        intentFlyIn.putExtra("height", placeHolderHeight);
+        sendBroadcast(intentFlyIn);
+    }
+
+    public void checkIfServiceEnabled() {
+        // send broadcast to service to check its state.
+        Intent intent = new Intent("REQUEST_SERVICE_STATE");
+        intent.putExtra("state", "gesture");
+        sendBroadcast(intent);
+    }
+
+    private void restorePreviousServiceState() {
+        Intent intentChangeServiceState = new Intent("CHANGE_SERVICE_STATE");
+        intentChangeServiceState.putExtra("state", isServicePreviouslyEnabled
+            ? ServiceState.ENABLE.ordinal()
+            : ServiceState.DISABLE.ordinal());
+        sendBroadcast(intentChangeServiceState);
+    }
+
+    @Override
+    protected void onResume() {
+        super.onResume();
+
+        if (!isPlaceHolderLaidOut) {
+            return;
+        }
+
+        int[] locationOnScreen = new int[2];
+        cameraBoxPlaceHolder.getLocationOnScreen(locationOnScreen);
+        fitCameraBoxToPlaceHolder(locationOnScreen[0], locationOnScreen[1],
+            cameraBoxPlaceHolder.getWidth(), cameraBoxPlaceHolder.getHeight());
+    }
+
+    @Override
+    protected void onPause() {
+        super.onPause();
+        // Leaving the page aborts the session, nothing recorded is kept.
+        if (currentStep >= 0) {
+            currentStep = -1;
+            handler.removeCallbacksAndMessages(null);
+            sendCalibrationCommand("CANCEL", null);
+            stepText.setText("Calibrate face");
+            startBtn.setEnabled(true);
+        }
+        restorePreviousServiceState();
+    }
+
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        handler.removeCallbacksAndMessages(null);
+        try {
+            unregisterReceiver(resultReceiver);
+            unregisterReceiver(stateReceiver);
+        } catch (Exception ignored) {
+
+        }
+    }
+
+    /**
+     * Make back button work as back action in device's navigation.
+     * @param item The menu item that was selected.
+     */
+    @Override
+    public boolean onOptionsItemSelected(@NonNull MenuItem item) {
+        if (item.getItemId() == android.R.id.home) {
+            finish();
+            return true;
+        }
+        return super.onOptionsItemSelected(item);
+    }
+}
@@ -28,41 +28,74 @@ import android.util.AttributeSet;
 import android.view.View;
 import androidx.core.content.ContextCompat;
 
-/** The camera overlay of camera feed. */
+/**
+ * The camera overlay of camera feed.
+ *
+ * <p>Values pushed every tick only cause a redraw when what is drawn changes, rounded to whole
+ * pixels and to the shown precision. Text is formatted into reusable char buffers, a draw allocates
+ * nothing.
+ */
 public class CameraBoxOverlay extends View {
 
     private static final int DEBUG_TEXT_LOC_X = 10;
     private static final int DEBUG_TEXT_LOC_Y = 250;
 
+    private static final int LOOKING_TEXT_Y = 30;
+    private static final int NORMAL_TEXT_Y = 55;
+    private static final int VALIDATION_TEXT_Y = 80;
+
+    private static final float DOT_RADIUS = 5.f;
+
+    /** Text lines are invalidated this far above and below their baseline. */
+    private static final int TEXT_ASCENT = 36;
+    private static final int TEXT_DESCENT = 12;
+
+    private static final String LOOKING_TEXT = "Looking";
+    private static final String WAITING_TEXT = "Waiting...";
+    private static final String NOT_LOOKING_TEXT = "Not looking";
+
     /** White dot on user head. */
-    private float whiteDotX = -100.f;
-    private float whiteDotY = -100.f;
+    private int whiteDotX = -100;
+    private int whiteDotY = -100;
 
     /** Red dot on nose tip. */
-    private float noseDotX = -100.f;
-    private float noseDotY = -100.f;
+    private int noseDotX = -100;
+    private int noseDotY = -100;
 
     /** Blue dot on nose bridge. */
-    private float noseBridgeX = -100.f;
-    private float noseBridgeY = -100.f;
+    private int noseBridgeX = -100;
+    private int noseBridgeY = -100;
 
     /** Gaze line data. */
-    private float gazeEndX = -100.f;
-    private float gazeEndY = -100.f;
+    private int gazeEndX = -100;
+    private int gazeEndY = -100;
     private boolean isLooking = false;
     private boolean gazeEnabled = true;
     private boolean isWaiting = false;
     private int failedValidationCheck = 0;
     private static final float GAZE_LINE_LENGTH = 40.f;
 
-    /** Debug: face normal values for display. */
-    private float debugNormalX = 0.f;
-    private float debugNormalY = 0.f;
-    private float debugNormalZ = 0.f;
+    /** Face normal in hundredths, as shown. */
+    private int debugNormalX = 0;
+    private int debugNormalY = 0;
+    private int debugNormalZ = 0;
+    private final char[] normalText = new char[32];
+    private int normalTextLength = 0;
+
+    private final char[] validationText = new char[40];
+    private int validationTextLength = 0;
+
+    private long preprocessTimeMs = -1;
+    private long mediapipeTimeMs = -1;
+    private final char[] preprocessTimeText = new char[32];
+    private int preprocessTimeTextLength = 0;
+    private final char[] mediapipeTimeText = new char[32];
+    private int mediapipeTimeTextLength = 0;
+    private boolean isPauseShown = false;
 
-    private String preprocessTimeText = "";
-    private String mediapipeTimeText = "";
-    private String pauseIndicatorText = "";
+    private boolean isDebugEnabled = true;
+
+    private int invalidateCount = 0;
 
     private Paint paint;
     private Paint nosePaint;
@@ -103,105 +136,238 @@ public class CameraBoxOverlay extends View {
         gazePaintYellow.setColor(ContextCompat.getColor(getContext(), android.R.color.holo_orange_light));
         gazePaintYellow.setStrokeWidth(3);
         gazePaintYellow.setTextSize(24);
+
+        normalTextLength = formatNormal(normalText, 0, 0, 0);
     }
 
     @Override
     protected void onDraw(Canvas canvas) {
         super.onDraw(canvas);
+        if (!isDebugEnabled) {
+            return;
+        }
 
         // Debug dots: white=forehead, red=nose tip, blue=nose bridge
-        canvas.drawCircle(whiteDotX, whiteDotY, 5, paint);
-        canvas.drawCircle(noseDotX, noseDotY, 5, nosePaint);
-        canvas.drawCircle(noseBridgeX, noseBridgeY, 5, noseBridgePaint);
+        canvas.drawCircle(whiteDotX, whiteDotY, DOT_RADIUS, paint);
+        canvas.drawCircle(noseDotX, noseDotY, DOT_RADIUS, nosePaint);
+        canvas.drawCircle(noseBridgeX, noseBridgeY, DOT_RADIUS, noseBridgePaint);
 
         // Debug: face normal line (direction face is pointing)
         // Use neutral color (white) when gaze auto-pause is disabled
-        Paint gazePaint;
-        if (!gazeEnabled) {
-            gazePaint = paint;
-        } else if (isWaiting) {
-            gazePaint = gazePaintYellow;
-        } else if (isLooking) {
-            gazePaint = gazePaintGreen;
-        } else {
-            gazePaint = gazePaintRed;
-        }
+        Paint gazePaint = getGazePaint();
         canvas.drawLine(noseBridgeX, noseBridgeY, gazeEndX, gazeEndY, gazePaint);
 
         // Debug: looking status (only show when gaze auto-pause is enabled)
         if (gazeEnabled) {
             String lookingText;
             if (isWaiting) {
-                lookingText = "Waiting...";
+                lookingText = WAITING_TEXT;
             } else if (isLooking) {
-                lookingText = "Looking";
+                lookingText = LOOKING_TEXT;
             } else {
-                lookingText = "Not looking";
+                lookingText = NOT_LOOKING_TEXT;
             }
-            canvas.drawText(lookingText, DEBUG_TEXT_LOC_X, 30, gazePaint);
+            canvas.drawText(lookingText, DEBUG_TEXT_LOC_X, LOOKING_TEXT_Y, gazePaint);
         }
 
         // Debug: face normal vector values
-        String normalText = String.format("N:(%.2f,%.2f,%.2f)", debugNormalX, debugNormalY, debugNormalZ);
-        canvas.drawText(normalText, DEBUG_TEXT_LOC_X, 55, paint);
+        canvas.drawText(normalText, 0, normalTextLength, DEBUG_TEXT_LOC_X, NORMAL_TEXT_Y, paint);
 
         // Debug: validation status (shows if plausibility check is blocking tracking)
         if (failedValidationCheck > 0) {
-            canvas.drawText("Validation failed (check " + failedValidationCheck + ")", DEBUG_TEXT_LOC_X, 80, gazePaintRed);
+            canvas.drawText(validationText, 0, validationTextLength,
+                DEBUG_TEXT_LOC_X, VALIDATION_TEXT_Y, gazePaintRed);
         }
 
-        canvas.drawText(preprocessTimeText, DEBUG_TEXT_LOC_X, DEBUG_TEXT_LOC_Y, paint);
-        canvas.drawText(mediapipeTimeText, DEBUG_TEXT_LOC_X, DEBUG_TEXT_LOC_Y + 50, paint);
-        canvas.drawText(pauseIndicatorText, DEBUG_TEXT_LOC_X, DEBUG_TEXT_LOC_Y + 100, paint);
+        if (isPauseShown) {
+            canvas.drawText("pause", DEBUG_TEXT_LOC_X, DEBUG_TEXT_LOC_Y + 100, paint);
+        } else {
+            canvas.drawText(preprocessTimeText, 0, preprocessTimeTextLength,
+                DEBUG_TEXT_LOC_X, DEBUG_TEXT_LOC_Y, paint);
+            canvas.drawText(mediapipeTimeText, 0, mediapipeTimeTextLength,
+                DEBUG_TEXT_LOC_X, DEBUG_TEXT_LOC_Y + 50, paint);
+        }
     }
 
-    public void setWhiteDot(float x, float y) {
-        whiteDotX = x;
-        whiteDotY = y;
+    /** Turn the whole debug drawing on or off. */
+    public void setDebugEnabled(boolean isEnabled) {
+        if (isEnabled == isDebugEnabled) {
+            return;
+        }
+        isDebugEnabled = isEnabled;
         invalidate();
     }
 
+    public boolean isDebugEnabled() {
+        return isDebugEnabled;
+    }
+
+    private Paint getGazePaint() {
+        if (!gazeEnabled) {
+            return paint;
+        } else if (isWaiting) {
+            return gazePaintYellow;
+        } else if (isLooking) {
+            return gazePaintGreen;
+        }
+        return gazePaintRed;
+    }
+
+    public void setWhiteDot(float x, float y) {
+        int newX = Math.round(x);
+        int newY = Math.round(y);
+        if (newX == whiteDotX && newY == whiteDotY) {
+            return;
+        }
+        invalidateDot(whiteDotX, whiteDotY);
+        whiteDotX = newX;
+        whiteDotY = newY;
+        invalidateDot(whiteDotX, whiteDotY);
+    }
+
     public void setNoseDot(float x, float y) {
-        noseDotX = x;
-        noseDotY = y;
-        invalidate();
+        int newX = Math.round(x);
+        int newY = Math.round(y);
+        if (newX == noseDotX && newY == noseDotY) {
+            return;
+        }
+        invalidateDot(noseDotX, noseDotY);
+        noseDotX = newX;
+        noseDotY = newY;
+        invalidateDot(noseDotX, noseDotY);
     }
 
     public void setNoseBridge(float x, float y) {
-        noseBridgeX = x;
-        noseBridgeY = y;
-        invalidate();
+        int newX = Math.round(x);
+        int newY = Math.round(y);
+        if (newX == noseBridgeX && newY == noseBridgeY) {
+            return;
+        }
+        invalidateGazeLine();
+        noseBridgeX = newX;
+        noseBridgeY = newY;
+        invalidateGazeLine();
     }
 
     public void setGaze(float bridgeX, float bridgeY, float normalX, float normalY, float normalZ, boolean looking, boolean enabled, boolean waiting, int failedCheck) {
-        noseBridgeX = bridgeX;
-        noseBridgeY = bridgeY;
-        gazeEndX = bridgeX + normalX * GAZE_LINE_LENGTH;
-        gazeEndY = bridgeY + normalY * GAZE_LINE_LENGTH;
-        isLooking = looking;
-        gazeEnabled = enabled;
-        isWaiting = waiting;
-        failedValidationCheck = failedCheck;
-        // Store for debug display
-        debugNormalX = normalX;
-        debugNormalY = normalY;
-        debugNormalZ = normalZ;
-        invalidate();
+        int newBridgeX = Math.round(bridgeX);
+        int newBridgeY = Math.round(bridgeY);
+        int newEndX = Math.round(bridgeX + normalX * GAZE_LINE_LENGTH);
+        int newEndY = Math.round(bridgeY + normalY * GAZE_LINE_LENGTH);
+        if (newBridgeX != noseBridgeX || newBridgeY != noseBridgeY
+            || newEndX != gazeEndX || newEndY != gazeEndY) {
+            invalidateGazeLine();
+            noseBridgeX = newBridgeX;
+            noseBridgeY = newBridgeY;
+            gazeEndX = newEndX;
+            gazeEndY = newEndY;
+            invalidateGazeLine();
+        }
+
+        if (looking != isLooking || enabled != gazeEnabled || waiting != isWaiting) {
+            isLooking = looking;
+            gazeEnabled = enabled;
+            isWaiting = waiting;
+            // Color of the line and the looking text.
+            invalidateGazeLine();
+            invalidateTextLine(LOOKING_TEXT_Y);
+        }
+
+        if (failedCheck != failedValidationCheck) {
+            failedValidationCheck = failedCheck;
+            validationTextLength = formatValidation(validationText, failedCheck);
+            invalidateTextLine(VALIDATION_TEXT_Y);
+        }
+
+        // Store for debug display, at the shown precision.
+        int newNormalX = Math.round(normalX * 100);
+        int newNormalY = Math.round(normalY * 100);
+        int newNormalZ = Math.round(normalZ * 100);
+        if (newNormalX != debugNormalX || newNormalY != debugNormalY || newNormalZ != debugNormalZ) {
+            debugNormalX = newNormalX;
+            debugNormalY = newNormalY;
+            debugNormalZ = newNormalZ;
+            normalTextLength = formatNormal(normalText, newNormalX, newNormalY, newNormalZ);
+            invalidateTextLine(NORMAL_TEXT_Y);
+        }
     }
 
     public void setOverlayInfo(long preprocessValue, long mediapipeValue) {
-        preprocessTimeText = "pre: " + preprocessValue + " ms";
-        mediapipeTimeText = "med: " + mediapipeValue + " ms";
-        invalidate();
+        if (preprocessValue != preprocessTimeMs) {
+            preprocessTimeMs = preprocessValue;
+            preprocessTimeTextLength = formatTime(preprocessTimeText, "pre: ", preprocessValue);
+            invalidateTextLine(DEBUG_TEXT_LOC_Y);
+        }
+        if (mediapipeValue != mediapipeTimeMs) {
+            mediapipeTimeMs = mediapipeValue;
+            mediapipeTimeTextLength = formatTime(mediapipeTimeText, "med: ", mediapipeValue);
+            invalidateTextLine(DEBUG_TEXT_LOC_Y + 50);
+        }
     }
 
     public void setPauseIndicator(boolean isPause) {
-        if (isPause) {
-            preprocessTimeText = "";
-            mediapipeTimeText = "";
-            pauseIndicatorText = "pause";
-        } else {
-            pauseIndicatorText = "";
+        if (isPause == isPauseShown) {
+            return;
         }
+        isPauseShown = isPause;
+        invalidateTextLine(DEBUG_TEXT_LOC_Y);
+        invalidateTextLine(DEBUG_TEXT_LOC_Y + 50);
+        invalidateTextLine(DEBUG_TEXT_LOC_Y + 100);
+    }
+
+    private void invalidateDot(int x, int y) {
+        int radius = (int) DOT_RADIUS + 1;
+        invalidateRegion(x - radius, y - radius, x + radius, y + radius);
+    }
+
+    private void invalidateGazeLine() {
+        int pad = (int) DOT_RADIUS + 2;
+        invalidateRegion(Math.min(noseBridgeX, gazeEndX) - pad, Math.min(noseBridgeY, gazeEndY) - pad,
+            Math.max(noseBridgeX, gazeEndX) + pad, Math.max(noseBridgeY, gazeEndY) + pad);
+    }
+
+    private void invalidateTextLine(int baselineY) {
+        invalidateRegion(0, baselineY - TEXT_ASCENT, getWidth(), baselineY + TEXT_DESCENT);
+    }
+
+    /**
+     * Invalidate only the changed region. A hardware accelerated view still redraws as a whole,
+     * but software layers and the skipped unchanged values save the rest.
+     */
+    @SuppressWarnings("deprecation")
+    private void invalidateRegion(int left, int top, int right, int bottom) {
+        invalidate(left, top, right, bottom);
+        invalidateCount++;
+    }
+
+    /** How many regions were invalidated, for checking the overlay is not redrawn for nothing. */
+    int getInvalidateCount() {
+        return invalidateCount;
+    }
+
+    /** Format "N:(x,y,z)" from hundredths, returns the length. */
+    static int formatNormal(char[] out, int hundredthsX, int hundredthsY, int hundredthsZ) {
+        int length = CharFormat.appendText(out, 0, "N:(");
+        length = CharFormat.appendHundredths(out, length, hundredthsX);
+        out[length++] = ',';
+        length = CharFormat.appendHundredths(out, length, hundredthsY);
+        out[length++] = ',';
+        length = CharFormat.appendHundredths(out, length, hundredthsZ);
+        out[length++] = ')';
+        return length;
+    }
+
+    /** Format "prefix N ms", returns the length. */
+    static int formatTime(char[] out, String prefix, long valueMs) {
+        int length = CharFormat.appendText(out, 0, prefix);
+        length = CharFormat.appendLong(out, length, valueMs);
+        return CharFormat.appendText(out, length, " ms");
+    }
+
+    static int formatValidation(char[] out, int failedCheck) {
+        int length = CharFormat.appendText(out, 0, "Validation failed (check ");
+        length = CharFormat.appendLong(out, length, failedCheck);
+        out[length++] = ')';
+        return length;
     }
-}
\ No newline at end of file
+}
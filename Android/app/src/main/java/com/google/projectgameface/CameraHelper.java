@@ -12,6 +12,10 @@
  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
  * See the License for the specific language governing permissions and
  * limitations under the License.
+ *
+ * MODIFICATION NOTICE
+ * as per the licence its required to give notice that this code has been modified by a third party.
+ * 2026 - Helgi Steinarr Juliusson, changes can be found in version control.
  */
 package com.google.projectgameface;
 
@@ -19,9 +23,9 @@ import android.content.Context;
 import android.hardware.camera2.CameraAccessException;
 import android.hardware.camera2.CameraCharacteristics;
 import android.hardware.camera2.CameraManager;
-import android.util.Log;
 
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import androidx.camera.core.CameraSelector;
 import androidx.camera.core.ImageAnalysis;
 import androidx.camera.core.Preview;
@@ -34,13 +38,11 @@ import androidx.lifecycle.LifecycleOwner;
 /** The camera manager of GameFace app. */
 public final class CameraHelper {
   static final String TAG = "CameraHelper";
-  public static void bindPreview(
-      @NonNull ProcessCameraProvider cameraProvider,
-      PreviewView previewView,
-      ImageAnalysis imageAnalyzer,
-      LifecycleOwner lifecycleOwner) {
+  private static final CameraSelector FRONT_CAMERA =
+      new CameraSelector.Builder().requireLensFacing(CameraSelector.LENS_FACING_FRONT).build();
 
-    cameraProvider.unbindAll();
+  /** Preview use case drawing into the camera box. */
+  public static Preview createPreview(PreviewView previewView) {
     Preview preview =
         new Preview.Builder()
             .setResolutionSelector(
@@ -48,13 +50,53 @@ public final class CameraHelper {
                     .setAspectRatioStrategy(AspectRatioStrategy.RATIO_4_3_FALLBACK_AUTO_STRATEGY)
                     .build())
             .build();
+    preview.setSurfaceProvider(previewView.getSurfaceProvider());
+    return preview;
+  }
 
+  /**
+   * Bind the front camera, replacing any previous binding.
+   *
+   * @param preview Preview to bind next to the analysis, null for analysis only.
+   */
+  public static void bindCamera(
+      @NonNull ProcessCameraProvider cameraProvider,
+      @Nullable Preview preview,
+      ImageAnalysis imageAnalyzer,
+      LifecycleOwner lifecycleOwner) {
+    cameraProvider.unbindAll();
+    if (preview == null) {
+      cameraProvider.bindToLifecycle(lifecycleOwner, FRONT_CAMERA, imageAnalyzer);
+    } else {
+      cameraProvider.bindToLifecycle(lifecycleOwner, FRONT_CAMERA, preview, imageAnalyzer);
+    }
+  }
 
-    CameraSelector cameraSelector =
-        new CameraSelector.Builder().requireLensFacing(CameraSelector.LENS_FACING_FRONT).build();
-
-    preview.setSurfaceProvider(previewView.getSurfaceProvider());
-    cameraProvider.bindToLifecycle(lifecycleOwner, cameraSelector, preview, imageAnalyzer);
+  /**
+   * Add or remove the preview of a running binding. The analysis stays bound, it only misses the
+   * frames of the capture session reconfiguration.
+   *
+   * @return Whether the binding changed.
+   */
+  public static boolean setPreviewBound(
+      @NonNull ProcessCameraProvider cameraProvider,
+      @NonNull Preview preview,
+      LifecycleOwner lifecycleOwner,
+      boolean isBound) {
+    if (cameraProvider.isBound(preview) == isBound) {
+      return false;
+    }
+    try {
+      if (isBound) {
+        cameraProvider.bindToLifecycle(lifecycleOwner, FRONT_CAMERA, preview);
+      } else {
+        cameraProvider.unbind(preview);
+      }
+    } catch (IllegalArgumentException | IllegalStateException e) {
+      AppLog.w(TAG, "Failed to change preview binding: {}", e.getMessage());
+      return false;
+    }
+    return true;
   }
 
   /**
@@ -74,7 +116,7 @@ public final class CameraHelper {
 
         if (isFrontCamera) {
           int orientation = characteristics.get(CameraCharacteristics.SENSOR_ORIENTATION);
-          Log.i(TAG, "checkFrontCameraOrientation: " + orientation);
+          AppLog.i(TAG, "checkFrontCameraOrientation: {}", orientation);
           return orientation;
         }
 
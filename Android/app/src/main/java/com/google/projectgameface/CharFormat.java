@@ -0,0 +1,76 @@
+/*
+ * Copyright 2024 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * MODIFICATION NOTICE
+ * as per the licence its required to give notice that this code has been modified by a third party.
+ * 2026 - Helgi Steinarr Juliusson, changes can be found in version control.
+ */
+package com.google.projectgameface;
+
+/**
+ * Number formatting into caller owned char buffers, for text drawn every frame without allocating
+ * Strings. Each method writes at an offset and returns the offset after the written chars.
+ */
+final class CharFormat {
+
+  static int appendText(char[] out, int offset, String text) {
+    text.getChars(0, text.length(), out, offset);
+    return offset + text.length();
+  }
+
+  static int appendLong(char[] out, int offset, long value) {
+    if (value < 0) {
+      out[offset++] = '-';
+      value = -value;
+    }
+    int digits = 1;
+    for (long rest = value / 10; rest > 0; rest /= 10) {
+      digits++;
+    }
+    for (int i = offset + digits - 1; i >= offset; i--) {
+      out[i] = (char) ('0' + value % 10);
+      value /= 10;
+    }
+    return offset + digits;
+  }
+
+  /** Append a value given in hundredths with two decimals, like {@code %.2f}. */
+  static int appendHundredths(char[] out, int offset, long hundredths) {
+    if (hundredths < 0) {
+      out[offset++] = '-';
+      hundredths = -hundredths;
+    }
+    offset = appendLong(out, offset, hundredths / 100);
+    out[offset++] = '.';
+    out[offset++] = (char) ('0' + (hundredths / 10) % 10);
+    out[offset++] = (char) ('0' + hundredths % 10);
+    return offset;
+  }
+
+  /** Append with one decimal, like {@code %.1f}. */
+  static int appendOneDecimal(char[] out, int offset, float value) {
+    long tenths = Math.round(value * 10.0);
+    if (tenths < 0) {
+      out[offset++] = '-';
+      tenths = -tenths;
+    }
+    offset = appendLong(out, offset, tenths / 10);
+    out[offset++] = '.';
+    out[offset++] = (char) ('0' + tenths % 10);
+    return offset;
+  }
+
+  private CharFormat() {}
+}
@@ -12,11 +12,14 @@
  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
  * See the License for the specific language governing permissions and
  * limitations under the License.
+ *
+ * MODIFICATION NOTICE
+ * as per the licence its required to give notice that this code has been modified by a third party.
+ * 2026 - Helgi Steinarr Juliusson, changes can be found in version control.
  */
 
 package com.google.projectgameface;
 
-import android.util.Log;
 import android.view.MenuItem;
 import android.view.WindowManager.LayoutParams;
 import androidx.annotation.NonNull;
@@ -220,11 +223,11 @@ public class ChooseGestureActivity extends AppCompatActivity {
 
         if (pageEventType == null)
         {
-            Log.e(TAG, "Start intent with invalid extra EventType.");
+            AppLog.e(TAG, "Start intent with invalid extra EventType.");
             finish();
             return;
         }
-        Log.i(TAG, "onCreate: " + pageEventType);
+        AppLog.i(TAG, "onCreate: {}", pageEventType);
 
         String pageDescription = BlendshapeEventTriggerConfig.getActionDescription(this, pageEventType);
         ((TextView)findViewById(R.id.actionDescriptionText)).setText(pageDescription);
@@ -262,7 +265,7 @@ public class ChooseGestureActivity extends AppCompatActivity {
                     Toast toast = Toast.makeText(getBaseContext(), text, duration);
                     toast.show();
                 } catch (Exception e) {
-                    Log.i(TAG, e.toString());
+                    AppLog.i(TAG, e.toString());
                 }
 
                 Intent intentBack = new Intent(getBaseContext(), CursorBinding.class);
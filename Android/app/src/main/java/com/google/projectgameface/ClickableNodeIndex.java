@@ -0,0 +1,596 @@
+/*
+ * Copyright 2024 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * MODIFICATION NOTICE
+ * as per the licence its required to give notice that this code has been modified by a third party.
+ * 2026 - Helgi Steinarr Juliusson, changes can be found in version control.
+ */
+package com.google.projectgameface;
+
+import android.accessibilityservice.AccessibilityService;
+import android.graphics.Rect;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.Message;
+import android.os.SystemClock;
+import android.util.SparseBooleanArray;
+import android.view.accessibility.AccessibilityEvent;
+import android.view.accessibility.AccessibilityNodeInfo;
+import android.view.accessibility.AccessibilityWindowInfo;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Index of the clickable and scrollable nodes on screen, for finding the target under or near the
+ * cursor without walking the node tree on the main thread.
+ *
+ * <p>The index is rebuilt on a background thread from window change events. Events are batched for
+ * {@value DEBOUNCE_MS} ms, and a content change only rebuilds the window it came from. Each
+ * rebuild publishes an immutable {@link Snapshot} that the main thread can query at any time.
+ *
+ * <p>Walked nodes that are not indexed are recycled right away. The nodes of a replaced snapshot
+ * are recycled when it is replaced, except those carried over into the new one, so users take a
+ * copy with {@link Snapshot#obtainNode}.
+ */
+class ClickableNodeIndex {
+  private static final String TAG = "ClickableNodeIndex";
+
+  static final int FLAG_CLICKABLE = 1;
+  static final int FLAG_LONG_CLICKABLE = 1 << 1;
+  static final int FLAG_SCROLLABLE = 1 << 2;
+
+  /** Events within this time are handled by one rebuild. */
+  static final long DEBOUNCE_MS = 100;
+
+  /** Stop walking a window after this many nodes, a runaway tree must not stall the index. */
+  private static final int MAX_NODES_PER_WINDOW = 3000;
+
+  private static final int MSG_INVALIDATE_WINDOW = 1;
+  private static final int MSG_INVALIDATE_ALL = 2;
+  private static final int MSG_REBUILD = 3;
+  private static final int MSG_CLEAR = 4;
+
+  private final AccessibilityService service;
+  private final HandlerThread thread;
+  private final Handler handler;
+
+  private volatile Snapshot snapshot = Snapshot.EMPTY;
+
+  /** Main thread only. */
+  private boolean isEnabled = false;
+
+  // Only touched on the index thread.
+  private final SparseBooleanArray dirtyWindowIds = new SparseBooleanArray();
+  private boolean isAllDirty = false;
+  private boolean isRebuildScheduled = false;
+  private final ArrayDeque<AccessibilityNodeInfo> walkStack = new ArrayDeque<>();
+  private final Rect walkBounds = new Rect();
+
+  private volatile int rebuildCount = 0;
+  private volatile long lastRebuildDurationMs = 0;
+
+  ClickableNodeIndex(AccessibilityService service) {
+    this.service = service;
+    thread = new HandlerThread("ClickableNodeIndexThread");
+    thread.start();
+    handler = new Handler(thread.getLooper()) {
+      @Override
+      public void handleMessage(Message msg) {
+        switch (msg.what) {
+          case MSG_INVALIDATE_WINDOW:
+            dirtyWindowIds.put(msg.arg1, true);
+            scheduleRebuild();
+            break;
+          case MSG_INVALIDATE_ALL:
+            isAllDirty = true;
+            scheduleRebuild();
+            break;
+          case MSG_REBUILD:
+            isRebuildScheduled = false;
+            rebuild();
+            break;
+          case MSG_CLEAR:
+            removeMessages(MSG_REBUILD);
+            isRebuildScheduled = false;
+            isAllDirty = false;
+            dirtyWindowIds.clear();
+            replaceSnapshot(Snapshot.EMPTY);
+            break;
+          default:
+            break;
+        }
+      }
+    };
+  }
+
+  /**
+   * Feed an event from {@link AccessibilityService#onAccessibilityEvent}. Cheap, only the type and
+   * window id are read here, the event is recycled after the call.
+   */
+  void onAccessibilityEvent(AccessibilityEvent event) {
+    if (!isEnabled) {
+      return;
+    }
+    switch (event.getEventType()) {
+      case AccessibilityEvent.TYPE_WINDOW_CONTENT_CHANGED:
+      case AccessibilityEvent.TYPE_VIEW_SCROLLED:
+        // Bounds inside one window moved.
+        Message.obtain(handler, MSG_INVALIDATE_WINDOW, event.getWindowId(), 0).sendToTarget();
+        break;
+      case AccessibilityEvent.TYPE_WINDOWS_CHANGED:
+      case AccessibilityEvent.TYPE_WINDOW_STATE_CHANGED:
+        // Windows appeared, went away or moved.
+        invalidateAll();
+        break;
+      default:
+        break;
+    }
+  }
+
+  /**
+   * Start or stop indexing. Starting indexes every window, stopping drops the snapshot so no stale
+   * node is kept around.
+   */
+  void setEnabled(boolean isEnabled) {
+    if (isEnabled == this.isEnabled) {
+      return;
+    }
+    this.isEnabled = isEnabled;
+    if (isEnabled) {
+      invalidateAll();
+    } else {
+      handler.sendEmptyMessage(MSG_CLEAR);
+    }
+  }
+
+  boolean isEnabled() {
+    return isEnabled;
+  }
+
+  /** Rebuild every window. */
+  void invalidateAll() {
+    handler.sendEmptyMessage(MSG_INVALIDATE_ALL);
+  }
+
+  /**
+   * The rebuild runs {@value DEBOUNCE_MS} ms after the first event of a batch. Later events of the
+   * batch do not push it back, so continuous changes still get indexed.
+   */
+  private void scheduleRebuild() {
+    if (!isRebuildScheduled) {
+      isRebuildScheduled = true;
+      handler.sendEmptyMessageDelayed(MSG_REBUILD, DEBOUNCE_MS);
+    }
+  }
+
+  private void rebuild() {
+    long startMs = SystemClock.uptimeMillis();
+    List<AccessibilityWindowInfo> windows;
+    try {
+      windows = service.getWindows();
+    } catch (RuntimeException e) {
+      AppLog.w(TAG, "Cannot get windows: {}", e.getMessage());
+      return;
+    }
+    if (windows == null) {
+      return;
+    }
+
+    Snapshot previous = snapshot;
+    Snapshot.Builder builder = new Snapshot.Builder();
+    int visitedCount = 0;
+    for (AccessibilityWindowInfo window : windows) {
+      if (window.getType() == AccessibilityWindowInfo.TYPE_ACCESSIBILITY_OVERLAY) {
+        // Our own cursor and camera box.
+        continue;
+      }
+      int windowId = window.getId();
+      if (!isAllDirty && !dirtyWindowIds.get(windowId) && previous.hasWindow(windowId)) {
+        builder.addWindowFrom(previous, windowId);
+        continue;
+      }
+      builder.addIndexedWindow(windowId);
+      visitedCount += walkWindow(window, windowId, builder);
+    }
+    isAllDirty = false;
+    dirtyWindowIds.clear();
+
+    replaceSnapshot(builder.build());
+    rebuildCount++;
+    lastRebuildDurationMs = SystemClock.uptimeMillis() - startMs;
+    AppLog.d(TAG, "Indexed {} targets, visited {} nodes in {} ms",
+        snapshot.size(), visitedCount, lastRebuildDurationMs);
+  }
+
+  private void replaceSnapshot(Snapshot next) {
+    Snapshot previous = snapshot;
+    snapshot = next;
+    previous.releaseNodes(next);
+  }
+
+  /** Add the targets of one window, returns how many nodes were visited. */
+  private int walkWindow(AccessibilityWindowInfo window, int windowId, Snapshot.Builder builder) {
+    AccessibilityNodeInfo root = window.getRoot();
+    if (root == null) {
+      return 0;
+    }
+    int visitedCount = 0;
+    walkStack.clear();
+    walkStack.push(root);
+    while (!walkStack.isEmpty() && visitedCount < MAX_NODES_PER_WINDOW) {
+      AccessibilityNodeInfo node = walkStack.pop();
+      visitedCount++;
+      if (!node.isVisibleToUser()) {
+        node.recycle();
+        continue;
+      }
+      int flags = (node.isClickable() ? FLAG_CLICKABLE : 0)
+          | (node.isLongClickable() ? FLAG_LONG_CLICKABLE : 0)
+          | (node.isScrollable() ? FLAG_SCROLLABLE : 0);
+      int countBefore = builder.size();
+      if (flags != 0 && node.isEnabled()) {
+        node.getBoundsInScreen(walkBounds);
+        if (!walkBounds.isEmpty()) {
+          builder.add(walkBounds.left, walkBounds.top, walkBounds.right, walkBounds.bottom,
+              flags, windowId, node);
+        }
+      }
+      for (int i = node.getChildCount() - 1; i >= 0; i--) {
+        AccessibilityNodeInfo child = node.getChild(i);
+        if (child != null) {
+          walkStack.push(child);
+        }
+      }
+      if (builder.size() == countBefore) {
+        node.recycle();
+      }
+    }
+    // Left over beyond the node limit.
+    while (!walkStack.isEmpty()) {
+      walkStack.pop().recycle();
+    }
+    return visitedCount;
+  }
+
+  /** Latest index, safe to keep and query from any thread. */
+  Snapshot getSnapshot() {
+    return snapshot;
+  }
+
+  int getRebuildCount() {
+    return rebuildCount;
+  }
+
+  long getLastRebuildDurationMs() {
+    return lastRebuildDurationMs;
+  }
+
+  void release() {
+    thread.quitSafely();
+    replaceSnapshot(Snapshot.EMPTY);
+  }
+
+  /**
+   * Immutable set of targets in a uniform grid. A query only looks at the cells around the point,
+   * so its cost depends on how crowded that part of the screen is, not on the number of targets.
+   */
+  static final class Snapshot {
+    static final Snapshot EMPTY = new Builder().build();
+
+    /** Grid cell edge, about the size of a list item. */
+    static final int CELL_SIZE_PX = 128;
+
+    private final int count;
+    private final int[] lefts;
+    private final int[] tops;
+    private final int[] rights;
+    private final int[] bottoms;
+    private final int[] flags;
+    private final int[] windowIds;
+    private final AccessibilityNodeInfo[] nodes;
+
+    /** Windows walked for this snapshot, including those without targets. */
+    private final int[] indexedWindowIds;
+
+    private final int columns;
+    private final int rows;
+    /** Targets of cell c are cellItems[cellStarts[c]] until cellItems[cellStarts[c + 1]]. */
+    private final int[] cellStarts;
+    private final int[] cellItems;
+
+    /** The nodes were recycled, guarded by this. */
+    private boolean isReleased = false;
+
+    private Snapshot(Builder builder) {
+      count = builder.count;
+      lefts = Arrays.copyOf(builder.lefts, count);
+      tops = Arrays.copyOf(builder.tops, count);
+      rights = Arrays.copyOf(builder.rights, count);
+      bottoms = Arrays.copyOf(builder.bottoms, count);
+      flags = Arrays.copyOf(builder.flags, count);
+      windowIds = Arrays.copyOf(builder.windowIds, count);
+      nodes = Arrays.copyOf(builder.nodes, count);
+      indexedWindowIds = Arrays.copyOf(builder.indexedWindowIds, builder.indexedWindowCount);
+
+      int maxRight = 0;
+      int maxBottom = 0;
+      for (int i = 0; i < count; i++) {
+        maxRight = Math.max(maxRight, rights[i]);
+        maxBottom = Math.max(maxBottom, bottoms[i]);
+      }
+      columns = maxRight / CELL_SIZE_PX + 1;
+      rows = maxBottom / CELL_SIZE_PX + 1;
+
+      // Counting sort of targets into the cells they overlap.
+      cellStarts = new int[columns * rows + 1];
+      for (int i = 0; i < count; i++) {
+        for (int row = toRow(tops[i]); row <= toRow(bottoms[i] - 1); row++) {
+          for (int col = toColumn(lefts[i]); col <= toColumn(rights[i] - 1); col++) {
+            cellStarts[row * columns + col + 1]++;
+          }
+        }
+      }
+      for (int c = 0; c < columns * rows; c++) {
+        cellStarts[c + 1] += cellStarts[c];
+      }
+      cellItems = new int[cellStarts[columns * rows]];
+      int[] fill = Arrays.copyOf(cellStarts, columns * rows);
+      for (int i = 0; i < count; i++) {
+        for (int row = toRow(tops[i]); row <= toRow(bottoms[i] - 1); row++) {
+          for (int col = toColumn(lefts[i]); col <= toColumn(rights[i] - 1); col++) {
+            cellItems[fill[row * columns + col]++] = i;
+          }
+        }
+      }
+    }
+
+    private int toColumn(float x) {
+      return Math.max(0, Math.min(columns - 1, (int) Math.floor(x / CELL_SIZE_PX)));
+    }
+
+    private int toRow(float y) {
+      return Math.max(0, Math.min(rows - 1, (int) Math.floor(y / CELL_SIZE_PX)));
+    }
+
+    int size() {
+      return count;
+    }
+
+    boolean hasWindow(int windowId) {
+      for (int id : indexedWindowIds) {
+        if (id == windowId) {
+          return true;
+        }
+      }
+      return false;
+    }
+
+    /**
+     * Find the smallest target containing a point, the innermost one when targets are nested.
+     *
+     * @param flagMask Only targets having any of these flags.
+     * @return Target index, or -1.
+     */
+    int findAt(float x, float y, int flagMask) {
+      return findAt(x, y, flagMask, Long.MAX_VALUE);
+    }
+
+    /**
+     * Same as {@link #findAt(float, float, int)}, ignoring targets larger than maxArea, like a
+     * clickable background behind everything.
+     */
+    int findAt(float x, float y, int flagMask, long maxArea) {
+      if (count == 0) {
+        return -1;
+      }
+      int cell = toRow(y) * columns + toColumn(x);
+      int best = -1;
+      long bestArea = Long.MAX_VALUE;
+      for (int k = cellStarts[cell]; k < cellStarts[cell + 1]; k++) {
+        int i = cellItems[k];
+        if ((flags[i] & flagMask) == 0 || getArea(i) > maxArea
+            || x < lefts[i] || x >= rights[i] || y < tops[i] || y >= bottoms[i]) {
+          continue;
+        }
+        long area = getArea(i);
+        if (area < bestArea) {
+          best = i;
+          bestArea = area;
+        }
+      }
+      return best;
+    }
+
+    /**
+     * Find the target closest to a point. Distance is to the target's edge, zero inside it, ties
+     * go to the smaller target.
+     *
+     * @param maxDistance Ignore targets further away than this.
+     * @param flagMask Only targets having any of these flags.
+     * @return Target index, or -1.
+     */
+    int findNearest(float x, float y, float maxDistance, int flagMask) {
+      return findNearest(x, y, maxDistance, flagMask, Long.MAX_VALUE);
+    }
+
+    /**
+     * Same as {@link #findNearest(float, float, float, int)}, ignoring targets larger than maxArea.
+     */
+    int findNearest(float x, float y, float maxDistance, int flagMask, long maxArea) {
+      if (count == 0) {
+        return -1;
+      }
+      int best = -1;
+      float bestDistance = maxDistance;
+      long bestArea = Long.MAX_VALUE;
+      int lastRow = toRow(y + maxDistance);
+      int lastColumn = toColumn(x + maxDistance);
+      for (int row = toRow(y - maxDistance); row <= lastRow; row++) {
+        for (int col = toColumn(x - maxDistance); col <= lastColumn; col++) {
+          int cell = row * columns + col;
+          for (int k = cellStarts[cell]; k < cellStarts[cell + 1]; k++) {
+            int i = cellItems[k];
+            if ((flags[i] & flagMask) == 0 || getArea(i) > maxArea) {
+              continue;
+            }
+            float distance = getDistance(i, x, y);
+            long area = getArea(i);
+            if (distance < bestDistance || (distance == bestDistance && area < bestArea)) {
+              best = i;
+              bestDistance = distance;
+              bestArea = area;
+            }
+          }
+        }
+      }
+      return best;
+    }
+
+    /** Distance from a point to the edge of a target, zero if inside. */
+    float getDistance(int index, float x, float y) {
+      float dx = Math.max(0.f, Math.max(lefts[index] - x, x - rights[index]));
+      float dy = Math.max(0.f, Math.max(tops[index] - y, y - bottoms[index]));
+      return (float) Math.hypot(dx, dy);
+    }
+
+    long getArea(int index) {
+      return (long) (rights[index] - lefts[index]) * (bottoms[index] - tops[index]);
+    }
+
+    void getBounds(int index, Rect outBounds) {
+      outBounds.set(lefts[index], tops[index], rights[index], bottoms[index]);
+    }
+
+    float getCenterX(int index) {
+      return (lefts[index] + rights[index]) / 2.f;
+    }
+
+    float getCenterY(int index) {
+      return (tops[index] + bottoms[index]) / 2.f;
+    }
+
+    int getFlags(int index) {
+      return flags[index];
+    }
+
+    /**
+     * Copy of the node of the target, may be stale by now. The caller recycles it. Null for
+     * targets added without one, or once this snapshot was replaced.
+     */
+    synchronized AccessibilityNodeInfo obtainNode(int index) {
+      if (isReleased || nodes[index] == null) {
+        return null;
+      }
+      return AccessibilityNodeInfo.obtain(nodes[index]);
+    }
+
+    /** Recycle the nodes that the snapshot replacing this one does not use. */
+    synchronized void releaseNodes(Snapshot next) {
+      if (isReleased || this == next) {
+        return;
+      }
+      isReleased = true;
+      Set<AccessibilityNodeInfo> kept =
+          Collections.newSetFromMap(new IdentityHashMap<AccessibilityNodeInfo, Boolean>());
+      for (int i = 0; i < next.count; i++) {
+        if (next.nodes[i] != null) {
+          kept.add(next.nodes[i]);
+        }
+      }
+      for (int i = 0; i < count; i++) {
+        if (nodes[i] != null && !kept.contains(nodes[i])) {
+          nodes[i].recycle();
+        }
+      }
+    }
+
+    static final class Builder {
+      private int count = 0;
+      private int[] lefts = new int[64];
+      private int[] tops = new int[64];
+      private int[] rights = new int[64];
+      private int[] bottoms = new int[64];
+      private int[] flags = new int[64];
+      private int[] windowIds = new int[64];
+      private AccessibilityNodeInfo[] nodes = new AccessibilityNodeInfo[64];
+      private int[] indexedWindowIds = new int[8];
+      private int indexedWindowCount = 0;
+
+      int size() {
+        return count;
+      }
+
+      Builder add(int left, int top, int right, int bottom, int flags, int windowId,
+          AccessibilityNodeInfo node) {
+        if (right <= left || bottom <= top || right <= 0 || bottom <= 0) {
+          return this;
+        }
+        if (count == lefts.length) {
+          grow();
+        }
+        lefts[count] = left;
+        tops[count] = top;
+        rights[count] = right;
+        bottoms[count] = bottom;
+        this.flags[count] = flags;
+        windowIds[count] = windowId;
+        nodes[count] = node;
+        count++;
+        return this;
+      }
+
+      /** Record that a window was walked, so it is not walked again until it changes. */
+      Builder addIndexedWindow(int windowId) {
+        if (indexedWindowCount == indexedWindowIds.length) {
+          indexedWindowIds = Arrays.copyOf(indexedWindowIds, indexedWindowCount * 2);
+        }
+        indexedWindowIds[indexedWindowCount++] = windowId;
+        return this;
+      }
+
+      /** Keep the targets of a window that did not change. */
+      Builder addWindowFrom(Snapshot previous, int windowId) {
+        addIndexedWindow(windowId);
+        for (int i = 0; i < previous.count; i++) {
+          if (previous.windowIds[i] == windowId) {
+            add(previous.lefts[i], previous.tops[i], previous.rights[i], previous.bottoms[i],
+                previous.flags[i], windowId, previous.nodes[i]);
+          }
+        }
+        return this;
+      }
+
+      private void grow() {
+        int capacity = lefts.length * 2;
+        lefts = Arrays.copyOf(lefts, capacity);
+        tops = Arrays.copyOf(tops, capacity);
+        rights = Arrays.copyOf(rights, capacity);
+        bottoms = Arrays.copyOf(bottoms, capacity);
+        flags = Arrays.copyOf(flags, capacity);
+        windowIds = Arrays.copyOf(windowIds, capacity);
+        nodes = Arrays.copyOf(nodes, capacity);
+      }
+
+      Snapshot build() {
+        return new Snapshot(this);
+      }
+    }
+  }
+}
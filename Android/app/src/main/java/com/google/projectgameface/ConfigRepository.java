@@ -0,0 +1,193 @@
+/*
+ * Copyright 2024 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * MODIFICATION NOTICE
+ * as per the licence its required to give notice that this code has been modified by a third party.
+ * 2026 - Helgi Steinarr Juliusson, changes can be found in version control.
+ */
+package com.google.projectgameface;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.os.Handler;
+import android.os.Looper;
+import android.view.Choreographer;
+import com.google.projectgameface.CursorMovementConfig.CursorMovementConfigType;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+
+/**
+ * In-process config changes from the setting pages to the service, with SharedPreferences only as
+ * the storage. Replaces a LOAD_SHARED_CONFIG broadcast per change.
+ *
+ * <p>A cursor movement value set while a slider is dragged is kept in memory, coalesced with other
+ * changes to the same key, handed to the listeners on the next display frame and written to
+ * SharedPreferences once the changes settle for {@value PERSIST_DELAY_MS} ms. Gesture bindings and
+ * calibration are written by their own classes and only announced here.
+ *
+ * <p>Used from the main thread only.
+ */
+class ConfigRepository {
+  private static final String TAG = "ConfigRepository";
+
+  static final String PREFERENCES_NAME = "GameFaceLocalConfig";
+
+  /** Write to storage after the values stopped changing for this long. */
+  static final long PERSIST_DELAY_MS = 500;
+
+  /** Receives config changes on the main thread. */
+  interface Listener {
+    void onCursorMovementConfigChanged(CursorMovementConfigType type, int rawValue);
+
+    /**
+     * A gesture binding or calibration changed in SharedPreferences.
+     *
+     * @param configName {@link BlendshapeEventTriggerConfig.EventType} name or {@link
+     *     BlendshapeCalibration#CONFIG_NAME}.
+     */
+    void onGestureConfigChanged(String configName);
+  }
+
+  private static ConfigRepository instance;
+
+  /** The repository of this process. */
+  static ConfigRepository getInstance(Context context) {
+    if (instance == null) {
+      instance = new ConfigRepository(context.getApplicationContext()
+          .getSharedPreferences(PREFERENCES_NAME, Context.MODE_PRIVATE));
+    }
+    return instance;
+  }
+
+  private final SharedPreferences preferences;
+  private final List<Listener> listeners = new ArrayList<>();
+
+  /** Set values not handed to the listeners yet, one per key. */
+  private final EnumMap<CursorMovementConfigType, Integer> pendingDelivery =
+      new EnumMap<>(CursorMovementConfigType.class);
+
+  /** Set values not written to storage yet, one per key. */
+  private final EnumMap<CursorMovementConfigType, Integer> pendingPersist =
+      new EnumMap<>(CursorMovementConfigType.class);
+
+  private boolean isDeliveryScheduled = false;
+  private Handler persistHandler;
+
+  private int setCount = 0;
+  private int deliveryCount = 0;
+  private int persistCount = 0;
+
+  private final Choreographer.FrameCallback deliverCallback = frameTimeNanos -> {
+    isDeliveryScheduled = false;
+    deliverPendingChanges();
+  };
+
+  private final Runnable persistRunnable = this::persistPendingChanges;
+
+  ConfigRepository(SharedPreferences preferences) {
+    this.preferences = preferences;
+  }
+
+  void addListener(Listener listener) {
+    if (!listeners.contains(listener)) {
+      listeners.add(listener);
+    }
+  }
+
+  void removeListener(Listener listener) {
+    listeners.remove(listener);
+  }
+
+  /** Current raw value, including one set but not stored yet. */
+  int getCursorMovementConfig(CursorMovementConfigType type, int defaultValue) {
+    Integer pending = pendingPersist.get(type);
+    if (pending != null) {
+      return pending;
+    }
+    return preferences.getInt(type.name(), defaultValue);
+  }
+
+  /** Set a raw value, the listeners get it on the next frame. */
+  void setCursorMovementConfig(CursorMovementConfigType type, int rawValue) {
+    setCount++;
+    pendingDelivery.put(type, rawValue);
+    pendingPersist.put(type, rawValue);
+    if (!isDeliveryScheduled) {
+      isDeliveryScheduled = true;
+      Choreographer.getInstance().postFrameCallback(deliverCallback);
+    }
+    if (persistHandler == null) {
+      persistHandler = new Handler(Looper.getMainLooper());
+    }
+    persistHandler.removeCallbacks(persistRunnable);
+    persistHandler.postDelayed(persistRunnable, PERSIST_DELAY_MS);
+  }
+
+  /** Tell the listeners a gesture config was written to SharedPreferences. */
+  void notifyGestureConfigChanged(String configName) {
+    for (int i = 0; i < listeners.size(); i++) {
+      listeners.get(i).onGestureConfigChanged(configName);
+    }
+  }
+
+  /** Write the values still pending now, when the page is left. */
+  void flush() {
+    if (persistHandler != null) {
+      persistHandler.removeCallbacks(persistRunnable);
+    }
+    persistPendingChanges();
+  }
+
+  void deliverPendingChanges() {
+    if (pendingDelivery.isEmpty()) {
+      return;
+    }
+    for (CursorMovementConfigType type : pendingDelivery.keySet()) {
+      int rawValue = pendingDelivery.get(type);
+      for (int i = 0; i < listeners.size(); i++) {
+        listeners.get(i).onCursorMovementConfigChanged(type, rawValue);
+      }
+      deliveryCount++;
+    }
+    pendingDelivery.clear();
+  }
+
+  void persistPendingChanges() {
+    if (pendingPersist.isEmpty()) {
+      return;
+    }
+    SharedPreferences.Editor editor = preferences.edit();
+    for (CursorMovementConfigType type : pendingPersist.keySet()) {
+      editor.putInt(type.name(), pendingPersist.get(type));
+    }
+    editor.apply();
+    pendingPersist.clear();
+    persistCount++;
+  }
+
+  /** Values set, handed to listeners and storage writes, to see how much was coalesced. */
+  String getStatsSummary() {
+    return "set=" + setCount + " delivered=" + deliveryCount + " persisted=" + persistCount;
+  }
+
+  int getDeliveryCount() {
+    return deliveryCount;
+  }
+
+  int getPersistCount() {
+    return persistCount;
+  }
+}
@@ -0,0 +1,526 @@
+/*
+ * Copyright 2024 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * MODIFICATION NOTICE
+ * as per the licence its required to give notice that this code has been modified by a third party.
+ * 2026 - Helgi Steinarr Juliusson, changes can be found in version control.
+ */
+package com.google.projectgameface;
+
+import android.os.Debug;
+import android.system.Os;
+import android.system.OsConstants;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * CPU time spent in each pipeline stage, measured with the thread CPU clock of the thread running
+ * it, rolled up per minute and per session next to the battery current.
+ *
+ * <p>Stages add from any thread without locking. Once a minute the service calls {@link #rollUp},
+ * which also charges process CPU no stage measured to {@link #OTHER}: the MediaPipe graph threads
+ * where inference actually runs, CameraX, RenderThread and binder. Each minute is tagged with the
+ * performance mode the service was in, so modes can be compared over the same session.
+ *
+ * <p>Process CPU, render thread CPU and battery current are also charged to the camera mode,
+ * preview bound or headless, from the moment it changes rather than per minute. Apps cannot read
+ * GPU load, the render thread that records the GPU work of the overlays stands in for it.
+ */
+class CpuAccounting {
+  private static final String TAG = "CpuAccounting";
+
+  /** CameraX analyzer callback. */
+  static final int STAGE_CAMERA = 0;
+  /** ImageProxy to rotated MPImage. */
+  static final int STAGE_PREPROCESS = 1;
+  /** Handing the frame to the graph, the graph itself is in {@link #OTHER}. */
+  static final int STAGE_INFERENCE = 2;
+  /** Landmarker result callback. */
+  static final int STAGE_POSTPROCESS = 3;
+  /** Tick on the main thread, without the rendering it does. */
+  static final int STAGE_TICK = 4;
+  /** Cursor moves and overlay drawing on the main thread. */
+  static final int STAGE_RENDER = 5;
+  static final int STAGE_COUNT = 6;
+
+  /** Column of process CPU not measured by any stage. */
+  static final int OTHER = STAGE_COUNT;
+  static final int COLUMN_COUNT = STAGE_COUNT + 1;
+
+  static final String[] COLUMN_NAMES = {
+    "camera", "preprocess", "inference", "postprocess", "tick", "render", "other"
+  };
+
+  static final long MINUTE_MS = 60000;
+
+  /** One hour of minutes. */
+  static final int MINUTES_KEPT = 60;
+
+  /** Minutes with a current reading needed before current is fitted against CPU. */
+  static final int MIN_CORRELATION_MINUTES = 3;
+
+  /** Current of a minute without any reading. */
+  static final int NO_CURRENT = -1;
+
+  /** Camera not running, nothing is charged to a camera mode. */
+  static final int CAMERA_MODE_NONE = -1;
+  static final int CAMERA_MODE_PREVIEW = 0;
+  static final int CAMERA_MODE_HEADLESS = 1;
+  static final String[] CAMERA_MODE_NAMES = {"preview", "headless"};
+
+  /** Thread drawing the hardware accelerated views of the process. */
+  static final String RENDER_THREAD_NAME = "RenderThread";
+
+  private static final CpuAccounting INSTANCE = new CpuAccounting();
+
+  /** The accounting shared by the service and the settings pages of this process. */
+  static CpuAccounting getInstance() {
+    return INSTANCE;
+  }
+
+  /** CPU time of the calling thread, pass to {@link #add} when the stage ends. */
+  static long threadCpuNs() {
+    return Debug.threadCpuTimeNanos();
+  }
+
+  /** Added since the last roll up, in nanoseconds. */
+  private final AtomicLongArray pendingNs = new AtomicLongArray(STAGE_COUNT);
+
+  private final long[][] minuteCpuUs = new long[MINUTES_KEPT][COLUMN_COUNT];
+  private final long[] minuteLengthMs = new long[MINUTES_KEPT];
+  private final int[] minuteCurrentUa = new int[MINUTES_KEPT];
+  private final String[] minuteModes = new String[MINUTES_KEPT];
+
+  /** Minutes rolled up so far, the next one goes to slot minuteCount % MINUTES_KEPT. */
+  private long minuteCount = 0;
+
+  private final long[] sessionCpuUs = new long[COLUMN_COUNT];
+  private long sessionLengthMs = 0;
+  private long sessionCurrentSumUa = 0;
+  private int sessionCurrentMinutes = 0;
+
+  /** Per mode CPU columns, then length in the last slot. */
+  private final Map<String, long[]> modeTotals = new LinkedHashMap<>();
+
+  private int cameraMode = CAMERA_MODE_NONE;
+  private long cameraModeSinceMs = 0;
+  private long cameraModeSinceCpuMs = 0;
+  private long cameraModeSinceRenderMs = 0;
+  private final long[] cameraModeLengthMs = new long[CAMERA_MODE_NAMES.length];
+  private final long[] cameraModeCpuMs = new long[CAMERA_MODE_NAMES.length];
+  private final long[] cameraModeRenderMs = new long[CAMERA_MODE_NAMES.length];
+  private final long[] cameraModeCurrentSumUa = new long[CAMERA_MODE_NAMES.length];
+  private final int[] cameraModeCurrentSamples = new int[CAMERA_MODE_NAMES.length];
+
+  private String mode = "default";
+  private long lastRollUpMs = 0;
+  private long lastProcessCpuMs = 0;
+  private long currentSumUa = 0;
+  private int currentSampleCount = 0;
+
+  /**
+   * Charge the CPU time since {@code startCpuNs} to a stage.
+   *
+   * @param startCpuNs {@link #threadCpuNs()} when the stage started, on the same thread.
+   * @return The CPU time charged, in nanoseconds.
+   */
+  long add(int stage, long startCpuNs) {
+    long cpuNs = threadCpuNs() - startCpuNs;
+    addCpuNs(stage, cpuNs);
+    return cpuNs;
+  }
+
+  void addCpuNs(int stage, long cpuNs) {
+    if (cpuNs > 0) {
+      pendingNs.addAndGet(stage, cpuNs);
+    }
+  }
+
+  /** Drop everything, start a session now. */
+  synchronized void startSession(long nowMs, long processCpuMs) {
+    for (int i = 0; i < STAGE_COUNT; i++) {
+      pendingNs.set(i, 0);
+    }
+    for (int i = 0; i < COLUMN_COUNT; i++) {
+      sessionCpuUs[i] = 0;
+    }
+    minuteCount = 0;
+    sessionLengthMs = 0;
+    sessionCurrentSumUa = 0;
+    sessionCurrentMinutes = 0;
+    modeTotals.clear();
+    cameraMode = CAMERA_MODE_NONE;
+    for (int i = 0; i < CAMERA_MODE_NAMES.length; i++) {
+      cameraModeLengthMs[i] = 0;
+      cameraModeCpuMs[i] = 0;
+      cameraModeRenderMs[i] = 0;
+      cameraModeCurrentSumUa[i] = 0;
+      cameraModeCurrentSamples[i] = 0;
+    }
+    currentSumUa = 0;
+    currentSampleCount = 0;
+    lastRollUpMs = nowMs;
+    lastProcessCpuMs = processCpuMs;
+  }
+
+  /** Performance mode the coming minutes are charged to. */
+  synchronized void setMode(String mode) {
+    this.mode = mode;
+  }
+
+  /**
+   * Charge what was used since the last call to the camera mode then in effect, and start charging
+   * the new one. Call again with the same mode to bring the totals up to date.
+   *
+   * @param cameraMode One of the {@code CAMERA_MODE_} constants.
+   * @param processCpuMs android.os.Process.getElapsedCpuTime().
+   * @param renderThreadCpuMs {@link #readRenderThreadCpuMs()}.
+   */
+  synchronized void setCameraMode(
+      int cameraMode, long nowMs, long processCpuMs, long renderThreadCpuMs) {
+    if (this.cameraMode != CAMERA_MODE_NONE) {
+      cameraModeLengthMs[this.cameraMode] += Math.max(0, nowMs - cameraModeSinceMs);
+      cameraModeCpuMs[this.cameraMode] += Math.max(0, processCpuMs - cameraModeSinceCpuMs);
+      cameraModeRenderMs[this.cameraMode] +=
+          Math.max(0, renderThreadCpuMs - cameraModeSinceRenderMs);
+    }
+    this.cameraMode = cameraMode;
+    cameraModeSinceMs = nowMs;
+    cameraModeSinceCpuMs = processCpuMs;
+    cameraModeSinceRenderMs = renderThreadCpuMs;
+  }
+
+  /** Time charged to a camera mode, in milliseconds. */
+  synchronized long getCameraModeLengthMs(int cameraMode) {
+    return cameraModeLengthMs[cameraMode];
+  }
+
+  /** Process CPU time charged to a camera mode, in milliseconds. */
+  synchronized long getCameraModeCpuMs(int cameraMode) {
+    return cameraModeCpuMs[cameraMode];
+  }
+
+  /**
+   * Add a battery current reading. Readings the device cannot provide are ignored, sign is
+   * dropped as vendors disagree on it.
+   *
+   * @param microAmps BatteryManager.BATTERY_PROPERTY_CURRENT_NOW.
+   */
+  synchronized void addCurrentSample(int microAmps) {
+    if (microAmps == Integer.MIN_VALUE || microAmps == 0) {
+      return;
+    }
+    currentSumUa += Math.abs(microAmps);
+    currentSampleCount++;
+    if (cameraMode != CAMERA_MODE_NONE) {
+      cameraModeCurrentSumUa[cameraMode] += Math.abs(microAmps);
+      cameraModeCurrentSamples[cameraMode]++;
+    }
+  }
+
+  /**
+   * Close the minute: move the stage times into it and charge the rest of the process CPU to
+   * {@link #OTHER}.
+   *
+   * @param processCpuMs android.os.Process.getElapsedCpuTime().
+   */
+  synchronized void rollUp(long nowMs, long processCpuMs) {
+    long lengthMs = nowMs - lastRollUpMs;
+    if (lengthMs <= 0) {
+      return;
+    }
+    int slot = (int) (minuteCount % MINUTES_KEPT);
+    long[] row = minuteCpuUs[slot];
+    long stagesUs = 0;
+    for (int i = 0; i < STAGE_COUNT; i++) {
+      row[i] = pendingNs.getAndSet(i, 0) / 1000;
+      stagesUs += row[i];
+    }
+    row[OTHER] = Math.max(0, (processCpuMs - lastProcessCpuMs) * 1000 - stagesUs);
+    minuteLengthMs[slot] = lengthMs;
+    minuteModes[slot] = mode;
+    minuteCurrentUa[slot] =
+        currentSampleCount > 0 ? (int) (currentSumUa / currentSampleCount) : NO_CURRENT;
+    minuteCount++;
+
+    long[] modeRow = modeTotals.get(mode);
+    if (modeRow == null) {
+      modeRow = new long[COLUMN_COUNT + 1];
+      modeTotals.put(mode, modeRow);
+    }
+    for (int i = 0; i < COLUMN_COUNT; i++) {
+      sessionCpuUs[i] += row[i];
+      modeRow[i] += row[i];
+    }
+    modeRow[COLUMN_COUNT] += lengthMs;
+    sessionLengthMs += lengthMs;
+    if (minuteCurrentUa[slot] != NO_CURRENT) {
+      sessionCurrentSumUa += minuteCurrentUa[slot];
+      sessionCurrentMinutes++;
+    }
+
+    currentSumUa = 0;
+    currentSampleCount = 0;
+    lastRollUpMs = nowMs;
+    lastProcessCpuMs = processCpuMs;
+  }
+
+  synchronized int getMinuteCount() {
+    return (int) Math.min(minuteCount, MINUTES_KEPT);
+  }
+
+  /** Session CPU time of a column, in microseconds. */
+  synchronized long getSessionCpuUs(int column) {
+    return sessionCpuUs[column];
+  }
+
+  /**
+   * Fit battery current against the CPU load of the kept minutes.
+   *
+   * @return {mA per fully busy core, mA at no load, correlation coefficient}, or null with fewer
+   *     than {@value MIN_CORRELATION_MINUTES} minutes of current readings or no change in load.
+   */
+  synchronized double[] getCurrentFit() {
+    int kept = getMinuteCount();
+    int n = 0;
+    double sumX = 0;
+    double sumY = 0;
+    double sumXx = 0;
+    double sumXy = 0;
+    double sumYy = 0;
+    for (int i = 0; i < kept; i++) {
+      if (minuteCurrentUa[i] == NO_CURRENT) {
+        continue;
+      }
+      double x = cores(minuteCpuUs[i], minuteLengthMs[i]);
+      double y = minuteCurrentUa[i] / 1000.0;
+      n++;
+      sumX += x;
+      sumY += y;
+      sumXx += x * x;
+      sumXy += x * y;
+      sumYy += y * y;
+    }
+    if (n < MIN_CORRELATION_MINUTES) {
+      return null;
+    }
+    double varX = n * sumXx - sumX * sumX;
+    double varY = n * sumYy - sumY * sumY;
+    if (varX <= 0) {
+      return null;
+    }
+    double slope = (n * sumXy - sumX * sumY) / varX;
+    double intercept = (sumY - slope * sumX) / n;
+    double r = varY > 0 ? (n * sumXy - sumX * sumY) / Math.sqrt(varX * varY) : 0;
+    return new double[] {slope, intercept, r};
+  }
+
+  /** Average number of busy cores of a row of CPU columns. */
+  private static double cores(long[] cpuUs, long lengthMs) {
+    long totalUs = 0;
+    for (int i = 0; i < COLUMN_COUNT; i++) {
+      totalUs += cpuUs[i];
+    }
+    return totalUs / (lengthMs * 1000.0);
+  }
+
+  /** Share of one core as percent. */
+  private static String percent(long cpuUs, long lengthMs) {
+    return String.format(Locale.ROOT, "%.1f%%", 100.0 * cpuUs / (lengthMs * 1000.0));
+  }
+
+  /** Session rollup, short enough for the settings page. */
+  synchronized String getSummary() {
+    if (sessionLengthMs == 0) {
+      return "No complete minute yet.";
+    }
+    StringBuilder builder = new StringBuilder();
+    builder.append("Session ").append(sessionLengthMs / MINUTE_MS).append(" min, % of one core\n");
+    appendColumns(builder, sessionCpuUs, sessionLengthMs);
+    if (sessionCurrentMinutes > 0) {
+      builder.append(String.format(Locale.ROOT, "battery %.0f mA",
+          sessionCurrentSumUa / (sessionCurrentMinutes * 1000.0)));
+      double[] fit = getCurrentFit();
+      if (fit != null) {
+        builder.append(String.format(Locale.ROOT, ", %+.0f mA per busy core (r %.2f)",
+            fit[0], fit[2]));
+      }
+      builder.append('\n');
+    } else {
+      builder.append("battery current not available\n");
+    }
+    for (Map.Entry<String, long[]> entry : modeTotals.entrySet()) {
+      long[] modeRow = entry.getValue();
+      builder.append("mode ").append(entry.getKey()).append(", ")
+          .append(modeRow[COLUMN_COUNT] / MINUTE_MS).append(" min\n");
+      appendColumns(builder, modeRow, modeRow[COLUMN_COUNT]);
+    }
+    appendCameraModes(builder);
+    return builder.toString();
+  }
+
+  /** Process CPU, render thread CPU and current per camera mode, and headless against preview. */
+  private void appendCameraModes(StringBuilder builder) {
+    for (int i = 0; i < CAMERA_MODE_NAMES.length; i++) {
+      long lengthMs = cameraModeLengthMs[i];
+      if (lengthMs == 0) {
+        continue;
+      }
+      builder.append("camera ").append(CAMERA_MODE_NAMES[i]).append(", ")
+          .append(lengthMs / MINUTE_MS).append(" min: ")
+          .append(percent(cameraModeCpuMs[i] * 1000, lengthMs)).append(" process, ")
+          .append(percent(cameraModeRenderMs[i] * 1000, lengthMs)).append(" render thread, ")
+          .append(cameraModeCurrentSamples[i] > 0
+              ? String.format(Locale.ROOT, "%.0f mA", getCameraModeCurrentMa(i))
+              : "current not available")
+          .append('\n');
+    }
+    if (cameraModeLengthMs[CAMERA_MODE_PREVIEW] == 0
+        || cameraModeLengthMs[CAMERA_MODE_HEADLESS] == 0) {
+      return;
+    }
+    builder.append(String.format(Locale.ROOT,
+        "headless vs preview: %+.1f%% process, %+.1f%% render thread",
+        100 * (getCameraModeCores(CAMERA_MODE_HEADLESS, cameraModeCpuMs)
+            - getCameraModeCores(CAMERA_MODE_PREVIEW, cameraModeCpuMs)),
+        100 * (getCameraModeCores(CAMERA_MODE_HEADLESS, cameraModeRenderMs)
+            - getCameraModeCores(CAMERA_MODE_PREVIEW, cameraModeRenderMs))));
+    if (cameraModeCurrentSamples[CAMERA_MODE_PREVIEW] > 0
+        && cameraModeCurrentSamples[CAMERA_MODE_HEADLESS] > 0) {
+      builder.append(String.format(Locale.ROOT, ", %+.0f mA",
+          getCameraModeCurrentMa(CAMERA_MODE_HEADLESS) - getCameraModeCurrentMa(CAMERA_MODE_PREVIEW)));
+    }
+    builder.append('\n');
+  }
+
+  private double getCameraModeCores(int cameraMode, long[] cpuMs) {
+    return (double) cpuMs[cameraMode] / cameraModeLengthMs[cameraMode];
+  }
+
+  private double getCameraModeCurrentMa(int cameraMode) {
+    return cameraModeCurrentSumUa[cameraMode] / (cameraModeCurrentSamples[cameraMode] * 1000.0);
+  }
+
+  private static void appendColumns(StringBuilder builder, long[] cpuUs, long lengthMs) {
+    long totalUs = 0;
+    for (int i = 0; i < COLUMN_COUNT; i++) {
+      builder.append("  ").append(COLUMN_NAMES[i]).append(' ')
+          .append(percent(cpuUs[i], lengthMs)).append('\n');
+      totalUs += cpuUs[i];
+    }
+    builder.append("  total ").append(percent(totalUs, lengthMs)).append('\n');
+  }
+
+  /** Session rollup, every kept minute and the CPU time of each thread of the process. */
+  synchronized void dump(PrintWriter writer) {
+    writer.print(getSummary());
+    int kept = getMinuteCount();
+    if (kept > 0) {
+      writer.print("minute");
+      for (String name : COLUMN_NAMES) {
+        writer.print(' ');
+        writer.print(name);
+      }
+      writer.println(" mA mode");
+      // Oldest first.
+      for (long m = minuteCount - kept; m < minuteCount; m++) {
+        int slot = (int) (m % MINUTES_KEPT);
+        writer.print(m);
+        for (int i = 0; i < COLUMN_COUNT; i++) {
+          writer.print(' ');
+          writer.print(percent(minuteCpuUs[slot][i], minuteLengthMs[slot]));
+        }
+        writer.print(' ');
+        writer.print(minuteCurrentUa[slot] == NO_CURRENT ? "-" : minuteCurrentUa[slot] / 1000);
+        writer.print(' ');
+        writer.println(minuteModes[slot]);
+      }
+    }
+    writer.println("threads, CPU ms since start");
+    for (Map.Entry<String, Long> thread : readThreadCpuMs().entrySet()) {
+      writer.println("  " + thread.getKey() + " " + thread.getValue());
+    }
+  }
+
+  /** CPU time of every thread of this process from /proc, summed by thread name. */
+  static Map<String, Long> readThreadCpuMs() {
+    Map<String, Long> threads = new TreeMap<>();
+    File[] tasks = new File("/proc/self/task").listFiles();
+    if (tasks == null) {
+      return threads;
+    }
+    long ticksPerSecond = Os.sysconf(OsConstants._SC_CLK_TCK);
+    if (ticksPerSecond <= 0) {
+      return threads;
+    }
+    for (File task : tasks) {
+      try (BufferedReader reader = new BufferedReader(new FileReader(new File(task, "stat")))) {
+        String[] parsed = parseTaskStat(reader.readLine());
+        if (parsed == null) {
+          continue;
+        }
+        long cpuMs = Long.parseLong(parsed[1]) * 1000 / ticksPerSecond;
+        Long previous = threads.get(parsed[0]);
+        threads.put(parsed[0], previous == null ? cpuMs : previous + cpuMs);
+      } catch (IOException | NumberFormatException e) {
+        // The thread ended while listing.
+        AppLog.d(TAG, "Cannot read {}: {}", task, e.getMessage());
+      }
+    }
+    return threads;
+  }
+
+  /** CPU time of the render thread, 0 if it cannot be read. */
+  static long readRenderThreadCpuMs() {
+    Long cpuMs = readThreadCpuMs().get(RENDER_THREAD_NAME);
+    return cpuMs == null ? 0 : cpuMs;
+  }
+
+  /**
+   * Parse a /proc task stat line.
+   *
+   * @return {thread name, utime + stime in clock ticks}, or null if malformed.
+   */
+  static String[] parseTaskStat(String line) {
+    if (line == null) {
+      return null;
+    }
+    // The name may itself contain spaces and parentheses.
+    int nameStart = line.indexOf('(');
+    int nameEnd = line.lastIndexOf(')');
+    if (nameStart < 0 || nameEnd < nameStart) {
+      return null;
+    }
+    String[] fields = line.substring(nameEnd + 1).trim().split(" ");
+    // Fields after the name start at state, utime and stime are the 14th and 15th of the line.
+    if (fields.length < 13) {
+      return null;
+    }
+    try {
+      long ticks = Long.parseLong(fields[11]) + Long.parseLong(fields[12]);
+      return new String[] {line.substring(nameStart + 1, nameEnd), String.valueOf(ticks)};
+    } catch (NumberFormatException e) {
+      return null;
+    }
+  }
+}
@@ -31,17 +31,21 @@ import android.content.Intent;
 import android.content.IntentFilter;
 import android.content.res.Configuration;
 import android.graphics.Point;
+import android.os.BatteryManager;
 import android.os.Build.VERSION;
 import android.os.Build.VERSION_CODES;
 import android.os.Handler;
 import android.os.Message;
+import android.os.Process;
 import android.os.SystemClock;
-import android.util.Log;
 import android.util.Size;
 import android.view.WindowManager;
 import android.view.accessibility.AccessibilityEvent;
+import android.view.inputmethod.InputMethodInfo;
+import android.view.inputmethod.InputMethodManager;
 import androidx.annotation.NonNull;
 import androidx.camera.core.ImageAnalysis;
+import androidx.camera.core.Preview;
 import androidx.camera.core.resolutionselector.ResolutionSelector;
 import androidx.camera.core.resolutionselector.ResolutionStrategy;
 import androidx.camera.lifecycle.ProcessCameraProvider;
@@ -52,13 +56,23 @@ import androidx.lifecycle.LifecycleRegistry;
 
 import com.google.common.util.concurrent.ListenableFuture;
 
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileDescriptor;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Writer;
+import java.util.Locale;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 
 /** The cursor service of GameFace app. */
 @SuppressLint("UnprotectedReceiver") // All of the broadcasts can only be sent by system.
-public class CursorAccessibilityService extends AccessibilityService implements LifecycleOwner {
+public class CursorAccessibilityService extends AccessibilityService
+    implements LifecycleOwner, GestureDispatchQueue.Target {
     private static final String TAG = "CursorAccessibilityService";
 
     /** Limit UI update rate to 60 fps */
@@ -67,6 +81,25 @@ public class CursorAccessibilityService extends AccessibilityService implements
     /** Limit the FaceLandmark detect rate. */
     private static final int MIN_PROCESS = 30;
 
+    /** Flight recordings, under the files directory. */
+    static final String FLIGHT_DIRECTORY = "flight";
+
+    /** How often the battery current is read, CPU accounting is rolled up every minute. */
+    private static final long BATTERY_SAMPLE_MS = 10000;
+
+    /** JSON traces, under the files directory. */
+    static final String TRACE_DIRECTORY = "trace";
+
+    /** Length of a JSON trace, and the most trace points it keeps. */
+    private static final long TRACE_WINDOW_MS = 10000;
+    private static final int TRACE_CAPACITY = 50000;
+
+    /** Dump argument setting the logcat level, such as "logcat=d". */
+    private static final String LOGCAT_ARG_PREFIX = "logcat=";
+
+    /** One anomaly often causes more, write at most one recording this often. */
+    private static final long FLIGHT_WRITE_COOLDOWN_MS = 30000;
+
 
 
 
@@ -74,6 +107,21 @@ public class CursorAccessibilityService extends AccessibilityService implements
     private static final int IMAGE_ANALYZER_HEIGHT = 400;
     ServiceUiManager serviceUiManager;
     public CursorController cursorController;
+
+    /** Every gesture and global action of the service goes through this queue. */
+    GestureDispatchQueue gestureDispatchQueue;
+
+    /** Clickable and scrollable nodes on screen, kept up to date from accessibility events. */
+    ClickableNodeIndex clickableNodeIndex;
+
+    /** Clicks through node actions when enabled, through {@link #gestureDispatchQueue} otherwise. */
+    NodeClickDispatcher nodeClickDispatcher;
+
+    /** Accessibility events are only subscribed to while a feature uses them. */
+    private EventSubscriptionManager eventSubscriptionManager;
+
+    /** Applies the profile of the app in the foreground, if any app has one. */
+    private AppProfileSwitcher appProfileSwitcher;
     private FaceLandmarkerHelper facelandmarkerHelper;
     public WindowManager windowManager;
     private Handler tickFunctionHandler;
@@ -81,6 +129,68 @@ public class CursorAccessibilityService extends AccessibilityService implements
 
     private ProcessCameraProvider cameraProvider;
 
+    /** Per-frame timings of the pipeline, drawn by the performance HUD when it is on. */
+    private final PerformanceHud performanceHud = new PerformanceHud();
+
+    /** Counters and histograms printed by {@link #dump}. */
+    private final ServiceMetrics metrics = new ServiceMetrics();
+
+    /** Last ticks, written to {@link #FLIGHT_DIRECTORY} when something looks wrong. */
+    private final FlightRecorder flightRecorder = new FlightRecorder();
+    private final AnomalyDetector anomalyDetector = new AnomalyDetector();
+    private ExecutorService fileWriteExecutor;
+    private long lastFlightWriteMs = -FLIGHT_WRITE_COOLDOWN_MS;
+
+    /** Sequence number of the last camera frame sent to the landmarker, on the analyzer thread. */
+    private int analyzedFrameSequence = 0;
+
+    /** Reused by every tick so it does not allocate. Main thread only. */
+    private final float[] tickHeadXy = new float[2];
+    private final int[] tickCursorXy = new int[2];
+
+    /** CPU time per pipeline stage, shared with the settings page. */
+    private final CpuAccounting cpuAccounting = CpuAccounting.getInstance();
+
+    private BatteryManager batteryManager;
+
+    /** Uptime of the last CPU accounting roll up. Main thread only. */
+    private long lastCpuRollUpMs = 0;
+
+    /** In-app trace being recorded, null if none. Main thread only. */
+    private JsonTracer jsonTracer = null;
+
+    /** Counts config and profile changes, so a recording shows which settings a tick used. */
+    private int configGeneration = 0;
+
+    /**
+     * Settings in use since the last config generation change, written into flight recordings.
+     * Taken from the in-memory configs rather than the working copy, which lags behind them.
+     */
+    private Profile configInUse;
+
+    /** Smoothing gap and gesture event of the current tick, for the flight recorder. */
+    private int tickGapFrames = 1;
+    private BlendshapeEventTriggerConfig.EventType tickEvent =
+        BlendshapeEventTriggerConfig.EventType.NONE;
+
+    /**
+     * Time of the current tick. Cursor update, gesture prediction and the flight recorder all use
+     * it, so a replay of the recording sees the same clock.
+     */
+    private long tickTimeMs = 0;
+
+    /** Controller's requested move count at the last recorded tick. */
+    private int lastRequestedMoveCount = 0;
+
+    /** Preview of the camera box, unbound while it cannot be seen in headless mode. */
+    private Preview cameraPreview;
+
+    /** Time spent with and without the preview stream, for comparing the two modes. */
+    private long previewModeSinceMs = 0;
+    private long previewBoundTimeMs = 0;
+    private long previewUnboundTimeMs = 0;
+    private int previewRebindCount = 0;
+
     /** Blocking ML operations are performed using this executor */
     private ExecutorService backgroundExecutor;
 
@@ -89,9 +199,7 @@ public class CursorAccessibilityService extends AccessibilityService implements
     private long lastSendMessage = 0;
     private BroadcastReceiver changeServiceStateReceiver;
     private BroadcastReceiver requestServiceStateReceiver;
-    private BroadcastReceiver loadSharedConfigBasicReceiver;
-    private BroadcastReceiver loadSharedConfigGestureReceiver;
-    private BroadcastReceiver enableScorePreviewReceiver;
+    private BroadcastReceiver calibrationReceiver;
 
     /** This is state of cursor. */
     public enum ServiceState {
@@ -119,60 +227,114 @@ public class CursorAccessibilityService extends AccessibilityService implements
     /** Delay in ms before "looking" state triggers resume (prevents false positives). */
     private static final long LOOKING_DEBOUNCE_MS = 1500;
 
-    /** The setting app may request the float blendshape score. */
-    private String requestedScoreBlendshapeName = "";
+    private static final BlendshapeEventTriggerConfig.Blendshape[] BLENDSHAPES =
+        BlendshapeEventTriggerConfig.Blendshape.values();
 
-    /** Should we send blendshape score to front-end or not. */
-    private boolean shouldSendScore = false;
+    /** Live blendshape scores for the setting pages, published while they read. */
+    private final BlendshapeScoreChannel scoreChannel = BlendshapeScoreChannel.getInstance();
+    private final float[] triggerScoreValues = new float[BlendshapeScoreChannel.TRIGGER_CHANNEL_COUNT];
 
-    @SuppressLint({"UnspecifiedRegisterReceiverFlag", "ObsoleteSdkInt"})
-    private void defineAndRegisterBroadcastMessageReceivers() {
+    /** Callback time of the last FaceLandmarker result published to {@link #scoreChannel}. */
+    private long lastPublishedResultTimeMs = 0;
 
-        // Initialize the broadcast receiver
-        loadSharedConfigBasicReceiver =
-            new BroadcastReceiver() {
-                @Override
-                public void onReceive(Context context, Intent intent) {
-                    String configName = intent.getStringExtra("configName");
-                    cursorController.cursorMovementConfig.updateOneConfigFromSharedPreference(configName);
-
-                    // Handle gaze settings updates
-                    if (configName != null && facelandmarkerHelper != null) {
-                        if (configName.equals(CursorMovementConfig.CursorMovementConfigType.GAZE_PAUSE_ENABLED.name())) {
-                            boolean wasEnabled = gazePauseEnabled;
-                            gazePauseEnabled = cursorController.cursorMovementConfig.get(
-                                CursorMovementConfig.CursorMovementConfigType.GAZE_PAUSE_ENABLED) > 0;
-                            // If gaze was just disabled and we're in PAUSE state, unpause
-                            if (wasEnabled && !gazePauseEnabled && serviceState == ServiceState.PAUSE) {
-                                togglePause();
-                            }
-                        } else if (configName.equals(CursorMovementConfig.CursorMovementConfigType.GAZE_YAW_THRESHOLD.name())) {
-                            facelandmarkerHelper.setYawThreshold(cursorController.cursorMovementConfig.get(
-                                CursorMovementConfig.CursorMovementConfigType.GAZE_YAW_THRESHOLD));
-                        } else if (configName.equals(CursorMovementConfig.CursorMovementConfigType.GAZE_PITCH_THRESHOLD.name())) {
-                            facelandmarkerHelper.setPitchThreshold(cursorController.cursorMovementConfig.get(
-                                CursorMovementConfig.CursorMovementConfigType.GAZE_PITCH_THRESHOLD));
-                        }
-                    }
+    /** Callback time of the last FaceLandmarker result fed to calibration and adaptive thresholds. */
+    private long lastProcessedResultTimeMs = 0;
+
+    /** Config changes from the setting pages, delivered in-process once per frame. */
+    private final ConfigRepository.Listener configListener =
+        new ConfigRepository.Listener() {
+            @Override
+            public void onCursorMovementConfigChanged(
+                CursorMovementConfig.CursorMovementConfigType type, int rawValue) {
+                configGeneration++;
+                cursorController.cursorMovementConfig.setRawValueFromUi(type.name(), rawValue);
+                configInUse.movement.put(type, rawValue);
+                updateEventSubscription();
+                updateRenderingConfig();
+                updateGazeConfig(type);
+            }
+
+            @Override
+            public void onGestureConfigChanged(String configName) {
+                configGeneration++;
+                cursorController.blendshapeEventTriggerConfig.updateOneConfigFromSharedPreference(
+                    configName);
+                if (BlendshapeCalibration.CONFIG_NAME.equals(configName)) {
+                    // Score scale changed, old baselines are meaningless.
+                    cursorController.resetAdaptiveThresholds();
                 }
-            };
+                captureConfigInUse();
+            }
+        };
 
-        loadSharedConfigGestureReceiver =
-            new BroadcastReceiver() {
-                @Override
-                public void onReceive(Context context, Intent intent) {
-                    String configName = intent.getStringExtra("configName");
-                    cursorController.blendshapeEventTriggerConfig.updateOneConfigFromSharedPreference(
-                        configName);
+    /** Profile switches, applied in place while the camera keeps running. */
+    private final ProfileStore.Listener profileListener = snapshot -> {
+        configGeneration++;
+        cursorController.applyProfile(snapshot);
+        configInUse = snapshot.toProfile();
+        updateEventSubscription();
+        updateRenderingConfig();
+        updateGazeConfig(CursorMovementConfig.CursorMovementConfigType.GAZE_PAUSE_ENABLED);
+        updateGazeConfig(CursorMovementConfig.CursorMovementConfigType.GAZE_YAW_THRESHOLD);
+        updateGazeConfig(CursorMovementConfig.CursorMovementConfigType.GAZE_PITCH_THRESHOLD);
+    };
+
+    /**
+     * Take the gesture bindings and calibration from the working copy, which is what the configs
+     * just loaded, and the movement values from the in-memory config, which may not be stored yet.
+     */
+    private void captureConfigInUse() {
+        configInUse = Profile.fromSharedPreferences(
+            ProfileStore.getInstance(this).getActiveProfileName(),
+            getSharedPreferences(ConfigRepository.PREFERENCES_NAME, Context.MODE_PRIVATE));
+        for (CursorMovementConfig.CursorMovementConfigType type
+            : CursorMovementConfig.CursorMovementConfigType.values()) {
+            Integer rawValue = cursorController.cursorMovementConfig.getRawValue(type);
+            if (rawValue != null) {
+                configInUse.movement.put(type, rawValue);
+            }
+        }
+    }
+
+    /** Hand a changed gaze setting to the face landmarker, other configs are ignored. */
+    private void updateGazeConfig(CursorMovementConfig.CursorMovementConfigType type) {
+        if (facelandmarkerHelper == null) {
+            return;
+        }
+        switch (type) {
+            case GAZE_PAUSE_ENABLED:
+                boolean wasEnabled = gazePauseEnabled;
+                gazePauseEnabled = cursorController.cursorMovementConfig.get(
+                    CursorMovementConfig.CursorMovementConfigType.GAZE_PAUSE_ENABLED) > 0;
+                // If gaze was just disabled and we're in PAUSE state, unpause
+                if (wasEnabled && !gazePauseEnabled && serviceState == ServiceState.PAUSE) {
+                    togglePause();
                 }
-            };
+                break;
+            case GAZE_YAW_THRESHOLD:
+                facelandmarkerHelper.setYawThreshold(cursorController.cursorMovementConfig.get(
+                    CursorMovementConfig.CursorMovementConfigType.GAZE_YAW_THRESHOLD));
+                break;
+            case GAZE_PITCH_THRESHOLD:
+                facelandmarkerHelper.setPitchThreshold(cursorController.cursorMovementConfig.get(
+                    CursorMovementConfig.CursorMovementConfigType.GAZE_PITCH_THRESHOLD));
+                break;
+            default:
+                break;
+        }
+    }
+
+    @SuppressLint({"UnspecifiedRegisterReceiverFlag", "ObsoleteSdkInt"})
+    private void defineAndRegisterBroadcastMessageReceivers() {
 
+        // Initialize the broadcast receiver
         changeServiceStateReceiver =
             new BroadcastReceiver() {
                 @Override
                 public void onReceive(Context context, Intent intent) {
                     int receivedEnumValue = intent.getIntExtra("state", -1);
-                    Log.i(TAG, "changeServiceStateReceiver: " + ServiceState.values()[receivedEnumValue]);
+                    AppLog.i(TAG, "changeServiceStateReceiver: {}",
+                            ServiceState.values()[receivedEnumValue]);
 
                     // Target state to be changing.
                     switch (ServiceState.values()[receivedEnumValue]) {
@@ -201,32 +363,23 @@ public class CursorAccessibilityService extends AccessibilityService implements
                 }
             };
 
-        enableScorePreviewReceiver =
+        calibrationReceiver =
             new BroadcastReceiver() {
                 @Override
                 public void onReceive(Context context, Intent intent) {
-                    shouldSendScore = intent.getBooleanExtra("enable", false);
-                    requestedScoreBlendshapeName = intent.getStringExtra("blendshapesName");
+                    handleCalibrationCommand(intent);
                 }
             };
 
         if (VERSION.SDK_INT >= VERSION_CODES.TIRAMISU) {
+            registerReceiver(
+                calibrationReceiver, new IntentFilter("CALIBRATION"), RECEIVER_EXPORTED);
             registerReceiver(
                 changeServiceStateReceiver, new IntentFilter("CHANGE_SERVICE_STATE"), RECEIVER_EXPORTED);
             registerReceiver(
                 requestServiceStateReceiver,
                 new IntentFilter("REQUEST_SERVICE_STATE"),
                 RECEIVER_EXPORTED);
-            registerReceiver(
-                loadSharedConfigBasicReceiver,
-                new IntentFilter("LOAD_SHARED_CONFIG_BASIC"),
-                RECEIVER_EXPORTED);
-            registerReceiver(
-                loadSharedConfigGestureReceiver,
-                new IntentFilter("LOAD_SHARED_CONFIG_GESTURE"),
-                RECEIVER_EXPORTED);
-            registerReceiver(
-                enableScorePreviewReceiver, new IntentFilter("ENABLE_SCORE_PREVIEW"), RECEIVER_EXPORTED);
             registerReceiver(
                 serviceUiManager.flyInWindowReceiver,
                 new IntentFilter("FLY_IN_FLOAT_WINDOW"),
@@ -240,12 +393,9 @@ public class CursorAccessibilityService extends AccessibilityService implements
                 new IntentFilter("CHANGE_CAMERA_SIZE"),
                 RECEIVER_EXPORTED);
         } else {
+            registerReceiver(calibrationReceiver, new IntentFilter("CALIBRATION"));
             registerReceiver(changeServiceStateReceiver, new IntentFilter("CHANGE_SERVICE_STATE"));
             registerReceiver(requestServiceStateReceiver, new IntentFilter("REQUEST_SERVICE_STATE"));
-            registerReceiver(loadSharedConfigBasicReceiver, new IntentFilter("LOAD_SHARED_CONFIG_BASIC"));
-            registerReceiver(
-                loadSharedConfigGestureReceiver, new IntentFilter("LOAD_SHARED_CONFIG_GESTURE"));
-            registerReceiver(enableScorePreviewReceiver, new IntentFilter("ENABLE_SCORE_PREVIEW"));
             registerReceiver(
                 serviceUiManager.flyInWindowReceiver, new IntentFilter("FLY_IN_FLOAT_WINDOW"));
             registerReceiver(
@@ -269,13 +419,19 @@ public class CursorAccessibilityService extends AccessibilityService implements
     @Override
     public void onCreate() {
         super.onCreate();
-        Log.d(TAG, "onCreate");
+        AppLog.d(TAG, "onCreate");
         android.os.Process.setThreadPriority(android.os.Process.THREAD_PRIORITY_URGENT_DISPLAY);
 
         windowManager = ContextCompat.getSystemService(this, WindowManager.class);
 
         cursorController = new CursorController(this);
         serviceUiManager = new ServiceUiManager(this, windowManager);
+        gestureDispatchQueue = new GestureDispatchQueue(this);
+        updateRenderingConfig();
+        nodeClickDispatcher = new NodeClickDispatcher(gestureDispatchQueue);
+        clickableNodeIndex = new ClickableNodeIndex(this);
+        eventSubscriptionManager = new EventSubscriptionManager(this);
+        cursorController.setClickableNodeIndex(clickableNodeIndex);
 
         screenSize = new Point();
         windowManager.getDefaultDisplay().getRealSize(screenSize);
@@ -285,13 +441,30 @@ public class CursorAccessibilityService extends AccessibilityService implements
         lifecycleRegistry.setCurrentState(Lifecycle.State.STARTED);
 
         defineAndRegisterBroadcastMessageReceivers();
+        ConfigRepository.getInstance(this).addListener(configListener);
+        ProfileStore profileStore = ProfileStore.getInstance(this);
+        profileStore.preload();
+        profileStore.addListener(profileListener);
+        captureConfigInUse();
+        appProfileSwitcher = new AppProfileSwitcher(profileStore, getPackageName());
+        InputMethodManager inputMethodManager =
+            ContextCompat.getSystemService(this, InputMethodManager.class);
+        if (inputMethodManager != null) {
+            // Keyboards come and go over every app.
+            for (InputMethodInfo inputMethod : inputMethodManager.getEnabledInputMethodList()) {
+                appProfileSwitcher.addIgnoredPackage(inputMethod.getPackageName());
+            }
+        }
 
         // Initialize our background executor
         backgroundExecutor = Executors.newSingleThreadExecutor();
+        fileWriteExecutor = Executors.newSingleThreadExecutor();
 
         backgroundExecutor.execute(
             () -> {
                 facelandmarkerHelper = new FaceLandmarkerHelper();
+                facelandmarkerHelper.setPerformanceHud(performanceHud);
+                facelandmarkerHelper.setMetrics(metrics);
                 facelandmarkerHelper.setFrontCameraOrientation(CameraHelper.checkFrontCameraOrientation(this));
                 facelandmarkerHelper.setRotation(windowManager.getDefaultDisplay().getRotation());
                 facelandmarkerHelper.start();
@@ -311,6 +484,56 @@ public class CursorAccessibilityService extends AccessibilityService implements
         // Initialize the Handler
         tickFunctionHandler = new Handler();
         tickFunctionHandler.postDelayed(tick, 0);
+
+        batteryManager = (BatteryManager) getSystemService(Context.BATTERY_SERVICE);
+        cpuAccounting.startSession(SystemClock.uptimeMillis(), Process.getElapsedCpuTime());
+        lastCpuRollUpMs = SystemClock.uptimeMillis();
+        tickFunctionHandler.postDelayed(sampleEnergy, BATTERY_SAMPLE_MS);
+    }
+
+    /** Read the battery current, and close the CPU accounting minute when one has passed. */
+    private final Runnable sampleEnergy =
+        new Runnable() {
+            @Override
+            public void run() {
+                if (batteryManager != null && !batteryManager.isCharging()) {
+                    cpuAccounting.addCurrentSample(
+                        batteryManager.getIntProperty(BatteryManager.BATTERY_PROPERTY_CURRENT_NOW));
+                }
+                cpuAccounting.setMode(describePerformanceMode());
+                long nowMs = SystemClock.uptimeMillis();
+                if (nowMs - lastCpuRollUpMs >= CpuAccounting.MINUTE_MS) {
+                    cpuAccounting.rollUp(nowMs, Process.getElapsedCpuTime());
+                    updateCpuAccountingCameraMode();
+                    lastCpuRollUpMs = nowMs;
+                }
+                tickFunctionHandler.postDelayed(this, BATTERY_SAMPLE_MS);
+            }
+        };
+
+    /** Charge CPU and current to the camera mode in effect, preview bound or headless. */
+    private void updateCpuAccountingCameraMode() {
+        int cameraMode = CpuAccounting.CAMERA_MODE_NONE;
+        if (serviceState != ServiceState.DISABLE && cameraProvider != null && cameraPreview != null) {
+            cameraMode = cameraProvider.isBound(cameraPreview)
+                ? CpuAccounting.CAMERA_MODE_PREVIEW
+                : CpuAccounting.CAMERA_MODE_HEADLESS;
+        }
+        cpuAccounting.setCameraMode(cameraMode, SystemClock.uptimeMillis(),
+            Process.getElapsedCpuTime(), CpuAccounting.readRenderThreadCpuMs());
+    }
+
+    /** Settings that change the work done per frame, CPU accounting minutes are tagged with it. */
+    private String describePerformanceMode() {
+        boolean isHeadless = cameraProvider != null && cameraPreview != null
+            && !cameraProvider.isBound(cameraPreview);
+        return serviceState.name().toLowerCase(Locale.ROOT)
+            + (cursorController.cursorMovementConfig.get(
+                CursorMovementConfig.CursorMovementConfigType.CANVAS_CURSOR) > 0 ? "/canvas" : "/window")
+            + (isHeadless ? "/headless" : "/preview")
+            + (serviceUiManager.isDebugOverlayActive() ? "/debug" : "")
+            + (cursorController.cursorMovementConfig.get(
+                CursorMovementConfig.CursorMovementConfigType.PERFORMANCE_HUD) > 0 ? "/hud" : "");
     }
 
     /** Set image property to match the MediaPipe model. - Using RGBA 8888. - Lowe the resolution. */
@@ -346,11 +569,13 @@ public class CursorAccessibilityService extends AccessibilityService implements
             // Resume after sustained "looking" for debounce duration
             if (serviceState == ServiceState.PAUSE && (now - lookingStartTime) >= LOOKING_DEBOUNCE_MS) {
                 togglePause();
+                metrics.gazeResumes.increment();
             }
         } else {
             // Not looking - pause immediately if currently enabled
             if (serviceState == ServiceState.ENABLE) {
                 togglePause();
+                metrics.gazePauses.increment();
             }
             // Reset debounce timer
             lookingStartTime = 0;
@@ -359,6 +584,76 @@ public class CursorAccessibilityService extends AccessibilityService implements
         wasLookingAtCamera = isLooking;
     }
 
+    /**
+     * Handle a command from the calibration page. Extra "phase" is one of START, NEUTRAL, MAX
+     * (with extra "blendshape"), STOP, FINISH or CANCEL.
+     */
+    private void handleCalibrationCommand(Intent intent) {
+        BlendshapeCalibration calibration =
+            cursorController.blendshapeEventTriggerConfig.getCalibration();
+        String phase = intent.getStringExtra("phase");
+        if (phase == null) {
+            AppLog.w(TAG, "Calibration command without phase.");
+            return;
+        }
+        AppLog.i(TAG, "handleCalibrationCommand: {}", phase);
+
+        switch (phase) {
+            case "START":
+                calibration.startSession();
+                break;
+            case "NEUTRAL":
+                calibration.startNeutralPhase();
+                break;
+            case "MAX":
+                try {
+                    calibration.startMaxPhase(
+                        BlendshapeEventTriggerConfig.Blendshape.valueOf(intent.getStringExtra("blendshape")));
+                } catch (IllegalArgumentException | NullPointerException e) {
+                    AppLog.w(TAG, "No Blendshape named {}", intent.getStringExtra("blendshape"));
+                }
+                break;
+            case "STOP":
+            case "CANCEL":
+                calibration.stopPhase();
+                break;
+            case "FINISH":
+                boolean success = cursorController.blendshapeEventTriggerConfig.finishCalibrationSession();
+                if (success) {
+                    cursorController.resetAdaptiveThresholds();
+                }
+                Intent result = new Intent("CALIBRATION_RESULT");
+                result.putExtra("success", success);
+                sendBroadcast(result);
+                break;
+            default:
+                AppLog.w(TAG, "Unknown calibration phase {}", phase);
+                break;
+        }
+    }
+
+    /**
+     * Feed each new FaceLandmarker result once to the calibration session and the adaptive
+     * thresholds. The tick runs faster than the model so most ticks have nothing new.
+     */
+    private void processNewLandmarkerResult() {
+        if (facelandmarkerHelper.prevCallbackTimeMs == lastProcessedResultTimeMs
+            || !facelandmarkerHelper.isFaceVisible) {
+            return;
+        }
+        lastProcessedResultTimeMs = facelandmarkerHelper.prevCallbackTimeMs;
+        float[] blendshapes = facelandmarkerHelper.getBlendshapes();
+
+        BlendshapeCalibration calibration =
+            cursorController.blendshapeEventTriggerConfig.getCalibration();
+        if (calibration.getPhase() != BlendshapeCalibration.Phase.IDLE) {
+            // User is making faces on purpose, not a baseline.
+            calibration.addSample(blendshapes);
+            return;
+        }
+        cursorController.updateAdaptiveThresholds(blendshapes);
+    }
+
     /** Check if drag expression was released in hold-to-drag mode. */
     private void checkDragHoldRelease() {
         // Only check in hold mode when actively dragging
@@ -377,7 +672,153 @@ public class CursorAccessibilityService extends AccessibilityService implements
         }
     }
 
+    /** Record this tick, and write the recording out if the tick looks like a user report. */
+    private void recordFlightTick() {
+        long nowMs = tickTimeMs;
+        int cursorX = cursorController.getCursorX();
+        int cursorY = cursorController.getCursorY();
+        long resultTimeMs = facelandmarkerHelper.prevCallbackTimeMs;
+        flightRecorder.record(nowMs, resultTimeMs,
+            facelandmarkerHelper.currHeadX, facelandmarkerHelper.currHeadY, tickGapFrames,
+            facelandmarkerHelper.getBlendshapes(), cursorX, cursorY, serviceState,
+            configGeneration, tickEvent);
+
+        // Resets, teleports and drift rewinds move the cursor far on purpose, they are no jump.
+        int requestedMoveCount = cursorController.getRequestedMoveCount();
+        boolean isMoveRequested = requestedMoveCount != lastRequestedMoveCount;
+        lastRequestedMoveCount = requestedMoveCount;
+        String reason = anomalyDetector.check(nowMs,
+            serviceState == ServiceState.ENABLE || serviceState == ServiceState.GLOBAL_STICK,
+            cursorX, cursorY, isMoveRequested, screenSize.x, screenSize.y,
+            tickEvent != BlendshapeEventTriggerConfig.EventType.NONE,
+            resultTimeMs > 0 ? nowMs - resultTimeMs : -1,
+            facelandmarkerHelper.getErrorCount());
+        if (reason != null && nowMs - lastFlightWriteMs >= FLIGHT_WRITE_COOLDOWN_MS) {
+            AppLog.w(TAG, "Anomaly {}, writing flight recording.", reason);
+            writeFlightRecording(reason);
+        }
+    }
+
+    /**
+     * Write the flight recording to {@link #FLIGHT_DIRECTORY}. Serialized here so later ticks do
+     * not change it, the file is written off the main thread.
+     */
+    private void writeFlightRecording(String reason) {
+        lastFlightWriteMs = SystemClock.uptimeMillis();
+        long wallTimeMs = System.currentTimeMillis();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try {
+            flightRecorder.writeTo(
+                bytes, reason, wallTimeMs, screenSize.x, screenSize.y, configInUse);
+        } catch (IOException e) {
+            AppLog.w(TAG, "Cannot serialize flight recording: {}", e.getMessage());
+            return;
+        }
+        byte[] data = bytes.toByteArray();
+        File directory = new File(getFilesDir(), FLIGHT_DIRECTORY);
+        String fileName = "flight_" + wallTimeMs + "_" + reason + FlightRecorder.FILE_SUFFIX;
+        fileWriteExecutor.execute(() -> FlightRecorder.save(directory, fileName, data));
+    }
+
+    /** Record trace points into a {@link JsonTracer} for {@link #TRACE_WINDOW_MS}, then write it. */
+    private void startJsonTrace() {
+        if (jsonTracer != null || !FrameTrace.IS_COMPILED_IN) {
+            return;
+        }
+        AppLog.i(TAG, "Start JSON trace.");
+        jsonTracer = new JsonTracer(TRACE_CAPACITY);
+        FrameTrace.setJsonTracer(jsonTracer);
+        tickFunctionHandler.postDelayed(this::stopJsonTrace, TRACE_WINDOW_MS);
+    }
+
+    private void stopJsonTrace() {
+        if (jsonTracer == null) {
+            return;
+        }
+        FrameTrace.setJsonTracer(null);
+        JsonTracer tracer = jsonTracer;
+        jsonTracer = null;
+        File directory = new File(getFilesDir(), TRACE_DIRECTORY);
+        File file = new File(directory, "trace_" + System.currentTimeMillis() + ".json");
+        fileWriteExecutor.execute(() -> {
+            if (!directory.isDirectory() && !directory.mkdirs()) {
+                AppLog.w(TAG, "Cannot create {}", directory);
+                return;
+            }
+            try (Writer writer = new BufferedWriter(new FileWriter(file))) {
+                tracer.writeTo(writer);
+                AppLog.i(TAG, "Wrote {} trace points to {}, dropped {}",
+                        tracer.size(), file, tracer.getDroppedCount());
+            } catch (IOException e) {
+                AppLog.w(TAG, "Cannot write trace: {}", e.getMessage());
+            }
+        });
+    }
+
+    private void timedDispatchEvent() {
+        long startNs = SystemClock.elapsedRealtimeNanos();
+        FrameTrace.beginSection(FrameTrace.DISPATCH);
+        dispatchEvent();
+        facelandmarkerHelper.onResultUsed();
+        FrameTrace.endSection(FrameTrace.DISPATCH);
+        long dispatchNs = SystemClock.elapsedRealtimeNanos() - startNs;
+        performanceHud.record(PerformanceHud.STAGE_DISPATCH, dispatchNs / 1e6f);
+        metrics.dispatchTimeUs.record(dispatchNs / 1000);
+    }
+
+    /** Preview is bound unless headless mode is on and the camera box cannot show it. */
+    private boolean isPreviewNeeded() {
+        return cursorController.cursorMovementConfig.get(
+            CursorMovementConfig.CursorMovementConfigType.HEADLESS_CAMERA) <= 0
+            || serviceUiManager.isCameraPreviewVisible();
+    }
+
+    /**
+     * Bind or unbind the preview next to the running analysis when the camera box is expanded or
+     * minimized. Checked every tick, so the preview is asked for on the tick after expanding.
+     */
+    private void updateCameraBinding() {
+        if (serviceState == ServiceState.DISABLE || cameraProvider == null || cameraPreview == null) {
+            return;
+        }
+        boolean isNeeded = isPreviewNeeded();
+        if (cameraProvider.isBound(cameraPreview) == isNeeded) {
+            return;
+        }
+        accountPreviewModeTime();
+        if (CameraHelper.setPreviewBound(cameraProvider, cameraPreview, this, isNeeded)) {
+            if (isNeeded) {
+                previewRebindCount++;
+            }
+            updateCpuAccountingCameraMode();
+            AppLog.i(TAG, "Camera preview {}", (isNeeded ? "bound" : "unbound"));
+        }
+    }
+
+    /** Add the time since the last call to the current mode. */
+    private void accountPreviewModeTime() {
+        if (cameraProvider == null || cameraPreview == null || previewModeSinceMs == 0) {
+            return;
+        }
+        long nowMs = SystemClock.uptimeMillis();
+        if (cameraProvider.isBound(cameraPreview)) {
+            previewBoundTimeMs += nowMs - previewModeSinceMs;
+        } else {
+            previewUnboundTimeMs += nowMs - previewModeSinceMs;
+        }
+        previewModeSinceMs = nowMs;
+    }
+
+    private String getCameraModeStatsSummary() {
+        accountPreviewModeTime();
+        return "previewBound=" + previewBoundTimeMs + "ms headless=" + previewUnboundTimeMs
+            + "ms rebinds=" + previewRebindCount;
+    }
+
     private void drawCameraBoxDebug() {
+        if (!serviceUiManager.isDebugOverlayActive()) {
+            return;
+        }
         serviceUiManager.drawHeadCenter(
                 facelandmarkerHelper.getHeadCoordXY(),
                 facelandmarkerHelper.mpInputWidth,
@@ -417,6 +858,12 @@ public class CursorAccessibilityService extends AccessibilityService implements
         new Runnable() {
             @Override
             public void run() {
+                long tickStartNs = SystemClock.elapsedRealtimeNanos();
+                tickTimeMs = SystemClock.uptimeMillis();
+                long tickStartCpuNs = CpuAccounting.threadCpuNs();
+                long renderCpuNs = 0;
+                FrameTrace.beginSection(FrameTrace.TICK);
+                tickEvent = BlendshapeEventTriggerConfig.EventType.NONE;
                 if (facelandmarkerHelper == null) {
                     // Back-off.
                     tickFunctionHandler.postDelayed(this, CursorAccessibilityService.UI_UPDATE);
@@ -424,31 +871,43 @@ public class CursorAccessibilityService extends AccessibilityService implements
 
                 switch (serviceState) {
                     case GLOBAL_STICK:
-                        if (shouldSendScore) {
-                            sendBroadcastScore();
-                        }
                     case ENABLE:
                         // Drag drag line if in drag mode.
                         if (cursorController.isDragging) {
-                            serviceUiManager.updateDragLine(cursorController.getCursorPositionXY());
+                            cursorController.getCursorPositionXY(tickCursorXy);
+                            serviceUiManager.updateDragLine(tickCursorXy);
                         }
 
                         // Use for smoothing.
                         int gapFrames =
                             round(max(((float) facelandmarkerHelper.gapTimeMs / (float) UI_UPDATE), 1.0f));
+                        tickGapFrames = gapFrames;
 
+                        facelandmarkerHelper.getHeadCoordXY(tickHeadXy);
                         cursorController.updateInternalCursorPosition(
-                            facelandmarkerHelper.getHeadCoordXY(),
-                            gapFrames,screenSize.x,screenSize.y
+                            tickHeadXy,
+                            gapFrames,screenSize.x,screenSize.y, tickTimeMs
                         );
 
+                        // Move the finger of a live drag along with the cursor.
+                        DispatchEventHelper.updateLiveDrag(CursorAccessibilityService.this, cursorController);
+
+                        // Continuous scroll from a held gesture or head roll.
+                        DispatchEventHelper.updateScroll(CursorAccessibilityService.this, cursorController,
+                            facelandmarkerHelper.getBlendshapes(), facelandmarkerHelper.getHeadRollDegrees());
 
-                        // Actually update the UI cursor image.
-                        serviceUiManager.updateCursorImagePositionOnScreen(
-                            cursorController.getCursorPositionXY()
-                            );
 
-                        dispatchEvent(); // check if any face gesture should trigger an action
+                        // Actually update the UI cursor image.
+                        long renderStartNs = SystemClock.elapsedRealtimeNanos();
+                        long renderStartCpuNs = CpuAccounting.threadCpuNs();
+                        cursorController.getCursorPositionXY(tickCursorXy);
+                        serviceUiManager.updateCursorImagePositionOnScreen(tickCursorXy);
+                        renderCpuNs = cpuAccounting.add(CpuAccounting.STAGE_RENDER, renderStartCpuNs);
+                        performanceHud.record(PerformanceHud.STAGE_RENDER,
+                            (SystemClock.elapsedRealtimeNanos() - renderStartNs) / 1e6f);
+
+                        processNewLandmarkerResult(); // calibration and adaptive thresholds
+                        timedDispatchEvent(); // check if any face gesture should trigger an action
                         checkDragHoldRelease(); // check if hold-to-drag expression was released
                         drawCameraBoxDebug(); // draw debug dots and text in floating camera
                         checkGazeAutoPause(); // auto-pause when not looking at camera
@@ -458,7 +917,8 @@ public class CursorAccessibilityService extends AccessibilityService implements
                         // In PAUSE state user cannot move cursor
                         // but still can perform some event from face gesture.
 
-                        dispatchEvent(); // check if any face gesture should trigger an action
+                        processNewLandmarkerResult();
+                        timedDispatchEvent(); // check if any face gesture should trigger an action
                         drawCameraBoxDebug(); // draw debug dots and text in floating camera
                         checkGazeAutoPause(); // auto-resume when looking at camera again
                         break;
@@ -467,9 +927,29 @@ public class CursorAccessibilityService extends AccessibilityService implements
                         break;
                 }
 
+                updateCameraBinding();
+
                 serviceUiManager.updateStatusIcon(
                     serviceState == ServiceState.PAUSE, checkFaceVisibleInFrame());
 
+                if (serviceState != ServiceState.DISABLE && facelandmarkerHelper != null) {
+                    publishScores();
+                    recordFlightTick();
+                    if (SystemClock.uptimeMillis() - facelandmarkerHelper.prevCallbackTimeMs
+                        > PerformanceHud.STALE_RESULT_MS) {
+                        performanceHud.onStaleTick();
+                        metrics.staleTicks.increment();
+                    }
+                    long tickNs = SystemClock.elapsedRealtimeNanos() - tickStartNs;
+                    performanceHud.record(PerformanceHud.STAGE_TICK, tickNs / 1e6f);
+                    metrics.tickTimeUs.record(tickNs / 1000);
+                }
+                metrics.serviceState.set(serviceState.ordinal());
+                metrics.eventsPerSecond.set(eventSubscriptionManager.getEventsPerSecond());
+
+                FrameTrace.endSection(FrameTrace.TICK);
+                cpuAccounting.addCpuNs(CpuAccounting.STAGE_TICK,
+                    CpuAccounting.threadCpuNs() - tickStartCpuNs - renderCpuNs);
                 tickFunctionHandler.postDelayed(this, CursorAccessibilityService.UI_UPDATE);
             }
         };
@@ -479,6 +959,8 @@ public class CursorAccessibilityService extends AccessibilityService implements
         imageAnalyzer.setAnalyzer(
             backgroundExecutor,
             imageProxy -> {
+                long startCpuNs = CpuAccounting.threadCpuNs();
+                FrameTrace.beginSection(FrameTrace.ANALYZE);
                 if ((SystemClock.uptimeMillis() - lastSendMessage) > MIN_PROCESS) {
 
                     // Create a new message and attach image.
@@ -487,6 +969,9 @@ public class CursorAccessibilityService extends AccessibilityService implements
 
                     if ((facelandmarkerHelper != null) && (facelandmarkerHelper.getHandler() != null)) {
                         // Send message to the thread to process.
+                        analyzedFrameSequence++;
+                        msg.arg1 = analyzedFrameSequence;
+                        FrameTrace.beginAsync(FrameTrace.SLICE_FRAME, analyzedFrameSequence);
                         facelandmarkerHelper.getHandler().sendMessage(msg);
                         lastSendMessage = SystemClock.uptimeMillis();
                     }
@@ -495,27 +980,31 @@ public class CursorAccessibilityService extends AccessibilityService implements
                     // It will be closed by FaceLandmarkHelper.
                     imageProxy.close();
                 }
+                FrameTrace.endSection(FrameTrace.ANALYZE);
+                cpuAccounting.add(CpuAccounting.STAGE_CAMERA, startCpuNs);
             });
     }
 
-    /** Send out blendshape score for visualize in setting page.*/
-    private void sendBroadcastScore() {
-        if (!shouldSendScore) {
+    /** Publish the scores of a new FaceLandmarker result, if a setting page reads them. */
+    private void publishScores() {
+        if (!scoreChannel.hasReaders()
+            || facelandmarkerHelper.prevCallbackTimeMs == lastPublishedResultTimeMs) {
             return;
         }
+        lastPublishedResultTimeMs = facelandmarkerHelper.prevCallbackTimeMs;
 
-        // Get float score of the requested blendshape.
-        try {
-            BlendshapeEventTriggerConfig.Blendshape enumValue =
-                BlendshapeEventTriggerConfig.Blendshape.valueOf(requestedScoreBlendshapeName);
-
-            float score = facelandmarkerHelper.getBlendshapes()[enumValue.value];
-            Intent intent = new Intent(requestedScoreBlendshapeName);
-            intent.putExtra("score", score);
-            sendBroadcast(intent);
-        } catch (IllegalArgumentException e) {
-            Log.w(TAG, "No Blendshape named " + requestedScoreBlendshapeName);
+        float[] blendshapes = facelandmarkerHelper.getBlendshapes();
+        for (BlendshapeEventTriggerConfig.Blendshape shape : BLENDSHAPES) {
+            if (shape == BlendshapeEventTriggerConfig.Blendshape.NONE) {
+                continue;
+            }
+            // Preview the same score the trigger compares against.
+            int channel = BlendshapeScoreChannel.scoreChannel(shape) - BlendshapeScoreChannel.RAW_CHANNEL_COUNT;
+            triggerScoreValues[channel] = cursorController.blendshapeEventTriggerConfig.getScore(blendshapes, shape);
+            triggerScoreValues[channel + 1] = cursorController.getAdaptiveBaseline(shape);
+            triggerScoreValues[channel + 2] = cursorController.getAdaptiveDrift(shape);
         }
+        scoreChannel.publish(lastPublishedResultTimeMs, blendshapes, triggerScoreValues);
     }
 
 
@@ -533,7 +1022,7 @@ public class CursorAccessibilityService extends AccessibilityService implements
     /** Called from startService in MainActivity. After user click the "Start" button. */
     @Override
     public int onStartCommand(Intent intent, int flags, int startId) {
-        Log.d(TAG, "onStartCommand");
+        AppLog.d(TAG, "onStartCommand");
         serviceUiManager.cameraBoxView.findViewById(R.id.popBtn).setBackground(null);
 
         return START_STICKY;
@@ -544,6 +1033,8 @@ public class CursorAccessibilityService extends AccessibilityService implements
         switch (serviceState) {
             case ENABLE:
                 // Already enable, goto pause mode.
+                DispatchEventHelper.cancelPredictedTouch(this, cursorController);
+                DispatchEventHelper.stopScroll(this);
                 serviceState = ServiceState.PAUSE;
                 serviceUiManager.hideCursor();
                 break;
@@ -564,7 +1055,7 @@ public class CursorAccessibilityService extends AccessibilityService implements
      * Remove buttons and make camera feed static.
      */
     public void enterGlobalStickState() {
-        Log.i(TAG, "enterGlobalStickState");
+        AppLog.i(TAG, "enterGlobalStickState");
         switch (serviceState) {
             case PAUSE:
                 togglePause();
@@ -581,7 +1072,7 @@ public class CursorAccessibilityService extends AccessibilityService implements
 
     /** Enable GameFace service. */
     public void enableService() {
-        Log.i(TAG, "enableService, current: "+serviceState);
+        AppLog.i(TAG, "enableService, current: {}", serviceState);
 
         switch (serviceState) {
             case ENABLE:
@@ -595,10 +1086,16 @@ public class CursorAccessibilityService extends AccessibilityService implements
                         () -> {
                             try {
                                 cameraProvider = cameraProviderFuture.get();
-                                CameraHelper.bindPreview(
-                                        cameraProvider, serviceUiManager.innerCameraImageView, imageAnalyzer, this);
+                                if (cameraPreview == null) {
+                                    cameraPreview = CameraHelper.createPreview(serviceUiManager.innerCameraImageView);
+                                }
+                                CameraHelper.bindCamera(cameraProvider,
+                                        isPreviewNeeded() ? cameraPreview : null, imageAnalyzer, this);
+                                previewModeSinceMs = SystemClock.uptimeMillis();
+                                updateCpuAccountingCameraMode();
                             } catch (ExecutionException | InterruptedException e) {
-                                Log.e(TAG, "cameraProvider failed to get provider future: " + e.getMessage());
+                                AppLog.e(TAG, "cameraProvider failed to get provider future: {}",
+                                        e.getMessage());
                             }
                         },
                         ContextCompat.getMainExecutor(this));
@@ -617,24 +1114,32 @@ public class CursorAccessibilityService extends AccessibilityService implements
         serviceUiManager.fitCameraBoxToScreen();
         serviceUiManager.setCameraBoxDraggable(true);
 
-
         serviceState = ServiceState.ENABLE;
+        updateEventSubscription();
 
     }
 
     /** Disable GameFace service. */
     public void disableService() {
-        Log.i(TAG, "disableService");
+        AppLog.i(TAG, "disableService");
         switch (serviceState) {
             case ENABLE:
             case GLOBAL_STICK:
             case PAUSE:
+                DispatchEventHelper.cancelPredictedTouch(this, cursorController);
+                DispatchEventHelper.cancelLiveDrag(this);
+                DispatchEventHelper.stopScroll(this);
+                cursorController.prepareDragEnd(0, 0);
                 serviceUiManager.hideAllWindows();
                 serviceUiManager.setCameraBoxDraggable(true);
 
                 // stop the service functions.
                 facelandmarkerHelper.pauseThread();
                 imageAnalyzer.clearAnalyzer();
+                accountPreviewModeTime();
+                previewModeSinceMs = 0;
+                cpuAccounting.setCameraMode(CpuAccounting.CAMERA_MODE_NONE, SystemClock.uptimeMillis(),
+                    Process.getElapsedCpuTime(), CpuAccounting.readRenderThreadCpuMs());
 
                 // Stop camera.
                 cameraProviderFuture = ProcessCameraProvider.getInstance(this);
@@ -644,11 +1149,13 @@ public class CursorAccessibilityService extends AccessibilityService implements
                             cameraProvider = cameraProviderFuture.get();
                             cameraProvider.unbindAll();
                         } catch (ExecutionException | InterruptedException e) {
-                            Log.e(TAG, "cameraProvider failed to get provider future: " + e.getMessage());
+                            AppLog.e(TAG, "cameraProvider failed to get provider future: {}",
+                                    e.getMessage());
                         }
                     },
                     ContextCompat.getMainExecutor(this));
                 serviceState = ServiceState.DISABLE;
+                updateEventSubscription();
 
                 break;
             default:
@@ -659,15 +1166,31 @@ public class CursorAccessibilityService extends AccessibilityService implements
     /** Destroy GameFace service and unregister broadcasts. */
     @Override
     public void onDestroy() {
-        Log.i(TAG, "onDestroy");
+        AppLog.i(TAG, "onDestroy");
         disableService();
         disableSelf();
+        AppLog.i(TAG, "Gesture dispatch: {}", gestureDispatchQueue.getStatsSummary());
+        AppLog.i(TAG, "Selection time: {}", cursorController.getTargetAssist().getStatsSummary());
+        AppLog.i(TAG, "Click latency: {}", nodeClickDispatcher.getStatsSummary());
+        AppLog.i(TAG, "Cursor rendering: {}", serviceUiManager.getCursorRenderStatsSummary());
+        AppLog.i(TAG, "Camera streams: {}", getCameraModeStatsSummary());
+        AppLog.i(TAG, "Performance HUD: {}", serviceUiManager.getPerformanceHudStatsSummary());
+        AppLog.i(TAG, "Config changes: {}", ConfigRepository.getInstance(this).getStatsSummary());
+        AppLog.i(TAG, "Profile switches: {}", ProfileStore.getInstance(this).getStatsSummary());
+        AppLog.i(TAG, "App profiles: {}", appProfileSwitcher.getStatsSummary());
+        AppLog.i(TAG, "CPU accounting: {}", cpuAccounting.getSummary());
+        tickFunctionHandler.removeCallbacks(sampleEnergy);
+        nodeClickDispatcher.release();
+        gestureDispatchQueue.release();
+        clickableNodeIndex.release();
         // Unregister when the service is destroyed
         unregisterReceiver(changeServiceStateReceiver);
-        unregisterReceiver(loadSharedConfigBasicReceiver);
-        unregisterReceiver(loadSharedConfigGestureReceiver);
+        ConfigRepository.getInstance(this).removeListener(configListener);
+        ProfileStore.getInstance(this).removeListener(profileListener);
+        fileWriteExecutor.shutdown();
+        appProfileSwitcher.setEnabled(false);
         unregisterReceiver(requestServiceStateReceiver);
-        unregisterReceiver(enableScorePreviewReceiver);
+        unregisterReceiver(calibrationReceiver);
         unregisterReceiver(serviceUiManager.flyInWindowReceiver);
         unregisterReceiver(serviceUiManager.flyOutWindowReceiver);
         unregisterReceiver(serviceUiManager.cameraSizeChangeReceiver);
@@ -681,8 +1204,26 @@ public class CursorAccessibilityService extends AccessibilityService implements
     private void dispatchEvent() {
         // Check what event to dispatch.
         BlendshapeEventTriggerConfig.EventType event =
-            cursorController.createCursorEvent(facelandmarkerHelper.getBlendshapes());
+            cursorController.createCursorEvent(facelandmarkerHelper.getBlendshapes(), tickTimeMs);
+
+        // A cancel always goes out, the finger must not stay down whatever the state.
+        GesturePredictor.Action prediction = cursorController.getPredictionAction();
+        if (prediction == GesturePredictor.Action.CANCEL
+            || (prediction != GesturePredictor.Action.NONE
+                && (serviceState == ServiceState.ENABLE || serviceState == ServiceState.GLOBAL_STICK))) {
+            DispatchEventHelper.dispatchPredictedTouch(this, cursorController, serviceUiManager, prediction);
+        }
+        if (prediction != GesturePredictor.Action.NONE) {
+            GesturePredictor predictor = cursorController.getGesturePredictor();
+            metrics.predictionClickTimeSavedMs.set(predictor.getMeanClickTimeSavedMs());
+            metrics.predictionFalseTriggerRate.set(predictor.getFalseTriggerRate());
+            metrics.predictionFalseClickRate.set(predictor.getFalseClickRate());
+        }
 
+        tickEvent = event;
+        if (event != BlendshapeEventTriggerConfig.EventType.NONE) {
+            metrics.gesturesFired[event.ordinal()].increment();
+        }
 
         switch (event) {
             case NONE:
@@ -691,6 +1232,7 @@ public class CursorAccessibilityService extends AccessibilityService implements
                 break;
             default:
                 // Cancel drag if user perform any other event.
+                DispatchEventHelper.cancelLiveDrag(this);
                 cursorController.prepareDragEnd(0, 0);
                 serviceUiManager.fullScreenCanvas.clearDragLine();
                 break;
@@ -717,6 +1259,7 @@ public class CursorAccessibilityService extends AccessibilityService implements
                 }
                 if (cursorController.isDragging) {
                     serviceUiManager.fullScreenCanvas.clearDragLine();
+                    DispatchEventHelper.cancelLiveDrag(this);
                     cursorController.prepareDragEnd(0, 0);
                 }
                 break;
@@ -737,7 +1280,7 @@ public class CursorAccessibilityService extends AccessibilityService implements
 
     @Override
     public void onConfigurationChanged(Configuration newConfig) {
-        Log.d(TAG, "onConfigurationChanged");
+        AppLog.d(TAG, "onConfigurationChanged");
         super.onConfigurationChanged(newConfig);
 
 
@@ -753,7 +1296,10 @@ public class CursorAccessibilityService extends AccessibilityService implements
             facelandmarkerHelper.setRotation(newRotation);
         }
 
-        // On-going drag event will be cancel when screen is rotate.
+        // On-going drag, scroll and predicted touch will be cancel when screen is rotate.
+        DispatchEventHelper.cancelPredictedTouch(this, cursorController);
+        DispatchEventHelper.stopScroll(this);
+        DispatchEventHelper.cancelLiveDrag(this);
         cursorController.prepareDragEnd(0, 0);
         serviceUiManager.fullScreenCanvas.clearDragLine();
 
@@ -773,11 +1319,105 @@ public class CursorAccessibilityService extends AccessibilityService implements
     }
 
     @Override
-    public void onAccessibilityEvent(AccessibilityEvent event) {}
+    protected void onServiceConnected() {
+        super.onServiceConnected();
+        AppLog.i(TAG, "onServiceConnected");
+        eventSubscriptionManager.onServiceConnected();
+        updateEventSubscription();
+    }
+
+    private void updateRenderingConfig() {
+        serviceUiManager.setCanvasCursorEnabled(cursorController.cursorMovementConfig.get(
+            CursorMovementConfig.CursorMovementConfigType.CANVAS_CURSOR) > 0);
+        serviceUiManager.setDebugOverlayEnabled(cursorController.cursorMovementConfig.get(
+            CursorMovementConfig.CursorMovementConfigType.DEBUG_OVERLAY) > 0);
+        serviceUiManager.setPerformanceHud(cursorController.cursorMovementConfig.get(
+            CursorMovementConfig.CursorMovementConfigType.PERFORMANCE_HUD) > 0 ? performanceHud : null);
+    }
+
+    /** Subscribe to the accessibility events of the features in use, and only those. */
+    private void updateEventSubscription() {
+        boolean isActive = serviceState != ServiceState.DISABLE;
+        boolean isIndexNeeded = isActive && cursorController.isNodeIndexNeeded();
+        boolean isForegroundAppNeeded = isActive && ProfileStore.getInstance(this).hasAppProfiles();
+        clickableNodeIndex.setEnabled(isIndexNeeded);
+        appProfileSwitcher.setEnabled(isForegroundAppNeeded);
+        eventSubscriptionManager.setFeatures(
+            (isIndexNeeded ? EventSubscriptionManager.FEATURE_TARGET_INDEX : 0)
+                | (isForegroundAppNeeded ? EventSubscriptionManager.FEATURE_FOREGROUND_APP : 0));
+    }
+
+    @Override
+    public void onAccessibilityEvent(AccessibilityEvent event) {
+        eventSubscriptionManager.onEvent(SystemClock.uptimeMillis());
+        clickableNodeIndex.onAccessibilityEvent(event);
+        appProfileSwitcher.onAccessibilityEvent(event);
+    }
 
     @Override
     public void onInterrupt() {}
 
+    /**
+     * Print the metrics and the CPU accounting, shown by {@code adb shell dumpsys activity service
+     * com.google.projectgameface/.CursorAccessibilityService [json|reset|flight|trace|logcat=d]}.
+     *
+     * <p>Argument "json" prints them as one JSON object, "reset" zeroes the counters and
+     * histograms after printing, "flight" writes the flight recording and "trace" records a JSON
+     * trace of the frame pipeline. The text output ends with the recent log, "logcat=" followed by
+     * v, d, i, w, e or off sets what is also written to logcat.
+     */
+    @Override
+    protected void dump(FileDescriptor fd, PrintWriter writer, String[] args) {
+        boolean isJson = false;
+        boolean isReset = false;
+        boolean isFlight = false;
+        boolean isTrace = false;
+        int logcatLevel = -1;
+        if (args != null) {
+            for (String arg : args) {
+                isTrace |= "trace".equals(arg);
+                isJson |= "json".equals(arg);
+                isReset |= "reset".equals(arg);
+                isFlight |= "flight".equals(arg);
+                if (arg.startsWith(LOGCAT_ARG_PREFIX)) {
+                    logcatLevel = AppLog.parseLevel(arg.substring(LOGCAT_ARG_PREFIX.length()));
+                }
+            }
+        }
+        if (logcatLevel >= 0) {
+            AppLog.setLogcatLevel(logcatLevel);
+        }
+        if (isJson) {
+            metrics.registry.dumpJson(writer);
+        } else {
+            metrics.registry.dump(writer);
+            writer.println("CPU accounting");
+            cpuAccounting.dump(writer);
+            writer.println("Log");
+            AppLog.dump(writer);
+        }
+        if (isTrace) {
+            tickFunctionHandler.post(this::startJsonTrace);
+            if (!isJson) {
+                writer.println("Trace of " + TRACE_WINDOW_MS / 1000 + " s will be written to "
+                    + TRACE_DIRECTORY + "/.");
+            }
+        }
+        if (isFlight) {
+            tickFunctionHandler.post(() -> writeFlightRecording("on_demand"));
+            if (!isJson) {
+                writer.println("Flight recording will be written to " + FLIGHT_DIRECTORY + "/.");
+            }
+        }
+        if (isReset) {
+            metrics.registry.reset();
+            if (!isJson) {
+                writer.println("Metrics reset.");
+            }
+        }
+        writer.flush();
+    }
+
     @NonNull
     @Override
     public Lifecycle getLifecycle() {
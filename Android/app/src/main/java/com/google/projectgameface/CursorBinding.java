@@ -12,6 +12,10 @@
  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
  * See the License for the specific language governing permissions and
  * limitations under the License.
+ *
+ * MODIFICATION NOTICE
+ * as per the licence its required to give notice that this code has been modified by a third party.
+ * 2026 - Helgi Steinarr Juliusson, changes can be found in version control.
  */
 
 package com.google.projectgameface;
@@ -22,7 +26,6 @@ import android.content.Intent;
 import android.content.SharedPreferences;
 import android.os.Build.VERSION;
 import android.os.Bundle;
-import android.util.Log;
 import android.view.MenuItem;
 import androidx.activity.OnBackPressedCallback;
 import android.view.WindowManager.LayoutParams;
@@ -107,7 +110,7 @@ public class CursorBinding extends AppCompatActivity {
 
     private void refreshUI()
     {
-        Log.i(TAG, "refreshUI");
+        AppLog.i(TAG, "refreshUI");
         setUpActionList(
             String.valueOf(BlendshapeEventTriggerConfig.EventType.CURSOR_TOUCH),
             textTab,
@@ -166,9 +169,34 @@ public class CursorBinding extends AppCompatActivity {
             textDrag,
             dragLinear,
             (ImageView) findViewById(R.id.dragIcon));
+    }
 
+    private void refreshCalibrationStatus()
+    {
+        // Calibration is stored alongside the bindings, one key set per blendshape.
+        SharedPreferences preferences = getSharedPreferences("GameFaceLocalConfig", Context.MODE_PRIVATE);
+        boolean isCalibrated = false;
+        for (BlendshapeEventTriggerConfig.Blendshape blendshape : BlendshapeEventTriggerConfig.Blendshape.values()) {
+            if (preferences.contains(BlendshapeCalibration.PREFERENCE_KEY_PREFIX + blendshape.name() + "_max")) {
+                isCalibrated = true;
+                break;
+            }
+        }
+        TextView calibrationStatus = findViewById(R.id.calibrationStatus);
+        calibrationStatus.setText(isCalibrated ? "Calibrated" : "Not calibrated");
     }
 
+    /**
+     * The service stores a finished calibration when the session ends, which can be after this
+     * page is back in front.
+     */
+    private final SharedPreferences.OnSharedPreferenceChangeListener calibrationListener =
+        (preferences, key) -> {
+            if (key != null && key.startsWith(BlendshapeCalibration.PREFERENCE_KEY_PREFIX)) {
+                refreshCalibrationStatus();
+            }
+        };
+
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -239,6 +267,12 @@ public class CursorBinding extends AppCompatActivity {
         }
 
 
+        findViewById(R.id.calibrationLayout).setOnClickListener(v -> {
+            Intent intent = new Intent(getBaseContext(), CalibrationActivity.class);
+            startActivity(intent);
+        });
+
+
         // Make back button work as back action in device's navigation.
         OnBackPressedCallback onBackPressedCallback = new OnBackPressedCallback(true) {
             @Override
@@ -269,9 +303,19 @@ public class CursorBinding extends AppCompatActivity {
     @Override
     protected void onResume() {
         refreshUI();
+        refreshCalibrationStatus();
+        getSharedPreferences("GameFaceLocalConfig", Context.MODE_PRIVATE)
+            .registerOnSharedPreferenceChangeListener(calibrationListener);
         super.onResume();
     }
 
+    @Override
+    protected void onPause() {
+        super.onPause();
+        getSharedPreferences("GameFaceLocalConfig", Context.MODE_PRIVATE)
+            .unregisterOnSharedPreferenceChangeListener(calibrationListener);
+    }
+
 
 
 }
@@ -12,6 +12,10 @@
  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
  * See the License for the specific language governing permissions and
  * limitations under the License.
+ *
+ * MODIFICATION NOTICE
+ * as per the licence its required to give notice that this code has been modified by a third party.
+ * 2026 - Helgi Steinarr Juliusson, changes can be found in version control.
  */
 
 package com.google.projectgameface;
@@ -20,11 +24,10 @@ package com.google.projectgameface;
 import static androidx.core.math.MathUtils.clamp;
 
 import android.content.Context;
+import android.os.SystemClock;
 import android.util.Log;
 
-import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.Map;
 
 public class CursorController {
 
@@ -62,15 +65,66 @@ public class CursorController {
     /** Teleport mode helps user quickly jump to screen edge with small head turning.*/
     private boolean isTeleportMode = false;
 
+    /** See {@link #getRequestedMoveCount}. */
+    private int requestedMoveCount = 0;
+
     public boolean isDragging = false;
 
-    private static final int MAX_BUFFER_SIZE = 100;
+    /** About one second of cursor positions at {@value CursorAccessibilityService#UI_UPDATE} ms ticks. */
+    private static final int POSITION_HISTORY_SIZE = 64;
+
+    /**
+     * Head starts moving slightly before the gesture score rises, so rewind to the position this
+     * long before onset was detected.
+     */
+    private static final long DRIFT_REWIND_MS = 50;
+
+    /** Never freeze longer than this, in case the gesture is held without triggering. */
+    private static final long MAX_FREEZE_MS = 700;
+
+    /** How far from baseline to threshold a score must rise to count as gesture onset. */
+    private static final float ONSET_FRACTION = 0.3f;
+
+    /** Timestamped cursor positions, used to rewind the gesture-induced drift. */
+    private final CursorPositionHistory positionHistory = new CursorPositionHistory(POSITION_HISTORY_SIZE);
+
+    /** Time of the last {@link #updateInternalCursorPosition} call. */
+    private long lastUpdateTimeMs = 0;
+
+    /** Cursor does not follow the head while a touch or drag gesture is rising. */
+    private boolean isMotionFrozen = false;
+
+    /** Freeze again only after the gesture was released. */
+    private boolean isFreezeArmed = true;
+    private long freezeStartTimeMs = 0;
+
+    /** Where the cursor would be without compensation, for measuring the avoided drift. */
+    private double uncompensatedX;
+    private double uncompensatedY;
+    private final float[] rewindXy = new float[2];
 
-    /** Array for storing user face coordinate x coordinate (detected from FaceLandmarks). */
-    ArrayList<Float> faceCoordXBuffer;
+    /** Presses the touch down early on a confident rising CURSOR_TOUCH gesture. */
+    private final GesturePredictor gesturePredictor = new GesturePredictor();
+    private GesturePredictor.Action predictionAction = GesturePredictor.Action.NONE;
 
-    /** Array for storing user face coordinate y coordinate (detected from FaceLandmarks). */
-    ArrayList<Float> faceCoordYBuffer;
+    /** Sticky targets and touch snapping, off unless a node index is set. */
+    private final TargetAssist targetAssist = new TargetAssist();
+    private ClickableNodeIndex clickableNodeIndex = null;
+    private final float[] snapXy = new float[2];
+
+    /** Output of {@link #updateTeleportLocation()}, reused every tick. */
+    private final double[] teleportXy = new double[2];
+
+    /** Cached as values() copies the array on every call. */
+    private static final BlendshapeEventTriggerConfig.EventType[] EVENT_TYPES =
+        BlendshapeEventTriggerConfig.EventType.values();
+    private static final BlendshapeEventTriggerConfig.Blendshape[] BLENDSHAPES =
+        BlendshapeEventTriggerConfig.Blendshape.values();
+
+    /** Drift compensation stats. */
+    private int compensatedEventCount = 0;
+    private double driftAvoidedSumPx = 0;
+    private float driftAvoidedMaxPx = 0.f;
 
     private float prevX = 0.f;
     private float prevY = 0.f;
@@ -93,15 +147,18 @@ public class CursorController {
     /** Keep tracking if any event is triggered. */
     private final HashMap<BlendshapeEventTriggerConfig.EventType, Boolean> blendshapeEventTriggeredTracker = new HashMap<>();
 
+    /** Follows the resting score of each blendshape to shift thresholds when it drifts. */
+    private final AdaptiveThresholdTracker adaptiveThresholdTracker = new AdaptiveThresholdTracker();
+
+    /** Scratch flags of channels with a gesture in progress, indexed by blendshape index. */
+    private final boolean[] isChannelActive = new boolean[BlendshapeCalibration.TOTAL_BLENDSHAPES];
+
     /**
      * Calculate cursor movement and keeping track of face action events.
      *
      * @param context Context for open SharedPreference
      */
     public CursorController(Context context) {
-        faceCoordXBuffer = new ArrayList<>();
-        faceCoordYBuffer = new ArrayList<>();
-
         // Create cursor movement config and initialize;
         cursorMovementConfig = new CursorMovementConfig(context);
         cursorMovementConfig.updateAllConfigFromSharedPreference();
@@ -116,8 +173,8 @@ public class CursorController {
         }
     }
 
-    /** Scale cursor velocity X, Y with different multiplier in each axis. */
-    private float[] asymmetryScaleXy(float velX, float velY) {
+    /** Scale cursor velocity X, Y with different multiplier in each axis, into velX and velY. */
+    private void asymmetryScaleXy(float velX, float velY) {
         // Speed multiplier in X axis.
         float multiplierX =
             (velX > 0)
@@ -130,7 +187,8 @@ public class CursorController {
                 ? cursorMovementConfig.get(CursorMovementConfig.CursorMovementConfigType.DOWN_SPEED)
                 : cursorMovementConfig.get(CursorMovementConfig.CursorMovementConfigType.UP_SPEED);
 
-        return new float[] {velX * multiplierX, velY * multiplierY};
+        this.velX = velX * multiplierX;
+        this.velY = velY * multiplierY;
     }
 
     /**
@@ -141,26 +199,15 @@ public class CursorController {
         float faceCoordX = faceCoordXy[0];
         float faceCoordY = faceCoordXy[1];
 
-        faceCoordXBuffer.add(faceCoordX);
-        faceCoordYBuffer.add(faceCoordY);
-
         // Calculate speed
         float tempVelX = faceCoordX - prevX;
         float tempVelY = faceCoordY - prevY;
 
-        float[] result = asymmetryScaleXy(tempVelX, tempVelY);
-
-        this.velX = result[0];
-        this.velY = result[1];
+        asymmetryScaleXy(tempVelX, tempVelY);
 
         // History
         prevX = faceCoordX;
         prevY = faceCoordY;
-
-        if (faceCoordXBuffer.size() > MAX_BUFFER_SIZE) {
-            faceCoordXBuffer.remove(0);
-            faceCoordYBuffer.remove(0);
-        }
     }
 
     /**
@@ -170,34 +217,49 @@ public class CursorController {
      * @return EventType that should be trigger. Will be {@link BlendshapeEventTriggerConfig.EventType#NONE} if no valid event.
      */
     public BlendshapeEventTriggerConfig.EventType createCursorEvent(float[] blendshapes) {
-        // Loop over registered event-blendshape-threshold pairs.
-        for (Map.Entry<BlendshapeEventTriggerConfig.EventType, BlendshapeEventTriggerConfig.BlendshapeAndThreshold> entry :
-            blendshapeEventTriggerConfig.getAllConfig().entrySet()) {
-            BlendshapeEventTriggerConfig.EventType eventType = entry.getKey();
-            BlendshapeEventTriggerConfig.BlendshapeAndThreshold blendshapeAndThreshold = entry.getValue();
+        return createCursorEvent(blendshapes, SystemClock.uptimeMillis());
+    }
 
-            if (blendshapeAndThreshold.shape() == BlendshapeEventTriggerConfig.Blendshape.NONE) {
+    /**
+     * Create performable event from blendshapes array if its threshold value reach the threshold.
+     *
+     * @param blendshapes The blendshapes array from MediaPipe FaceLandmarks model.
+     * @param timeMs Time of this tick, a replay passes the recorded one.
+     * @return EventType that should be trigger. Will be {@link BlendshapeEventTriggerConfig.EventType#NONE} if no valid event.
+     */
+    public BlendshapeEventTriggerConfig.EventType createCursorEvent(float[] blendshapes, long timeMs) {
+        updateDriftCompensation(blendshapes);
+        updatePrediction(blendshapes, timeMs);
+
+        // Loop over registered event-blendshape-threshold pairs, in EventType order so no iterator
+        // is allocated.
+        HashMap<BlendshapeEventTriggerConfig.EventType, BlendshapeEventTriggerConfig.BlendshapeAndThreshold> config =
+            blendshapeEventTriggerConfig.getAllConfig();
+        for (BlendshapeEventTriggerConfig.EventType eventType : EVENT_TYPES) {
+            BlendshapeEventTriggerConfig.BlendshapeAndThreshold blendshapeAndThreshold = config.get(eventType);
+
+            if (blendshapeAndThreshold == null
+                || blendshapeAndThreshold.shape() == BlendshapeEventTriggerConfig.Blendshape.NONE) {
                 continue;
             }
             if (blendshapeEventTriggeredTracker.get(eventType) == null) {
                 continue;
             }
-            float score = blendshapes[blendshapeAndThreshold.shape().value];
+            // Swipe gestures scroll continuously while held instead.
+            if (isSwipeEvent(eventType) && getScrollMode() == SCROLL_MODE_HOLD) {
+                continue;
+            }
+            float score = blendshapeEventTriggerConfig.getScore(blendshapes, blendshapeAndThreshold.shape());
 
             boolean eventTriggered = Boolean.TRUE.equals(blendshapeEventTriggeredTracker.get(eventType));
+            float threshold = getTriggerThreshold(blendshapeAndThreshold);
 
-            if (!eventTriggered && (score > blendshapeAndThreshold.threshold())) {
+            if (!eventTriggered && (score > threshold)) {
                 blendshapeEventTriggeredTracker.put(eventType, true);
-                if (eventType == BlendshapeEventTriggerConfig.EventType.SHOW_APPS) {
-                    Log.i(
-                        TAG,
-                        eventType
-                            + " "
-                            + blendshapeAndThreshold.shape()
-                            + " "
-                            + score
-                            + " "
-                            + blendshapeAndThreshold.threshold());
+                // Checked first, the scores are boxed before AppLog sees the level.
+                if (eventType == BlendshapeEventTriggerConfig.EventType.SHOW_APPS
+                    && AppLog.isLoggable(Log.INFO)) {
+                    AppLog.i(TAG, "{} score {} over threshold {}", eventType, score, threshold);
                 }
 
                 // Return the correspond event (te be trigger in Accessibility service).
@@ -205,13 +267,29 @@ public class CursorController {
                 if (eventType == BlendshapeEventTriggerConfig.EventType.CURSOR_RESET)
                 {
                     isTeleportMode = true;
+                    requestedMoveCount++;
                     teleportShadowX = (double) this.screenWidth / 2;
                     teleportShadowY = (double) this.screenHeight / 2;
                 }
 
+                if (isMotionFrozen && isPositionalEvent(eventType)) {
+                    recordCompensatedEvent();
+                    // Hold-to-drag needs the cursor to move while the gesture is held.
+                    if (eventType == BlendshapeEventTriggerConfig.EventType.DRAG_TOGGLE && isDragHoldModeEnabled()) {
+                        isMotionFrozen = false;
+                    }
+                }
+
+                // Already clicked by the prediction, before or on this crossing.
+                if (eventType == BlendshapeEventTriggerConfig.EventType.CURSOR_TOUCH
+                    && (predictionAction == GesturePredictor.Action.RELEASE
+                        || predictionAction == GesturePredictor.Action.CROSSED)) {
+                    continue;
+                }
+
                 return eventType;
 
-            } else if (eventTriggered && (score <= blendshapeAndThreshold.threshold())) {
+            } else if (eventTriggered && (score <= threshold)) {
                 // Reset the trigger.
                 blendshapeEventTriggeredTracker.put(eventType, false);
                 if (eventType == BlendshapeEventTriggerConfig.EventType.CURSOR_RESET)
@@ -229,6 +307,290 @@ public class CursorController {
         return BlendshapeEventTriggerConfig.EventType.NONE;
     }
 
+    /**
+     * Threshold the score of a binding is compared against, shifted by the baseline drift when
+     * adaptive threshold is enabled.
+     */
+    private float getTriggerThreshold(BlendshapeEventTriggerConfig.BlendshapeAndThreshold blendshapeAndThreshold) {
+        if (!isAdaptiveThresholdEnabled()) {
+            return blendshapeAndThreshold.threshold();
+        }
+        return adaptiveThresholdTracker.getEffectiveThreshold(
+            blendshapeAndThreshold.shape(), blendshapeAndThreshold.threshold());
+    }
+
+    public boolean isAdaptiveThresholdEnabled() {
+        return cursorMovementConfig.get(CursorMovementConfig.CursorMovementConfigType.ADAPTIVE_THRESHOLD) > 0;
+    }
+
+    /**
+     * Feed one FaceLandmarker result to the baseline trackers. Only channels with no gesture in
+     * progress are sampled, so performing a gesture never raises its own threshold. Should be
+     * called once per new result, not per UI tick.
+     *
+     * @param blendshapes The blendshapes array from MediaPipe FaceLandmarks model.
+     */
+    public void updateAdaptiveThresholds(float[] blendshapes) {
+        if (!isAdaptiveThresholdEnabled()) {
+            return;
+        }
+
+        // Mark channels that are triggered or above any of their thresholds.
+        for (int i = 0; i < isChannelActive.length; i++) {
+            isChannelActive[i] = false;
+        }
+        HashMap<BlendshapeEventTriggerConfig.EventType, BlendshapeEventTriggerConfig.BlendshapeAndThreshold> config =
+            blendshapeEventTriggerConfig.getAllConfig();
+        for (BlendshapeEventTriggerConfig.EventType eventType : EVENT_TYPES) {
+            BlendshapeEventTriggerConfig.BlendshapeAndThreshold binding = config.get(eventType);
+            if (binding == null || binding.shape() == BlendshapeEventTriggerConfig.Blendshape.NONE) {
+                continue;
+            }
+            BlendshapeEventTriggerConfig.Blendshape shape = binding.shape();
+            if (Boolean.TRUE.equals(blendshapeEventTriggeredTracker.get(eventType))
+                || blendshapeEventTriggerConfig.getScore(blendshapes, shape) > getTriggerThreshold(binding)) {
+                isChannelActive[shape.value] = true;
+            }
+        }
+
+        for (BlendshapeEventTriggerConfig.Blendshape shape : BLENDSHAPES) {
+            if (shape == BlendshapeEventTriggerConfig.Blendshape.NONE || isChannelActive[shape.value]) {
+                continue;
+            }
+            adaptiveThresholdTracker.addIdleSample(shape, blendshapeEventTriggerConfig.getScore(blendshapes, shape));
+        }
+    }
+
+    /**
+     * Switch every movement, binding and calibration value to a profile at once. Tracked
+     * baselines are dropped as they belong to the previous calibration.
+     */
+    void applyProfile(ProfileSnapshot snapshot) {
+        cursorMovementConfig.applySnapshot(snapshot);
+        blendshapeEventTriggerConfig.applySnapshot(snapshot);
+        resetAdaptiveThresholds();
+    }
+
+    /** Forget tracked baselines, for example when the calibration changed the score scale. */
+    public void resetAdaptiveThresholds() {
+        adaptiveThresholdTracker.reset();
+    }
+
+    /** Current resting score of a blendshape, for the live score preview. */
+    public float getAdaptiveBaseline(BlendshapeEventTriggerConfig.Blendshape shape) {
+        return adaptiveThresholdTracker.getBaseline(shape);
+    }
+
+    /** Current threshold shift of a blendshape, 0 when adaptive threshold is disabled. */
+    public float getAdaptiveDrift(BlendshapeEventTriggerConfig.Blendshape shape) {
+        if (!isAdaptiveThresholdEnabled()) {
+            return 0.f;
+        }
+        return adaptiveThresholdTracker.getDrift(shape);
+    }
+
+    /** Events dispatched at the cursor position, these are the ones drift compensation protects. */
+    private static boolean isPositionalEvent(BlendshapeEventTriggerConfig.EventType eventType) {
+        return eventType == BlendshapeEventTriggerConfig.EventType.CURSOR_TOUCH
+            || eventType == BlendshapeEventTriggerConfig.EventType.DRAG_TOGGLE;
+    }
+
+    public boolean isDriftCompensationEnabled() {
+        return cursorMovementConfig.get(CursorMovementConfig.CursorMovementConfigType.DRIFT_COMPENSATION) > 0;
+    }
+
+    /**
+     * Opening the mouth or raising an eyebrow also moves the head landmark, so the cursor drifts
+     * just as the gesture fires. When a touch or drag gesture starts rising, freeze the cursor and
+     * rewind it to where it was just before onset. Released when the gesture falls back.
+     */
+    private void updateDriftCompensation(float[] blendshapes) {
+        if (!isDriftCompensationEnabled() || isTeleportMode) {
+            isMotionFrozen = false;
+            isFreezeArmed = true;
+            return;
+        }
+
+        boolean isOnset = false;
+        HashMap<BlendshapeEventTriggerConfig.EventType, BlendshapeEventTriggerConfig.BlendshapeAndThreshold> config =
+            blendshapeEventTriggerConfig.getAllConfig();
+        for (BlendshapeEventTriggerConfig.EventType eventType : EVENT_TYPES) {
+            BlendshapeEventTriggerConfig.BlendshapeAndThreshold binding = config.get(eventType);
+            if (!isPositionalEvent(eventType) || binding == null
+                || binding.shape() == BlendshapeEventTriggerConfig.Blendshape.NONE) {
+                continue;
+            }
+            BlendshapeEventTriggerConfig.Blendshape shape = binding.shape();
+            float threshold = getTriggerThreshold(binding);
+            float baseline = Math.min(adaptiveThresholdTracker.getBaseline(shape), threshold);
+            float onsetLevel = baseline + (threshold - baseline) * ONSET_FRACTION;
+            if (blendshapeEventTriggerConfig.getScore(blendshapes, shape) > onsetLevel) {
+                isOnset = true;
+                break;
+            }
+        }
+
+        if (!isOnset) {
+            isMotionFrozen = false;
+            isFreezeArmed = true;
+        } else if (isFreezeArmed) {
+            isFreezeArmed = false;
+            isMotionFrozen = true;
+            freezeStartTimeMs = lastUpdateTimeMs;
+            uncompensatedX = cursorPositionX;
+            uncompensatedY = cursorPositionY;
+            if (positionHistory.getPositionAt(lastUpdateTimeMs - DRIFT_REWIND_MS, rewindXy)) {
+                cursorPositionX = rewindXy[0];
+                cursorPositionY = rewindXy[1];
+                requestedMoveCount++;
+            }
+        } else if (isMotionFrozen && (lastUpdateTimeMs - freezeStartTimeMs) > MAX_FREEZE_MS) {
+            // Held too long without triggering, let the cursor move again.
+            isMotionFrozen = false;
+        }
+    }
+
+    /** Scroll mode values, see {@link CursorMovementConfig.CursorMovementConfigType#SCROLL_MODE}. */
+    public static final int SCROLL_MODE_OFF = 0;
+    public static final int SCROLL_MODE_HOLD = 1;
+    public static final int SCROLL_MODE_ROLL = 2;
+
+    /** Head roll below this does not scroll, nobody holds their head perfectly level. */
+    private static final float SCROLL_ROLL_DEAD_ZONE_DEGREES = 8.f;
+
+    /** Head roll at which the scroll reaches full speed. */
+    private static final float SCROLL_ROLL_FULL_SPEED_DEGREES = 25.f;
+
+    /** A swipe gesture just past its threshold already scrolls at this fraction of full speed. */
+    private static final float SCROLL_MIN_HOLD_INTENSITY = 0.2f;
+
+    public int getScrollMode() {
+        return (int) cursorMovementConfig.get(CursorMovementConfig.CursorMovementConfigType.SCROLL_MODE);
+    }
+
+    /**
+     * Finger velocity of the continuous scroll the user is asking for. In hold mode the swipe
+     * gestures scroll while held, harder is faster. In roll mode tilting the head scrolls vertically.
+     *
+     * @param blendshapes The blendshapes array from MediaPipe FaceLandmarks model.
+     * @param headRollDegrees Head roll, 0 when level.
+     * @param outVelocity Receives finger velocity X, Y in px/s.
+     */
+    public void getScrollTargetVelocity(float[] blendshapes, float headRollDegrees, float[] outVelocity) {
+        outVelocity[0] = 0.f;
+        outVelocity[1] = 0.f;
+        switch (getScrollMode()) {
+            case SCROLL_MODE_HOLD:
+                outVelocity[0] = ScrollController.MAX_SPEED_PX_PER_S
+                    * (getScrollHoldIntensity(blendshapes, BlendshapeEventTriggerConfig.EventType.SWIPE_RIGHT)
+                    - getScrollHoldIntensity(blendshapes, BlendshapeEventTriggerConfig.EventType.SWIPE_LEFT));
+                outVelocity[1] = ScrollController.MAX_SPEED_PX_PER_S
+                    * (getScrollHoldIntensity(blendshapes, BlendshapeEventTriggerConfig.EventType.SWIPE_DOWN)
+                    - getScrollHoldIntensity(blendshapes, BlendshapeEventTriggerConfig.EventType.SWIPE_UP));
+                break;
+            case SCROLL_MODE_ROLL:
+                float intensity = (Math.abs(headRollDegrees) - SCROLL_ROLL_DEAD_ZONE_DEGREES)
+                    / (SCROLL_ROLL_FULL_SPEED_DEGREES - SCROLL_ROLL_DEAD_ZONE_DEGREES);
+                intensity = (float) clamp(intensity, 0.f, 1.f);
+                // Tilting to the positive side moves the finger up, reading further down the page.
+                outVelocity[1] = -Math.signum(headRollDegrees) * intensity * ScrollController.MAX_SPEED_PX_PER_S;
+                break;
+            default:
+                break;
+        }
+    }
+
+    private float getScrollHoldIntensity(float[] blendshapes, BlendshapeEventTriggerConfig.EventType eventType) {
+        BlendshapeEventTriggerConfig.BlendshapeAndThreshold binding =
+            blendshapeEventTriggerConfig.getAllConfig().get(eventType);
+        if (binding == null || binding.shape() == BlendshapeEventTriggerConfig.Blendshape.NONE) {
+            return 0.f;
+        }
+        float threshold = getTriggerThreshold(binding);
+        float score = blendshapeEventTriggerConfig.getScore(blendshapes, binding.shape());
+        if (score <= threshold || threshold >= 1.f) {
+            return 0.f;
+        }
+        return SCROLL_MIN_HOLD_INTENSITY
+            + (1.f - SCROLL_MIN_HOLD_INTENSITY) * Math.min(1.f, (score - threshold) / (1.f - threshold));
+    }
+
+    private static boolean isSwipeEvent(BlendshapeEventTriggerConfig.EventType eventType) {
+        return eventType == BlendshapeEventTriggerConfig.EventType.SWIPE_UP
+            || eventType == BlendshapeEventTriggerConfig.EventType.SWIPE_DOWN
+            || eventType == BlendshapeEventTriggerConfig.EventType.SWIPE_LEFT
+            || eventType == BlendshapeEventTriggerConfig.EventType.SWIPE_RIGHT;
+    }
+
+    public boolean isLiveDragEnabled() {
+        return cursorMovementConfig.get(CursorMovementConfig.CursorMovementConfigType.LIVE_DRAG) > 0;
+    }
+
+    public boolean isPredictiveTriggerEnabled() {
+        return cursorMovementConfig.get(CursorMovementConfig.CursorMovementConfigType.PREDICTIVE_TRIGGER) > 0;
+    }
+
+    private void updatePrediction(float[] blendshapes, long timeMs) {
+        BlendshapeEventTriggerConfig.BlendshapeAndThreshold touch =
+            blendshapeEventTriggerConfig.getAllConfig().get(BlendshapeEventTriggerConfig.EventType.CURSOR_TOUCH);
+        if (!isPredictiveTriggerEnabled() || isTeleportMode
+            || touch == null || touch.shape() == BlendshapeEventTriggerConfig.Blendshape.NONE) {
+            // Lift a finger left down by a prediction when the mode is switched off.
+            predictionAction = gesturePredictor.isPredicting()
+                ? GesturePredictor.Action.CANCEL
+                : GesturePredictor.Action.NONE;
+            gesturePredictor.reset();
+            return;
+        }
+        // The tick time, not the cursor update time, that stops while paused and a prediction must
+        // still time out.
+        predictionAction = gesturePredictor.update(
+            blendshapeEventTriggerConfig.getScore(blendshapes, touch.shape()),
+            getTriggerThreshold(touch),
+            timeMs);
+    }
+
+    /** Drop an ongoing prediction, the caller lifts its finger. */
+    void resetPrediction() {
+        gesturePredictor.reset();
+        predictionAction = GesturePredictor.Action.NONE;
+    }
+
+    /** What the last {@link #createCursorEvent} decided about the predicted touch. */
+    GesturePredictor.Action getPredictionAction() {
+        return predictionAction;
+    }
+
+    GesturePredictor getGesturePredictor() {
+        return gesturePredictor;
+    }
+
+    private void recordCompensatedEvent() {
+        float driftPx = (float) euclideanDistance(cursorPositionX, cursorPositionY, uncompensatedX, uncompensatedY);
+        compensatedEventCount++;
+        driftAvoidedSumPx += driftPx;
+        driftAvoidedMaxPx = Math.max(driftAvoidedMaxPx, driftPx);
+        AppLog.d(TAG, "Drift compensated: {} px", driftPx);
+    }
+
+    /** How many touch or drag events were dispatched at a compensated position. */
+    public int getCompensatedEventCount() {
+        return compensatedEventCount;
+    }
+
+    /** Mean distance between compensated and uncompensated dispatch position, in pixels. */
+    public float getMeanDriftAvoidedPx() {
+        return compensatedEventCount == 0 ? 0.f : (float) (driftAvoidedSumPx / compensatedEventCount);
+    }
+
+    public float getMaxDriftAvoidedPx() {
+        return driftAvoidedMaxPx;
+    }
+
+    public boolean isMotionFrozen() {
+        return isMotionFrozen;
+    }
+
     /**
      * Calculate cursor's translation XY and smoothing.
      *
@@ -237,6 +599,12 @@ public class CursorController {
      *     smoothing.
      */
     public float[] getCursorTranslateXY(float[] faceCoordXy, int gapFrames) {
+        updateCursorTranslate(faceCoordXy, gapFrames);
+        return new float[] {prevSmallStepX, prevSmallStepY};
+    }
+
+    /** {@link #getCursorTranslateXY} without allocating, the step is left in prevSmallStepX, Y. */
+    private void updateCursorTranslate(float[] faceCoordXy, int gapFrames) {
         this.updateVelocity(faceCoordXy);
         int smooth = (int) cursorMovementConfig.get(CursorMovementConfig.CursorMovementConfigType.SMOOTH_POINTER);
 
@@ -245,8 +613,6 @@ public class CursorController {
 
         prevSmallStepX = smallStepX;
         prevSmallStepY = smallStepY;
-
-        return new float[] {smallStepX, smallStepY};
     }
 
     /**
@@ -275,7 +641,8 @@ public class CursorController {
 
 
 
-    private double[] getTeleportLocation()
+    /** Where the cursor teleports to, written to and returned in {@link #teleportXy}. */
+    private double[] updateTeleportLocation()
     {
         double teleportDegrees;
         double screenCenterX = (double) this.screenWidth / 2;
@@ -290,7 +657,7 @@ public class CursorController {
         // Reject, go to screen center.
         if (distanceFromCenter < TELEPORT_TRIGGER_THRESHOLD)
         {
-            return new double[]{screenCenterX, screenCenterY};
+            return setTeleportXy(screenCenterX, screenCenterY);
         }
 
         // Calculate teleport location.
@@ -320,37 +687,44 @@ public class CursorController {
             case 0:
             case 8:
                 // East.
-                return new double[]{edgeMaxX, edgeCenterY};
+                return setTeleportXy(edgeMaxX, edgeCenterY);
 
             case 7:
                 // South-East.
-                return new double[]{edgeMaxX, edgeMaxY};
+                return setTeleportXy(edgeMaxX, edgeMaxY);
             case 1:
                 // North-East.
-                return new double[]{edgeMaxX, edgeMinY};
+                return setTeleportXy(edgeMaxX, edgeMinY);
             case 2:
                 // North.
-                return new double[]{edgeCenterX, edgeMinY};
+                return setTeleportXy(edgeCenterX, edgeMinY);
             case 3:
                 // North-West.
-                return new double[]{edgeMinX, edgeMinY};
+                return setTeleportXy(edgeMinX, edgeMinY);
             case 4:
                 // West.
-                return new double[]{edgeMinX, edgeCenterY};
+                return setTeleportXy(edgeMinX, edgeCenterY);
             case 5:
                 // South-West.
-                return new double[]{edgeMinX, edgeMaxY};
+                return setTeleportXy(edgeMinX, edgeMaxY);
             case 6:
                 // South.
-                return new double[]{edgeCenterX, edgeMaxY};
+                return setTeleportXy(edgeCenterX, edgeMaxY);
             default:
                 // Should never be reached.
-                return new double[]{edgeCenterX,edgeCenterY};
+                return setTeleportXy(edgeCenterX, edgeCenterY);
 
         }
     }
 
 
+    private double[] setTeleportXy(double x, double y) {
+        teleportXy[0] = x;
+        teleportXy[1] = y;
+        return teleportXy;
+    }
+
+
     private static double euclideanDistance(double vecAX, double vecAY, double vecBX, double vecBY)
     {
         double dx = vecBX - vecAX;
@@ -373,35 +747,68 @@ public class CursorController {
     public void updateInternalCursorPosition(float[] headCoordXY,int gapFrames,
         int screenWidth, int screenHeight
     ){
+        updateInternalCursorPosition(headCoordXY, gapFrames, screenWidth, screenHeight,
+            SystemClock.uptimeMillis());
+    }
+
+    /**
+     * Update internal cursor position.
+     * @param headCoordXY User head coordinate.
+     * @param gapFrames How many frames we use to wait for the FaceLandmarks model.
+     * @param screenWidth Screen size for prevent cursor move out of of the screen.
+     * @param screenHeight Screen size for prevent cursor move out of of the screen.
+     * @param timeMs Time of this update, recorded in the position history.
+     */
+    public void updateInternalCursorPosition(float[] headCoordXY,int gapFrames,
+        int screenWidth, int screenHeight, long timeMs
+    ){
 
         this.screenWidth = screenWidth;
+        this.lastUpdateTimeMs = timeMs;
         this.screenHeight = screenHeight;
 
         // How far we should move this frame.
-        float[] offsetXY =  this.getCursorTranslateXY(
-            headCoordXY,
-            gapFrames);
+        updateCursorTranslate(headCoordXY, gapFrames);
+        float offsetX = prevSmallStepX;
+        float offsetY = prevSmallStepY;
 
 
         // In teleport mode, apply offset to shadow cursor
         // but teleport the real cursor.
         if (isTeleportMode) {
-            teleportShadowX += offsetXY[0];
-            teleportShadowY += offsetXY[1];
+            teleportShadowX += offsetX;
+            teleportShadowY += offsetY;
 
             // Clamp x, y to screen.
             teleportShadowX = clamp(teleportShadowX, 0, screenWidth);
             teleportShadowY = clamp(teleportShadowY, 0, screenHeight);
 
-            double[] teleportLocation = getTeleportLocation();
+            double[] teleportLocation = updateTeleportLocation();
             cursorPositionX = cursorPositionX * (1 - TELEPORT_LERP_SPEED) + teleportLocation[0] * TELEPORT_LERP_SPEED;
             cursorPositionY = cursorPositionY * (1 - TELEPORT_LERP_SPEED) + teleportLocation[1] * TELEPORT_LERP_SPEED;
+            requestedMoveCount++;
+
+            return;
+        }
 
+        if (isMotionFrozen) {
+            // Gesture is rising, keep the cursor still but remember where it would have gone.
+            uncompensatedX = clamp(uncompensatedX + offsetX, 0, screenWidth);
+            uncompensatedY = clamp(uncompensatedY + offsetY, 0, screenHeight);
+            positionHistory.add(timeMs, (float) cursorPositionX, (float) cursorPositionY);
             return;
         }
 
-        cursorPositionX += offsetXY[0];
-        cursorPositionY += offsetXY[1];
+        int targetAssistMode = getTargetAssistMode();
+        if (targetAssistMode != TargetAssist.MODE_OFF && clickableNodeIndex != null) {
+            float gain = TargetAssist.getGain(clickableNodeIndex.getSnapshot(),
+                (float) cursorPositionX, (float) cursorPositionY, (float) screenWidth * screenHeight);
+            offsetX *= gain;
+            offsetY *= gain;
+        }
+
+        cursorPositionX += offsetX;
+        cursorPositionY += offsetY;
 
         // Clamp x, y to screen.
         cursorPositionX =
@@ -415,6 +822,8 @@ public class CursorController {
                 0,
                 screenHeight);
 
+        positionHistory.add(timeMs, (float) cursorPositionX, (float) cursorPositionY);
+        targetAssist.onCursorMoved((float) cursorPositionX, (float) cursorPositionY, timeMs);
     }
 
 
@@ -425,12 +834,100 @@ public class CursorController {
         return new int[]{(int) cursorPositionX, (int)cursorPositionY};
     }
 
+    /** {@link #getCursorPositionXY()} into an array of the caller, for the per-tick path. */
+    void getCursorPositionXY(int[] outXy) {
+        outXy[0] = (int) cursorPositionX;
+        outXy[1] = (int) cursorPositionY;
+    }
+
+    /** Cursor X without allocating, for per-tick recording. */
+    int getCursorX() {
+        return (int) cursorPositionX;
+    }
+
+    /** Cursor Y without allocating, for per-tick recording. */
+    int getCursorY() {
+        return (int) cursorPositionY;
+    }
+
+    /**
+     * Put the cursor somewhere with the head at rest there, so the next update moves it only by
+     * the head movement after this. Used to start a replay where the recording started.
+     */
+    void resetMotion(int cursorX, int cursorY, float headX, float headY) {
+        cursorPositionX = cursorX;
+        cursorPositionY = cursorY;
+        prevX = headX;
+        prevY = headY;
+        prevSmallStepX = 0.f;
+        prevSmallStepY = 0.f;
+    }
+
+
+    /**
+     * Where a touch should land, the cursor position or the nearby target it snaps to.
+     */
+    public int[] getTouchPositionXY()
+    {
+        if (getTargetAssistMode() == TargetAssist.MODE_STICKY_SNAP && clickableNodeIndex != null
+            && targetAssist.snap(clickableNodeIndex.getSnapshot(),
+                (float) cursorPositionX, (float) cursorPositionY,
+                (float) screenWidth * screenHeight, snapXy)) {
+            return new int[]{(int) snapXy[0], (int) snapXy[1]};
+        }
+        return getCursorPositionXY();
+    }
+
+    /** A touch was dispatched at this point, ends the selection time measurement. */
+    public void recordTouch(int[] touchXy) {
+        targetAssist.onTouch(touchXy[0], touchXy[1], SystemClock.uptimeMillis(),
+            getTargetAssistMode() != TargetAssist.MODE_OFF);
+    }
+
+    /** Give target assist the targets on screen. */
+    void setClickableNodeIndex(ClickableNodeIndex clickableNodeIndex) {
+        this.clickableNodeIndex = clickableNodeIndex;
+    }
+
+    /** One of the {@code TargetAssist.MODE_} constants. */
+    public int getTargetAssistMode() {
+        return (int) cursorMovementConfig.get(CursorMovementConfig.CursorMovementConfigType.TARGET_ASSIST);
+    }
+
+    public boolean isNodeClickEnabled() {
+        return cursorMovementConfig.get(CursorMovementConfig.CursorMovementConfigType.NODE_CLICK) > 0;
+    }
+
+    /** Whether a feature in use reads {@link ClickableNodeIndex}. */
+    public boolean isNodeIndexNeeded() {
+        return getTargetAssistMode() != TargetAssist.MODE_OFF || isNodeClickEnabled();
+    }
+
+    /** Nodes to click with accessibility actions, null when node click is off. */
+    ClickableNodeIndex.Snapshot getNodeClickSnapshot() {
+        if (!isNodeClickEnabled() || clickableNodeIndex == null) {
+            return null;
+        }
+        return clickableNodeIndex.getSnapshot();
+    }
+
+    TargetAssist getTargetAssist() {
+        return targetAssist;
+    }
 
     public void resetCursorToCenter()
     {
         cursorPositionX = (double) this.screenWidth / 2;
         cursorPositionY = (double) this.screenHeight / 2;
+        requestedMoveCount++;
+    }
 
+    /**
+     * Cursor moves not made by the head: resets, teleports and drift compensation rewinds. A
+     * change since the last tick means the cursor was moved on purpose.
+     */
+    int getRequestedMoveCount() {
+        return requestedMoveCount;
     }
 
     /**
@@ -448,8 +945,8 @@ public class CursorController {
             return false;
         }
 
-        float score = blendshapes[config.shape().value];
-        return score > config.threshold();
+        float score = blendshapeEventTriggerConfig.getScore(blendshapes, config.shape());
+        return score > getTriggerThreshold(config);
     }
 
     /**
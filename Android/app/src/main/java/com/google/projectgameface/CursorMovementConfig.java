@@ -21,7 +21,6 @@ package com.google.projectgameface;
 
 import android.content.Context;
 import android.content.SharedPreferences;
-import android.util.Log;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -47,7 +46,40 @@ class CursorMovementConfig {
     GAZE_PITCH_THRESHOLD,
 
     /** Drag mode: 0 = toggle (default), 1 = hold expression to drag. */
-    DRAG_MODE
+    DRAG_MODE,
+
+    /** Follow baseline drift of the blendshapes and shift thresholds: 0 = off, 1 = on. */
+    ADAPTIVE_THRESHOLD,
+
+    /** Freeze and rewind the cursor when a touch or drag gesture starts: 0 = off, 1 = on. */
+    DRIFT_COMPENSATION,
+
+    /** Press the touch down early on a confident rising gesture: 0 = off, 1 = on. */
+    PREDICTIVE_TRIGGER,
+
+    /** Inject the drag as it happens instead of replaying it at the end: 0 = off, 1 = on. */
+    LIVE_DRAG,
+
+    /** Continuous scroll: 0 = off, 1 = hold a swipe gesture, 2 = head roll. */
+    SCROLL_MODE,
+
+    /** Slow the cursor near clickable targets: 0 = off, 1 = sticky, 2 = sticky and snap touches. */
+    TARGET_ASSIST,
+
+    /** Click the node under the cursor with an accessibility action: 0 = off, 1 = on. */
+    NODE_CLICK,
+
+    /** Cursor renderer: 0 = own overlay window, 1 = drawn in the full screen canvas. */
+    CANVAS_CURSOR,
+
+    /** Debug dots, gaze line and timings on the camera box: 0 = off, 1 = on. */
+    DEBUG_OVERLAY,
+
+    /** Camera preview stream while the camera box is minimized: 0 = kept, 1 = unbound. */
+    HEADLESS_CAMERA,
+
+    /** Frame time graphs at the top of the screen: 0 = off, 1 = on. */
+    PERFORMANCE_HUD
   }
 
   private static final String TAG = "CursorMovementConfig";
@@ -68,6 +100,17 @@ class CursorMovementConfig {
     public static final int GAZE_YAW_THRESHOLD = 3; // Raw value 0-10, multiplied to get degrees
     public static final int GAZE_PITCH_THRESHOLD = 5; // Raw value 0-10, multiplied to get degrees
     public static final int DRAG_MODE = 0; // 0 = toggle, 1 = hold
+    public static final int ADAPTIVE_THRESHOLD = 0; // 1 = enabled, 0 = disabled
+    public static final int DRIFT_COMPENSATION = 0; // 1 = enabled, 0 = disabled
+    public static final int PREDICTIVE_TRIGGER = 0; // 1 = enabled, 0 = disabled
+    public static final int LIVE_DRAG = 0; // 1 = enabled, 0 = disabled
+    public static final int SCROLL_MODE = 0; // 0 = off, 1 = hold, 2 = head roll
+    public static final int TARGET_ASSIST = 0; // 0 = off, 1 = sticky, 2 = sticky and snap
+    public static final int NODE_CLICK = 0; // 1 = enabled, 0 = disabled
+    public static final int CANVAS_CURSOR = 1; // 0 = window, 1 = canvas
+    public static final int DEBUG_OVERLAY = 1; // 1 = enabled, 0 = disabled
+    public static final int HEADLESS_CAMERA = 0; // 1 = enabled, 0 = disabled
+    public static final int PERFORMANCE_HUD = 0; // 1 = enabled, 0 = disabled
 
     private InitialRawValue() {}
   }
@@ -86,6 +129,17 @@ class CursorMovementConfig {
     public static final float GAZE_YAW_THRESHOLD = 10.f; // Degrees per raw unit (0-10 -> 0-100 degrees)
     public static final float GAZE_PITCH_THRESHOLD = 10.f; // Degrees per raw unit (0-10 -> 0-100 degrees)
     public static final float DRAG_MODE = 1.f; // Integer mode, no multiplier needed
+    public static final float ADAPTIVE_THRESHOLD = 1.f; // Boolean, no multiplier needed
+    public static final float DRIFT_COMPENSATION = 1.f; // Boolean, no multiplier needed
+    public static final float PREDICTIVE_TRIGGER = 1.f; // Boolean, no multiplier needed
+    public static final float LIVE_DRAG = 1.f; // Boolean, no multiplier needed
+    public static final float SCROLL_MODE = 1.f; // Integer mode, no multiplier needed
+    public static final float TARGET_ASSIST = 1.f; // Integer mode, no multiplier needed
+    public static final float NODE_CLICK = 1.f; // Boolean, no multiplier needed
+    public static final float CANVAS_CURSOR = 1.f; // Integer mode, no multiplier needed
+    public static final float DEBUG_OVERLAY = 1.f; // Boolean, no multiplier needed
+    public static final float HEADLESS_CAMERA = 1.f; // Boolean, no multiplier needed
+    public static final float PERFORMANCE_HUD = 1.f; // Boolean, no multiplier needed
 
     private RawConfigMultiplier() {}
   }
@@ -97,13 +151,17 @@ class CursorMovementConfig {
    */
   public CursorMovementConfig(Context context) {
 
-    Log.i(TAG, "Create CursorMovementConfig.");
+    AppLog.i(TAG, "Create CursorMovementConfig.");
 
     // Create or retrieve SharedPreference.
     sharedPreferences = context.getSharedPreferences("GameFaceLocalConfig", Context.MODE_PRIVATE);
 
-    // Initialize default slider values.
     rawValueMap = new HashMap<>();
+    putDefaults();
+  }
+
+  /** Initialize default slider values. */
+  private void putDefaults() {
     rawValueMap.put(CursorMovementConfigType.UP_SPEED, InitialRawValue.DEFAULT_SPEED);
     rawValueMap.put(CursorMovementConfigType.DOWN_SPEED, InitialRawValue.DEFAULT_SPEED);
     rawValueMap.put(CursorMovementConfigType.RIGHT_SPEED, InitialRawValue.DEFAULT_SPEED);
@@ -118,6 +176,32 @@ class CursorMovementConfig {
     rawValueMap.put(CursorMovementConfigType.GAZE_YAW_THRESHOLD, InitialRawValue.GAZE_YAW_THRESHOLD);
     rawValueMap.put(CursorMovementConfigType.GAZE_PITCH_THRESHOLD, InitialRawValue.GAZE_PITCH_THRESHOLD);
     rawValueMap.put(CursorMovementConfigType.DRAG_MODE, InitialRawValue.DRAG_MODE);
+    rawValueMap.put(CursorMovementConfigType.ADAPTIVE_THRESHOLD, InitialRawValue.ADAPTIVE_THRESHOLD);
+    rawValueMap.put(CursorMovementConfigType.DRIFT_COMPENSATION, InitialRawValue.DRIFT_COMPENSATION);
+    rawValueMap.put(CursorMovementConfigType.PREDICTIVE_TRIGGER, InitialRawValue.PREDICTIVE_TRIGGER);
+    rawValueMap.put(CursorMovementConfigType.LIVE_DRAG, InitialRawValue.LIVE_DRAG);
+    rawValueMap.put(CursorMovementConfigType.SCROLL_MODE, InitialRawValue.SCROLL_MODE);
+    rawValueMap.put(CursorMovementConfigType.TARGET_ASSIST, InitialRawValue.TARGET_ASSIST);
+    rawValueMap.put(CursorMovementConfigType.NODE_CLICK, InitialRawValue.NODE_CLICK);
+    rawValueMap.put(CursorMovementConfigType.CANVAS_CURSOR, InitialRawValue.CANVAS_CURSOR);
+    rawValueMap.put(CursorMovementConfigType.DEBUG_OVERLAY, InitialRawValue.DEBUG_OVERLAY);
+    rawValueMap.put(CursorMovementConfigType.HEADLESS_CAMERA, InitialRawValue.HEADLESS_CAMERA);
+    rawValueMap.put(CursorMovementConfigType.PERFORMANCE_HUD, InitialRawValue.PERFORMANCE_HUD);
+  }
+
+  /**
+   * Replace every value with the ones of a profile, values the profile does not have go back to
+   * default. Must be called on the thread reading the config, so no half applied profile is seen.
+   *
+   * @param snapshot The compiled profile.
+   */
+  void applySnapshot(ProfileSnapshot snapshot) {
+    putDefaults();
+    for (CursorMovementConfigType type : CursorMovementConfigType.values()) {
+      if (snapshot.hasMovement(type)) {
+        rawValueMap.put(type, snapshot.getMovement(type));
+      }
+    }
   }
 
   /**
@@ -131,10 +215,15 @@ class CursorMovementConfig {
       CursorMovementConfigType targetConfig = CursorMovementConfigType.valueOf(configName);
       rawValueMap.put(targetConfig, rawValueFromUi);
     } catch (IllegalArgumentException e) {
-      Log.w(TAG, configName + " is not exist in CursorMovementConfigType enum.");
+      AppLog.w(TAG, "{} is not exist in CursorMovementConfigType enum.", configName);
     }
   }
 
+  /** Raw value as stored in the profile, null if the config has none. */
+  Integer getRawValue(CursorMovementConfigType targetConfig) {
+    return rawValueMap.get(targetConfig);
+  }
+
   /**
    * Get the config and also apply UI-multiplier value.
    *
@@ -181,6 +270,39 @@ class CursorMovementConfig {
       case DRAG_MODE:
         multiplier = RawConfigMultiplier.DRAG_MODE;
         break;
+      case ADAPTIVE_THRESHOLD:
+        multiplier = RawConfigMultiplier.ADAPTIVE_THRESHOLD;
+        break;
+      case DRIFT_COMPENSATION:
+        multiplier = RawConfigMultiplier.DRIFT_COMPENSATION;
+        break;
+      case PREDICTIVE_TRIGGER:
+        multiplier = RawConfigMultiplier.PREDICTIVE_TRIGGER;
+        break;
+      case LIVE_DRAG:
+        multiplier = RawConfigMultiplier.LIVE_DRAG;
+        break;
+      case SCROLL_MODE:
+        multiplier = RawConfigMultiplier.SCROLL_MODE;
+        break;
+      case TARGET_ASSIST:
+        multiplier = RawConfigMultiplier.TARGET_ASSIST;
+        break;
+      case NODE_CLICK:
+        multiplier = RawConfigMultiplier.NODE_CLICK;
+        break;
+      case CANVAS_CURSOR:
+        multiplier = RawConfigMultiplier.CANVAS_CURSOR;
+        break;
+      case DEBUG_OVERLAY:
+        multiplier = RawConfigMultiplier.DEBUG_OVERLAY;
+        break;
+      case HEADLESS_CAMERA:
+        multiplier = RawConfigMultiplier.HEADLESS_CAMERA;
+        break;
+      case PERFORMANCE_HUD:
+        multiplier = RawConfigMultiplier.PERFORMANCE_HUD;
+        break;
       default:
         multiplier = 0.f;
     }
@@ -189,7 +311,7 @@ class CursorMovementConfig {
 
   /** Update and overwrite value from SharedPreference. */
   public void updateAllConfigFromSharedPreference() {
-    Log.i(TAG, "Update all config from local SharedPreference...");
+    AppLog.i(TAG, "Update all config from local SharedPreference...");
     for (CursorMovementConfigType configType : CursorMovementConfigType.values()) {
       updateOneConfigFromSharedPreference(configType.name());
     }
@@ -201,19 +323,19 @@ class CursorMovementConfig {
    * @param configName String of {@link CursorMovementConfig}.
    */
   public void updateOneConfigFromSharedPreference(String configName) {
-    Log.i(TAG, "updateOneConfigFromSharedPreference: " + configName);
+    AppLog.i(TAG, "updateOneConfigFromSharedPreference: {}", configName);
 
     if (sharedPreferences == null) {
-      Log.w(TAG, "sharedPreferences instance does not exist.");
+      AppLog.w(TAG, "sharedPreferences instance does not exist.");
       return;
     }
 
     int configValueInUi = sharedPreferences.getInt(configName, PREFERENCE_INT_NOT_FOUND);
     if (configValueInUi == PREFERENCE_INT_NOT_FOUND) {
-      Log.i(TAG, "Key " + configName + " not found in SharedPreference, keep using default value.");
+      AppLog.i(TAG, "Key {} not found in SharedPreference, keep using default value.", configName);
       return;
     }
     setRawValueFromUi(configName, configValueInUi);
-    Log.i(TAG, "Set raw value to: " + configValueInUi);
+    AppLog.i(TAG, "Set raw value to: {}", configValueInUi);
   }
 }
\ No newline at end of file
@@ -0,0 +1,83 @@
+/*
+ * Copyright 2024 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * MODIFICATION NOTICE
+ * as per the licence its required to give notice that this code has been modified by a third party.
+ * 2026 - Helgi Steinarr Juliusson, changes can be found in version control.
+ */
+package com.google.projectgameface;
+
+/** Fixed size ring buffer of timestamped cursor positions. */
+class CursorPositionHistory {
+
+  private final long[] timesMs;
+  private final float[] positionsX;
+  private final float[] positionsY;
+
+  /** Index the next sample is written to. */
+  private int head = 0;
+  private int size = 0;
+
+  /** @param capacity How many samples to keep, older ones are overwritten. */
+  CursorPositionHistory(int capacity) {
+    timesMs = new long[capacity];
+    positionsX = new float[capacity];
+    positionsY = new float[capacity];
+  }
+
+  void add(long timeMs, float x, float y) {
+    timesMs[head] = timeMs;
+    positionsX[head] = x;
+    positionsY[head] = y;
+    head = (head + 1) % timesMs.length;
+    if (size < timesMs.length) {
+      size++;
+    }
+  }
+
+  void clear() {
+    head = 0;
+    size = 0;
+  }
+
+  int size() {
+    return size;
+  }
+
+  /**
+   * Get the latest position recorded at or before a time. If every sample is newer, the oldest
+   * one is returned.
+   *
+   * @param timeMs Target time.
+   * @param outXy Receives x, y.
+   * @return false if history is empty, outXy is untouched.
+   */
+  boolean getPositionAt(long timeMs, float[] outXy) {
+    if (size == 0) {
+      return false;
+    }
+    // Walk back from the newest sample.
+    int index = head;
+    for (int i = 0; i < size; i++) {
+      index = (index - 1 + timesMs.length) % timesMs.length;
+      if (timesMs[index] <= timeMs) {
+        break;
+      }
+    }
+    outXy[0] = positionsX[index];
+    outXy[1] = positionsY[index];
+    return true;
+  }
+}
@@ -24,6 +24,8 @@ import android.content.Context;
 import android.content.Intent;
 import android.content.SharedPreferences;
 import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
 import android.view.WindowManager.LayoutParams;
 import androidx.appcompat.app.AppCompatActivity;
 import android.view.View;
@@ -72,8 +74,19 @@ public class CursorSpeed extends AppCompatActivity {
     private int currentDragModeIndex = 0;
     private static final String[] DRAG_MODE_NAMES = {"Toggle", "Hold"};
 
+    // Gesture tuning settings, cycling buttons for on/off configs.
+    private static final String[] OFF_ON_NAMES = {"Off", "On"};
+    private static final String[] SCROLL_MODE_NAMES = {"Off", "Hold swipe", "Head roll"};
+    private static final String[] TARGET_ASSIST_NAMES = {"Off", "Sticky", "Sticky + snap"};
+    private static final String[] CURSOR_RENDERER_NAMES = {"Window", "Canvas"};
+
     // Debug settings
     private TextView btnCameraSize;
+    private TextView textViewEnergyStats;
+    private final Handler handler = new Handler(Looper.getMainLooper());
+
+    /** CPU accounting rolls up once a minute, the page checks more often to catch it. */
+    private static final long ENERGY_STATS_UPDATE_MS = 5000;
     private int currentCameraSizeIndex = 1; // Default to Medium
 
     private final int[] viewIds = {
@@ -153,6 +166,40 @@ public class CursorSpeed extends AppCompatActivity {
         // Drag settings setup
         setUpDragSettings();
 
+        // Gesture tuning setup
+        setUpCyclingButton(R.id.btnAdaptiveThreshold,
+            CursorMovementConfig.CursorMovementConfigType.ADAPTIVE_THRESHOLD,
+            CursorMovementConfig.InitialRawValue.ADAPTIVE_THRESHOLD,
+            OFF_ON_NAMES);
+        setUpCyclingButton(R.id.btnDriftCompensation,
+            CursorMovementConfig.CursorMovementConfigType.DRIFT_COMPENSATION,
+            CursorMovementConfig.InitialRawValue.DRIFT_COMPENSATION,
+            OFF_ON_NAMES);
+        setUpCyclingButton(R.id.btnPredictiveTrigger,
+            CursorMovementConfig.CursorMovementConfigType.PREDICTIVE_TRIGGER,
+            CursorMovementConfig.InitialRawValue.PREDICTIVE_TRIGGER,
+            OFF_ON_NAMES);
+        setUpCyclingButton(R.id.btnLiveDrag,
+            CursorMovementConfig.CursorMovementConfigType.LIVE_DRAG,
+            CursorMovementConfig.InitialRawValue.LIVE_DRAG,
+            OFF_ON_NAMES);
+        setUpCyclingButton(R.id.btnScrollMode,
+            CursorMovementConfig.CursorMovementConfigType.SCROLL_MODE,
+            CursorMovementConfig.InitialRawValue.SCROLL_MODE,
+            SCROLL_MODE_NAMES);
+        setUpCyclingButton(R.id.btnTargetAssist,
+            CursorMovementConfig.CursorMovementConfigType.TARGET_ASSIST,
+            CursorMovementConfig.InitialRawValue.TARGET_ASSIST,
+            TARGET_ASSIST_NAMES);
+        setUpCyclingButton(R.id.btnNodeClick,
+            CursorMovementConfig.CursorMovementConfigType.NODE_CLICK,
+            CursorMovementConfig.InitialRawValue.NODE_CLICK,
+            OFF_ON_NAMES);
+        setUpCyclingButton(R.id.btnCanvasCursor,
+            CursorMovementConfig.CursorMovementConfigType.CANVAS_CURSOR,
+            CursorMovementConfig.InitialRawValue.CANVAS_CURSOR,
+            CURSOR_RENDERER_NAMES);
+
         // Debug settings setup
         setUpDebugSettings();
 
@@ -166,6 +213,8 @@ public class CursorSpeed extends AppCompatActivity {
         SharedPreferences preferences = getSharedPreferences("GameFaceLocalConfig", Context.MODE_PRIVATE);
         currentCameraSizeIndex = preferences.getInt("cameraSizeIndex", 1); // Default to Medium
 
+        textViewEnergyStats = findViewById(R.id.textViewEnergyStats);
+
         btnCameraSize = findViewById(R.id.btnCameraSize);
         btnCameraSize.setText(ServiceUiManager.CAMERA_SIZE_NAMES[currentCameraSizeIndex]);
         btnCameraSize.setOnClickListener(v -> {
@@ -179,6 +228,46 @@ public class CursorSpeed extends AppCompatActivity {
             intent.putExtra("sizeIndex", currentCameraSizeIndex);
             sendBroadcast(intent);
         });
+
+        setUpCyclingButton(R.id.btnDebugOverlay,
+            CursorMovementConfig.CursorMovementConfigType.DEBUG_OVERLAY,
+            CursorMovementConfig.InitialRawValue.DEBUG_OVERLAY,
+            OFF_ON_NAMES);
+
+        setUpCyclingButton(R.id.btnHeadlessCamera,
+            CursorMovementConfig.CursorMovementConfigType.HEADLESS_CAMERA,
+            CursorMovementConfig.InitialRawValue.HEADLESS_CAMERA,
+            OFF_ON_NAMES);
+
+        setUpCyclingButton(R.id.btnPerformanceHud,
+            CursorMovementConfig.CursorMovementConfigType.PERFORMANCE_HUD,
+            CursorMovementConfig.InitialRawValue.PERFORMANCE_HUD,
+            OFF_ON_NAMES);
+    }
+
+    /**
+     * Set up a button that cycles an integer config through its modes on every click.
+     *
+     * @param viewId The TextView acting as button.
+     * @param configType Config to store the selected mode index in.
+     * @param initialValue Mode index used when nothing is stored yet.
+     * @param modeNames Text shown for each mode index.
+     */
+    private void setUpCyclingButton(int viewId, CursorMovementConfig.CursorMovementConfigType configType,
+                                    int initialValue, String[] modeNames) {
+        SharedPreferences preferences = getSharedPreferences("GameFaceLocalConfig", Context.MODE_PRIVATE);
+        int[] currentIndex = {preferences.getInt(String.valueOf(configType), initialValue)};
+        if (currentIndex[0] < 0 || currentIndex[0] >= modeNames.length) {
+            currentIndex[0] = initialValue;
+        }
+
+        TextView button = findViewById(viewId);
+        button.setText(modeNames[currentIndex[0]]);
+        button.setOnClickListener(v -> {
+            currentIndex[0] = (currentIndex[0] + 1) % modeNames.length;
+            button.setText(modeNames[currentIndex[0]]);
+            sendValueToService(String.valueOf(configType), currentIndex[0]);
+        });
     }
 
     private void setUpDragSettings() {
@@ -274,6 +363,10 @@ public class CursorSpeed extends AppCompatActivity {
                 } else if (seekBar.getId() == R.id.seekBarPitchThreshold) {
                     updateGazeThresholdText(textViewPitchThreshold, progress);
                 }
+                // Live while dragging, changes within a frame are coalesced.
+                if (fromUser) {
+                    onStopTrackingTouch(seekBar);
+                }
             }
 
             @Override
@@ -315,13 +408,35 @@ public class CursorSpeed extends AppCompatActivity {
         }
     }
 
+    /** Hand the value to the service on the next frame, it is stored once the changes settle. */
     private void sendValueToService(String configName, int value) {
-        saveCursorSpeed(configName, value);
-        Intent intent = new Intent("LOAD_SHARED_CONFIG_BASIC");
-        intent.putExtra("configName", configName);
-        sendBroadcast(intent);
+        ConfigRepository.getInstance(this).setCursorMovementConfig(
+            CursorMovementConfig.CursorMovementConfigType.valueOf(configName), value);
     }
 
+    @Override
+    protected void onResume() {
+        super.onResume();
+        updateEnergyStats.run();
+    }
+
+    @Override
+    protected void onPause() {
+        super.onPause();
+        handler.removeCallbacks(updateEnergyStats);
+        ConfigRepository.getInstance(this).flush();
+    }
+
+    /** Show the CPU accounting of the service while the page is visible. */
+    private final Runnable updateEnergyStats =
+        new Runnable() {
+            @Override
+            public void run() {
+                textViewEnergyStats.setText(CpuAccounting.getInstance().getSummary());
+                handler.postDelayed(this, ENERGY_STATS_UPDATE_MS);
+            }
+        };
+
     private View.OnClickListener buttonClickListener =
         new OnClickListener() {
             @Override
@@ -477,6 +592,10 @@ public class CursorSpeed extends AppCompatActivity {
                     int timeMsForShow = (int) (progress * CursorMovementConfig.RawConfigMultiplier.HOLD_TIME_MS);
                     textViewDelay.setText(String.valueOf(timeMsForShow));
                 }
+                // Live while dragging, changes within a frame are coalesced.
+                if (fromUser) {
+                    onStopTrackingTouch(seekBar);
+                }
             }
 
             @Override
@@ -508,11 +627,4 @@ public class CursorSpeed extends AppCompatActivity {
                 }
             }
         };
-
-    private void saveCursorSpeed(String key, int value) {
-        SharedPreferences preferences = getSharedPreferences("GameFaceLocalConfig", Context.MODE_PRIVATE);
-        SharedPreferences.Editor editor = preferences.edit();
-        editor.putInt(key, value);
-        editor.apply();
-    }
 }
\ No newline at end of file
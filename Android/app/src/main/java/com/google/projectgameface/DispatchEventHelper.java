@@ -22,6 +22,9 @@ package com.google.projectgameface;
 
 
 import android.accessibilityservice.AccessibilityService;
+import android.accessibilityservice.GestureDescription;
+import android.graphics.Path;
+import android.os.SystemClock;
 
 
 public class DispatchEventHelper {
@@ -29,9 +32,24 @@ public class DispatchEventHelper {
   private static final int SWIPE_DURATION_MS = 100;
   private static final int DRAG_DURATION_MS = 250;
 
+  /** Finger held down by a predicted touch, continued by its release. */
+  private static GestureDescription.StrokeDescription predictedPressStroke = null;
+  private static float predictedPressX;
+  private static float predictedPressY;
+
+  /** Told if the predicted press did not go down, only the current one clears the stroke. */
+  private static GestureDispatchQueue.OnFinishedListener predictedPressListener = null;
+
+  /** Drag injected while it happens, when live drag is enabled. */
+  private static final LiveDrag liveDrag = new LiveDrag();
+
+  /** Continuous scroll from a held gesture or head roll. */
+  private static final ScrollController scrollController = new ScrollController();
+  private static final float[] scrollVelocity = new float[2];
+
   /**
    * Helper function to check the event type and dispatch the events desired location.
-   * @param parentService Need for calling {@link AccessibilityService#dispatchGesture}.
+   * @param parentService Owns the {@link GestureDispatchQueue} gestures are dispatched through.
    * @param cursorController Some event need cursor control.
    * @param serviceUiManager For drawing drag line on canvas.
    * @param event Event to dispatch.
@@ -51,16 +69,21 @@ public class DispatchEventHelper {
 
     switch (event) {
       case CURSOR_TOUCH:
-        parentService.dispatchGesture(
+        int[] touchPosition = cursorController.getTouchPositionXY();
+        parentService.nodeClickDispatcher.click(
+            cursorController.getNodeClickSnapshot(),
+            touchPosition[0],
+            touchPosition[1],
+            (float) parentService.screenSize.x * parentService.screenSize.y,
+            /* isLongClick= */ false,
             CursorUtils.createClick(
-                cursorPosition[0] ,
-                cursorPosition[1] ,
+                touchPosition[0] ,
+                touchPosition[1] ,
                 /* startTime= */ 0,
-                /* duration= */ 250),
-            /* callback= */ null,
-            /* handler= */ null);
+                /* duration= */ 250));
 
-        serviceUiManager.drawTouchDot(cursorController.getCursorPositionXY());
+        serviceUiManager.drawTouchDot(touchPosition);
+        cursorController.recordTouch(touchPosition);
         break;
 
       case CURSOR_PAUSE:
@@ -72,51 +95,43 @@ public class DispatchEventHelper {
         break;
 
       case SWIPE_LEFT:
-        parentService.dispatchGesture(
+        parentService.gestureDispatchQueue.enqueue(
             CursorUtils.createSwipe(
                 cursorPosition[0] + eventOffsetX,
                 cursorPosition[1] + eventOffsetY,
                 /* xOffset= */ -500,
                 /* yOffset= */ 0,
-                /* duration= */ SWIPE_DURATION_MS),
-            /* callback= */ null,
-            /* handler= */ null);
+                /* duration= */ SWIPE_DURATION_MS));
         break;
 
       case SWIPE_RIGHT:
-        parentService.dispatchGesture(
+        parentService.gestureDispatchQueue.enqueue(
             CursorUtils.createSwipe(
                 cursorPosition[0] + eventOffsetX,
                 cursorPosition[1] + eventOffsetY,
                 /* xOffset= */ 500,
                 /* yOffset= */ 0,
-                /* duration= */ SWIPE_DURATION_MS),
-            /* callback= */ null,
-            /* handler= */ null);
+                /* duration= */ SWIPE_DURATION_MS));
         break;
 
       case SWIPE_UP:
-        parentService.dispatchGesture(
+        parentService.gestureDispatchQueue.enqueue(
             CursorUtils.createSwipe(
                 cursorPosition[0] + eventOffsetX,
                 cursorPosition[1] + eventOffsetY,
                 /* xOffset= */ 0,
                 /* yOffset= */ -500,
-                /* duration= */ SWIPE_DURATION_MS),
-            /* callback= */ null,
-            /* handler= */ null);
+                /* duration= */ SWIPE_DURATION_MS));
         break;
 
       case SWIPE_DOWN:
-        parentService.dispatchGesture(
+        parentService.gestureDispatchQueue.enqueue(
             CursorUtils.createSwipe(
                 cursorPosition[0] + eventOffsetX,
                 cursorPosition[1] + eventOffsetY,
                 /* xOffset= */ 0,
                 /* yOffset= */ 500,
-                /* duration= */ SWIPE_DURATION_MS),
-            /* callback= */ null,
-            /* handler= */ null);
+                /* duration= */ SWIPE_DURATION_MS));
         break;
 
       case DRAG_TOGGLE:
@@ -125,19 +140,19 @@ public class DispatchEventHelper {
         break;
 
       case HOME:
-        parentService.performGlobalAction(AccessibilityService.GLOBAL_ACTION_HOME);
+        parentService.gestureDispatchQueue.performGlobalAction(AccessibilityService.GLOBAL_ACTION_HOME);
         break;
 
       case BACK:
-        parentService.performGlobalAction(AccessibilityService.GLOBAL_ACTION_BACK);
+        parentService.gestureDispatchQueue.performGlobalAction(AccessibilityService.GLOBAL_ACTION_BACK);
         break;
 
       case SHOW_NOTIFICATION:
-        parentService.performGlobalAction(AccessibilityService.GLOBAL_ACTION_NOTIFICATIONS);
+        parentService.gestureDispatchQueue.performGlobalAction(AccessibilityService.GLOBAL_ACTION_NOTIFICATIONS);
         break;
 
       case SHOW_APPS:
-        parentService.performGlobalAction(AccessibilityService.GLOBAL_ACTION_ACCESSIBILITY_ALL_APPS);
+        parentService.gestureDispatchQueue.performGlobalAction(AccessibilityService.GLOBAL_ACTION_ACCESSIBILITY_ALL_APPS);
         break;
       default:
     }
@@ -165,6 +180,13 @@ public class DispatchEventHelper {
       serviceUiManager.setDragLineStart(
           cursorPosition[0], cursorPosition[1]);
 
+      if (cursorController.isLiveDragEnabled()) {
+        liveDrag.start(parentService.gestureDispatchQueue,
+            cursorPosition[0] + eventOffsetX,
+            cursorPosition[1] + eventOffsetY,
+            SystemClock.uptimeMillis());
+      }
+
     }
     // Finish drag action (only in toggle mode - hold mode ends when expression is released).
     else if (!isHoldMode) {
@@ -189,6 +211,13 @@ public class DispatchEventHelper {
         cursorPosition[1] + eventOffsetY);
     serviceUiManager.fullScreenCanvas.clearDragLine();
 
+    // Live drag already played the path and long press out, just lift the finger. A broken one
+    // delivered part of it, replaying the whole path would move the item twice.
+    if (liveDrag.isActive() || liveDrag.isBroken()) {
+      liveDrag.end(parentService.gestureDispatchQueue, cursorController.dragEndX, cursorController.dragEndY);
+      return;
+    }
+
     // Cursor path distance.
     float xOffset = cursorController.dragEndX - cursorController.dragStartX;
     float yOffset = cursorController.dragEndY - cursorController.dragStartY;
@@ -204,29 +233,184 @@ public class DispatchEventHelper {
     // If finished inside a circle, trigger HOLD action.
     if (isFinishedInside) {
       // Dispatch HOLD event.
-      parentService.dispatchGesture(
+      parentService.nodeClickDispatcher.click(
+          cursorController.getNodeClickSnapshot(),
+          cursorController.dragStartX,
+          cursorController.dragStartY,
+          (float) parentService.screenSize.x * parentService.screenSize.y,
+          /* isLongClick= */ true,
           CursorUtils.createClick(
               cursorController.dragStartX,
               cursorController.dragStartY,
               0,
               (long)
                   cursorController.cursorMovementConfig.get(
-                      CursorMovementConfig.CursorMovementConfigType.HOLD_TIME_MS)),
-          /* callback= */ null,
-          /* handler= */ null);
+                      CursorMovementConfig.CursorMovementConfigType.HOLD_TIME_MS)));
 
     }
     // Trigger normal DRAG action.
     else {
-      parentService.dispatchGesture(
+      parentService.gestureDispatchQueue.enqueue(
           CursorUtils.createSwipe(
               cursorController.dragStartX,
               cursorController.dragStartY,
               xOffset,
               yOffset,
-              /* duration= */ DRAG_DURATION_MS),
-          /* callback= */ null,
-          /* handler= */ null);
+              /* duration= */ DRAG_DURATION_MS));
+    }
+  }
+
+  /**
+   * Extend an ongoing live drag to the cursor, called every UI tick.
+   * @param parentService Owns the {@link GestureDispatchQueue} gestures are dispatched through.
+   * @param cursorController Current cursor position.
+   */
+  public static void updateLiveDrag(
+      CursorAccessibilityService parentService,
+      CursorController cursorController) {
+    if (!cursorController.isDragging || !liveDrag.isActive()) {
+      return;
+    }
+    liveDrag.update(parentService.gestureDispatchQueue,
+        cursorController.getCursorX(), cursorController.getCursorY(), SystemClock.uptimeMillis());
+  }
+
+  /**
+   * Abort an ongoing live drag, the finger returns to the drag start before lifting.
+   * @param parentService Owns the {@link GestureDispatchQueue} gestures are dispatched through.
+   */
+  public static void cancelLiveDrag(CursorAccessibilityService parentService) {
+    liveDrag.cancel(parentService.gestureDispatchQueue);
+  }
+
+  /**
+   * Advance the continuous scroll, called every UI tick. Stops while dragging or when scroll mode
+   * is off.
+   * @param parentService Owns the {@link GestureDispatchQueue} gestures are dispatched through.
+   * @param cursorController Scroll mode, target velocity and cursor position.
+   * @param blendshapes The blendshapes array from MediaPipe FaceLandmarks model.
+   * @param headRollDegrees Head roll, 0 when level.
+   */
+  public static void updateScroll(
+      CursorAccessibilityService parentService,
+      CursorController cursorController,
+      float[] blendshapes,
+      float headRollDegrees) {
+    if (cursorController.getScrollMode() == CursorController.SCROLL_MODE_OFF || cursorController.isDragging) {
+      if (scrollController.isScrolling()) {
+        scrollController.stop(parentService.gestureDispatchQueue);
+      }
+      return;
+    }
+    cursorController.getScrollTargetVelocity(blendshapes, headRollDegrees, scrollVelocity);
+    scrollController.update(parentService.gestureDispatchQueue,
+        scrollVelocity[0], scrollVelocity[1],
+        cursorController.getCursorX(), cursorController.getCursorY(),
+        parentService.screenSize.x, parentService.screenSize.y,
+        SystemClock.uptimeMillis());
+  }
+
+  /**
+   * Lift the scroll finger, if any.
+   * @param parentService Owns the {@link GestureDispatchQueue} gestures are dispatched through.
+   */
+  public static void stopScroll(CursorAccessibilityService parentService) {
+    scrollController.stop(parentService.gestureDispatchQueue);
+  }
+
+  /**
+   * Dispatch one step of a predicted touch. PRESS puts the finger down and keeps it there, RELEASE
+   * lifts it in place to complete the tap, CANCEL interrupts it so the view under it gets a cancel
+   * instead of a click.
+   * @param parentService Owns the {@link GestureDispatchQueue} gestures are dispatched through.
+   * @param cursorController Cursor position of the press.
+   * @param serviceUiManager For drawing touch dot on canvas.
+   * @param action What {@link GesturePredictor} decided this frame.
+   */
+  public static void dispatchPredictedTouch(
+      CursorAccessibilityService parentService,
+      CursorController cursorController,
+      ServiceUiManager serviceUiManager,
+      GesturePredictor.Action action) {
+
+    switch (action) {
+      case PRESS:
+        int[] touchPosition = cursorController.getTouchPositionXY();
+        predictedPressX = touchPosition[0];
+        predictedPressY = touchPosition[1];
+        Path pressPath = new Path();
+        pressPath.moveTo(predictedPressX, predictedPressY);
+        predictedPressStroke = new GestureDescription.StrokeDescription(
+            pressPath, /* startTime= */ 0, /* duration= */ 1, /* willContinue= */ true);
+        predictedPressListener = new GestureDispatchQueue.OnFinishedListener() {
+          @Override
+          public void onFinished(boolean completed) {
+            if (!completed && predictedPressListener == this) {
+              predictedPressStroke = null;
+              predictedPressListener = null;
+            }
+          }
+        };
+        parentService.gestureDispatchQueue.enqueue(
+            new GestureDescription.Builder().addStroke(predictedPressStroke).build(),
+            GestureDispatchQueue.NO_COALESCE, predictedPressListener);
+        break;
+
+      case RELEASE:
+        int[] pressPosition = new int[] {(int) predictedPressX, (int) predictedPressY};
+        if (predictedPressStroke == null) {
+          // The press was dropped or cancelled, the gesture was still confirmed so tap instead.
+          parentService.gestureDispatchQueue.enqueue(
+              CursorUtils.createClick(predictedPressX, predictedPressY, 0, 1));
+        } else {
+          Path releasePath = new Path();
+          releasePath.moveTo(predictedPressX, predictedPressY);
+          parentService.gestureDispatchQueue.enqueue(
+              new GestureDescription.Builder()
+                  .addStroke(predictedPressStroke.continueStroke(releasePath, 0, 1, false))
+                  .build());
+          predictedPressStroke = null;
+          predictedPressListener = null;
+        }
+        serviceUiManager.drawTouchDot(pressPosition);
+        cursorController.recordTouch(pressPosition);
+        break;
+
+      case CANCEL:
+        liftPredictedPress(parentService);
+        break;
+
+      default:
+        break;
+    }
+  }
+
+  /**
+   * Abort an ongoing predicted touch without clicking, for example when the service is paused,
+   * disabled or the screen rotates.
+   * @param parentService Owns the {@link GestureDispatchQueue} gestures are dispatched through.
+   * @param cursorController Owns the {@link GesturePredictor}, reset so it does not release later.
+   */
+  public static void cancelPredictedTouch(
+      CursorAccessibilityService parentService,
+      CursorController cursorController) {
+    cursorController.resetPrediction();
+    liftPredictedPress(parentService);
+  }
+
+  /**
+   * Abort the predicted press without moving it, if one is down. A new gesture that does not
+   * continue the held stroke makes the system cancel it, the view under it gets ACTION_CANCEL. The
+   * new gesture is a single point just beyond the screen corner where no window takes it.
+   */
+  private static void liftPredictedPress(CursorAccessibilityService parentService) {
+    if (predictedPressStroke == null) {
+      return;
     }
+    parentService.gestureDispatchQueue.enqueue(
+        CursorUtils.createClick(
+            parentService.screenSize.x + 1, parentService.screenSize.y + 1, 0, 1));
+    predictedPressStroke = null;
+    predictedPressListener = null;
   }
 }
@@ -0,0 +1,153 @@
+/*
+ * Copyright 2024 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * MODIFICATION NOTICE
+ * as per the licence its required to give notice that this code has been modified by a third party.
+ * 2026 - Helgi Steinarr Juliusson, changes can be found in version control.
+ */
+package com.google.projectgameface;
+
+import android.accessibilityservice.AccessibilityService;
+import android.accessibilityservice.AccessibilityServiceInfo;
+import android.os.SystemClock;
+import android.view.accessibility.AccessibilityEvent;
+
+/**
+ * Subscribes the service only to the accessibility events its active features use, with
+ * {@link AccessibilityService#setServiceInfo}. Every event costs a binder call and marshalling its
+ * nodes into our process, with nothing enabled the service gets no events at all.
+ *
+ * <p>Also counts the events received per second, to see what a subscription costs.
+ */
+class EventSubscriptionManager {
+  private static final String TAG = "EventSubscription";
+
+  /** {@link ClickableNodeIndex}, for target assist and node click. */
+  static final int FEATURE_TARGET_INDEX = 1;
+
+  /** {@link AppProfileSwitcher}, for per-app profiles. */
+  static final int FEATURE_FOREGROUND_APP = 1 << 1;
+
+  /** Events per second are averaged and logged over this window. */
+  static final long RATE_WINDOW_MS = 10000;
+
+  private final AccessibilityService service;
+
+  private int features = 0;
+  private boolean isConnected = false;
+
+  private long windowStartMs = -1;
+  private int windowEventCount = 0;
+  private float eventsPerSecond = 0.f;
+  private long totalEventCount = 0;
+
+  EventSubscriptionManager(AccessibilityService service) {
+    this.service = service;
+  }
+
+  /** Event types the features need. */
+  static int getEventTypes(int features) {
+    int eventTypes = 0;
+    if ((features & FEATURE_TARGET_INDEX) != 0) {
+      eventTypes |= AccessibilityEvent.TYPE_WINDOWS_CHANGED
+          | AccessibilityEvent.TYPE_WINDOW_STATE_CHANGED
+          | AccessibilityEvent.TYPE_WINDOW_CONTENT_CHANGED
+          | AccessibilityEvent.TYPE_VIEW_SCROLLED;
+    }
+    if ((features & FEATURE_FOREGROUND_APP) != 0) {
+      eventTypes |= AccessibilityEvent.TYPE_WINDOW_STATE_CHANGED;
+    }
+    return eventTypes;
+  }
+
+  /** Service info flags the features need. */
+  static int getFlags(int features) {
+    int flags = AccessibilityServiceInfo.DEFAULT;
+    if ((features & FEATURE_TARGET_INDEX) != 0) {
+      // The index walks every interactive window, not only the active one.
+      flags |= AccessibilityServiceInfo.FLAG_RETRIEVE_INTERACTIVE_WINDOWS;
+    }
+    return flags;
+  }
+
+  /** Apply the subscription once the system connected the service. */
+  void onServiceConnected() {
+    isConnected = true;
+    apply();
+  }
+
+  /**
+   * Widen or narrow the subscription.
+   *
+   * @param features Bitmask of the {@code FEATURE_} constants currently in use.
+   */
+  void setFeatures(int features) {
+    if (features == this.features) {
+      return;
+    }
+    this.features = features;
+    apply();
+  }
+
+  private void apply() {
+    if (!isConnected) {
+      // Applied in onServiceConnected, the system ignores the info before that.
+      return;
+    }
+    AccessibilityServiceInfo info = service.getServiceInfo();
+    if (info == null) {
+      AppLog.w(TAG, "No service info, subscription not changed.");
+      return;
+    }
+    info.eventTypes = getEventTypes(features);
+    info.flags = getFlags(features);
+    service.setServiceInfo(info);
+    AppLog.i(TAG, "Subscribed to event types 0x{}, flags 0x{}",
+        Integer.toHexString(info.eventTypes), Integer.toHexString(info.flags));
+  }
+
+  /** Count an event from {@link AccessibilityService#onAccessibilityEvent}. */
+  void onEvent(long timeMs) {
+    totalEventCount++;
+    if (windowStartMs < 0) {
+      windowStartMs = timeMs;
+    }
+    long elapsedMs = timeMs - windowStartMs;
+    if (elapsedMs >= RATE_WINDOW_MS) {
+      eventsPerSecond = windowEventCount * 1000.f / elapsedMs;
+      AppLog.d(TAG, "Receiving {} events/s", eventsPerSecond);
+      windowStartMs = timeMs;
+      windowEventCount = 0;
+    }
+    windowEventCount++;
+  }
+
+  /** Average over the last complete window. */
+  float getEventsPerSecond() {
+    if (windowStartMs >= 0 && SystemClock.uptimeMillis() - windowStartMs >= 2 * RATE_WINDOW_MS) {
+      // No event for a whole window.
+      return 0.f;
+    }
+    return eventsPerSecond;
+  }
+
+  long getTotalEventCount() {
+    return totalEventCount;
+  }
+
+  int getFeatures() {
+    return features;
+  }
+}
@@ -29,17 +29,21 @@ import android.os.HandlerThread;
 import android.os.Message;
 import android.os.Process;
 import android.os.SystemClock;
-import android.util.Log;
 import android.view.Surface;
 import androidx.annotation.NonNull;
 import androidx.camera.core.ImageProxy;
 import com.google.mediapipe.framework.image.BitmapImageBuilder;
 import com.google.mediapipe.framework.image.MPImage;
+import com.google.mediapipe.tasks.components.containers.Category;
+import com.google.mediapipe.tasks.components.containers.NormalizedLandmark;
 import com.google.mediapipe.tasks.core.BaseOptions;
 import com.google.mediapipe.tasks.core.Delegate;
 import com.google.mediapipe.tasks.vision.core.RunningMode;
 import com.google.mediapipe.tasks.vision.facelandmarker.FaceLandmarker;
 import com.google.mediapipe.tasks.vision.facelandmarker.FaceLandmarkerResult;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /** The helper of camera feed. */
 class FaceLandmarkerHelper extends HandlerThread {
@@ -56,7 +60,7 @@ class FaceLandmarkerHelper extends HandlerThread {
     private static final float MP_WIDTH = 213.0f;
     private static final float MP_HEIGHT = 160.0f;
 
-    private static final int TOTAL_BLENDSHAPES = 52;
+    static final int TOTAL_BLENDSHAPES = 52;
     private static final int FOREHEAD_INDEX = 8;
     private static final int NOSE_TIP_INDEX = 1;
     private static final int NOSE_CENTER_INDEX = 6;
@@ -108,6 +112,9 @@ class FaceLandmarkerHelper extends HandlerThread {
     float faceNormalX = 0.f;
     float faceNormalY = 0.f;
     float faceNormalZ = 0.f;
+
+    /** Head roll in degrees from the line between the eyes, 0 when level. */
+    float headRollDegrees = 0.f;
     boolean isLookingAtCamera = false;
 
     // Tracks which validation check failed (0 = passed, 1-5 = specific check that failed)
@@ -119,6 +126,27 @@ class FaceLandmarkerHelper extends HandlerThread {
     public long mediapipeTimeMs = 0;
     public long preprocessTimeMs = 0;
 
+    /** Per-frame timings for the performance HUD, null to not record. */
+    private PerformanceHud performanceHud = null;
+
+    /** Sequence number of the frame being handled, set with each message, 0 when not traced. */
+    private int frameSequence = 0;
+
+    /** Frame in MediaPipe, there is at most one, see {@link #N_WORKS_LIMIT}. */
+    private int inFlightFrameSequence = 0;
+
+    /** Frame whose result no tick has used yet, 0 if none. */
+    private final AtomicInteger unusedResultSequence = new AtomicInteger();
+
+    /** Failed detections, from the calling thread or MediaPipe's error callback. */
+    private final AtomicInteger errorCount = new AtomicInteger();
+
+    /** Frame and result counters for the service dump, null to not count. */
+    private ServiceMetrics metrics = null;
+
+    private final CpuAccounting cpuAccounting = CpuAccounting.getInstance();
+    private long prevFrameTimeMs = 0;
+
 
     // tracking how many works in process.
     private int currentInWorks = 0;
@@ -126,7 +154,7 @@ class FaceLandmarkerHelper extends HandlerThread {
     private Handler handler;
     public int mpInputWidth;
     public int mpInputHeight;
-    private float[] currBlendshapes;
+    private final float[] currBlendshapes = new float[TOTAL_BLENDSHAPES];
 
     /** How many milliseconds passed after previous image. */
     public long gapTimeMs = 1;
@@ -150,6 +178,24 @@ class FaceLandmarkerHelper extends HandlerThread {
     }
 
 
+    public void setPerformanceHud(PerformanceHud performanceHud) {
+        this.performanceHud = performanceHud;
+    }
+
+    void setMetrics(ServiceMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    private void onLandmarkerError(RuntimeException e) {
+        errorCount.incrementAndGet();
+        AppLog.e(TAG, "Face Landmarker error: {}", e.getMessage());
+    }
+
+    /** Failed detections so far. */
+    int getErrorCount() {
+        return errorCount.get();
+    }
+
     public void setFrontCameraOrientation(int orientation) {
         frontCameraOrientation = orientation;
     }
@@ -165,7 +211,7 @@ class FaceLandmarkerHelper extends HandlerThread {
      */
     public void setRotation(int rotationValue) {
         currentRotationState = rotationValue;
-        Log.i(TAG, "setRotation: " + rotationValue);
+        AppLog.i(TAG, "setRotation: {}", rotationValue);
     }
 
     @SuppressLint("HandlerLeak")
@@ -176,6 +222,7 @@ class FaceLandmarkerHelper extends HandlerThread {
                 @Override
                 public void handleMessage(@NonNull Message msg) {
                     // Function for handle message from main thread.
+                    frameSequence = msg.arg1;
                     detectLiveStream((ImageProxy) msg.obj);
 
                 }
@@ -193,16 +240,16 @@ class FaceLandmarkerHelper extends HandlerThread {
      */
     public void init(Context context) {
 
-        Log.i(TAG, "init : " + Thread.currentThread());
+        AppLog.i(TAG, "init : {}", String.valueOf(Thread.currentThread()));
         Process.setThreadPriority(Process.THREAD_PRIORITY_URGENT_DISPLAY);
         isRunning = true;
 
-        currBlendshapes = new float[TOTAL_BLENDSHAPES];
+        Arrays.fill(currBlendshapes, 0.f);
 
         this.context = context;
 
         // Set general FaceLandmarker options.
-        Log.i(TAG, "Init MediaPipe");
+        AppLog.i(TAG, "Init MediaPipe");
         BaseOptions.Builder baseOptionBuilder = BaseOptions.builder();
         baseOptionBuilder.setDelegate(Delegate.GPU);
         baseOptionBuilder.setModelAssetPath("face_landmarker.task");
@@ -223,14 +270,15 @@ class FaceLandmarkerHelper extends HandlerThread {
                     .setRunningMode(RUNNING_MODE);
 
             optionsBuilder.setResultListener(this::postProcessLandmarks);
+            optionsBuilder.setErrorListener(this::onLandmarkerError);
 
             options = optionsBuilder.build();
             faceLandmarker = FaceLandmarker.createFromOptions(this.context, options);
 
         } catch (IllegalStateException e) {
-            Log.e(TAG, "MediaPipe failed to load the task with error: " + e.getMessage());
+            AppLog.e(TAG, "MediaPipe failed to load the task with error: {}", e.getMessage());
         } catch (RuntimeException e) {
-            Log.e(TAG, "Face Landmarker failed to load model with error: " + e.getMessage());
+            AppLog.e(TAG, "Face Landmarker failed to load model with error: {}", e.getMessage());
         }
     }
 
@@ -240,17 +288,35 @@ class FaceLandmarkerHelper extends HandlerThread {
      * @param imageProxy An image proxy from camera feed
      */
     public void detectLiveStream(ImageProxy imageProxy) {
+        long frameTimeMs = SystemClock.uptimeMillis();
+        if (performanceHud != null && prevFrameTimeMs > 0) {
+            performanceHud.record(PerformanceHud.STAGE_CAMERA_INTERVAL, frameTimeMs - prevFrameTimeMs);
+        }
+        prevFrameTimeMs = frameTimeMs;
+        if (metrics != null) {
+            metrics.framesReceived.increment();
+        }
 
         // Reject new work if exceed limit.
         if (currentInWorks >= N_WORKS_LIMIT) {
             imageProxy.close();
+            if (performanceHud != null) {
+                performanceHud.onFrameDropped();
+            }
+            if (metrics != null) {
+                metrics.framesDropped.increment();
+            }
+            FrameTrace.endAsync(FrameTrace.SLICE_FRAME, frameSequence);
             return;
         }
 
         // Reject new work if not ready.
         if (!isRunning || (faceLandmarker == null) || (imageProxy == null)) {
+            FrameTrace.endAsync(FrameTrace.SLICE_FRAME, frameSequence);
             return;
         }
+        FrameTrace.beginSection(FrameTrace.PREPROCESS);
+        long startCpuNs = CpuAccounting.threadCpuNs();
 
         currentInWorks += 1;
         long startPreprocessTimeMs = SystemClock.uptimeMillis();
@@ -272,12 +338,20 @@ class FaceLandmarkerHelper extends HandlerThread {
 
         // Convert the input Bitmap object to an MPImage object to run inference.
         MPImage mpImage = new BitmapImageBuilder(rotatedBitmap).build();
+        FrameTrace.endSection(FrameTrace.PREPROCESS);
+        cpuAccounting.add(CpuAccounting.STAGE_PREPROCESS, startCpuNs);
 
+        FrameTrace.beginSection(FrameTrace.DETECT_ASYNC);
+        startCpuNs = CpuAccounting.threadCpuNs();
+        inFlightFrameSequence = frameSequence;
         try {
             faceLandmarker.detectAsync(mpImage, SystemClock.uptimeMillis());
         } catch (RuntimeException e) {
-            Log.e(TAG, "Face Landmarker failed to detect async: " + e.getMessage());
+            errorCount.incrementAndGet();
+            AppLog.e(TAG, "Face Landmarker failed to detect async: {}", e.getMessage());
         }
+        FrameTrace.endSection(FrameTrace.DETECT_ASYNC);
+        cpuAccounting.add(CpuAccounting.STAGE_INFERENCE, startCpuNs);
 
         imageProxy.close();
 
@@ -286,6 +360,12 @@ class FaceLandmarkerHelper extends HandlerThread {
         mpInputHeight = mpImage.getHeight();
 
         preprocessTimeMs = SystemClock.uptimeMillis() - startPreprocessTimeMs;
+        if (performanceHud != null) {
+            performanceHud.record(PerformanceHud.STAGE_PREPROCESS, preprocessTimeMs);
+        }
+        if (metrics != null) {
+            metrics.preprocessTimeMs.record(preprocessTimeMs);
+        }
 
     }
 
@@ -337,8 +417,16 @@ class FaceLandmarkerHelper extends HandlerThread {
      * @param input The input image of face landmarker.
      */
     private void postProcessLandmarks(FaceLandmarkerResult result, MPImage input) {
+        FrameTrace.beginSection(FrameTrace.POSTPROCESS);
+        long startCpuNs = CpuAccounting.threadCpuNs();
         currentInWorks -= 1;
         mediapipeTimeMs = SystemClock.uptimeMillis() - result.timestampMs();
+        if (performanceHud != null) {
+            performanceHud.record(PerformanceHud.STAGE_INFERENCE, mediapipeTimeMs);
+        }
+        if (metrics != null) {
+            metrics.inferenceTimeMs.record(mediapipeTimeMs);
+        }
         input.close();
 
         if (!isRunning) {
@@ -346,114 +434,172 @@ class FaceLandmarkerHelper extends HandlerThread {
         }
 
         if (!result.faceLandmarks().isEmpty()) {
-            currHeadX = result.faceLandmarks().get(0).get(FOREHEAD_INDEX).x() * mpInputWidth;
-            currHeadY = result.faceLandmarks().get(0).get(FOREHEAD_INDEX).y() * mpInputHeight;
-            currNoseTipX = result.faceLandmarks().get(0).get(NOSE_TIP_INDEX).x() * mpInputWidth;
-            currNoseTipY = result.faceLandmarks().get(0).get(NOSE_TIP_INDEX).y() * mpInputHeight;
-            currNoseBridgeX = result.faceLandmarks().get(0).get(NOSE_CENTER_INDEX).x() * mpInputWidth;
-            currNoseBridgeY = result.faceLandmarks().get(0).get(NOSE_CENTER_INDEX).y() * mpInputHeight;
-
-            // Get 3D coordinates for face normal calculation
-            // Using forehead, chin, left cheek, right cheek to define face plane
-            float foreheadX = result.faceLandmarks().get(0).get(FOREHEAD_TOP_INDEX).x();
-            float foreheadY = result.faceLandmarks().get(0).get(FOREHEAD_TOP_INDEX).y();
-            float foreheadZ = result.faceLandmarks().get(0).get(FOREHEAD_TOP_INDEX).z();
-
-            float chinX = result.faceLandmarks().get(0).get(CHIN_INDEX).x();
-            float chinY = result.faceLandmarks().get(0).get(CHIN_INDEX).y();
-            float chinZ = result.faceLandmarks().get(0).get(CHIN_INDEX).z();
-
-            float leftCheekX = result.faceLandmarks().get(0).get(LEFT_CHEEK_INDEX).x();
-            float leftCheekY = result.faceLandmarks().get(0).get(LEFT_CHEEK_INDEX).y();
-            float leftCheekZ = result.faceLandmarks().get(0).get(LEFT_CHEEK_INDEX).z();
-
-            float rightCheekX = result.faceLandmarks().get(0).get(RIGHT_CHEEK_INDEX).x();
-            float rightCheekY = result.faceLandmarks().get(0).get(RIGHT_CHEEK_INDEX).y();
-            float rightCheekZ = result.faceLandmarks().get(0).get(RIGHT_CHEEK_INDEX).z();
-
-            // Get eye and mouth positions for validation
-            float leftEyeX = result.faceLandmarks().get(0).get(LEFT_EYE_CENTER_INDEX).x();
-            float leftEyeY = result.faceLandmarks().get(0).get(LEFT_EYE_CENTER_INDEX).y();
-            float rightEyeX = result.faceLandmarks().get(0).get(RIGHT_EYE_CENTER_INDEX).x();
-            float rightEyeY = result.faceLandmarks().get(0).get(RIGHT_EYE_CENTER_INDEX).y();
-            float noseX = result.faceLandmarks().get(0).get(NOSE_TIP_INDEX).x();
-            float noseY = result.faceLandmarks().get(0).get(NOSE_TIP_INDEX).y();
-            float mouthY = result.faceLandmarks().get(0).get(MOUTH_CENTER_INDEX).y();
-
-            // Validate landmark positions to filter false detections
-            // Returns 0 if passed, 1-5 indicates which check failed
-            failedValidationCheck = validateLandmarks(
-                leftEyeX, leftEyeY, rightEyeX, rightEyeY,
-                noseX, noseY, mouthY, foreheadY, chinY,
-                leftCheekX, rightCheekX);
-
-            isFaceVisible = (failedValidationCheck == 0);
-
-            // Vector A: from chin to forehead (vertical axis of face, pointing up)
-            float ax = foreheadX - chinX;
-            float ay = foreheadY - chinY;
-            float az = foreheadZ - chinZ;
-
-            // Vector B: from left cheek to right cheek (horizontal axis, pointing right)
-            float bx = rightCheekX - leftCheekX;
-            float by = rightCheekY - leftCheekY;
-            float bz = rightCheekZ - leftCheekZ;
-
-            // Cross product A × B = face normal (points outward from face)
-            // Right-hand rule: up × right = forward (out of face)
-            float nx = ay * bz - az * by;
-            float ny = az * bx - ax * bz;
-            float nz = ax * by - ay * bx;
-
-            // Normalize the face normal
-            float magnitude = (float) Math.sqrt(nx * nx + ny * ny + nz * nz);
-            if (magnitude > 0) {
-                faceNormalX = nx / magnitude;
-                faceNormalY = ny / magnitude;
-                faceNormalZ = nz / magnitude;
-            }
-
-            // Check if looking at camera: face normal should point toward camera (negative Z in MediaPipe)
-
-            // Left-Right
-            float yawLen = (float) Math.sqrt(faceNormalX * faceNormalX + faceNormalZ * faceNormalZ);
-            float yawDot = (faceNormalZ) / yawLen; // dot with camera forward (0,0,-1)
-            yawDot = Math.max(-1f, Math.min(1f, yawDot));
-            float yawAngle = (float) Math.toDegrees(Math.acos(yawDot));
-
-            // Up-Down
-            float pitchLen = (float) Math.sqrt(faceNormalY * faceNormalY + faceNormalZ * faceNormalZ);
-            float pitchDot = (faceNormalZ) / pitchLen;
-            pitchDot = Math.max(-1f, Math.min(1f, pitchDot));
-            float pitchAngle = (float) Math.toDegrees(Math.acos(pitchDot));
-
-            boolean lookingYaw   = yawAngle   < yawThresholdDegrees;
-            boolean lookingPitch = pitchAngle < pitchThresholdDegrees;
-            isLookingAtCamera = lookingYaw && lookingPitch;
-
-            if (result.faceBlendshapes().isPresent()) {
-                // Convert from Category to simple float array.
-                for (int i = 0; i < TOTAL_BLENDSHAPES; i++) {
-                    currBlendshapes[i] = result.faceBlendshapes().get().get(0).get(i).score();
-                }
-            }
+            processFaceLandmarks(
+                result.faceLandmarks().get(0),
+                result.faceBlendshapes().isPresent() ? result.faceBlendshapes().get().get(0) : null);
 
             timeSinceLastMeasurement = SystemClock.uptimeMillis() - lastMeasurementTsMs;
             lastMeasurementTsMs = SystemClock.uptimeMillis();
         } else {
             isFaceVisible = false;
             failedValidationCheck = 0; // No face detected, so validation wasn't the issue
+            if (metrics != null) {
+                metrics.resultsWithoutFace.increment();
+            }
         }
 
         long ts = SystemClock.uptimeMillis();
         gapTimeMs = ts - prevCallbackTimeMs;
         prevCallbackTimeMs = ts;
+
+        if (FrameTrace.IS_COMPILED_IN) {
+            int sequence = inFlightFrameSequence;
+            FrameTrace.endAsync(FrameTrace.SLICE_FRAME, sequence);
+            FrameTrace.beginAsync(FrameTrace.SLICE_RESULT, sequence);
+            int replaced = unusedResultSequence.getAndSet(sequence);
+            if (replaced != 0) {
+                FrameTrace.endAsync(FrameTrace.SLICE_RESULT, replaced);
+            }
+        }
+        cpuAccounting.add(CpuAccounting.STAGE_POSTPROCESS, startCpuNs);
+        FrameTrace.endSection(FrameTrace.POSTPROCESS);
+    }
+
+    /**
+     * Head position, roll, face normal and blendshapes of one detected face. Runs once per result,
+     * keep it free of allocations.
+     *
+     * @param landmarks The landmarks of the face.
+     * @param blendshapes The blendshape scores of the face, null if the model did not output them.
+     */
+    void processFaceLandmarks(List<NormalizedLandmark> landmarks, List<Category> blendshapes) {
+        currHeadX = landmarks.get(FOREHEAD_INDEX).x() * mpInputWidth;
+        currHeadY = landmarks.get(FOREHEAD_INDEX).y() * mpInputHeight;
+        currNoseTipX = landmarks.get(NOSE_TIP_INDEX).x() * mpInputWidth;
+        currNoseTipY = landmarks.get(NOSE_TIP_INDEX).y() * mpInputHeight;
+        currNoseBridgeX = landmarks.get(NOSE_CENTER_INDEX).x() * mpInputWidth;
+        currNoseBridgeY = landmarks.get(NOSE_CENTER_INDEX).y() * mpInputHeight;
+
+        // Get 3D coordinates for face normal calculation
+        // Using forehead, chin, left cheek, right cheek to define face plane
+        float foreheadX = landmarks.get(FOREHEAD_TOP_INDEX).x();
+        float foreheadY = landmarks.get(FOREHEAD_TOP_INDEX).y();
+        float foreheadZ = landmarks.get(FOREHEAD_TOP_INDEX).z();
+
+        float chinX = landmarks.get(CHIN_INDEX).x();
+        float chinY = landmarks.get(CHIN_INDEX).y();
+        float chinZ = landmarks.get(CHIN_INDEX).z();
+
+        float leftCheekX = landmarks.get(LEFT_CHEEK_INDEX).x();
+        float leftCheekY = landmarks.get(LEFT_CHEEK_INDEX).y();
+        float leftCheekZ = landmarks.get(LEFT_CHEEK_INDEX).z();
+
+        float rightCheekX = landmarks.get(RIGHT_CHEEK_INDEX).x();
+        float rightCheekY = landmarks.get(RIGHT_CHEEK_INDEX).y();
+        float rightCheekZ = landmarks.get(RIGHT_CHEEK_INDEX).z();
+
+        // Get eye and mouth positions for validation
+        float leftEyeX = landmarks.get(LEFT_EYE_CENTER_INDEX).x();
+        float leftEyeY = landmarks.get(LEFT_EYE_CENTER_INDEX).y();
+        float rightEyeX = landmarks.get(RIGHT_EYE_CENTER_INDEX).x();
+        float rightEyeY = landmarks.get(RIGHT_EYE_CENTER_INDEX).y();
+        float noseX = landmarks.get(NOSE_TIP_INDEX).x();
+        float noseY = landmarks.get(NOSE_TIP_INDEX).y();
+        float mouthY = landmarks.get(MOUTH_CENTER_INDEX).y();
+
+        // Angle of the line between the eyes, folded into -90 - 90 so it does not depend on
+        // which eye is on the left of the image.
+        float rollDegrees = (float) Math.toDegrees(Math.atan2(
+            (rightEyeY - leftEyeY) * mpInputHeight, (rightEyeX - leftEyeX) * mpInputWidth));
+        if (rollDegrees > 90.f) {
+            rollDegrees -= 180.f;
+        } else if (rollDegrees < -90.f) {
+            rollDegrees += 180.f;
+        }
+        headRollDegrees = rollDegrees;
+
+        // Validate landmark positions to filter false detections
+        // Returns 0 if passed, 1-5 indicates which check failed
+        failedValidationCheck = validateLandmarks(
+            leftEyeX, leftEyeY, rightEyeX, rightEyeY,
+            noseX, noseY, mouthY, foreheadY, chinY,
+            leftCheekX, rightCheekX);
+
+        isFaceVisible = (failedValidationCheck == 0);
+        if (metrics != null) {
+            metrics.onValidation(failedValidationCheck);
+        }
+
+        // Vector A: from chin to forehead (vertical axis of face, pointing up)
+        float ax = foreheadX - chinX;
+        float ay = foreheadY - chinY;
+        float az = foreheadZ - chinZ;
+
+        // Vector B: from left cheek to right cheek (horizontal axis, pointing right)
+        float bx = rightCheekX - leftCheekX;
+        float by = rightCheekY - leftCheekY;
+        float bz = rightCheekZ - leftCheekZ;
+
+        // Cross product A × B = face normal (points outward from face)
+        // Right-hand rule: up × right = forward (out of face)
+        float nx = ay * bz - az * by;
+        float ny = az * bx - ax * bz;
+        float nz = ax * by - ay * bx;
+
+        // Normalize the face normal
+        float magnitude = (float) Math.sqrt(nx * nx + ny * ny + nz * nz);
+        if (magnitude > 0) {
+            faceNormalX = nx / magnitude;
+            faceNormalY = ny / magnitude;
+            faceNormalZ = nz / magnitude;
+        }
+
+        // Check if looking at camera: face normal should point toward camera (negative Z in MediaPipe)
+
+        // Left-Right
+        float yawLen = (float) Math.sqrt(faceNormalX * faceNormalX + faceNormalZ * faceNormalZ);
+        float yawDot = (faceNormalZ) / yawLen; // dot with camera forward (0,0,-1)
+        yawDot = Math.max(-1f, Math.min(1f, yawDot));
+        float yawAngle = (float) Math.toDegrees(Math.acos(yawDot));
+
+        // Up-Down
+        float pitchLen = (float) Math.sqrt(faceNormalY * faceNormalY + faceNormalZ * faceNormalZ);
+        float pitchDot = (faceNormalZ) / pitchLen;
+        pitchDot = Math.max(-1f, Math.min(1f, pitchDot));
+        float pitchAngle = (float) Math.toDegrees(Math.acos(pitchDot));
+
+        boolean lookingYaw   = yawAngle   < yawThresholdDegrees;
+        boolean lookingPitch = pitchAngle < pitchThresholdDegrees;
+        isLookingAtCamera = lookingYaw && lookingPitch;
+
+        if (blendshapes != null) {
+            // Convert from Category to simple float array.
+            for (int i = 0; i < TOTAL_BLENDSHAPES; i++) {
+                currBlendshapes[i] = blendshapes.get(i).score();
+            }
+        }
+    }
+
+    /** A tick used the latest result, ends its trace slice. */
+    void onResultUsed() {
+        if (FrameTrace.IS_COMPILED_IN) {
+            int sequence = unusedResultSequence.getAndSet(0);
+            if (sequence != 0) {
+                FrameTrace.endAsync(FrameTrace.SLICE_RESULT, sequence);
+            }
+        }
     }
 
     /** Get user's head X, Y coordinate in image space. */
     public float[] getHeadCoordXY() {
         return new float[] {currHeadX, currHeadY};
     }
+
+    /** {@link #getHeadCoordXY()} into an array of the caller, for the per-tick path. */
+    void getHeadCoordXY(float[] outXy) {
+        outXy[0] = currHeadX;
+        outXy[1] = currHeadY;
+    }
     public float[] getNoseTipCoordXY() { return new float[] {currNoseTipX, currNoseTipY}; }
 
     public float[] getNoseBridgeCoordXY() { return new float[] {currNoseBridgeX, currNoseBridgeY}; }
@@ -462,6 +608,8 @@ class FaceLandmarkerHelper extends HandlerThread {
 
     public boolean isLookingAtCamera() { return isLookingAtCamera; }
 
+    public float getHeadRollDegrees() { return headRollDegrees; }
+
     /** Returns which validation check failed (0 = passed, 1-5 = specific check). */
     public int getFailedValidationCheck() { return failedValidationCheck; }
 
@@ -491,7 +639,7 @@ class FaceLandmarkerHelper extends HandlerThread {
      * Completely pause the detection process.
      */
     public void pauseThread() {
-        Log.i(TAG, "pauseThread");
+        AppLog.i(TAG, "pauseThread");
 
         // There might be some image processing.
         isRunning = false;
@@ -557,7 +705,7 @@ class FaceLandmarkerHelper extends HandlerThread {
 
     /** Destroys {@link FaceLandmarker} and stop. */
     public void destroy() {
-        Log.i(TAG, "destroy");
+        AppLog.i(TAG, "destroy");
         isRunning = false;
         ensurePauseThread();
     }
@@ -0,0 +1,178 @@
+/*
+ * Copyright 2024 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * MODIFICATION NOTICE
+ * as per the licence its required to give notice that this code has been modified by a third party.
+ * 2026 - Helgi Steinarr Juliusson, changes can be found in version control.
+ */
+package com.google.projectgameface;
+
+import com.google.projectgameface.BlendshapeEventTriggerConfig.EventType;
+import com.google.projectgameface.CursorAccessibilityService.ServiceState;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+/**
+ * Always-on recording of the last {@value #CAPACITY} service ticks, about ten seconds: the face
+ * landmarker output the tick used, the cursor position after it, the service state, the config
+ * generation and the event dispatched. Written out as a {@link FlightRecording} when the
+ * {@link AnomalyDetector} fires or on demand, and replayable with {@link FlightReplayer}.
+ *
+ * <p>Recording copies into preallocated arrays and allocates nothing. Used from the main thread
+ * only.
+ */
+class FlightRecorder {
+  private static final String TAG = "FlightRecorder";
+
+  static final String FILE_SUFFIX = ".gfr";
+
+  /** Older recordings are deleted beyond this many. */
+  static final int MAX_SAVED_RECORDINGS = 5;
+
+  /** Ticks kept, 10 s of 16 ms ticks. */
+  static final int CAPACITY = 625;
+
+  private final long[] timeMs = new long[CAPACITY];
+  private final long[] resultTimeMs = new long[CAPACITY];
+  private final float[] headX = new float[CAPACITY];
+  private final float[] headY = new float[CAPACITY];
+  private final int[] gapFrames = new int[CAPACITY];
+  private final float[][] blendshapes =
+      new float[CAPACITY][FaceLandmarkerHelper.TOTAL_BLENDSHAPES];
+  private final int[] cursorX = new int[CAPACITY];
+  private final int[] cursorY = new int[CAPACITY];
+  private final byte[] state = new byte[CAPACITY];
+  private final int[] configGeneration = new int[CAPACITY];
+  private final byte[] event = new byte[CAPACITY];
+
+  /** Slot of the next tick. */
+  private int next = 0;
+  private int size = 0;
+
+  /**
+   * Record one tick.
+   *
+   * @param resultTimeMs Time of the landmarker result the tick used.
+   * @param blendshapes Scores of that result, copied.
+   * @param event Event dispatched this tick, {@link EventType#NONE} if none.
+   */
+  void record(long timeMs, long resultTimeMs, float headX, float headY, int gapFrames,
+      float[] blendshapes, int cursorX, int cursorY, ServiceState state, int configGeneration,
+      EventType event) {
+    this.timeMs[next] = timeMs;
+    this.resultTimeMs[next] = resultTimeMs;
+    this.headX[next] = headX;
+    this.headY[next] = headY;
+    this.gapFrames[next] = gapFrames;
+    System.arraycopy(blendshapes, 0, this.blendshapes[next], 0,
+        FaceLandmarkerHelper.TOTAL_BLENDSHAPES);
+    this.cursorX[next] = cursorX;
+    this.cursorY[next] = cursorY;
+    this.state[next] = (byte) state.ordinal();
+    this.configGeneration[next] = configGeneration;
+    this.event[next] = (byte) event.ordinal();
+    next = (next + 1) % CAPACITY;
+    if (size < CAPACITY) {
+      size++;
+    }
+  }
+
+  int size() {
+    return size;
+  }
+
+  /**
+   * Write the recorded ticks, oldest first, in the {@link FlightRecording} format.
+   *
+   * @param reason Why the recording was written, such as an {@link AnomalyDetector} reason.
+   * @param profile Settings in use, so the replay uses the same ones.
+   */
+  void writeTo(OutputStream outputStream, String reason, long wallTimeMs, int screenWidth,
+      int screenHeight, Profile profile) throws IOException {
+    DataOutputStream out = new DataOutputStream(outputStream);
+    out.writeInt(FlightRecording.MAGIC);
+    out.writeShort(FlightRecording.FORMAT_VERSION);
+    out.writeUTF(reason);
+    out.writeLong(wallTimeMs);
+    out.writeInt(screenWidth);
+    out.writeInt(screenHeight);
+    byte[] encodedProfile = ProfileCodec.encode(profile);
+    out.writeInt(encodedProfile.length);
+    out.write(encodedProfile);
+
+    // Enum names, so recordings survive reordered constants.
+    out.writeShort(ServiceState.values().length);
+    for (ServiceState value : ServiceState.values()) {
+      out.writeUTF(value.name());
+    }
+    out.writeShort(EventType.values().length);
+    for (EventType value : EventType.values()) {
+      out.writeUTF(value.name());
+    }
+
+    out.writeShort(FaceLandmarkerHelper.TOTAL_BLENDSHAPES);
+    out.writeInt(size);
+    for (int i = 0; i < size; i++) {
+      int slot = (next - size + i + CAPACITY) % CAPACITY;
+      out.writeLong(timeMs[slot]);
+      out.writeLong(resultTimeMs[slot]);
+      out.writeFloat(headX[slot]);
+      out.writeFloat(headY[slot]);
+      out.writeInt(gapFrames[slot]);
+      for (int j = 0; j < FaceLandmarkerHelper.TOTAL_BLENDSHAPES; j++) {
+        out.writeFloat(blendshapes[slot][j]);
+      }
+      out.writeInt(cursorX[slot]);
+      out.writeInt(cursorY[slot]);
+      out.writeByte(state[slot]);
+      out.writeInt(configGeneration[slot]);
+      out.writeByte(event[slot]);
+    }
+    out.flush();
+  }
+
+  /**
+   * Store a written recording, deleting the oldest ones beyond {@value MAX_SAVED_RECORDINGS}.
+   * Does file IO, call off the main thread.
+   */
+  static void save(File directory, String fileName, byte[] data) {
+    if (!directory.isDirectory() && !directory.mkdirs()) {
+      AppLog.w(TAG, "Cannot create {}", directory);
+      return;
+    }
+    File file = new File(directory, fileName);
+    try (FileOutputStream out = new FileOutputStream(file)) {
+      out.write(data);
+    } catch (IOException e) {
+      AppLog.w(TAG, "Cannot write {}: {}", file, e.getMessage());
+      return;
+    }
+    AppLog.i(TAG, "Wrote {}", file);
+
+    File[] files = directory.listFiles((dir, name) -> name.endsWith(FILE_SUFFIX));
+    if (files == null || files.length <= MAX_SAVED_RECORDINGS) {
+      return;
+    }
+    // Names start with the wall clock time, oldest sort first.
+    Arrays.sort(files);
+    for (int i = 0; i < files.length - MAX_SAVED_RECORDINGS; i++) {
+      files[i].delete();
+    }
+  }
+}
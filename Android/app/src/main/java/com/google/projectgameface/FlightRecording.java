@@ -0,0 +1,139 @@
+/*
+ * Copyright 2024 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * MODIFICATION NOTICE
+ * as per the licence its required to give notice that this code has been modified by a third party.
+ * 2026 - Helgi Steinarr Juliusson, changes can be found in version control.
+ */
+package com.google.projectgameface;
+
+import com.google.projectgameface.BlendshapeEventTriggerConfig.EventType;
+import com.google.projectgameface.CursorAccessibilityService.ServiceState;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * A {@link FlightRecorder} dump read back, ticks oldest first.
+ *
+ * <p>Layout: magic, format version, reason, wall clock time, screen size, the settings as a
+ * {@link ProfileCodec} profile, the service state and event names, then the ticks.
+ */
+final class FlightRecording {
+  static final int MAGIC = 0x47464652; // "GFFR"
+  static final int FORMAT_VERSION = 1;
+
+  String reason;
+  long wallTimeMs;
+  int screenWidth;
+  int screenHeight;
+  Profile profile;
+
+  int size;
+  long[] timeMs;
+  long[] resultTimeMs;
+  float[] headX;
+  float[] headY;
+  int[] gapFrames;
+  float[][] blendshapes;
+  int[] cursorX;
+  int[] cursorY;
+  /** Null where the recording has a state this version does not know. */
+  ServiceState[] state;
+  int[] configGeneration;
+  /** {@link EventType#NONE} where the recording has an event this version does not know. */
+  EventType[] event;
+
+  static FlightRecording read(InputStream inputStream) throws IOException {
+    DataInputStream in = new DataInputStream(inputStream);
+    if (in.readInt() != MAGIC) {
+      throw new IOException("Not a flight recording");
+    }
+    int version = in.readUnsignedShort();
+    if (version < 1 || version > FORMAT_VERSION) {
+      throw new IOException("Unsupported flight recording version " + version);
+    }
+    FlightRecording recording = new FlightRecording();
+    recording.reason = in.readUTF();
+    recording.wallTimeMs = in.readLong();
+    recording.screenWidth = in.readInt();
+    recording.screenHeight = in.readInt();
+    byte[] encodedProfile = new byte[in.readInt()];
+    in.readFully(encodedProfile);
+    recording.profile = ProfileCodec.decode(encodedProfile);
+
+    ServiceState[] states = new ServiceState[in.readUnsignedShort()];
+    for (int i = 0; i < states.length; i++) {
+      states[i] = valueOf(ServiceState.class, in.readUTF());
+    }
+    EventType[] events = new EventType[in.readUnsignedShort()];
+    for (int i = 0; i < events.length; i++) {
+      events[i] = valueOf(EventType.class, in.readUTF());
+    }
+
+    int blendshapeCount = in.readUnsignedShort();
+    int size = in.readInt();
+    if (size < 0 || size > FlightRecorder.CAPACITY * 16) {
+      throw new IOException("Bad tick count " + size);
+    }
+    recording.allocate(size);
+    for (int i = 0; i < size; i++) {
+      recording.timeMs[i] = in.readLong();
+      recording.resultTimeMs[i] = in.readLong();
+      recording.headX[i] = in.readFloat();
+      recording.headY[i] = in.readFloat();
+      recording.gapFrames[i] = in.readInt();
+      for (int j = 0; j < blendshapeCount; j++) {
+        float score = in.readFloat();
+        if (j < FaceLandmarkerHelper.TOTAL_BLENDSHAPES) {
+          recording.blendshapes[i][j] = score;
+        }
+      }
+      recording.cursorX[i] = in.readInt();
+      recording.cursorY[i] = in.readInt();
+      int stateIndex = in.readUnsignedByte();
+      recording.state[i] = stateIndex < states.length ? states[stateIndex] : null;
+      recording.configGeneration[i] = in.readInt();
+      int eventIndex = in.readUnsignedByte();
+      EventType eventType = eventIndex < events.length ? events[eventIndex] : null;
+      recording.event[i] = eventType != null ? eventType : EventType.NONE;
+    }
+    return recording;
+  }
+
+  private void allocate(int size) {
+    this.size = size;
+    timeMs = new long[size];
+    resultTimeMs = new long[size];
+    headX = new float[size];
+    headY = new float[size];
+    gapFrames = new int[size];
+    blendshapes = new float[size][FaceLandmarkerHelper.TOTAL_BLENDSHAPES];
+    cursorX = new int[size];
+    cursorY = new int[size];
+    state = new ServiceState[size];
+    configGeneration = new int[size];
+    event = new EventType[size];
+  }
+
+  /** Enum constant of that name, null if there is none. */
+  private static <T extends Enum<T>> T valueOf(Class<T> enumClass, String name) {
+    try {
+      return Enum.valueOf(enumClass, name);
+    } catch (IllegalArgumentException e) {
+      return null;
+    }
+  }
+}
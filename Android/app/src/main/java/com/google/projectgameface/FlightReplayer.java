@@ -0,0 +1,118 @@
+/*
+ * Copyright 2024 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * MODIFICATION NOTICE
+ * as per the licence its required to give notice that this code has been modified by a third party.
+ * 2026 - Helgi Steinarr Juliusson, changes can be found in version control.
+ */
+package com.google.projectgameface;
+
+import com.google.projectgameface.BlendshapeEventTriggerConfig.EventType;
+import com.google.projectgameface.CursorAccessibilityService.ServiceState;
+
+/**
+ * Feeds a {@link FlightRecording} through the control pipeline the way the service tick does:
+ * cursor movement from the head position while the cursor is active, gesture events from the
+ * scores in every enabled state. Shows whether a reported jump or stray click follows from the
+ * recorded face data and settings, or came from somewhere else.
+ *
+ * <p>The recording holds only the settings in use when it was written. Ticks recorded under an
+ * earlier {@link FlightRecording#configGeneration} are not replayed.
+ */
+final class FlightReplayer {
+
+  /** Replayed cursor positions and events, one per recorded tick. */
+  static final class Result {
+    final int[] cursorX;
+    final int[] cursorY;
+    final EventType[] event;
+
+    /**
+     * First replayed tick, where the last settings change took effect. Earlier ticks keep their
+     * recorded values and are left out of the comparison.
+     */
+    int firstReplayedTick = 0;
+
+    /** Ticks whose replayed event differs from the recorded one. */
+    int eventMismatchCount = 0;
+
+    /** Largest distance between the replayed and the recorded cursor. */
+    float maxCursorErrorPx = 0.f;
+
+    private Result(int size) {
+      cursorX = new int[size];
+      cursorY = new int[size];
+      event = new EventType[size];
+    }
+  }
+
+  /**
+   * Replay a recording.
+   *
+   * @param recording What to replay.
+   * @param cursorController A fresh controller, the recording's settings are applied to it.
+   */
+  static Result replay(FlightRecording recording, CursorController cursorController) {
+    Result result = new Result(recording.size);
+    if (recording.size == 0) {
+      return result;
+    }
+    int first = recording.size - 1;
+    while (first > 0
+        && recording.configGeneration[first - 1] == recording.configGeneration[first]) {
+      first--;
+    }
+    result.firstReplayedTick = first;
+    for (int i = 0; i <= first; i++) {
+      result.cursorX[i] = recording.cursorX[i];
+      result.cursorY[i] = recording.cursorY[i];
+      result.event[i] = recording.event[i];
+    }
+
+    cursorController.applyProfile(recording.profile.compile());
+    // The replay starts mid-flight, continue from its first tick. Smoothing starts at rest, so
+    // the first ticks may differ by up to the smoothing window.
+    cursorController.resetMotion(recording.cursorX[first], recording.cursorY[first],
+        recording.headX[first], recording.headY[first]);
+
+    float[] headCoordXY = new float[2];
+    for (int i = first + 1; i < recording.size; i++) {
+      ServiceState state = recording.state[i];
+      if (state == ServiceState.ENABLE || state == ServiceState.GLOBAL_STICK) {
+        headCoordXY[0] = recording.headX[i];
+        headCoordXY[1] = recording.headY[i];
+        cursorController.updateInternalCursorPosition(headCoordXY, recording.gapFrames[i],
+            recording.screenWidth, recording.screenHeight, recording.timeMs[i]);
+      }
+      EventType event = EventType.NONE;
+      if (state != null && state != ServiceState.DISABLE) {
+        event = cursorController.createCursorEvent(recording.blendshapes[i], recording.timeMs[i]);
+      }
+
+      result.cursorX[i] = cursorController.getCursorX();
+      result.cursorY[i] = cursorController.getCursorY();
+      result.event[i] = event;
+      if (event != recording.event[i]) {
+        result.eventMismatchCount++;
+      }
+      float errorPx = (float) Math.hypot(result.cursorX[i] - recording.cursorX[i],
+          result.cursorY[i] - recording.cursorY[i]);
+      result.maxCursorErrorPx = Math.max(result.maxCursorErrorPx, errorPx);
+    }
+    return result;
+  }
+
+  private FlightReplayer() {}
+}
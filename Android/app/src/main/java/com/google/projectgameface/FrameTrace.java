@@ -0,0 +1,113 @@
+/*
+ * Copyright 2024 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * MODIFICATION NOTICE
+ * as per the licence its required to give notice that this code has been modified by a third party.
+ * 2026 - Helgi Steinarr Juliusson, changes can be found in version control.
+ */
+package com.google.projectgameface;
+
+import android.os.Build;
+import android.os.Trace;
+
+/**
+ * Trace points of the frame pipeline, from the camera analyzer to dispatchGesture. Every point is
+ * an {@link Trace} section or async slice for systrace and Perfetto, and also goes to the in-app
+ * {@link JsonTracer} while one records.
+ *
+ * <p>Async slices are keyed by the camera frame sequence number, so one frame can be followed
+ * from the analyzer through the landmarker thread and the MediaPipe callback to the tick using
+ * its result.
+ */
+final class FrameTrace {
+
+  /** Set to false to strip every trace point at compile time. */
+  static final boolean IS_COMPILED_IN = true;
+
+  static final String ANALYZE = "analyze";
+  static final String PREPROCESS = "preprocess";
+  static final String DETECT_ASYNC = "detectAsync";
+  static final String POSTPROCESS = "postprocess";
+  static final String TICK = "tick";
+  static final String DISPATCH = "dispatch";
+  static final String DISPATCH_GESTURE = "dispatchGesture";
+
+  /** Async, camera frame from the analyzer until its landmarker result or until dropped. */
+  static final String SLICE_FRAME = "frame";
+
+  /** Async, landmarker result until a tick used it or a newer result replaced it. */
+  static final String SLICE_RESULT = "result";
+
+  /** Async, gesture from dispatchGesture until the system finished it. */
+  static final String SLICE_GESTURE = "gesture";
+
+  private static volatile JsonTracer jsonTracer = null;
+
+  /** Start or stop copying trace points into an in-app tracer. */
+  static void setJsonTracer(JsonTracer tracer) {
+    jsonTracer = tracer;
+  }
+
+  static void beginSection(String name) {
+    if (!IS_COMPILED_IN) {
+      return;
+    }
+    Trace.beginSection(name);
+    JsonTracer tracer = jsonTracer;
+    if (tracer != null) {
+      tracer.add(JsonTracer.PHASE_BEGIN, name, 0);
+    }
+  }
+
+  /** End the innermost section of this thread, the name is only used by the in-app tracer. */
+  static void endSection(String name) {
+    if (!IS_COMPILED_IN) {
+      return;
+    }
+    Trace.endSection();
+    JsonTracer tracer = jsonTracer;
+    if (tracer != null) {
+      tracer.add(JsonTracer.PHASE_END, name, 0);
+    }
+  }
+
+  static void beginAsync(String name, int id) {
+    if (!IS_COMPILED_IN) {
+      return;
+    }
+    if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q) {
+      Trace.beginAsyncSection(name, id);
+    }
+    JsonTracer tracer = jsonTracer;
+    if (tracer != null) {
+      tracer.add(JsonTracer.PHASE_ASYNC_BEGIN, name, id);
+    }
+  }
+
+  static void endAsync(String name, int id) {
+    if (!IS_COMPILED_IN) {
+      return;
+    }
+    if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.Q) {
+      Trace.endAsyncSection(name, id);
+    }
+    JsonTracer tracer = jsonTracer;
+    if (tracer != null) {
+      tracer.add(JsonTracer.PHASE_ASYNC_END, name, id);
+    }
+  }
+
+  private FrameTrace() {}
+}
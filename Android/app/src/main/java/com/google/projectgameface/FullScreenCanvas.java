@@ -12,14 +12,20 @@
  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
  * See the License for the specific language governing permissions and
  * limitations under the License.
+ *
+ * MODIFICATION NOTICE
+ * as per the licence its required to give notice that this code has been modified by a third party.
+ * 2026 - Helgi Steinarr Juliusson, changes can be found in version control.
  */
 
 package com.google.projectgameface;
 
 import android.content.Context;
+import android.graphics.Bitmap;
 import android.graphics.Canvas;
 import android.graphics.Color;
 import android.graphics.Paint;
+import android.os.SystemClock;
 import android.util.AttributeSet;
 import android.view.View;
 
@@ -43,6 +49,16 @@ public class FullScreenCanvas extends View {
 
     private boolean isShowingTouch = false;
 
+    /** Cursor image drawn centered on the cursor position, when the canvas renders the cursor. */
+    private Bitmap cursorBitmap = null;
+    private boolean isShowingCursor = false;
+    private int cursorX = 0;
+    private int cursorY = 0;
+
+    /** Time spent in onDraw, in microseconds. */
+    private final StreamingQuantile drawTimeP50Us = new StreamingQuantile(0.5);
+    private final StreamingQuantile drawTimeP90Us = new StreamingQuantile(0.9);
+
     public FullScreenCanvas(Context context, AttributeSet attributeSet) {
         super(context, attributeSet);
         touchCirclePaint = new Paint();
@@ -62,6 +78,8 @@ public class FullScreenCanvas extends View {
 
     @Override
     protected void onDraw(Canvas canvas) {
+        long startNs = SystemClock.elapsedRealtimeNanos();
+        long startCpuNs = CpuAccounting.threadCpuNs();
         super.onDraw(canvas);
 
         if (isShowingTouch) {
@@ -73,6 +91,55 @@ public class FullScreenCanvas extends View {
             canvas.drawLine(dragStartX, dragStartY, dragEndX, dragEndY, dragLinePaint);
             canvas.drawCircle(dragStartX, dragStartY, holdRadius, holdCirclePaint);
         }
+        if (isShowingCursor && cursorBitmap != null) {
+            canvas.drawBitmap(cursorBitmap,
+                cursorX - cursorBitmap.getWidth() / 2.f,
+                cursorY - cursorBitmap.getHeight() / 2.f,
+                null);
+        }
+
+        long drawTimeUs = (SystemClock.elapsedRealtimeNanos() - startNs) / 1000;
+        drawTimeP50Us.add(drawTimeUs);
+        drawTimeP90Us.add(drawTimeUs);
+        CpuAccounting.getInstance().add(CpuAccounting.STAGE_RENDER, startCpuNs);
+    }
+
+    /** Image to draw the cursor with, already scaled to its on-screen size. */
+    public void setCursorBitmap(Bitmap cursorBitmap) {
+        this.cursorBitmap = cursorBitmap;
+        invalidate();
+    }
+
+    public void setCursorVisible(boolean isVisible) {
+        if (isVisible != isShowingCursor) {
+            isShowingCursor = isVisible;
+            invalidate();
+        }
+    }
+
+    /**
+     * Move the cursor, the canvas is only redrawn if it actually moved.
+     *
+     * @return Whether a redraw was requested.
+     */
+    public boolean setCursorPosition(int x, int y) {
+        if (x == cursorX && y == cursorY) {
+            return false;
+        }
+        cursorX = x;
+        cursorY = y;
+        if (isShowingCursor) {
+            invalidate();
+        }
+        return isShowingCursor;
+    }
+
+    float getDrawTimeP50Us() {
+        return (float) drawTimeP50Us.get();
+    }
+
+    float getDrawTimeP90Us() {
+        return (float) drawTimeP90Us.get();
     }
 
     public void drawTouchCircle(float x, float y) {
@@ -0,0 +1,347 @@
+/*
+ * Copyright 2024 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * MODIFICATION NOTICE
+ * as per the licence its required to give notice that this code has been modified by a third party.
+ * 2026 - Helgi Steinarr Juliusson, changes can be found in version control.
+ */
+package com.google.projectgameface;
+
+import android.accessibilityservice.AccessibilityService;
+import android.accessibilityservice.GestureDescription;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.util.Log;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+
+/**
+ * Serializes the gestures dispatched by the service. A new gesture is only dispatched once the
+ * previous one completed or was cancelled, so they no longer cancel each other. Global actions are
+ * performed on a background thread so their binder call does not block the UI tick.
+ *
+ * <p>Must be used from the main thread, completion callbacks are delivered there too.
+ */
+class GestureDispatchQueue {
+  private static final String TAG = "GestureDispatchQueue";
+
+  /** Gestures never coalesce when enqueued with this key. */
+  static final int NO_COALESCE = 0;
+
+  /** Older gestures are dropped beyond this, the user is gesturing faster than they play out. */
+  static final int MAX_PENDING = 8;
+
+  /** Give up waiting for a callback this long after the gesture should have finished. */
+  static final long CALLBACK_TIMEOUT_MS = 1000;
+
+  /** Log a stats summary every this many finished gestures. */
+  private static final int STATS_LOG_INTERVAL = 100;
+
+  /** What the queue dispatches to, {@link CursorAccessibilityService} outside tests. */
+  interface Target {
+    boolean dispatchGesture(
+        GestureDescription gesture, AccessibilityService.GestureResultCallback callback, Handler handler);
+
+    boolean performGlobalAction(int action);
+  }
+
+  /** Told when one gesture is done, on the main thread. */
+  interface OnFinishedListener {
+    /** @param completed false if the gesture was cancelled, rejected, dropped or timed out. */
+    void onFinished(boolean completed);
+  }
+
+  private static final class Entry {
+    final GestureDescription gesture;
+    final int coalesceKey;
+    final long enqueueTimeMs;
+    final OnFinishedListener listener;
+
+    Entry(GestureDescription gesture, int coalesceKey, long enqueueTimeMs,
+        OnFinishedListener listener) {
+      this.gesture = gesture;
+      this.coalesceKey = coalesceKey;
+      this.enqueueTimeMs = enqueueTimeMs;
+      this.listener = listener;
+    }
+
+    void notifyFinished(boolean completed) {
+      if (listener != null) {
+        listener.onFinished(completed);
+      }
+    }
+  }
+
+  private final Target target;
+  private final Handler mainHandler = new Handler(Looper.getMainLooper());
+  private final ArrayDeque<Entry> pending = new ArrayDeque<>();
+
+  private HandlerThread globalActionThread;
+  private Handler globalActionHandler;
+
+  /** Gesture waiting for its callback, null when idle. */
+  private Entry inFlight = null;
+  private long inFlightDispatchTimeMs = 0;
+
+  /** Increments per dispatch so a late callback of a timed out gesture is ignored. */
+  private int inFlightSequence = 0;
+
+  // Stats.
+  private final StreamingQuantile injectionLatencyP50 = new StreamingQuantile(0.5);
+  private final StreamingQuantile injectionLatencyP90 = new StreamingQuantile(0.9);
+  private final StreamingQuantile injectionLatencyP99 = new StreamingQuantile(0.99);
+  private final StreamingQuantile queueDelayP90 = new StreamingQuantile(0.9);
+  private int completedCount = 0;
+  private int cancelledCount = 0;
+  private int coalescedCount = 0;
+  private int droppedCount = 0;
+  private int timedOutCount = 0;
+
+  private final Runnable callbackTimeout = new Runnable() {
+    @Override
+    public void run() {
+      AppLog.w(TAG, "No callback for dispatched gesture, continue with the next one.");
+      timedOutCount++;
+      Entry timedOut = inFlight;
+      inFlight = null;
+      if (timedOut != null) {
+        FrameTrace.endAsync(FrameTrace.SLICE_GESTURE, inFlightSequence);
+      }
+      inFlightSequence++;
+      if (timedOut != null) {
+        timedOut.notifyFinished(/* completed= */ false);
+      }
+      dispatchNext();
+    }
+  };
+
+  GestureDispatchQueue(Target target) {
+    this.target = target;
+  }
+
+  /** Enqueue a gesture that never coalesces, like a tap. */
+  void enqueue(GestureDescription gesture) {
+    enqueue(gesture, NO_COALESCE);
+  }
+
+  /**
+   * Enqueue a gesture, it is dispatched right away if nothing is in flight.
+   *
+   * @param gesture Gesture to dispatch.
+   * @param coalesceKey A pending gesture with the same key is replaced by this one, for gestures
+   *     where only the latest request matters. {@link #NO_COALESCE} to always keep it.
+   */
+  void enqueue(GestureDescription gesture, int coalesceKey) {
+    enqueue(gesture, coalesceKey, null);
+  }
+
+  /**
+   * Enqueue a gesture and get told when it is done.
+   *
+   * @param listener Called once with the result, also if the gesture is dropped. Not called after
+   *     {@link #release()}.
+   */
+  void enqueue(GestureDescription gesture, int coalesceKey, OnFinishedListener listener) {
+    long nowMs = SystemClock.uptimeMillis();
+    if (coalesceKey != NO_COALESCE) {
+      Iterator<Entry> iterator = pending.iterator();
+      while (iterator.hasNext()) {
+        Entry entry = iterator.next();
+        if (entry.coalesceKey == coalesceKey) {
+          iterator.remove();
+          coalescedCount++;
+          entry.notifyFinished(/* completed= */ false);
+        }
+      }
+    }
+    if (pending.size() >= MAX_PENDING) {
+      pending.pollFirst().notifyFinished(/* completed= */ false);
+      droppedCount++;
+    }
+    pending.addLast(new Entry(gesture, coalesceKey, nowMs, listener));
+    if (inFlight == null) {
+      dispatchNext();
+    }
+  }
+
+  /**
+   * Perform a global action, like home or back, on a background thread.
+   *
+   * @param action One of the {@code AccessibilityService.GLOBAL_ACTION_} constants.
+   */
+  void performGlobalAction(int action) {
+    if (globalActionHandler == null) {
+      globalActionThread = new HandlerThread("GlobalActionThread");
+      globalActionThread.start();
+      globalActionHandler = new Handler(globalActionThread.getLooper());
+    }
+    globalActionHandler.post(() -> {
+      if (!target.performGlobalAction(action)) {
+        AppLog.w(TAG, "Global action {} failed.", action);
+      }
+    });
+  }
+
+  private void dispatchNext() {
+    while (inFlight == null && !pending.isEmpty()) {
+      Entry entry = pending.pollFirst();
+      long nowMs = SystemClock.uptimeMillis();
+      queueDelayP90.add(nowMs - entry.enqueueTimeMs);
+
+      final int sequence = ++inFlightSequence;
+      inFlight = entry;
+      inFlightDispatchTimeMs = nowMs;
+      FrameTrace.beginAsync(FrameTrace.SLICE_GESTURE, sequence);
+      FrameTrace.beginSection(FrameTrace.DISPATCH_GESTURE);
+      boolean accepted = target.dispatchGesture(
+          entry.gesture,
+          new AccessibilityService.GestureResultCallback() {
+            @Override
+            public void onCompleted(GestureDescription gestureDescription) {
+              onGestureFinished(sequence, /* completed= */ true);
+            }
+
+            @Override
+            public void onCancelled(GestureDescription gestureDescription) {
+              onGestureFinished(sequence, /* completed= */ false);
+            }
+          },
+          mainHandler);
+      FrameTrace.endSection(FrameTrace.DISPATCH_GESTURE);
+
+      if (!accepted) {
+        FrameTrace.endAsync(FrameTrace.SLICE_GESTURE, sequence);
+        AppLog.w(TAG, "Gesture was rejected.");
+        droppedCount++;
+        inFlight = null;
+        entry.notifyFinished(/* completed= */ false);
+        continue;
+      }
+      mainHandler.postDelayed(callbackTimeout, getDurationMs(entry.gesture) + CALLBACK_TIMEOUT_MS);
+    }
+  }
+
+  private void onGestureFinished(int sequence, boolean completed) {
+    if (sequence != inFlightSequence || inFlight == null) {
+      return;
+    }
+    mainHandler.removeCallbacks(callbackTimeout);
+    FrameTrace.endAsync(FrameTrace.SLICE_GESTURE, sequence);
+    if (completed) {
+      // Time beyond the gesture's own duration is spent injecting it.
+      long latencyMs = Math.max(0,
+          SystemClock.uptimeMillis() - inFlightDispatchTimeMs - getDurationMs(inFlight.gesture));
+      injectionLatencyP50.add(latencyMs);
+      injectionLatencyP90.add(latencyMs);
+      injectionLatencyP99.add(latencyMs);
+      completedCount++;
+    } else {
+      cancelledCount++;
+    }
+    Entry finished = inFlight;
+    inFlight = null;
+    finished.notifyFinished(completed);
+
+    if ((completedCount + cancelledCount) % STATS_LOG_INTERVAL == 0
+        && AppLog.isLoggable(Log.INFO)) {
+      AppLog.i(TAG, getStatsSummary());
+    }
+    dispatchNext();
+  }
+
+  /** Time from dispatch until the last stroke of the gesture ends. */
+  static long getDurationMs(GestureDescription gesture) {
+    long durationMs = 0;
+    for (int i = 0; i < gesture.getStrokeCount(); i++) {
+      GestureDescription.StrokeDescription stroke = gesture.getStroke(i);
+      durationMs = Math.max(durationMs, stroke.getStartTime() + stroke.getDuration());
+    }
+    return durationMs;
+  }
+
+  /** Drop pending gestures and stop the global action thread. */
+  void release() {
+    mainHandler.removeCallbacks(callbackTimeout);
+    pending.clear();
+    inFlight = null;
+    inFlightSequence++;
+    if (globalActionThread != null) {
+      globalActionThread.quitSafely();
+      globalActionThread = null;
+      globalActionHandler = null;
+    }
+  }
+
+  int getPendingCount() {
+    return pending.size();
+  }
+
+  boolean isBusy() {
+    return inFlight != null;
+  }
+
+  /** Median time the system spent injecting a gesture, beyond its own duration. */
+  float getInjectionLatencyP50Ms() {
+    return (float) injectionLatencyP50.get();
+  }
+
+  float getInjectionLatencyP90Ms() {
+    return (float) injectionLatencyP90.get();
+  }
+
+  float getInjectionLatencyP99Ms() {
+    return (float) injectionLatencyP99.get();
+  }
+
+  /** 90th percentile of time a gesture waited behind the previous one. */
+  float getQueueDelayP90Ms() {
+    return (float) queueDelayP90.get();
+  }
+
+  int getCompletedCount() {
+    return completedCount;
+  }
+
+  int getCancelledCount() {
+    return cancelledCount;
+  }
+
+  int getCoalescedCount() {
+    return coalescedCount;
+  }
+
+  int getDroppedCount() {
+    return droppedCount;
+  }
+
+  int getTimedOutCount() {
+    return timedOutCount;
+  }
+
+  String getStatsSummary() {
+    return "completed=" + completedCount
+        + " cancelled=" + cancelledCount
+        + " coalesced=" + coalescedCount
+        + " dropped=" + droppedCount
+        + " timedOut=" + timedOutCount
+        + " injectP50=" + getInjectionLatencyP50Ms()
+        + " injectP90=" + getInjectionLatencyP90Ms()
+        + " injectP99=" + getInjectionLatencyP99Ms()
+        + " queueP90=" + getQueueDelayP90Ms();
+  }
+}
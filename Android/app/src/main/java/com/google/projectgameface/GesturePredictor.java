@@ -0,0 +1,246 @@
+/*
+ * Copyright 2024 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * MODIFICATION NOTICE
+ * as per the licence its required to give notice that this code has been modified by a third party.
+ * 2026 - Helgi Steinarr Juliusson, changes can be found in version control.
+ */
+package com.google.projectgameface;
+
+
+/**
+ * Predicts a threshold crossing of one gesture from its rising trajectory, so the touch can be
+ * completed before the score actually crosses.
+ *
+ * <p>The profile is the typical slope of the score when it crosses the threshold, learned from
+ * the user's own gestures. A prediction is made when the score is already part way up, rises at
+ * least nearly as fast as usual and would reach the threshold within {@value LOOKAHEAD_MS} ms.
+ * The finger goes down then. It is lifted to complete the click once a later frame still rises
+ * and would cross within one frame interval, or at the crossing if that comes first. The press is
+ * cancelled if the score turns down or takes too long.
+ *
+ * <p>A click completed early cannot be taken back. If its crossing does not follow it is counted
+ * as a false click, otherwise the time from the click to the crossing is the latency saved.
+ */
+class GesturePredictor {
+  private static final String TAG = "GesturePredictor";
+
+  /** What the caller should do with the touch this frame. */
+  enum Action {
+    NONE,
+    /** Put the finger down, a crossing is expected. */
+    PRESS,
+    /** Prediction confirmed, lift the finger to complete the touch. */
+    RELEASE,
+    /** Prediction failed, abort the touch without clicking. */
+    CANCEL,
+    /** The crossing of a touch already completed by {@link #RELEASE}, do not click again. */
+    CROSSED
+  }
+
+  /** Crossings needed before the profile is trusted. */
+  static final int MIN_PROFILE_SAMPLES = 3;
+
+  /** EMA weight of a new crossing in the profile. */
+  private static final float PROFILE_ALPHA = 0.3f;
+
+  /** Score must be at least this fraction of the threshold. */
+  private static final float MIN_LEVEL_FRACTION = 0.4f;
+
+  /** Slope must be at least this fraction of the learned crossing slope. */
+  private static final float SLOPE_CONFIDENCE = 0.7f;
+
+  /** Predict only crossings expected within this time. */
+  static final long LOOKAHEAD_MS = 100;
+
+  /** Cancel if the press or click is not followed by the crossing within this time. */
+  static final long CONFIRM_TIMEOUT_MS = 150;
+
+  private static final int STATE_IDLE = 0;
+  /** Finger down, waiting for confirmation. */
+  private static final int STATE_PRESSED = 1;
+  /** Click completed, waiting for the crossing it was made for. */
+  private static final int STATE_CLICKED = 2;
+
+  private float prevScore = 0.f;
+  private long prevTimeMs = -1;
+
+  /** Score change per millisecond between the last two distinct frames. */
+  private float slope = 0.f;
+
+  /** Time between the last two distinct frames. */
+  private long frameIntervalMs = 0;
+
+  private float profileSlope = 0.f;
+  private int profileSamples = 0;
+
+  private boolean wasAbove = false;
+  private int state = STATE_IDLE;
+  private long predictTimeMs = 0;
+  private long clickTimeMs = 0;
+
+  private int predictionCount = 0;
+  private int falseTriggerCount = 0;
+  private int earlyClickCount = 0;
+  private int falseClickCount = 0;
+  private double clickTimeSavedSumMs = 0;
+
+  /**
+   * Feed the gesture score of one UI tick. Repeated frames (same score) do not change the slope.
+   *
+   * @param score Gesture score, range 0 - 1.0.
+   * @param threshold Threshold the score is compared against.
+   * @param timeMs Monotonic time of this tick, must keep advancing while a prediction is open so
+   *     it can time out.
+   * @return What to do with the predicted touch.
+   */
+  Action update(float score, float threshold, long timeMs) {
+    boolean isNewFrame = false;
+    if (prevTimeMs < 0) {
+      prevScore = score;
+      prevTimeMs = timeMs;
+    } else if (score != prevScore && timeMs > prevTimeMs) {
+      slope = (score - prevScore) / (timeMs - prevTimeMs);
+      frameIntervalMs = timeMs - prevTimeMs;
+      prevScore = score;
+      prevTimeMs = timeMs;
+      isNewFrame = true;
+    }
+
+    boolean isAbove = score > threshold;
+    Action action = Action.NONE;
+
+    if (state == STATE_PRESSED) {
+      if (isAbove) {
+        // Crossed before it was confirmed, the click completes now like an unpredicted one.
+        state = STATE_IDLE;
+        learn();
+        action = Action.RELEASE;
+      } else if (slope < 0 || (timeMs - predictTimeMs) > CONFIRM_TIMEOUT_MS) {
+        state = STATE_IDLE;
+        falseTriggerCount++;
+        action = Action.CANCEL;
+        AppLog.d(TAG, "Prediction cancelled, false trigger rate {}", getFalseTriggerRate());
+      } else if (isNewFrame && (threshold - score) / slope <= frameIntervalMs) {
+        // Still on track and the next frame is expected to cross, click now.
+        state = STATE_CLICKED;
+        clickTimeMs = timeMs;
+        action = Action.RELEASE;
+      }
+    } else if (state == STATE_CLICKED) {
+      if (isAbove) {
+        state = STATE_IDLE;
+        earlyClickCount++;
+        clickTimeSavedSumMs += timeMs - clickTimeMs;
+        learn();
+        action = Action.CROSSED;
+        AppLog.d(TAG, "Crossed {} ms after the predicted click", (timeMs - clickTimeMs));
+      } else if (slope < 0 || (timeMs - clickTimeMs) > CONFIRM_TIMEOUT_MS) {
+        state = STATE_IDLE;
+        falseClickCount++;
+        AppLog.d(TAG, "Predicted click without crossing, false click rate {}",
+            getFalseClickRate());
+      }
+    } else if (isAbove && !wasAbove) {
+      // Crossed without a prediction, learn how it looks.
+      learn();
+    } else if (!isAbove && shouldPredict(score, threshold)) {
+      state = STATE_PRESSED;
+      predictTimeMs = timeMs;
+      predictionCount++;
+      action = Action.PRESS;
+    }
+
+    wasAbove = isAbove;
+    return action;
+  }
+
+  private boolean shouldPredict(float score, float threshold) {
+    if (profileSamples < MIN_PROFILE_SAMPLES || slope <= 0) {
+      return false;
+    }
+    if (score < threshold * MIN_LEVEL_FRACTION || slope < profileSlope * SLOPE_CONFIDENCE) {
+      return false;
+    }
+    return (threshold - score) / slope <= LOOKAHEAD_MS;
+  }
+
+  private void learn() {
+    if (slope <= 0) {
+      return;
+    }
+    profileSlope = (profileSamples == 0)
+        ? slope
+        : profileSlope + PROFILE_ALPHA * (slope - profileSlope);
+    profileSamples++;
+  }
+
+  /** Abort an ongoing prediction without counting it, for example when the mode is turned off. */
+  void reset() {
+    if (state == STATE_PRESSED) {
+      predictionCount--;
+    }
+    state = STATE_IDLE;
+    wasAbove = false;
+    prevTimeMs = -1;
+    slope = 0.f;
+  }
+
+  /** The finger of a prediction is down. */
+  boolean isPredicting() {
+    return state == STATE_PRESSED;
+  }
+
+  int getProfileSamples() {
+    return profileSamples;
+  }
+
+  int getPredictionCount() {
+    return predictionCount;
+  }
+
+  int getFalseTriggerCount() {
+    return falseTriggerCount;
+  }
+
+  /** Fraction of predictions that were cancelled. */
+  float getFalseTriggerRate() {
+    return predictionCount == 0 ? 0.f : (float) falseTriggerCount / predictionCount;
+  }
+
+  /** Clicks completed before the crossing that then crossed. */
+  int getEarlyClickCount() {
+    return earlyClickCount;
+  }
+
+  /** Clicks completed before a crossing that never came. */
+  int getFalseClickCount() {
+    return falseClickCount;
+  }
+
+  /** Fraction of early completed clicks whose crossing never came. */
+  float getFalseClickRate() {
+    int clicks = earlyClickCount + falseClickCount;
+    return clicks == 0 ? 0.f : (float) falseClickCount / clicks;
+  }
+
+  /**
+   * Mean time from an early click to the crossing that would have clicked without prediction,
+   * the latency saved per click.
+   */
+  float getMeanClickTimeSavedMs() {
+    return earlyClickCount == 0 ? 0.f : (float) (clickTimeSavedSumMs / earlyClickCount);
+  }
+}
@@ -12,10 +12,15 @@
  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
  * See the License for the specific language governing permissions and
  * limitations under the License.
+ *
+ * MODIFICATION NOTICE
+ * as per the licence its required to give notice that this code has been modified by a third party.
+ * 2026 - Helgi Steinarr Juliusson, changes can be found in version control.
  */
 
 package com.google.projectgameface;
 
+import android.view.Choreographer;
 import android.view.MenuItem;
 import android.view.ViewTreeObserver;
 import android.view.WindowManager.LayoutParams;
@@ -30,7 +35,6 @@ import android.content.Intent;
 import android.content.IntentFilter;
 import android.content.SharedPreferences;
 import android.os.Bundle;
-import android.util.Log;
 import android.widget.LinearLayout;
 import android.widget.ProgressBar;
 import android.widget.SeekBar;
@@ -44,11 +48,26 @@ public class GestureSizeActivity extends AppCompatActivity {
 
     private static final String TAG = "GestureSizeActivity";
     BroadcastReceiver stateReceiver;
-    BroadcastReceiver scoreReceiver;
+
+    /** Score, baseline and drift of the selected gesture, polled once per display frame. */
+    private BlendshapeScoreChannel.Reader scoreReader;
+    private int[] scoreChannels;
+    private final float[] scoreValues = new float[3 * BlendshapeScoreChannel.CAPACITY];
+    private final long[] scoreTimestampsMs = new long[BlendshapeScoreChannel.CAPACITY];
+    private Boolean isAboveThresholdShown = null;
+    private final Choreographer.FrameCallback scoreFrameCallback = new Choreographer.FrameCallback() {
+        @Override
+        public void doFrame(long frameTimeNanos) {
+            pollScore();
+            Choreographer.getInstance().postFrameCallback(this);
+        }
+    };
     private boolean isServicePreviouslyEnabled = false;
 
     private ProgressBar progressBar;
 
+    private TextView adaptiveThresholdText;
+
     private int thresholdInUi;
 
 
@@ -82,11 +101,11 @@ public class GestureSizeActivity extends AppCompatActivity {
         BlendshapeEventTriggerConfig.Blendshape selectedGesture = (BlendshapeEventTriggerConfig.Blendshape) getIntent().getSerializableExtra("selectedGesture");
         if (selectedGesture == null || pageEventType == null)
         {
-            Log.e(TAG, "Start intent with invalid extras.");
+            AppLog.e(TAG, "Start intent with invalid extras.");
             finish();
             return;
         }
-        Log.i(TAG, "onCreate: " + pageEventType + " " + selectedGesture);
+        AppLog.i(TAG, "onCreate: {} {}", pageEventType, selectedGesture);
 
         //setting actionbar
         Objects.requireNonNull(getSupportActionBar()).setDisplayHomeAsUpEnabled(true);
@@ -95,7 +114,10 @@ public class GestureSizeActivity extends AppCompatActivity {
         //Check if service is enabled.
         checkIfServiceEnabled();
 
-        scorePreview(true, selectedGesture.toString());
+        scoreChannels = new int[] {
+            BlendshapeScoreChannel.scoreChannel(selectedGesture),
+            BlendshapeScoreChannel.baselineChannel(selectedGesture),
+            BlendshapeScoreChannel.driftChannel(selectedGesture)};
 
         SeekBar gestureSizeSeekBar = findViewById(R.id.gestureSizeSeekBar);
         thresholdInUi = preferences.getInt(pageEventType +"_size", seekBarDefaultValue * 10);
@@ -119,19 +141,6 @@ public class GestureSizeActivity extends AppCompatActivity {
             }
         };
 
-        scoreReceiver = new BroadcastReceiver() {
-            @Override
-            public void onReceive(Context context, Intent intent) {
-                int progress = (int)(intent.getFloatExtra("score", 0.0f)*100);
-                if(progress > thresholdInUi){
-                    progressBar.setProgressDrawable(ResourcesCompat.getDrawable(getResources(),R.drawable.custom_progress, null));
-                } else {
-                    progressBar.setProgressDrawable(ResourcesCompat.getDrawable(getResources(),R.drawable.custom_progress_threshold,null));
-                }
-                progressBar.setProgress(progress);
-            }
-        };
-
         cameraBoxPlaceHolder = findViewById(R.id.cameraBoxPlaceHolder);
 
         // Move camera window to match the cameraBoxPlaceHolder in the layout.
@@ -175,7 +184,7 @@ public class GestureSizeActivity extends AppCompatActivity {
                 Toast toast = Toast.makeText(getBaseContext(), text, duration);
                 toast.show();
             } catch (Exception e) {
-                Log.i(TAG, e.toString());
+                AppLog.i(TAG, e.toString());
             }
             // Go back to cursor binding page.
             Intent intent = new Intent(this, CursorBinding.class);
@@ -214,7 +223,7 @@ public class GestureSizeActivity extends AppCompatActivity {
         });
 
         progressBar = findViewById(R.id.gestureSizeBar);
-        registerReceiver(scoreReceiver, new IntentFilter(selectedGesture.toString()),RECEIVER_EXPORTED);
+        adaptiveThresholdText = findViewById(R.id.adaptiveThresholdText);
         registerReceiver(stateReceiver, new IntentFilter("SERVICE_STATE_GESTURE"),RECEIVER_EXPORTED);
     }
 
@@ -242,11 +251,28 @@ public class GestureSizeActivity extends AppCompatActivity {
         sendBroadcast(intent);
     }
 
-    private void scorePreview(boolean status, String requestedScoreName) {
-        Intent intent = new Intent("ENABLE_SCORE_PREVIEW");
-        intent.putExtra("enable", status);
-        intent.putExtra("blendshapesName", requestedScoreName);
-        sendBroadcast(intent);
+    /** Show the newest score, only the last frame since the previous display frame matters here. */
+    private void pollScore() {
+        if (scoreReader.poll(scoreValues, scoreTimestampsMs, 1) == 0) {
+            return;
+        }
+        int progress = (int) (scoreValues[0] * 100);
+
+        // Service shifts the threshold when the resting score drifts.
+        float baseline = scoreValues[1];
+        float drift = scoreValues[2];
+        int effectiveThresholdInUi =
+            (int) (AdaptiveThresholdTracker.applyDrift(thresholdInUi / 100.f, drift) * 100);
+        adaptiveThresholdText.setText(
+            "Resting: " + (int) (baseline * 100) + "   Effective threshold: " + effectiveThresholdInUi);
+
+        boolean isAboveThreshold = progress > effectiveThresholdInUi;
+        if (isAboveThresholdShown == null || isAboveThreshold != isAboveThresholdShown) {
+            progressBar.setProgressDrawable(ResourcesCompat.getDrawable(getResources(),
+                isAboveThreshold ? R.drawable.custom_progress : R.drawable.custom_progress_threshold, null));
+            isAboveThresholdShown = isAboveThreshold;
+        }
+        progressBar.setProgress(progress);
     }
 
 
@@ -269,6 +295,10 @@ public class GestureSizeActivity extends AppCompatActivity {
     @Override
     protected void onResume() {
         super.onResume();
+        if (scoreReader == null) {
+            scoreReader = BlendshapeScoreChannel.getInstance().openReader(scoreChannels);
+            Choreographer.getInstance().postFrameCallback(scoreFrameCallback);
+        }
 
         if (!isPlaceHolderLaidOut){
             return;
@@ -285,11 +315,10 @@ public class GestureSizeActivity extends AppCompatActivity {
     @Override
     protected void onPause() {
         super.onPause();
-        scorePreview(false, null);
-        try {
-            unregisterReceiver(scoreReceiver);
-        } catch (Exception ignored){
-
+        if (scoreReader != null) {
+            Choreographer.getInstance().removeFrameCallback(scoreFrameCallback);
+            scoreReader.close();
+            scoreReader = null;
         }
         restorePreviousServiceState();
     }
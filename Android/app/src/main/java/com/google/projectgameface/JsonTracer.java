@@ -0,0 +1,140 @@
+/*
+ * Copyright 2024 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * MODIFICATION NOTICE
+ * as per the licence its required to give notice that this code has been modified by a third party.
+ * 2026 - Helgi Steinarr Juliusson, changes can be found in version control.
+ */
+package com.google.projectgameface;
+
+import android.os.Process;
+import android.os.SystemClock;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Keeps {@link FrameTrace} points in memory and writes them as a Chrome JSON trace, which
+ * Perfetto and chrome://tracing open. For looking at a device without systrace attached.
+ *
+ * <p>Any thread may add. Adding claims a slot with one atomic increment and allocates nothing,
+ * points beyond the capacity are dropped, so a forgotten tracer cannot grow.
+ *
+ * <p>Viewers pair async begin and end by category and id, and frame, result and gesture ids
+ * overlap. Each async slice is written under its own category, {@code gameface.<name>}.
+ */
+class JsonTracer {
+  static final char PHASE_BEGIN = 'B';
+  static final char PHASE_END = 'E';
+  static final char PHASE_ASYNC_BEGIN = 'b';
+  static final char PHASE_ASYNC_END = 'e';
+
+  private static final String CATEGORY = "gameface";
+
+  private final int capacity;
+  private final AtomicInteger nextSlot = new AtomicInteger();
+  private final long startNs = SystemClock.elapsedRealtimeNanos();
+
+  private final String[] names;
+  private final char[] phases;
+  private final long[] timesNs;
+  private final int[] ids;
+  private final int[] threadIds;
+  private final String[] threadNames;
+
+  JsonTracer(int capacity) {
+    this.capacity = capacity;
+    names = new String[capacity];
+    phases = new char[capacity];
+    timesNs = new long[capacity];
+    ids = new int[capacity];
+    threadIds = new int[capacity];
+    threadNames = new String[capacity];
+  }
+
+  void add(char phase, String name, int id) {
+    int slot = nextSlot.getAndIncrement();
+    if (slot >= capacity) {
+      return;
+    }
+    timesNs[slot] = SystemClock.elapsedRealtimeNanos();
+    phases[slot] = phase;
+    ids[slot] = id;
+    threadIds[slot] = Process.myTid();
+    threadNames[slot] = Thread.currentThread().getName();
+    names[slot] = name;
+  }
+
+  int size() {
+    return Math.min(nextSlot.get(), capacity);
+  }
+
+  int getDroppedCount() {
+    return Math.max(0, nextSlot.get() - capacity);
+  }
+
+  /**
+   * Write the trace. Call after the tracer was removed from {@link FrameTrace}, a point still
+   * being added may be left out.
+   */
+  void writeTo(Writer writer) throws IOException {
+    int pid = Process.myPid();
+    int size = size();
+    writer.write("{\"displayTimeUnit\":\"ms\",\"traceEvents\":[");
+    boolean isFirst = true;
+
+    Map<Integer, String> threads = new HashMap<>();
+    for (int i = 0; i < size; i++) {
+      if (names[i] != null && !threads.containsKey(threadIds[i])) {
+        threads.put(threadIds[i], threadNames[i]);
+      }
+    }
+    for (Map.Entry<Integer, String> thread : threads.entrySet()) {
+      writer.write(isFirst ? "\n" : ",\n");
+      isFirst = false;
+      writer.write("{\"name\":\"thread_name\",\"ph\":\"M\",\"pid\":" + pid
+          + ",\"tid\":" + thread.getKey()
+          + ",\"args\":{\"name\":\"" + escape(thread.getValue()) + "\"}}");
+    }
+
+    for (int i = 0; i < size; i++) {
+      if (names[i] == null) {
+        // Claimed but not filled in yet.
+        continue;
+      }
+      writer.write(isFirst ? "\n" : ",\n");
+      isFirst = false;
+      boolean isAsync = phases[i] == PHASE_ASYNC_BEGIN || phases[i] == PHASE_ASYNC_END;
+      String category = isAsync ? CATEGORY + "." + names[i] : CATEGORY;
+      writer.write("{\"name\":\"" + names[i] + "\",\"cat\":\"" + category
+          + "\",\"ph\":\"" + phases[i] + "\",\"ts\":"
+          + String.format(Locale.ROOT, "%.3f", (timesNs[i] - startNs) / 1000.0)
+          + ",\"pid\":" + pid + ",\"tid\":" + threadIds[i]);
+      if (isAsync) {
+        writer.write(",\"id\":" + ids[i]);
+      }
+      writer.write("}");
+    }
+    writer.write("\n]}\n");
+    writer.flush();
+  }
+
+  private static String escape(String text) {
+    return text.replace("\\", "\\\\").replace("\"", "\\\"");
+  }
+}
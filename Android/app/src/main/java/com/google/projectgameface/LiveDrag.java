@@ -0,0 +1,179 @@
+/*
+ * Copyright 2024 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * MODIFICATION NOTICE
+ * as per the licence its required to give notice that this code has been modified by a third party.
+ * 2026 - Helgi Steinarr Juliusson, changes can be found in version control.
+ */
+package com.google.projectgameface;
+
+import android.accessibilityservice.GestureDescription;
+import android.graphics.Path;
+
+/**
+ * Drag that follows the cursor while it happens. The finger goes down at drag start and every
+ * cursor move extends the same stroke with {@link GestureDescription.StrokeDescription#continueStroke},
+ * so the app under the finger sees a real drag in progress instead of a swipe replayed at the end.
+ */
+class LiveDrag {
+
+  /** At most one segment per this interval, about 30 per second. */
+  static final long SEGMENT_INTERVAL_MS = 33;
+
+  /** Moving back to the start on cancel is slow enough not to fling. */
+  static final long CANCEL_DURATION_MS = 150;
+
+  /** Last stroke of the chain, null when no drag is in progress. */
+  private GestureDescription.StrokeDescription stroke = null;
+  private float startX;
+  private float startY;
+  private float lastX;
+  private float lastY;
+  private long lastSegmentTimeMs = 0;
+
+  /** Told about every segment of the current chain, a new one per drag. */
+  private GestureDispatchQueue.OnFinishedListener chainListener = null;
+
+  /** The chain of the current drag broke, part of it already reached the app. */
+  private boolean isBroken = false;
+
+  private int segmentCount = 0;
+  private int skippedSegmentCount = 0;
+  private int brokenDragCount = 0;
+
+  boolean isActive() {
+    return stroke != null;
+  }
+
+  /**
+   * The current drag lost its chain before it ended. The app already saw the part up to the
+   * break, the drag must not be replayed.
+   */
+  boolean isBroken() {
+    return isBroken;
+  }
+
+  /** Put the finger down at drag start. An active drag is ended first. */
+  void start(GestureDispatchQueue queue, float x, float y, long timeMs) {
+    if (isActive()) {
+      end(queue, lastX, lastY);
+    }
+    Path path = new Path();
+    path.moveTo(x, y);
+    stroke = new GestureDescription.StrokeDescription(
+        path, /* startTime= */ 0, /* duration= */ 1, /* willContinue= */ true);
+    chainListener = newChainListener();
+    isBroken = false;
+    queue.enqueue(new GestureDescription.Builder().addStroke(stroke).build(),
+        GestureDispatchQueue.NO_COALESCE, chainListener);
+    startX = x;
+    startY = y;
+    lastX = x;
+    lastY = y;
+    lastSegmentTimeMs = timeMs;
+  }
+
+  /**
+   * Move the finger to the cursor. Skipped if the previous segment is too recent or has not been
+   * injected yet, the next segment then covers the whole distance.
+   */
+  void update(GestureDispatchQueue queue, float x, float y, long timeMs) {
+    if (!isActive() || (timeMs - lastSegmentTimeMs) < SEGMENT_INTERVAL_MS) {
+      return;
+    }
+    if (x == lastX && y == lastY) {
+      return;
+    }
+    if (queue.isBusy() || queue.getPendingCount() > 0) {
+      skippedSegmentCount++;
+      return;
+    }
+    continueTo(queue, x, y, SEGMENT_INTERVAL_MS, /* willContinue= */ true);
+    lastSegmentTimeMs = timeMs;
+  }
+
+  /**
+   * Move to the final position and lift the finger, dropping whatever is dragged there. A broken
+   * drag is only forgotten, the system already lifted its finger.
+   */
+  void end(GestureDispatchQueue queue, float x, float y) {
+    isBroken = false;
+    if (!isActive()) {
+      return;
+    }
+    continueTo(queue, x, y, SEGMENT_INTERVAL_MS, /* willContinue= */ false);
+    stroke = null;
+    chainListener = null;
+  }
+
+  /** Move back to where the drag started and lift the finger there, so nothing is moved. */
+  void cancel(GestureDispatchQueue queue) {
+    isBroken = false;
+    if (!isActive()) {
+      return;
+    }
+    continueTo(queue, startX, startY, CANCEL_DURATION_MS, /* willContinue= */ false);
+    stroke = null;
+    chainListener = null;
+  }
+
+  /**
+   * A segment that did not complete ends the chain, the system lifted the finger and every
+   * continuation of it would be cancelled too. The drag is then inactive and broken until it ends.
+   */
+  private GestureDispatchQueue.OnFinishedListener newChainListener() {
+    return new GestureDispatchQueue.OnFinishedListener() {
+      @Override
+      public void onFinished(boolean completed) {
+        if (!completed && chainListener == this) {
+          stroke = null;
+          chainListener = null;
+          isBroken = true;
+          brokenDragCount++;
+        }
+      }
+    };
+  }
+
+  private void continueTo(
+      GestureDispatchQueue queue, float x, float y, long durationMs, boolean willContinue) {
+    // A continued stroke must start where the previous one ended.
+    Path path = new Path();
+    path.moveTo(lastX, lastY);
+    if (x != lastX || y != lastY) {
+      path.lineTo(x, y);
+    }
+    stroke = stroke.continueStroke(path, /* startTime= */ 0, durationMs, willContinue);
+    queue.enqueue(new GestureDescription.Builder().addStroke(stroke).build(),
+        GestureDispatchQueue.NO_COALESCE, chainListener);
+    lastX = x;
+    lastY = y;
+    segmentCount++;
+  }
+
+  int getSegmentCount() {
+    return segmentCount;
+  }
+
+  /** Segments held back because the previous one was still being injected. */
+  int getSkippedSegmentCount() {
+    return skippedSegmentCount;
+  }
+
+  /** Drags whose stroke chain was cancelled by the system or the queue before they ended. */
+  int getBrokenDragCount() {
+    return brokenDragCount;
+  }
+}
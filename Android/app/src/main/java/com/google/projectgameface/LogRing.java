@@ -0,0 +1,162 @@
+/*
+ * Copyright 2024 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * MODIFICATION NOTICE
+ * as per the licence its required to give notice that this code has been modified by a third party.
+ * 2026 - Helgi Steinarr Juliusson, changes can be found in version control.
+ */
+package com.google.projectgameface;
+
+import java.io.PrintWriter;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Last log records in memory, formatted only when dumped.
+ *
+ * <p>Any thread may add without locking. A record claims the next sequence number and replaces
+ * the oldest slot. Records are immutable and published whole, so a dump sees each slot either
+ * before or after a write, and skips slots still waiting for their record or already reused.
+ */
+class LogRing {
+  /** Placeholder in templates, replaced by the next argument. */
+  static final String PLACEHOLDER = "{}";
+
+  static final int MAX_ARGS = 3;
+
+  private static final String PRIORITY_LETTERS = "VDIWEA";
+
+  /** One log call. Final fields, safe to read from any thread once published. */
+  private static final class Record {
+    final long sequence;
+    final long timeMs;
+    final int priority;
+    final String tag;
+    final String template;
+    final int argCount;
+    final Object arg1;
+    final Object arg2;
+    final Object arg3;
+    final Throwable throwable;
+
+    Record(long sequence, long timeMs, int priority, String tag, String template, int argCount,
+        Object arg1, Object arg2, Object arg3, Throwable throwable) {
+      this.sequence = sequence;
+      this.timeMs = timeMs;
+      this.priority = priority;
+      this.tag = tag;
+      this.template = template;
+      this.argCount = argCount;
+      this.arg1 = arg1;
+      this.arg2 = arg2;
+      this.arg3 = arg3;
+      this.throwable = throwable;
+    }
+  }
+
+  private final int capacity;
+  private final AtomicLong nextSequence = new AtomicLong();
+
+  /** Latest record in each slot, null if there never was one. */
+  private final AtomicReferenceArray<Record> records;
+
+  LogRing(int capacity) {
+    this.capacity = capacity;
+    records = new AtomicReferenceArray<>(capacity);
+  }
+
+  /**
+   * Keep one record, allocating it. Arguments are kept as they are and formatted on dump, pass
+   * values that do not change afterwards.
+   */
+  void add(long timeMs, int priority, String tag, String template, int argCount,
+      Object arg1, Object arg2, Object arg3, Throwable throwable) {
+    long sequence = nextSequence.getAndIncrement();
+    records.set((int) (sequence % capacity), new Record(
+        sequence, timeMs, priority, tag, template, argCount, arg1, arg2, arg3, throwable));
+  }
+
+  /** Records added so far, including overwritten ones. */
+  long getAddedCount() {
+    return nextSequence.get();
+  }
+
+  /** Print the kept records, oldest first, one per line. */
+  void dump(PrintWriter writer) {
+    SimpleDateFormat timeFormat = new SimpleDateFormat("HH:mm:ss.SSS", Locale.ROOT);
+    Date date = new Date();
+    long end = nextSequence.get();
+    long skippedCount = 0;
+    for (long sequence = Math.max(0, end - capacity); sequence < end; sequence++) {
+      Record record = records.get((int) (sequence % capacity));
+      if (record == null || record.sequence != sequence) {
+        // Not stored yet, or already replaced by a newer one.
+        skippedCount++;
+        continue;
+      }
+      date.setTime(record.timeMs);
+      writer.print(timeFormat.format(date));
+      writer.print(' ');
+      writer.print(priorityLetter(record.priority));
+      writer.print(' ');
+      writer.print(record.tag);
+      writer.print(": ");
+      writer.println(format(
+          record.template, record.argCount, record.arg1, record.arg2, record.arg3));
+      if (record.throwable != null) {
+        writer.println("    " + record.throwable);
+      }
+    }
+    writer.println(end + " records logged, " + Math.min(end, capacity) + " kept, "
+        + skippedCount + " skipped while written");
+  }
+
+  static char priorityLetter(int priority) {
+    int index = priority - 2;
+    return index >= 0 && index < PRIORITY_LETTERS.length() ? PRIORITY_LETTERS.charAt(index) : '?';
+  }
+
+  /** Priority printed as this letter, -1 if there is none. */
+  static int priorityOf(char letter) {
+    int index = PRIORITY_LETTERS.indexOf(Character.toUpperCase(letter));
+    return index < 0 ? -1 : index + 2;
+  }
+
+  /**
+   * Replace the placeholders of a template with the arguments, in order. Placeholders without an
+   * argument are kept.
+   */
+  static String format(String template, int argCount, Object arg1, Object arg2, Object arg3) {
+    if (argCount == 0 || template == null) {
+      return template;
+    }
+    StringBuilder builder = new StringBuilder(template.length() + 16 * argCount);
+    int start = 0;
+    for (int i = 0; i < argCount; i++) {
+      int placeholder = template.indexOf(PLACEHOLDER, start);
+      if (placeholder < 0) {
+        break;
+      }
+      builder.append(template, start, placeholder);
+      builder.append(i == 0 ? arg1 : (i == 1 ? arg2 : arg3));
+      start = placeholder + PLACEHOLDER.length();
+    }
+    builder.append(template, start, template.length());
+    return builder.toString();
+  }
+}
@@ -12,6 +12,10 @@
  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
  * See the License for the specific language governing permissions and
  * limitations under the License.
+ *
+ * MODIFICATION NOTICE
+ * as per the licence its required to give notice that this code has been modified by a third party.
+ * 2026 - Helgi Steinarr Juliusson, changes can be found in version control.
  */
 
 package com.google.projectgameface;
@@ -29,7 +33,6 @@ import android.content.pm.PackageManager.NameNotFoundException;
 import android.os.Bundle;
 import android.provider.Settings;
 import android.text.TextUtils;
-import android.util.Log;
 import android.view.WindowManager.LayoutParams;
 import android.widget.Button;
 import android.widget.Switch;
@@ -116,7 +119,7 @@ public class MainActivity extends AppCompatActivity {
         BroadcastReceiver toggleStateReceiver = new BroadcastReceiver() {
             @Override
             public void onReceive(Context context, Intent intent) {
-                Log.i(TAG, "toggleStateReceiver onReceive");
+                AppLog.i(TAG, "toggleStateReceiver onReceive");
                 if (intent.getAction().equals("SERVICE_STATE")) {
                     int stateIndex = intent.getIntExtra("state", CursorAccessibilityService.ServiceState.DISABLE.ordinal());
                     switch (CursorAccessibilityService.ServiceState.values()[stateIndex]) {
@@ -157,7 +160,7 @@ public class MainActivity extends AppCompatActivity {
 
         if(isFirstLaunch()){
             // Assign some default binding so user can navigate around.
-            Log.i(TAG, "First launch, assign default binding");
+            AppLog.i(TAG, "First launch, assign default binding");
             BlendshapeEventTriggerConfig.writeBindingConfig(this, BlendshapeEventTriggerConfig.Blendshape.OPEN_MOUTH,
                     BlendshapeEventTriggerConfig.EventType.CURSOR_TOUCH, 20);
             BlendshapeEventTriggerConfig.writeBindingConfig(this, BlendshapeEventTriggerConfig.Blendshape.MOUTH_LEFT,
@@ -289,15 +292,15 @@ public class MainActivity extends AppCompatActivity {
 
 
     public void wakeUpService(){
-        Log.i(TAG, "MainActivity wakeUpService");
+        AppLog.i(TAG, "MainActivity wakeUpService");
         findViewById(R.id.gameFaceToggleSwitch).setEnabled(false);
         if (!checkAccessibilityPermission()){
-            Log.i(TAG, "MainActivity RequestAccessibilityPermission");
+            AppLog.i(TAG, "MainActivity RequestAccessibilityPermission");
             RequestAccessibilityPermission();
             return;
         }
         if (!checkCameraPermission()){
-            Log.i(TAG, "MainActivity RequestCameraPermission");
+            AppLog.i(TAG, "MainActivity RequestCameraPermission");
             RequestCameraPermission();
             return;
         }
@@ -317,7 +320,7 @@ public class MainActivity extends AppCompatActivity {
         findViewById(R.id.gameFaceToggleSwitch).setEnabled(true);
     }
     public void sleepCursorService(){
-        Log.i(TAG, "sleepCursorService");
+        AppLog.i(TAG, "sleepCursorService");
         findViewById(R.id.gameFaceToggleSwitch).setEnabled(false);
         // Send broadcast to stop service (sleep mode).
         Intent intent = new Intent("CHANGE_SERVICE_STATE");
@@ -339,7 +342,7 @@ public class MainActivity extends AppCompatActivity {
             + "."
             + CursorAccessibilityService.class.getSimpleName();
 
-        Log.i(TAG, "GameFace service name: "+gamefaceServiceName);
+        AppLog.i(TAG, "GameFace service name: {}", gamefaceServiceName);
 
         try {
             enabled = Settings.Secure.getInt(
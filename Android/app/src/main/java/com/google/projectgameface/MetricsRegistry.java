@@ -0,0 +1,249 @@
+/*
+ * Copyright 2024 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * MODIFICATION NOTICE
+ * as per the licence its required to give notice that this code has been modified by a third party.
+ * 2026 - Helgi Steinarr Juliusson, changes can be found in version control.
+ */
+package com.google.projectgameface;
+
+import android.os.SystemClock;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Counters, gauges and fixed-bucket histograms for inspecting a running service, printed by
+ * {@link CursorAccessibilityService#dump}.
+ *
+ * <p>Metrics are created once up front. Updating them is lock-free and allocates nothing, so they
+ * can be updated from the camera thread and the tick alike. Reading takes no snapshot, a dump
+ * taken while values change may be off by the updates in flight.
+ */
+class MetricsRegistry {
+
+  /** Monotonic count, such as frames received. */
+  static final class Counter {
+    final String name;
+    private final AtomicLong value = new AtomicLong();
+
+    private Counter(String name) {
+      this.name = name;
+    }
+
+    void increment() {
+      value.incrementAndGet();
+    }
+
+    void add(long delta) {
+      value.addAndGet(delta);
+    }
+
+    long get() {
+      return value.get();
+    }
+  }
+
+  /** Last set value, such as the service state. */
+  static final class Gauge {
+    final String name;
+    private volatile double value = 0;
+
+    private Gauge(String name) {
+      this.name = name;
+    }
+
+    void set(double value) {
+      this.value = value;
+    }
+
+    double get() {
+      return value;
+    }
+  }
+
+  /**
+   * Distribution over fixed buckets. Bucket i counts values up to {@code bounds[i]}, the last
+   * bucket counts everything above the highest bound.
+   */
+  static final class Histogram {
+    final String name;
+    private final long[] bounds;
+    private final AtomicLongArray counts;
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong sum = new AtomicLong();
+
+    private Histogram(String name, long[] bounds) {
+      this.name = name;
+      this.bounds = bounds.clone();
+      counts = new AtomicLongArray(bounds.length + 1);
+    }
+
+    void record(long value) {
+      // Few buckets, a linear scan beats a binary search here.
+      int bucket = 0;
+      while (bucket < bounds.length && value > bounds[bucket]) {
+        bucket++;
+      }
+      counts.incrementAndGet(bucket);
+      count.incrementAndGet();
+      sum.addAndGet(value);
+    }
+
+    long getCount() {
+      return count.get();
+    }
+
+    long getBucketCount(int bucket) {
+      return counts.get(bucket);
+    }
+
+    /** Upper bound of the bucket a quantile falls into, -1 without samples. */
+    long getQuantileBound(double quantile) {
+      long total = count.get();
+      if (total == 0) {
+        return -1;
+      }
+      long target = (long) Math.ceil(quantile * total);
+      long seen = 0;
+      for (int i = 0; i < bounds.length; i++) {
+        seen += counts.get(i);
+        if (seen >= target) {
+          return bounds[i];
+        }
+      }
+      return Long.MAX_VALUE;
+    }
+
+    private void reset() {
+      for (int i = 0; i < counts.length(); i++) {
+        counts.set(i, 0);
+      }
+      count.set(0);
+      sum.set(0);
+    }
+  }
+
+  private final List<Counter> counters = new ArrayList<>();
+  private final List<Gauge> gauges = new ArrayList<>();
+  private final List<Histogram> histograms = new ArrayList<>();
+
+  private volatile long resetTimeMs = SystemClock.uptimeMillis();
+
+  synchronized Counter counter(String name) {
+    Counter counter = new Counter(name);
+    counters.add(counter);
+    return counter;
+  }
+
+  synchronized Gauge gauge(String name) {
+    Gauge gauge = new Gauge(name);
+    gauges.add(gauge);
+    return gauge;
+  }
+
+  /**
+   * @param name Metric name, unit as suffix such as "_ms".
+   * @param bounds Inclusive upper bounds of the buckets, ascending.
+   */
+  synchronized Histogram histogram(String name, long... bounds) {
+    Histogram histogram = new Histogram(name, bounds);
+    histograms.add(histogram);
+    return histogram;
+  }
+
+  /** Zero every counter and histogram, gauges keep their value. */
+  synchronized void reset() {
+    for (Counter counter : counters) {
+      counter.value.set(0);
+    }
+    for (Histogram histogram : histograms) {
+      histogram.reset();
+    }
+    resetTimeMs = SystemClock.uptimeMillis();
+  }
+
+  /** Human readable dump, counters with their rate since the last reset. */
+  synchronized void dump(PrintWriter writer) {
+    long elapsedMs = Math.max(1, SystemClock.uptimeMillis() - resetTimeMs);
+    writer.println("Metrics over the last " + (elapsedMs / 1000) + " s:");
+    for (Counter counter : counters) {
+      writer.println("  " + counter.name + " = " + counter.get()
+          + String.format(Locale.ROOT, " (%.1f/s)", counter.get() * 1000.0 / elapsedMs));
+    }
+    for (Gauge gauge : gauges) {
+      writer.println("  " + gauge.name + " = " + gauge.get());
+    }
+    for (Histogram histogram : histograms) {
+      long count = histogram.getCount();
+      writer.print("  " + histogram.name + ": count=" + count);
+      if (count > 0) {
+        writer.print(" mean="
+            + String.format(Locale.ROOT, "%.1f", (double) histogram.sum.get() / count)
+            + " p50<=" + formatBound(histogram.getQuantileBound(0.5))
+            + " p95<=" + formatBound(histogram.getQuantileBound(0.95)));
+      }
+      writer.println();
+      writer.print("    ");
+      for (int i = 0; i <= histogram.bounds.length; i++) {
+        String bound = i < histogram.bounds.length ? "<=" + histogram.bounds[i] : "more";
+        writer.print(" " + bound + ":" + histogram.getBucketCount(i));
+      }
+      writer.println();
+    }
+  }
+
+  private static String formatBound(long bound) {
+    return bound == Long.MAX_VALUE ? "max" : Long.toString(bound);
+  }
+
+  /** JSON has no NaN or infinity, a gauge without a value is null. */
+  private static String toJsonNumber(double value) {
+    return Double.isNaN(value) || Double.isInfinite(value) ? "null" : Double.toString(value);
+  }
+
+  /** Machine readable dump, one JSON object. Metric names need no escaping. */
+  synchronized void dumpJson(PrintWriter writer) {
+    writer.print("{\"elapsed_ms\":" + (SystemClock.uptimeMillis() - resetTimeMs));
+    writer.print(",\"counters\":{");
+    for (int i = 0; i < counters.size(); i++) {
+      Counter counter = counters.get(i);
+      writer.print((i > 0 ? "," : "") + "\"" + counter.name + "\":" + counter.get());
+    }
+    writer.print("},\"gauges\":{");
+    for (int i = 0; i < gauges.size(); i++) {
+      Gauge gauge = gauges.get(i);
+      writer.print((i > 0 ? "," : "") + "\"" + gauge.name + "\":" + toJsonNumber(gauge.get()));
+    }
+    writer.print("},\"histograms\":{");
+    for (int i = 0; i < histograms.size(); i++) {
+      Histogram histogram = histograms.get(i);
+      writer.print((i > 0 ? "," : "") + "\"" + histogram.name + "\":{\"bounds\":[");
+      for (int j = 0; j < histogram.bounds.length; j++) {
+        writer.print((j > 0 ? "," : "") + histogram.bounds[j]);
+      }
+      writer.print("],\"counts\":[");
+      for (int j = 0; j <= histogram.bounds.length; j++) {
+        writer.print((j > 0 ? "," : "") + histogram.getBucketCount(j));
+      }
+      writer.print("],\"count\":" + histogram.getCount() + ",\"sum\":" + histogram.sum.get() + "}");
+    }
+    writer.println("}}");
+    writer.flush();
+  }
+}
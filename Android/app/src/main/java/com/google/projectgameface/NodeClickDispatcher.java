@@ -0,0 +1,206 @@
+/*
+ * Copyright 2024 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * MODIFICATION NOTICE
+ * as per the licence its required to give notice that this code has been modified by a third party.
+ * 2026 - Helgi Steinarr Juliusson, changes can be found in version control.
+ */
+package com.google.projectgameface;
+
+import android.accessibilityservice.GestureDescription;
+import android.graphics.Rect;
+import android.os.Handler;
+import android.os.HandlerThread;
+import android.os.Looper;
+import android.os.SystemClock;
+import android.util.Log;
+import android.view.accessibility.AccessibilityNodeInfo;
+
+/**
+ * Clicks by calling {@link AccessibilityNodeInfo#performAction} on the node under the cursor,
+ * falling back to an injected gesture when there is no suitable node or the action fails.
+ *
+ * <p>Node actions skip the input pipeline, so they are not dropped or sent to the wrong window
+ * while the screen animates. The node comes from the {@link ClickableNodeIndex} snapshot and is
+ * refreshed before use, a node that moved away from the cursor since the snapshot is not clicked.
+ * The binder calls run on a background thread.
+ *
+ * <p>Click latency is measured for both paths, from the request until the node action returned
+ * or the gesture finished. The gesture's own stroke duration is not counted, a tap is held on
+ * purpose and the node action has no such part.
+ */
+class NodeClickDispatcher {
+  private static final String TAG = "NodeClickDispatcher";
+
+  /**
+   * Larger nodes are left to the gesture. A big clickable container may hold custom drawn content
+   * that handles the touch itself, clicking the container would miss it.
+   */
+  static final float MAX_NODE_SCREEN_FRACTION = 0.1f;
+
+  private static final int STATS_LOG_INTERVAL = 20;
+
+  private final GestureDispatchQueue gestureDispatchQueue;
+  private final Handler mainHandler = new Handler(Looper.getMainLooper());
+  private HandlerThread nodeActionThread;
+  private Handler nodeActionHandler;
+
+  // Stats, only touched on the main thread.
+  private final StreamingQuantile nodeLatencyP50 = new StreamingQuantile(0.5);
+  private final StreamingQuantile nodeLatencyP90 = new StreamingQuantile(0.9);
+  private final StreamingQuantile gestureLatencyP50 = new StreamingQuantile(0.5);
+  private final StreamingQuantile gestureLatencyP90 = new StreamingQuantile(0.9);
+  private int nodeClickCount = 0;
+  private int gestureClickCount = 0;
+  private int fallbackCount = 0;
+
+  NodeClickDispatcher(GestureDispatchQueue gestureDispatchQueue) {
+    this.gestureDispatchQueue = gestureDispatchQueue;
+  }
+
+  /**
+   * Click at a point.
+   *
+   * @param snapshot Nodes on screen, null to always inject the gesture.
+   * @param x Click point.
+   * @param y Click point.
+   * @param screenArea For leaving large nodes to the gesture.
+   * @param isLongClick {@link AccessibilityNodeInfo#ACTION_LONG_CLICK} instead of
+   *     {@link AccessibilityNodeInfo#ACTION_CLICK}.
+   * @param fallbackGesture Injected when the node path is not possible.
+   */
+  void click(ClickableNodeIndex.Snapshot snapshot, float x, float y, float screenArea,
+      boolean isLongClick, GestureDescription fallbackGesture) {
+    long requestTimeMs = SystemClock.uptimeMillis();
+    int target = -1;
+    if (snapshot != null) {
+      int flagMask = isLongClick
+          ? ClickableNodeIndex.FLAG_LONG_CLICKABLE
+          : ClickableNodeIndex.FLAG_CLICKABLE;
+      target = snapshot.findAt(x, y, flagMask, (long) (screenArea * MAX_NODE_SCREEN_FRACTION));
+    }
+    AccessibilityNodeInfo node = (target >= 0) ? snapshot.obtainNode(target) : null;
+    if (node == null) {
+      dispatchGesture(fallbackGesture, requestTimeMs);
+      return;
+    }
+
+    if (nodeActionHandler == null) {
+      nodeActionThread = new HandlerThread("NodeActionThread");
+      nodeActionThread.start();
+      nodeActionHandler = new Handler(nodeActionThread.getLooper());
+    }
+    int action = isLongClick
+        ? AccessibilityNodeInfo.ACTION_LONG_CLICK
+        : AccessibilityNodeInfo.ACTION_CLICK;
+    nodeActionHandler.post(() -> {
+      boolean isPerformed = performIfStillAt(node, x, y, action);
+      node.recycle();
+      long doneTimeMs = SystemClock.uptimeMillis();
+      mainHandler.post(() -> {
+        if (isPerformed) {
+          onNodeClicked(doneTimeMs - requestTimeMs);
+        } else {
+          fallbackCount++;
+          dispatchGesture(fallbackGesture, requestTimeMs);
+        }
+      });
+    });
+  }
+
+  /** Runs on the node action thread. */
+  private static boolean performIfStillAt(AccessibilityNodeInfo node, float x, float y, int action) {
+    try {
+      if (!node.refresh() || !node.isVisibleToUser() || !node.isEnabled()) {
+        return false;
+      }
+      Rect bounds = new Rect();
+      node.getBoundsInScreen(bounds);
+      if (!bounds.contains((int) x, (int) y)) {
+        return false;
+      }
+      return node.performAction(action);
+    } catch (RuntimeException e) {
+      AppLog.w(TAG, "Node action failed: {}", e.getMessage());
+      return false;
+    }
+  }
+
+  private void dispatchGesture(GestureDescription gesture, long requestTimeMs) {
+    gestureDispatchQueue.enqueue(gesture, GestureDispatchQueue.NO_COALESCE, completed -> {
+      if (completed) {
+        long latencyMs = Math.max(0, SystemClock.uptimeMillis() - requestTimeMs
+            - GestureDispatchQueue.getDurationMs(gesture));
+        gestureLatencyP50.add(latencyMs);
+        gestureLatencyP90.add(latencyMs);
+        gestureClickCount++;
+        logStatsPeriodically();
+      }
+    });
+  }
+
+  private void onNodeClicked(long latencyMs) {
+    nodeLatencyP50.add(latencyMs);
+    nodeLatencyP90.add(latencyMs);
+    nodeClickCount++;
+    logStatsPeriodically();
+  }
+
+  private void logStatsPeriodically() {
+    if ((nodeClickCount + gestureClickCount) % STATS_LOG_INTERVAL == 0
+        && AppLog.isLoggable(Log.INFO)) {
+      AppLog.i(TAG, getStatsSummary());
+    }
+  }
+
+  void release() {
+    if (nodeActionThread != null) {
+      nodeActionThread.quitSafely();
+      nodeActionThread = null;
+      nodeActionHandler = null;
+    }
+  }
+
+  int getNodeClickCount() {
+    return nodeClickCount;
+  }
+
+  int getGestureClickCount() {
+    return gestureClickCount;
+  }
+
+  /** Node clicks that were not possible after all and went to the gesture. */
+  int getFallbackCount() {
+    return fallbackCount;
+  }
+
+  float getNodeLatencyP50Ms() {
+    return (float) nodeLatencyP50.get();
+  }
+
+  float getGestureLatencyP50Ms() {
+    return (float) gestureLatencyP50.get();
+  }
+
+  String getStatsSummary() {
+    return "node n=" + nodeClickCount
+        + " p50=" + getNodeLatencyP50Ms()
+        + " p90=" + (float) nodeLatencyP90.get()
+        + " gesture n=" + gestureClickCount
+        + " p50=" + getGestureLatencyP50Ms()
+        + " p90=" + (float) gestureLatencyP90.get()
+        + " fallbacks=" + fallbackCount;
+  }
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright 2024 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * MODIFICATION NOTICE
+ * as per the licence its required to give notice that this code has been modified by a third party.
+ * 2026 - Helgi Steinarr Juliusson, changes can be found in version control.
+ */
+package com.google.projectgameface;
+
+/**
+ * Per-frame timings of the tracking pipeline, kept in fixed size rings for {@link
+ * PerformanceHudView}. Recording is a few stores, so it is always on; only the drawing is optional.
+ */
+class PerformanceHud {
+
+  static final int STAGE_CAMERA_INTERVAL = 0;
+  static final int STAGE_PREPROCESS = 1;
+  static final int STAGE_INFERENCE = 2;
+  static final int STAGE_TICK = 3;
+  static final int STAGE_RENDER = 4;
+  static final int STAGE_DISPATCH = 5;
+  static final int STAGE_COUNT = 6;
+
+  static final String[] STAGE_NAMES = {"cam", "pre", "inf", "tick", "rndr", "disp"};
+
+  /** About two seconds of camera frames, or a second of UI ticks. */
+  static final int RING_CAPACITY = 60;
+
+  /** A UI tick using a landmark result older than this counts as stale. */
+  static final long STALE_RESULT_MS = 100;
+
+  private final TimingRing[] rings = new TimingRing[STAGE_COUNT];
+
+  private volatile long droppedFrameCount = 0;
+  private volatile long staleTickCount = 0;
+
+  PerformanceHud() {
+    for (int i = 0; i < STAGE_COUNT; i++) {
+      rings[i] = new TimingRing(RING_CAPACITY);
+    }
+  }
+
+  /** Add a timing of a stage. Each stage is recorded from one thread only. */
+  void record(int stage, float timeMs) {
+    rings[stage].add(timeMs);
+  }
+
+  TimingRing getRing(int stage) {
+    return rings[stage];
+  }
+
+  /** Camera frame thrown away before inference. Called from the landmarker thread only. */
+  void onFrameDropped() {
+    droppedFrameCount++;
+  }
+
+  /** UI tick ran on an old landmark result. Called from the UI thread only. */
+  void onStaleTick() {
+    staleTickCount++;
+  }
+
+  long getDroppedFrameCount() {
+    return droppedFrameCount;
+  }
+
+  long getStaleTickCount() {
+    return staleTickCount;
+  }
+}
@@ -0,0 +1,152 @@
+/*
+ * Copyright 2024 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * MODIFICATION NOTICE
+ * as per the licence its required to give notice that this code has been modified by a third party.
+ * 2026 - Helgi Steinarr Juliusson, changes can be found in version control.
+ */
+package com.google.projectgameface;
+
+import android.content.Context;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.os.SystemClock;
+import android.view.View;
+
+/**
+ * Sparklines with rolling p50 / p95 of each {@link PerformanceHud} stage, and the dropped and stale
+ * counters. Redraws itself a few times a second; a draw allocates nothing and its own time is shown
+ * on the last line.
+ */
+class PerformanceHudView extends View {
+
+  static final long REFRESH_INTERVAL_MS = 250;
+
+  private static final float[] QUANTILES = {0.5f, 0.95f};
+
+  private static final int ROW_HEIGHT_DP = 14;
+  private static final int LABEL_WIDTH_DP = 32;
+  private static final int GRAPH_WIDTH_DP = 90;
+  private static final int TEXT_WIDTH_DP = 110;
+  private static final int PADDING_DP = 4;
+
+  private final PerformanceHud hud;
+
+  private final Paint backgroundPaint = new Paint();
+  private final Paint textPaint = new Paint();
+  private final Paint graphPaint = new Paint();
+
+  private final float rowHeight;
+  private final float labelWidth;
+  private final float graphWidth;
+  private final float padding;
+
+  private final float[] scratch = new float[PerformanceHud.RING_CAPACITY];
+  private final float[] quantileValues = new float[QUANTILES.length];
+  private final float[] linePoints = new float[(PerformanceHud.RING_CAPACITY - 1) * 4];
+  private final char[] text = new char[64];
+
+  /** Time of this view's own onDraw, ms. */
+  private final TimingRing drawTimeMs = new TimingRing(PerformanceHud.RING_CAPACITY);
+
+  PerformanceHudView(Context context, PerformanceHud hud) {
+    super(context);
+    this.hud = hud;
+    float density = context.getResources().getDisplayMetrics().density;
+    rowHeight = ROW_HEIGHT_DP * density;
+    labelWidth = LABEL_WIDTH_DP * density;
+    graphWidth = GRAPH_WIDTH_DP * density;
+    padding = PADDING_DP * density;
+
+    backgroundPaint.setColor(Color.argb(160, 0, 0, 0));
+    textPaint.setColor(Color.WHITE);
+    textPaint.setTextSize(rowHeight * 0.8f);
+    textPaint.setAntiAlias(true);
+    graphPaint.setColor(Color.parseColor("#04DE71"));
+    graphPaint.setStrokeWidth(density);
+  }
+
+  @Override
+  protected void onMeasure(int widthMeasureSpec, int heightMeasureSpec) {
+    float density = getResources().getDisplayMetrics().density;
+    int width = (int) (labelWidth + graphWidth + TEXT_WIDTH_DP * density + 2 * padding);
+    int height = (int) ((PerformanceHud.STAGE_COUNT + 1) * rowHeight + 2 * padding);
+    setMeasuredDimension(width, height);
+  }
+
+  @Override
+  protected void onDraw(Canvas canvas) {
+    long startNs = SystemClock.elapsedRealtimeNanos();
+    super.onDraw(canvas);
+    canvas.drawRect(0, 0, getWidth(), getHeight(), backgroundPaint);
+
+    for (int stage = 0; stage < PerformanceHud.STAGE_COUNT; stage++) {
+      float top = padding + stage * rowHeight;
+      drawStage(canvas, hud.getRing(stage), PerformanceHud.STAGE_NAMES[stage], top);
+    }
+
+    drawTimeMs.getQuantiles(scratch, QUANTILES, quantileValues);
+    int length = CharFormat.appendText(text, 0, "drop ");
+    length = CharFormat.appendLong(text, length, hud.getDroppedFrameCount());
+    length = CharFormat.appendText(text, length, " stale ");
+    length = CharFormat.appendLong(text, length, hud.getStaleTickCount());
+    length = CharFormat.appendText(text, length, " hud p95 ");
+    length = CharFormat.appendHundredths(text, length, Math.round(quantileValues[1] * 100));
+    length = CharFormat.appendText(text, length, " ms");
+    float baseline = padding + (PerformanceHud.STAGE_COUNT + 1) * rowHeight - rowHeight * 0.2f;
+    canvas.drawText(text, 0, length, padding, baseline, textPaint);
+
+    drawTimeMs.add((SystemClock.elapsedRealtimeNanos() - startNs) / 1e6f);
+    postInvalidateDelayed(REFRESH_INTERVAL_MS);
+  }
+
+  private void drawStage(Canvas canvas, TimingRing ring, String name, float top) {
+    float baseline = top + rowHeight * 0.8f;
+    canvas.drawText(name, padding, baseline, textPaint);
+
+    int size = ring.copyTo(scratch);
+    float max = 1.f;
+    for (int i = 0; i < size; i++) {
+      max = Math.max(max, scratch[i]);
+    }
+    // Oldest on the left, scaled to the largest value held.
+    float left = padding + labelWidth;
+    float step = graphWidth / (PerformanceHud.RING_CAPACITY - 1);
+    int pointCount = 0;
+    for (int i = 1; i < size; i++) {
+      linePoints[pointCount++] = left + (i - 1) * step;
+      linePoints[pointCount++] = top + rowHeight * (1.f - scratch[i - 1] / max);
+      linePoints[pointCount++] = left + i * step;
+      linePoints[pointCount++] = top + rowHeight * (1.f - scratch[i] / max);
+    }
+    if (pointCount > 0) {
+      canvas.drawLines(linePoints, 0, pointCount, graphPaint);
+    }
+
+    ring.getQuantiles(scratch, QUANTILES, quantileValues);
+    int length = CharFormat.appendOneDecimal(text, 0, quantileValues[0]);
+    length = CharFormat.appendText(text, length, " / ");
+    length = CharFormat.appendOneDecimal(text, length, quantileValues[1]);
+    length = CharFormat.appendText(text, length, " ms");
+    canvas.drawText(text, 0, length, left + graphWidth + padding, baseline, textPaint);
+  }
+
+  /** p50 / p95 of this view's own draw time, for the service stats log. */
+  String getDrawTimeSummary() {
+    drawTimeMs.getQuantiles(scratch, QUANTILES, quantileValues);
+    return "hudDraw p50=" + quantileValues[0] + "ms p95=" + quantileValues[1] + "ms";
+  }
+}
@@ -0,0 +1,148 @@
+/*
+ * Copyright 2024 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * MODIFICATION NOTICE
+ * as per the licence its required to give notice that this code has been modified by a third party.
+ * 2026 - Helgi Steinarr Juliusson, changes can be found in version control.
+ */
+package com.google.projectgameface;
+
+import android.content.SharedPreferences;
+import com.google.projectgameface.BlendshapeEventTriggerConfig.Blendshape;
+import com.google.projectgameface.BlendshapeEventTriggerConfig.EventType;
+import com.google.projectgameface.CursorMovementConfig.CursorMovementConfigType;
+import java.util.EnumMap;
+
+/**
+ * One complete setup: cursor movement and filter values, gesture bindings and calibration. Values
+ * are kept as stored, raw UI values and blendshape names rather than UI list indices.
+ *
+ * <p>The GameFaceLocalConfig SharedPreferences stay the working copy of the active profile, which
+ * the setting pages read and write.
+ */
+class Profile {
+  private static final int PREFERENCE_INT_NOT_FOUND = -1;
+
+  /** A gesture binding, threshold in UI unit 0 - 100. */
+  static final class Binding {
+    final Blendshape blendshape;
+    final int thresholdInUi;
+
+    Binding(Blendshape blendshape, int thresholdInUi) {
+      this.blendshape = blendshape;
+      this.thresholdInUi = thresholdInUi;
+    }
+  }
+
+  /** Neutral mean, neutral standard deviation and maximum activation of one blendshape. */
+  static final class Calibration {
+    final float mean;
+    final float std;
+    final float max;
+
+    Calibration(float mean, float std, float max) {
+      this.mean = mean;
+      this.std = std;
+      this.max = max;
+    }
+  }
+
+  final String name;
+
+  /** Values not in the maps use the defaults of their config class. */
+  final EnumMap<CursorMovementConfigType, Integer> movement =
+      new EnumMap<>(CursorMovementConfigType.class);
+  final EnumMap<EventType, Binding> bindings = new EnumMap<>(EventType.class);
+  final EnumMap<Blendshape, Calibration> calibration = new EnumMap<>(Blendshape.class);
+
+  Profile(String name) {
+    this.name = name;
+  }
+
+  /** Read a profile from the working copy, also migrates the preferences of older versions. */
+  static Profile fromSharedPreferences(String name, SharedPreferences preferences) {
+    Profile profile = new Profile(name);
+    for (CursorMovementConfigType type : CursorMovementConfigType.values()) {
+      int value = preferences.getInt(type.name(), PREFERENCE_INT_NOT_FOUND);
+      if (value != PREFERENCE_INT_NOT_FOUND) {
+        profile.movement.put(type, value);
+      }
+    }
+    for (EventType eventType : EventType.values()) {
+      int indexInUi = preferences.getInt(eventType.name(), PREFERENCE_INT_NOT_FOUND);
+      int thresholdInUi = preferences.getInt(eventType.name() + "_size", PREFERENCE_INT_NOT_FOUND);
+      if (indexInUi < 0 || indexInUi >= BlendshapeEventTriggerConfig.BLENDSHAPE_FROM_ORDER_IN_UI.size()
+          || thresholdInUi == PREFERENCE_INT_NOT_FOUND) {
+        continue;
+      }
+      profile.bindings.put(eventType, new Binding(
+          BlendshapeEventTriggerConfig.BLENDSHAPE_FROM_ORDER_IN_UI.get(indexInUi), thresholdInUi));
+    }
+    for (Blendshape blendshape : Blendshape.values()) {
+      String key = BlendshapeCalibration.PREFERENCE_KEY_PREFIX + blendshape.name();
+      if (blendshape == Blendshape.NONE || !preferences.contains(key + "_max")) {
+        continue;
+      }
+      profile.calibration.put(blendshape, new Calibration(
+          preferences.getFloat(key + "_mean", 0.f),
+          preferences.getFloat(key + "_std", 0.f),
+          preferences.getFloat(key + "_max", 0.f)));
+    }
+    return profile;
+  }
+
+  /** Make this profile the working copy, values it does not have are removed. */
+  void writeToSharedPreferences(SharedPreferences preferences) {
+    SharedPreferences.Editor editor = preferences.edit();
+    for (CursorMovementConfigType type : CursorMovementConfigType.values()) {
+      Integer value = movement.get(type);
+      if (value != null) {
+        editor.putInt(type.name(), value);
+      } else {
+        editor.remove(type.name());
+      }
+    }
+    for (EventType eventType : EventType.values()) {
+      Binding binding = bindings.get(eventType);
+      if (binding != null) {
+        editor.putInt(eventType.name(),
+            BlendshapeEventTriggerConfig.BLENDSHAPE_FROM_ORDER_IN_UI.indexOf(binding.blendshape));
+        editor.putInt(eventType.name() + "_size", binding.thresholdInUi);
+      } else {
+        editor.remove(eventType.name());
+        editor.remove(eventType.name() + "_size");
+      }
+    }
+    for (Blendshape blendshape : Blendshape.values()) {
+      String key = BlendshapeCalibration.PREFERENCE_KEY_PREFIX + blendshape.name();
+      Calibration channel = calibration.get(blendshape);
+      if (channel != null) {
+        editor.putFloat(key + "_mean", channel.mean);
+        editor.putFloat(key + "_std", channel.std);
+        editor.putFloat(key + "_max", channel.max);
+      } else {
+        editor.remove(key + "_mean");
+        editor.remove(key + "_std");
+        editor.remove(key + "_max");
+      }
+    }
+    editor.apply();
+  }
+
+  /** Precompile into the form the service applies, see {@link ProfileSnapshot}. */
+  ProfileSnapshot compile() {
+    return new ProfileSnapshot(this);
+  }
+}
@@ -0,0 +1,175 @@
+/*
+ * Copyright 2024 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * MODIFICATION NOTICE
+ * as per the licence its required to give notice that this code has been modified by a third party.
+ * 2026 - Helgi Steinarr Juliusson, changes can be found in version control.
+ */
+package com.google.projectgameface;
+
+import com.google.projectgameface.BlendshapeEventTriggerConfig.Blendshape;
+import com.google.projectgameface.BlendshapeEventTriggerConfig.EventType;
+import com.google.projectgameface.CursorMovementConfig.CursorMovementConfigType;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.zip.CRC32;
+
+/**
+ * Binary form of a {@link Profile}, used for the stored profiles and for import and export.
+ *
+ * <p>Layout: magic, format version, then the name and three sections of (count, entries), then a
+ * CRC32 of everything before it. Entries are keyed by enum name, so values of removed enum
+ * constants are skipped on read and new constants simply use their defaults.
+ */
+final class ProfileCodec {
+
+  private static final int MAGIC = 0x47465052; // "GFPR"
+
+  /** Version written. Reading accepts every version up to this one. */
+  static final int FORMAT_VERSION = 1;
+
+  /** A profile larger than this is not one of ours. */
+  private static final int MAX_SIZE_BYTES = 64 * 1024;
+
+  static byte[] encode(Profile profile) {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    DataOutputStream out = new DataOutputStream(bytes);
+    try {
+      out.writeInt(MAGIC);
+      out.writeShort(FORMAT_VERSION);
+      out.writeUTF(profile.name);
+
+      out.writeShort(profile.movement.size());
+      for (CursorMovementConfigType type : profile.movement.keySet()) {
+        out.writeUTF(type.name());
+        out.writeInt(profile.movement.get(type));
+      }
+
+      out.writeShort(profile.bindings.size());
+      for (EventType eventType : profile.bindings.keySet()) {
+        Profile.Binding binding = profile.bindings.get(eventType);
+        out.writeUTF(eventType.name());
+        out.writeUTF(binding.blendshape.name());
+        out.writeInt(binding.thresholdInUi);
+      }
+
+      out.writeShort(profile.calibration.size());
+      for (Blendshape blendshape : profile.calibration.keySet()) {
+        Profile.Calibration channel = profile.calibration.get(blendshape);
+        out.writeUTF(blendshape.name());
+        out.writeFloat(channel.mean);
+        out.writeFloat(channel.std);
+        out.writeFloat(channel.max);
+      }
+
+      CRC32 crc = new CRC32();
+      crc.update(bytes.toByteArray());
+      out.writeLong(crc.getValue());
+      out.flush();
+    } catch (IOException e) {
+      // Writing to memory does not fail.
+      throw new IllegalStateException(e);
+    }
+    return bytes.toByteArray();
+  }
+
+  static void write(Profile profile, OutputStream out) throws IOException {
+    out.write(encode(profile));
+    out.flush();
+  }
+
+  /** Read a whole profile, checking its checksum before anything is parsed. */
+  static Profile read(InputStream in) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    byte[] buffer = new byte[4096];
+    for (int count = in.read(buffer); count > 0; count = in.read(buffer)) {
+      bytes.write(buffer, 0, count);
+      if (bytes.size() > MAX_SIZE_BYTES) {
+        throw new IOException("Profile too large");
+      }
+    }
+    return decode(bytes.toByteArray());
+  }
+
+  static Profile decode(byte[] data) throws IOException {
+    if (data.length < 8 + 6) {
+      throw new IOException("Profile too short");
+    }
+    CRC32 crc = new CRC32();
+    crc.update(data, 0, data.length - 8);
+    DataInputStream in = new DataInputStream(new ByteArrayInputStream(data));
+    in.skipBytes(data.length - 8);
+    if (in.readLong() != crc.getValue()) {
+      throw new IOException("Profile checksum mismatch");
+    }
+
+    in = new DataInputStream(new ByteArrayInputStream(data, 0, data.length - 8));
+    if (in.readInt() != MAGIC) {
+      throw new IOException("Not a profile");
+    }
+    int version = in.readUnsignedShort();
+    if (version < 1 || version > FORMAT_VERSION) {
+      throw new IOException("Unsupported profile version " + version);
+    }
+    Profile profile = new Profile(in.readUTF());
+
+    int movementCount = in.readUnsignedShort();
+    for (int i = 0; i < movementCount; i++) {
+      String name = in.readUTF();
+      int value = in.readInt();
+      CursorMovementConfigType type = valueOf(CursorMovementConfigType.class, name);
+      if (type != null) {
+        profile.movement.put(type, value);
+      }
+    }
+
+    int bindingCount = in.readUnsignedShort();
+    for (int i = 0; i < bindingCount; i++) {
+      EventType eventType = valueOf(EventType.class, in.readUTF());
+      Blendshape blendshape = valueOf(Blendshape.class, in.readUTF());
+      int thresholdInUi = in.readInt();
+      if (eventType != null && blendshape != null) {
+        profile.bindings.put(eventType, new Profile.Binding(blendshape, thresholdInUi));
+      }
+    }
+
+    int calibrationCount = in.readUnsignedShort();
+    for (int i = 0; i < calibrationCount; i++) {
+      Blendshape blendshape = valueOf(Blendshape.class, in.readUTF());
+      Profile.Calibration channel =
+          new Profile.Calibration(in.readFloat(), in.readFloat(), in.readFloat());
+      if (blendshape != null && blendshape != Blendshape.NONE) {
+        profile.calibration.put(blendshape, channel);
+      }
+    }
+    return profile;
+  }
+
+  /** Enum constant of that name, null if there is none. */
+  private static <T extends Enum<T>> T valueOf(Class<T> enumClass, String name) {
+    try {
+      return Enum.valueOf(enumClass, name);
+    } catch (IllegalArgumentException e) {
+      return null;
+    }
+  }
+
+  private ProfileCodec() {}
+}
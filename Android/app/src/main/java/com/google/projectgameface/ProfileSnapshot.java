@@ -0,0 +1,102 @@
+/*
+ * Copyright 2024 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * MODIFICATION NOTICE
+ * as per the licence its required to give notice that this code has been modified by a third party.
+ * 2026 - Helgi Steinarr Juliusson, changes can be found in version control.
+ */
+package com.google.projectgameface;
+
+import com.google.projectgameface.BlendshapeEventTriggerConfig.Blendshape;
+import com.google.projectgameface.BlendshapeEventTriggerConfig.BlendshapeAndThreshold;
+import com.google.projectgameface.BlendshapeEventTriggerConfig.EventType;
+import com.google.projectgameface.CursorMovementConfig.CursorMovementConfigType;
+import java.util.HashMap;
+
+/**
+ * A {@link Profile} compiled for the service: arrays indexed by enum ordinal and ready built
+ * bindings, so switching to it only copies a few hundred values and allocates nothing but the
+ * config maps. Immutable once built.
+ */
+final class ProfileSnapshot {
+  final String name;
+
+  /** Raw value per {@link CursorMovementConfigType} ordinal, see {@link #hasMovement}. */
+  private final int[] movement = new int[CursorMovementConfigType.values().length];
+  private final boolean[] hasMovement = new boolean[movement.length];
+
+  private final HashMap<EventType, BlendshapeAndThreshold> bindings = new HashMap<>();
+
+  /** Mean, std and max per {@link Blendshape} ordinal, null when not calibrated. */
+  private final float[][] calibration = new float[Blendshape.values().length][];
+
+  ProfileSnapshot(Profile profile) {
+    name = profile.name;
+    for (CursorMovementConfigType type : profile.movement.keySet()) {
+      movement[type.ordinal()] = profile.movement.get(type);
+      hasMovement[type.ordinal()] = true;
+    }
+    for (EventType eventType : profile.bindings.keySet()) {
+      Profile.Binding binding = profile.bindings.get(eventType);
+      bindings.put(eventType,
+          BlendshapeAndThreshold.create(binding.blendshape, binding.thresholdInUi / 100.f));
+    }
+    for (Blendshape blendshape : profile.calibration.keySet()) {
+      Profile.Calibration channel = profile.calibration.get(blendshape);
+      calibration[blendshape.ordinal()] = new float[] {channel.mean, channel.std, channel.max};
+    }
+  }
+
+  /** The profile this was compiled from, as a new copy. */
+  Profile toProfile() {
+    Profile profile = new Profile(name);
+    for (CursorMovementConfigType type : CursorMovementConfigType.values()) {
+      if (hasMovement(type)) {
+        profile.movement.put(type, getMovement(type));
+      }
+    }
+    for (EventType eventType : bindings.keySet()) {
+      BlendshapeAndThreshold binding = bindings.get(eventType);
+      profile.bindings.put(eventType,
+          new Profile.Binding(binding.shape(), Math.round(binding.threshold() * 100)));
+    }
+    for (Blendshape blendshape : Blendshape.values()) {
+      float[] channel = calibration[blendshape.ordinal()];
+      if (channel != null) {
+        profile.calibration.put(
+            blendshape, new Profile.Calibration(channel[0], channel[1], channel[2]));
+      }
+    }
+    return profile;
+  }
+
+  boolean hasMovement(CursorMovementConfigType type) {
+    return hasMovement[type.ordinal()];
+  }
+
+  int getMovement(CursorMovementConfigType type) {
+    return movement[type.ordinal()];
+  }
+
+  /** Bindings of this profile, must not be modified. */
+  HashMap<EventType, BlendshapeAndThreshold> getBindings() {
+    return bindings;
+  }
+
+  /** Mean, std and max of a blendshape, null when not calibrated. Must not be modified. */
+  float[] getCalibration(Blendshape blendshape) {
+    return calibration[blendshape.ordinal()];
+  }
+}
@@ -0,0 +1,499 @@
+/*
+ * Copyright 2024 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * MODIFICATION NOTICE
+ * as per the licence its required to give notice that this code has been modified by a third party.
+ * 2026 - Helgi Steinarr Juliusson, changes can be found in version control.
+ */
+package com.google.projectgameface;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.os.SystemClock;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.regex.Pattern;
+
+/**
+ * Named {@link Profile}s stored as {@link ProfileCodec} files, and switching between them.
+ *
+ * <p>The active profile lives in the GameFaceLocalConfig SharedPreferences as before, so the
+ * setting pages need no changes. Switching captures that working copy into the old profile,
+ * hands the new profile's precompiled {@link ProfileSnapshot} to the listeners, which apply it in
+ * place without restarting the camera, and makes it the new working copy.
+ *
+ * <p>A switch does no file I/O on the calling thread. Decoded profiles are cached next to their
+ * snapshots, and storing the old profile's file runs on a background executor. Anything that reads
+ * the files waits for those writes first. The new working copy is applied on the calling thread,
+ * {@link SharedPreferences.Editor#apply} changes memory at once and writes the disk itself, so
+ * setting pages and slider edits never see or overwrite the old profile's values.
+ *
+ * <p>Used from the main thread only.
+ */
+class ProfileStore {
+  private static final String TAG = "ProfileStore";
+
+  static final String DIRECTORY_NAME = "profiles";
+  private static final String FILE_SUFFIX = ".profile";
+
+  /** SharedPreference key of the active profile name. */
+  static final String ACTIVE_PROFILE_KEY = "ACTIVE_PROFILE";
+
+  /** SharedPreference key prefix of the profile used for an app, followed by its package name. */
+  static final String APP_PROFILE_KEY_PREFIX = "APP_PROFILE_";
+
+  /** Compiled profiles kept in memory, a handful covers the apps a user moves between. */
+  static final int SNAPSHOT_CACHE_SIZE = 8;
+
+  /** Profile created from the settings of versions without profiles. */
+  static final String DEFAULT_PROFILE_NAME = "Default";
+
+  /** Names double as file names, keep them to something every file system accepts. */
+  private static final Pattern VALID_NAME = Pattern.compile("[A-Za-z0-9 _-]{1,40}");
+
+  /** Receives switched profiles on the main thread. */
+  interface Listener {
+    void onProfileSwitched(ProfileSnapshot snapshot);
+  }
+
+  private static ProfileStore instance;
+
+  /** The store of this process. */
+  static ProfileStore getInstance(Context context) {
+    if (instance == null) {
+      Context appContext = context.getApplicationContext();
+      instance = new ProfileStore(
+          new File(appContext.getFilesDir(), DIRECTORY_NAME),
+          appContext.getSharedPreferences(
+              ConfigRepository.PREFERENCES_NAME, Context.MODE_PRIVATE),
+          ConfigRepository.getInstance(appContext),
+          Executors.newSingleThreadExecutor());
+    }
+    return instance;
+  }
+
+  private final File directory;
+  private final SharedPreferences preferences;
+  private final ConfigRepository configRepository;
+  private final List<Listener> listeners = new ArrayList<>();
+
+  /** A decoded profile and its snapshot, compiled when first asked for. */
+  private static final class CachedProfile {
+    final Profile profile;
+    private ProfileSnapshot snapshot;
+
+    CachedProfile(Profile profile) {
+      this.profile = profile;
+    }
+
+    ProfileSnapshot getSnapshot() {
+      if (snapshot == null) {
+        snapshot = profile.compile();
+      }
+      return snapshot;
+    }
+  }
+
+  /**
+   * Decoded profiles by name, least recently used first, so a switch does no file reading or
+   * parsing.
+   */
+  private final LinkedHashMap<String, CachedProfile> profileCache =
+      new LinkedHashMap<String, CachedProfile>(SNAPSHOT_CACHE_SIZE, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, CachedProfile> eldest) {
+          return size() > SNAPSHOT_CACHE_SIZE;
+        }
+      };
+
+  /** Runs the writes of switches, one at a time in order. */
+  private final Executor writeExecutor;
+
+  /** Guards the write counters, also waited on for the writes to finish. */
+  private final Object writeLock = new Object();
+  private int pendingWriteCount = 0;
+
+  /** Background part of a switch, in microseconds. Guarded by writeLock. */
+  private final StreamingQuantile writeTimeP90Us = new StreamingQuantile(0.9);
+
+  /** Kept in memory, so the name does not have to be read back from the preference. */
+  private String activeProfileName;
+
+  private int appProfileCount = 0;
+
+  private int switchCount = 0;
+  private int cacheMissCount = 0;
+
+  /** Time a whole switch took on the calling thread, in microseconds. */
+  private final StreamingQuantile switchTimeP50Us = new StreamingQuantile(0.5);
+  private final StreamingQuantile switchTimeP90Us = new StreamingQuantile(0.9);
+
+  /** A store that writes on the calling thread. */
+  ProfileStore(File directory, SharedPreferences preferences, ConfigRepository configRepository) {
+    this(directory, preferences, configRepository, Runnable::run);
+  }
+
+  /**
+   * @param writeExecutor Runs the writes of switches, must run them one at a time in order.
+   */
+  ProfileStore(File directory, SharedPreferences preferences, ConfigRepository configRepository,
+      Executor writeExecutor) {
+    this.directory = directory;
+    this.preferences = preferences;
+    this.configRepository = configRepository;
+    this.writeExecutor = writeExecutor;
+    activeProfileName = preferences.getString(ACTIVE_PROFILE_KEY, DEFAULT_PROFILE_NAME);
+    migrateIfNeeded();
+    for (String key : preferences.getAll().keySet()) {
+      if (key.startsWith(APP_PROFILE_KEY_PREFIX)) {
+        appProfileCount++;
+      }
+    }
+  }
+
+  void addListener(Listener listener) {
+    if (!listeners.contains(listener)) {
+      listeners.add(listener);
+    }
+  }
+
+  void removeListener(Listener listener) {
+    listeners.remove(listener);
+  }
+
+  static boolean isValidName(String name) {
+    return name != null && VALID_NAME.matcher(name).matches();
+  }
+
+  /** Store the current settings as the first profile, if there are no profiles yet. */
+  private void migrateIfNeeded() {
+    if (!directory.isDirectory() && !directory.mkdirs()) {
+      AppLog.w(TAG, "Cannot create {}", directory);
+      return;
+    }
+    if (!listProfiles().isEmpty()) {
+      return;
+    }
+    AppLog.i(TAG, "Migrate settings into profile {}", DEFAULT_PROFILE_NAME);
+    if (save(Profile.fromSharedPreferences(DEFAULT_PROFILE_NAME, preferences))) {
+      activeProfileName = DEFAULT_PROFILE_NAME;
+      preferences.edit().putString(ACTIVE_PROFILE_KEY, DEFAULT_PROFILE_NAME).apply();
+    }
+  }
+
+  /** Profile names, sorted. */
+  List<String> listProfiles() {
+    List<String> names = new ArrayList<>();
+    File[] files = directory.listFiles();
+    if (files == null) {
+      return names;
+    }
+    for (File file : files) {
+      String fileName = file.getName();
+      if (fileName.endsWith(FILE_SUFFIX)) {
+        names.add(fileName.substring(0, fileName.length() - FILE_SUFFIX.length()));
+      }
+    }
+    Collections.sort(names);
+    return names;
+  }
+
+  String getActiveProfileName() {
+    return activeProfileName;
+  }
+
+  private File getFile(String name) {
+    return new File(directory, name + FILE_SUFFIX);
+  }
+
+  /** Read a profile from storage, null if it does not exist or is damaged. */
+  Profile load(String name) {
+    if (!isValidName(name)) {
+      AppLog.w(TAG, "Invalid profile name: {}", name);
+      return null;
+    }
+    awaitWrites();
+    File file = getFile(name);
+    if (!file.exists()) {
+      return null;
+    }
+    try (InputStream in = new FileInputStream(file)) {
+      return ProfileCodec.read(in);
+    } catch (IOException e) {
+      AppLog.w(TAG, "Cannot read profile {}: {}", name, e.getMessage());
+      return null;
+    }
+  }
+
+  /**
+   * Write a profile, replacing one of the same name. Written to a temporary file first so a crash
+   * never leaves a half written profile.
+   */
+  boolean save(Profile profile) {
+    if (!isValidName(profile.name)) {
+      AppLog.w(TAG, "Invalid profile name: {}", profile.name);
+      return false;
+    }
+    awaitWrites();
+    if (!writeFile(profile)) {
+      return false;
+    }
+    profileCache.put(profile.name, new CachedProfile(profile));
+    return true;
+  }
+
+  /** Write the file of a profile, on any thread. */
+  private boolean writeFile(Profile profile) {
+    File file = getFile(profile.name);
+    File temporaryFile = new File(directory, profile.name + FILE_SUFFIX + ".tmp");
+    try (FileOutputStream out = new FileOutputStream(temporaryFile)) {
+      ProfileCodec.write(profile, out);
+      out.getFD().sync();
+    } catch (IOException e) {
+      AppLog.w(TAG, "Cannot write profile {}: {}", profile.name, e.getMessage());
+      temporaryFile.delete();
+      return false;
+    }
+    if (!temporaryFile.renameTo(file)) {
+      AppLog.w(TAG, "Cannot replace profile {}", profile.name);
+      temporaryFile.delete();
+      return false;
+    }
+    return true;
+  }
+
+  /** Queue a write behind the earlier ones. */
+  private void submitWrite(Runnable write) {
+    synchronized (writeLock) {
+      pendingWriteCount++;
+    }
+    writeExecutor.execute(() -> {
+      long startNs = SystemClock.elapsedRealtimeNanos();
+      try {
+        write.run();
+      } finally {
+        synchronized (writeLock) {
+          writeTimeP90Us.add((SystemClock.elapsedRealtimeNanos() - startNs) / 1000);
+          pendingWriteCount--;
+          writeLock.notifyAll();
+        }
+      }
+    });
+  }
+
+  /** Block until the queued writes are done, so the files are current. */
+  private void awaitWrites() {
+    synchronized (writeLock) {
+      while (pendingWriteCount > 0) {
+        try {
+          writeLock.wait();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          return;
+        }
+      }
+    }
+  }
+
+  /** Remove a profile, the active one cannot be removed. */
+  boolean delete(String name) {
+    if (name.equals(getActiveProfileName())) {
+      AppLog.w(TAG, "Cannot delete the active profile.");
+      return false;
+    }
+    profileCache.remove(name);
+    awaitWrites();
+    return isValidName(name) && getFile(name).delete();
+  }
+
+  /** Store the settings in use as the active profile. */
+  boolean saveActiveProfile() {
+    configRepository.flush();
+    return save(Profile.fromSharedPreferences(getActiveProfileName(), preferences));
+  }
+
+  /** Write a profile in the export format, which is the same as the stored one. */
+  boolean exportTo(String name, OutputStream out) {
+    if (name.equals(getActiveProfileName())) {
+      saveActiveProfile();
+    }
+    Profile profile = load(name);
+    if (profile == null) {
+      return false;
+    }
+    try {
+      ProfileCodec.write(profile, out);
+      return true;
+    } catch (IOException e) {
+      AppLog.w(TAG, "Cannot export profile {}: {}", name, e.getMessage());
+      return false;
+    }
+  }
+
+  /**
+   * Read an exported profile and store it, replacing one of the same name. Importing over the
+   * active profile applies it right away.
+   *
+   * @return Name of the imported profile, null if it could not be read.
+   */
+  String importFrom(InputStream in) {
+    Profile profile;
+    try {
+      profile = ProfileCodec.read(in);
+    } catch (IOException e) {
+      AppLog.w(TAG, "Cannot import profile: {}", e.getMessage());
+      return null;
+    }
+    if (!save(profile)) {
+      return null;
+    }
+    if (profile.name.equals(getActiveProfileName())) {
+      activate(profile.name, profileCache.get(profile.name));
+    }
+    return profile.name;
+  }
+
+  /**
+   * Use a profile whenever an app is in the foreground.
+   *
+   * @param packageName Package of the app.
+   * @param profileName Profile to use, null to use the profile chosen for all other apps.
+   */
+  void setAppProfile(String packageName, String profileName) {
+    String key = APP_PROFILE_KEY_PREFIX + packageName;
+    boolean hadProfile = preferences.contains(key);
+    if (profileName != null) {
+      preferences.edit().putString(key, profileName).apply();
+      appProfileCount += hadProfile ? 0 : 1;
+    } else {
+      preferences.edit().remove(key).apply();
+      appProfileCount -= hadProfile ? 1 : 0;
+    }
+  }
+
+  /** Profile for an app, null if it has none. */
+  String getAppProfile(String packageName) {
+    return preferences.getString(APP_PROFILE_KEY_PREFIX + packageName, null);
+  }
+
+  /** Whether any app has its own profile, only then the foreground app needs to be followed. */
+  boolean hasAppProfiles() {
+    return appProfileCount > 0;
+  }
+
+  /** Compiled profile, from the cache when possible. */
+  ProfileSnapshot getSnapshot(String name) {
+    CachedProfile cached = getCachedProfile(name);
+    return cached == null ? null : cached.getSnapshot();
+  }
+
+  private CachedProfile getCachedProfile(String name) {
+    CachedProfile cached = profileCache.get(name);
+    if (cached == null) {
+      cacheMissCount++;
+      Profile profile = load(name);
+      if (profile == null) {
+        return null;
+      }
+      cached = new CachedProfile(profile);
+      profileCache.put(name, cached);
+    }
+    return cached;
+  }
+
+  /**
+   * Compile the active profile and those used for apps now, so the first switch to each is as fast
+   * as the rest.
+   */
+  void preload() {
+    for (Map.Entry<String, ?> entry : preferences.getAll().entrySet()) {
+      if (entry.getKey().startsWith(APP_PROFILE_KEY_PREFIX)
+          && profileCache.size() < SNAPSHOT_CACHE_SIZE - 1) {
+        getSnapshot((String) entry.getValue());
+      }
+    }
+    getSnapshot(getActiveProfileName());
+  }
+
+  /**
+   * Make another profile active. The settings in use are stored into the profile being left
+   * first, its file is written in the background.
+   *
+   * @return false if the profile does not exist, nothing is changed then.
+   */
+  boolean switchTo(String name) {
+    long startNs = SystemClock.elapsedRealtimeNanos();
+    CachedProfile incoming = getCachedProfile(name);
+    if (incoming == null) {
+      AppLog.w(TAG, "No profile {}", name);
+      return false;
+    }
+    if (name.equals(getActiveProfileName())) {
+      return true;
+    }
+    // Hand out slider changes of the old profile now, not on top of the new one.
+    configRepository.deliverPendingChanges();
+    configRepository.flush();
+    Profile outgoing = Profile.fromSharedPreferences(getActiveProfileName(), preferences);
+    profileCache.put(outgoing.name, new CachedProfile(outgoing));
+    submitWrite(() -> writeFile(outgoing));
+    activate(name, incoming);
+
+    long switchUs = (SystemClock.elapsedRealtimeNanos() - startNs) / 1000;
+    switchTimeP50Us.add(switchUs);
+    switchTimeP90Us.add(switchUs);
+    switchCount++;
+    AppLog.i(TAG, "Switched to profile {} in {} us", name, switchUs);
+    return true;
+  }
+
+  /** Make a profile the working copy and apply it. */
+  private void activate(String name, CachedProfile cached) {
+    cached.profile.writeToSharedPreferences(preferences);
+    preferences.edit().putString(ACTIVE_PROFILE_KEY, name).apply();
+    activeProfileName = name;
+    ProfileSnapshot snapshot = cached.getSnapshot();
+    for (Listener listener : listeners) {
+      listener.onProfileSwitched(snapshot);
+    }
+  }
+
+  int getSwitchCount() {
+    return switchCount;
+  }
+
+  String getStatsSummary() {
+    long writeP90Us;
+    synchronized (writeLock) {
+      writeP90Us = Math.round(writeTimeP90Us.get());
+    }
+    return "switches=" + switchCount
+        + " switch p50=" + Math.round(switchTimeP50Us.get()) + "us"
+        + " p90=" + Math.round(switchTimeP90Us.get()) + "us"
+        + " background write p90=" + writeP90Us + "us"
+        + " cacheMisses=" + cacheMissCount;
+  }
+}
@@ -0,0 +1,215 @@
+/*
+ * Copyright 2024 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * MODIFICATION NOTICE
+ * as per the licence its required to give notice that this code has been modified by a third party.
+ * 2026 - Helgi Steinarr Juliusson, changes can be found in version control.
+ */
+package com.google.projectgameface;
+
+import android.accessibilityservice.GestureDescription;
+import android.graphics.Path;
+
+/**
+ * Continuous scroll. A finger is held down at the cursor and moved with a smoothed velocity by
+ * chained continued strokes, lifted and put down again at the anchor when it has travelled far.
+ *
+ * <p>Velocities are of the finger, in pixels per second. Finger moving up scrolls the content
+ * down, same as the swipe events.
+ */
+class ScrollController {
+
+  /** Finger speed at full intensity. */
+  static final float MAX_SPEED_PX_PER_S = 1500.f;
+
+  /**
+   * Slower than this is treated as stopped. A finger this slow would not leave the touch slop
+   * before the long press timeout and long press the item under it.
+   */
+  static final float MIN_SPEED_PX_PER_S = 150.f;
+
+  /** EMA weight of the target velocity per UI tick. */
+  private static final float SMOOTHING_ALPHA = 0.2f;
+
+  /** Injection rate cap, one segment per this interval. */
+  static final long STEP_INTERVAL_MS = 50;
+
+  /** Lift and press again at the anchor after the finger travelled this far. */
+  static final float MAX_TRAVEL_PX = 400.f;
+
+  /** Keep the finger this far from the screen edges. */
+  private static final float EDGE_MARGIN_PX = 20.f;
+
+  private float velocityX = 0.f;
+  private float velocityY = 0.f;
+
+  /** Last stroke of the held finger, null when lifted. */
+  private GestureDescription.StrokeDescription stroke = null;
+  private float anchorX;
+  private float anchorY;
+  private float fingerX;
+  private float fingerY;
+  private long lastStepTimeMs = 0;
+
+  /** The finger stood still for one step, safe to lift without a fling. */
+  private boolean isSettled = false;
+
+  /** Told about every segment of the held finger, a new one per press. */
+  private GestureDispatchQueue.OnFinishedListener chainListener = null;
+
+  private int stepCount = 0;
+  private int brokenStrokeCount = 0;
+
+  /**
+   * Advance the scroll by one UI tick. Cheap when idle, at most one gesture is built per
+   * {@value STEP_INTERVAL_MS} ms and only while the dispatch queue is idle.
+   *
+   * @param queue Queue the strokes are dispatched through.
+   * @param targetVx Wanted finger velocity X, px/s.
+   * @param targetVy Wanted finger velocity Y, px/s.
+   * @param x Where the finger goes down, usually the cursor.
+   * @param y Where the finger goes down, usually the cursor.
+   * @param screenWidth For keeping the finger on screen.
+   * @param screenHeight For keeping the finger on screen.
+   * @param timeMs Time of this tick.
+   */
+  void update(GestureDispatchQueue queue, float targetVx, float targetVy,
+      float x, float y, int screenWidth, int screenHeight, long timeMs) {
+    velocityX += SMOOTHING_ALPHA * (targetVx - velocityX);
+    velocityY += SMOOTHING_ALPHA * (targetVy - velocityY);
+    boolean isMoving = Math.hypot(velocityX, velocityY) >= MIN_SPEED_PX_PER_S;
+
+    if (stroke == null) {
+      if (!isMoving) {
+        velocityX = 0.f;
+        velocityY = 0.f;
+        return;
+      }
+      if (queue.isBusy() || queue.getPendingCount() > 0) {
+        return;
+      }
+      press(queue, x, y, timeMs);
+      return;
+    }
+
+    if ((timeMs - lastStepTimeMs) < STEP_INTERVAL_MS || queue.isBusy() || queue.getPendingCount() > 0) {
+      return;
+    }
+
+    float nextX = fingerX + velocityX * STEP_INTERVAL_MS / 1000.f;
+    float nextY = fingerY + velocityY * STEP_INTERVAL_MS / 1000.f;
+    boolean isOutOfRoom =
+        Math.hypot(nextX - anchorX, nextY - anchorY) > MAX_TRAVEL_PX
+            || nextX < EDGE_MARGIN_PX || nextX > screenWidth - EDGE_MARGIN_PX
+            || nextY < EDGE_MARGIN_PX || nextY > screenHeight - EDGE_MARGIN_PX;
+
+    if (!isMoving || isOutOfRoom) {
+      // Stand still for one step before lifting, so the view sees no fling.
+      if (isSettled) {
+        moveTo(queue, fingerX, fingerY, /* willContinue= */ false);
+        lift();
+      } else {
+        moveTo(queue, fingerX, fingerY, /* willContinue= */ true);
+        isSettled = true;
+      }
+    } else {
+      moveTo(queue, nextX, nextY, /* willContinue= */ true);
+      isSettled = false;
+    }
+    lastStepTimeMs = timeMs;
+  }
+
+  private void press(GestureDispatchQueue queue, float x, float y, long timeMs) {
+    Path path = new Path();
+    path.moveTo(x, y);
+    stroke = new GestureDescription.StrokeDescription(
+        path, /* startTime= */ 0, /* duration= */ 1, /* willContinue= */ true);
+    chainListener = newChainListener();
+    queue.enqueue(new GestureDescription.Builder().addStroke(stroke).build(),
+        GestureDispatchQueue.NO_COALESCE, chainListener);
+    anchorX = x;
+    anchorY = y;
+    fingerX = x;
+    fingerY = y;
+    lastStepTimeMs = timeMs;
+    isSettled = false;
+  }
+
+  private void moveTo(GestureDispatchQueue queue, float x, float y, boolean willContinue) {
+    Path path = new Path();
+    path.moveTo(fingerX, fingerY);
+    if (x != fingerX || y != fingerY) {
+      path.lineTo(x, y);
+    }
+    stroke = stroke.continueStroke(path, /* startTime= */ 0, STEP_INTERVAL_MS, willContinue);
+    queue.enqueue(new GestureDescription.Builder().addStroke(stroke).build(),
+        GestureDispatchQueue.NO_COALESCE, chainListener);
+    fingerX = x;
+    fingerY = y;
+    stepCount++;
+  }
+
+  /** Lift the finger where it is and forget the velocity. */
+  void stop(GestureDispatchQueue queue) {
+    velocityX = 0.f;
+    velocityY = 0.f;
+    if (stroke != null) {
+      moveTo(queue, fingerX, fingerY, /* willContinue= */ false);
+      lift();
+    }
+  }
+
+  private void lift() {
+    stroke = null;
+    chainListener = null;
+  }
+
+  /**
+   * A segment that did not complete means the system lifted the finger, continuations of it would
+   * be cancelled too. Forget the stroke so the next step presses again.
+   */
+  private GestureDispatchQueue.OnFinishedListener newChainListener() {
+    return new GestureDispatchQueue.OnFinishedListener() {
+      @Override
+      public void onFinished(boolean completed) {
+        if (!completed && chainListener == this) {
+          lift();
+          brokenStrokeCount++;
+        }
+      }
+    };
+  }
+
+  boolean isScrolling() {
+    return stroke != null;
+  }
+
+  float getVelocityX() {
+    return velocityX;
+  }
+
+  float getVelocityY() {
+    return velocityY;
+  }
+
+  int getStepCount() {
+    return stepCount;
+  }
+
+  /** Held fingers whose stroke chain was cancelled by the system or the queue. */
+  int getBrokenStrokeCount() {
+    return brokenStrokeCount;
+  }
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright 2024 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * MODIFICATION NOTICE
+ * as per the licence its required to give notice that this code has been modified by a third party.
+ * 2026 - Helgi Steinarr Juliusson, changes can be found in version control.
+ */
+package com.google.projectgameface;
+
+import com.google.projectgameface.BlendshapeEventTriggerConfig.EventType;
+import java.util.Locale;
+
+/** The metrics of {@link CursorAccessibilityService}, created once per service. */
+final class ServiceMetrics {
+
+  /** Number of landmark validation checks, see FaceLandmarkerHelper.validateLandmarks. */
+  static final int VALIDATION_CHECK_COUNT = 5;
+
+  final MetricsRegistry registry = new MetricsRegistry();
+
+  final MetricsRegistry.Counter framesReceived = registry.counter("camera.frames_received");
+  final MetricsRegistry.Counter framesDropped = registry.counter("camera.frames_dropped");
+  final MetricsRegistry.Counter resultsValidFace =
+      registry.counter("landmarker.results_valid_face");
+  final MetricsRegistry.Counter resultsWithoutFace = registry.counter("landmarker.results_no_face");
+
+  /** Rejected faces per failed check, index 1 - {@value VALIDATION_CHECK_COUNT}. */
+  final MetricsRegistry.Counter[] validationFailures =
+      new MetricsRegistry.Counter[VALIDATION_CHECK_COUNT + 1];
+
+  final MetricsRegistry.Counter gazePauses = registry.counter("gaze.pauses");
+  final MetricsRegistry.Counter gazeResumes = registry.counter("gaze.resumes");
+  final MetricsRegistry.Counter staleTicks = registry.counter("tick.stale");
+
+  /** Gestures fired, per {@link EventType} ordinal. */
+  final MetricsRegistry.Counter[] gesturesFired =
+      new MetricsRegistry.Counter[EventType.values().length];
+
+  final MetricsRegistry.Gauge serviceState = registry.gauge("service.state");
+  final MetricsRegistry.Gauge eventsPerSecond = registry.gauge("accessibility.events_per_second");
+  final MetricsRegistry.Gauge predictionClickTimeSavedMs =
+      registry.gauge("prediction.click_time_saved_ms");
+  final MetricsRegistry.Gauge predictionFalseTriggerRate =
+      registry.gauge("prediction.false_trigger_rate");
+  final MetricsRegistry.Gauge predictionFalseClickRate =
+      registry.gauge("prediction.false_click_rate");
+
+  final MetricsRegistry.Histogram preprocessTimeMs =
+      registry.histogram("camera.preprocess_ms", 1, 2, 4, 8, 16, 32);
+  final MetricsRegistry.Histogram inferenceTimeMs =
+      registry.histogram("landmarker.inference_ms", 5, 10, 15, 20, 30, 50, 100);
+  final MetricsRegistry.Histogram tickTimeUs =
+      registry.histogram("tick.time_us", 250, 500, 1000, 2000, 4000, 8000, 16000);
+  final MetricsRegistry.Histogram dispatchTimeUs =
+      registry.histogram("tick.dispatch_us", 50, 100, 250, 500, 1000, 4000);
+
+  ServiceMetrics() {
+    for (int check = 1; check <= VALIDATION_CHECK_COUNT; check++) {
+      validationFailures[check] = registry.counter("landmarker.validation_failed_" + check);
+    }
+    for (EventType eventType : EventType.values()) {
+      gesturesFired[eventType.ordinal()] =
+          registry.counter("gesture.fired_" + eventType.name().toLowerCase(Locale.ROOT));
+    }
+  }
+
+  /** Count the result of landmark validation, 0 is a valid face. */
+  void onValidation(int failedCheck) {
+    if (failedCheck == 0) {
+      resultsValidFace.increment();
+    } else if (failedCheck <= VALIDATION_CHECK_COUNT) {
+      validationFailures[failedCheck].increment();
+    }
+  }
+}
@@ -26,9 +26,11 @@ import android.content.BroadcastReceiver;
 import android.content.Context;
 import android.content.Intent;
 import android.content.SharedPreferences;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
 import android.graphics.PixelFormat;
 import android.graphics.Point;
-import android.util.Log;
+import android.os.SystemClock;
 import android.view.Gravity;
 import android.view.MotionEvent;
 import android.view.View;
@@ -53,8 +55,8 @@ public class ServiceUiManager {
   int avoidNavBarX = 0;
   int avoidNavBarY = 0;
 
-
-  private static final boolean SHOW_DEBUG_TEXT = true;
+  /** Camera box window is attached. */
+  private boolean isCameraBoxShown = false;
 
   /** For applying small offset to cursor image.*/
   private static final int CURSOR_DP_SIZE = 60;
@@ -66,6 +68,17 @@ public class ServiceUiManager {
   /** Draw cursor image. */
   public View cursorView;
 
+  /** Draw the cursor in {@link #fullScreenCanvas} instead of moving {@link #cursorView}'s window. */
+  private boolean isCanvasCursor = false;
+  private boolean isCursorShown = false;
+
+  // Cursor render stats, to compare the two renderers.
+  private final StreamingQuantile cursorUpdateP50Us = new StreamingQuantile(0.5);
+  private final StreamingQuantile cursorUpdateP90Us = new StreamingQuantile(0.9);
+  private int cursorLayoutCallCount = 0;
+  private int cursorRedrawCount = 0;
+  private int cursorSkippedCount = 0;
+
   /** Draw floating window that show video feed along with buttons and other information. */
   public View cameraBoxView;
 
@@ -88,6 +101,10 @@ public class ServiceUiManager {
   /** Debug view that show preprocess frame time and MediaPipe frame time. */
   public CameraBoxOverlay cameraBoxOverlay;
 
+  /** Frame time graphs in their own window, null when turned off. */
+  private PerformanceHudView performanceHudView = null;
+  private boolean isPerformanceHudShown = false;
+
   public FloatIconState nextIconState;
   public FloatIconState currentIconState = FloatIconState.MINIMIZE_ICON;
 
@@ -239,24 +256,53 @@ public class ServiceUiManager {
 
   /** Hide cursor view. */
   public void hideCursor() {
-    try {
-      windowManager.removeView(cursorView);
-    } catch (RuntimeException e) {
-      Log.w(TAG, "windowManager failed to remove cursorView, might not been attached.");
+    if (isCanvasCursor) {
+      fullScreenCanvas.setCursorVisible(false);
+    } else {
+      try {
+        windowManager.removeView(cursorView);
+      } catch (RuntimeException e) {
+        AppLog.w(TAG, "windowManager failed to remove cursorView, might not been attached.");
+      }
     }
+    isCursorShown = false;
     nextIconState = FloatIconState.PAUSE_ICON;
   }
 
   /** Show cursor view. */
   public void showCursor() {
-    try {
-      windowManager.addView(cursorView, cursorLayoutParams);
-    } catch (RuntimeException e) {
-      Log.w(TAG, "windowManager failed to addView: " + e.getMessage());
+    if (isCanvasCursor) {
+      fullScreenCanvas.setCursorVisible(true);
+    } else {
+      try {
+        windowManager.addView(cursorView, cursorLayoutParams);
+      } catch (RuntimeException e) {
+        AppLog.w(TAG, "windowManager failed to addView: {}", e.getMessage());
+      }
     }
+    isCursorShown = true;
     nextIconState = FloatIconState.FOUND_FACE_ICON;
   }
 
+  /**
+   * Switch the cursor renderer. The canvas draws a cached bitmap in the existing full screen
+   * overlay, moving it costs no WindowManager call. The window renderer moves a separate overlay
+   * window every tick.
+   */
+  public void setCanvasCursorEnabled(boolean isEnabled) {
+    if (isEnabled == isCanvasCursor) {
+      return;
+    }
+    boolean wasShown = isCursorShown;
+    if (wasShown) {
+      hideCursor();
+    }
+    isCanvasCursor = isEnabled;
+    if (wasShown) {
+      showCursor();
+    }
+  }
+
   /** Create floating box that show camera feed along with buttons and other information. */
   @SuppressLint("ClickableViewAccessibility")
   private void createCameraBox() {
@@ -381,7 +427,7 @@ public class ServiceUiManager {
               break;
 
             case MotionEvent.ACTION_UP:
-              Log.i(TAG, "ACTION_UP: " + event.getRawX());
+              AppLog.i(TAG, "ACTION_UP: {}", event.getRawX());
 
               // If release within 5 pixels, execute button function.
               if (Math.abs(event.getRawX() - initialTouchX) < 5
@@ -417,8 +463,9 @@ public class ServiceUiManager {
   public void hideCameraBox() {
     try {
       windowManager.removeView(cameraBoxView);
+      isCameraBoxShown = false;
     } catch (RuntimeException e) {
-      Log.w(TAG, "windowManager failed to remove floatCamView, might not attached.");
+      AppLog.w(TAG, "windowManager failed to remove floatCamView, might not attached.");
     }
   }
 
@@ -426,6 +473,7 @@ public class ServiceUiManager {
     updateScreenInfo();
     try {
       windowManager.addView(cameraBoxView, cameraBoxLayoutParams);
+      isCameraBoxShown = true;
       // Use saved camera size preference
       SharedPreferences preferences =
           parentContext.getSharedPreferences("GameFaceLocalConfig", Context.MODE_PRIVATE);
@@ -434,7 +482,7 @@ public class ServiceUiManager {
       int height = CAMERA_SIZE_PRESETS[sizeIndex][1];
       resizeCameraBox(width, height);
     } catch (RuntimeException e) {
-      Log.w(TAG, "windowManager failed to add floatCamView: " + e.getMessage());
+      AppLog.w(TAG, "windowManager failed to add floatCamView: {}", e.getMessage());
     }
   }
 
@@ -446,12 +494,72 @@ public class ServiceUiManager {
     showFullscreenCanvas();
     showCursor();
     maximizeCameraBox();
+    showPerformanceHud();
   }
 
   public void hideAllWindows() {
     hideCameraBox();
     hideCursor();
     hideFullscreenCanvas();
+    hidePerformanceHud();
+  }
+
+  /**
+   * Show frame time graphs of these timings at the top of the screen, while the other windows are
+   * shown.
+   *
+   * @param hud Timings to draw, null turns the graphs off.
+   */
+  public void setPerformanceHud(PerformanceHud hud) {
+    if (hud == null) {
+      hidePerformanceHud();
+      performanceHudView = null;
+      return;
+    }
+    if (performanceHudView != null) {
+      return;
+    }
+    performanceHudView = new PerformanceHudView(parentContext, hud);
+    if (isCameraBoxShown) {
+      showPerformanceHud();
+    }
+  }
+
+  private void showPerformanceHud() {
+    if (performanceHudView == null || isPerformanceHudShown) {
+      return;
+    }
+    WindowManager.LayoutParams layoutParams =
+        new WindowManager.LayoutParams(
+            LayoutParams.WRAP_CONTENT,
+            LayoutParams.WRAP_CONTENT,
+            LayoutParams.TYPE_ACCESSIBILITY_OVERLAY,
+            floatWindowFlags,
+            PixelFormat.TRANSLUCENT);
+    layoutParams.gravity = Gravity.TOP | Gravity.START;
+    try {
+      windowManager.addView(performanceHudView, layoutParams);
+      isPerformanceHudShown = true;
+    } catch (RuntimeException e) {
+      AppLog.w(TAG, "windowManager failed to add performanceHudView: {}", e.getMessage());
+    }
+  }
+
+  private void hidePerformanceHud() {
+    if (performanceHudView == null || !isPerformanceHudShown) {
+      return;
+    }
+    try {
+      windowManager.removeView(performanceHudView);
+    } catch (RuntimeException e) {
+      AppLog.w(TAG, "windowManager failed to remove performanceHudView, might not attached.");
+    }
+    isPerformanceHudShown = false;
+  }
+
+  /** Draw time of the performance HUD, empty when it is off. */
+  public String getPerformanceHudStatsSummary() {
+    return performanceHudView == null ? "" : performanceHudView.getDrawTimeSummary();
   }
 
   /** This enum represents the state of camera. */
@@ -463,7 +571,7 @@ public class ServiceUiManager {
   public CameraBoxState cameraBoxState;
 
   public void maximizeCameraBox() {
-    Log.i(TAG, "maximizeCameraBox");
+    AppLog.i(TAG, "maximizeCameraBox");
     cameraBoxView.findViewById(R.id.previewVideo).setVisibility(View.VISIBLE);
     settingBtn.setVisibility(View.VISIBLE);
 
@@ -481,7 +589,7 @@ public class ServiceUiManager {
   }
 
   public void minimizeCameraBox() {
-    Log.i(TAG, "minimizeCameraBox");
+    AppLog.i(TAG, "minimizeCameraBox");
     cameraBoxView.findViewById(R.id.previewVideo).setVisibility(View.GONE);
     settingBtn.setVisibility(View.GONE);
     resizeCameraBox(cameraBoxPopBtn.getWidth(), cameraBoxPopBtn.getHeight());
@@ -495,7 +603,7 @@ public class ServiceUiManager {
 
   /** Fly floatCamView to target location */
   private void playFlyCameraBoxAnimation(int targetX, int targetY, int duration) {
-    Log.i(TAG, "playFlyCameraBoxAnimation: ");
+    AppLog.i(TAG, "playFlyCameraBoxAnimation: ");
 
     int startX = cameraBoxLayoutParams.x;
     int startY = cameraBoxLayoutParams.y;
@@ -512,7 +620,7 @@ public class ServiceUiManager {
           try {
             windowManager.updateViewLayout(cameraBoxView, cameraBoxLayoutParams);
           } catch (RuntimeException e) {
-            Log.w(TAG, "windowManager failed to update floatCamView: " + e.getMessage());
+            AppLog.w(TAG, "windowManager failed to update floatCamView: {}", e.getMessage());
           }
         });
 
@@ -528,7 +636,7 @@ public class ServiceUiManager {
     try {
       windowManager.updateViewLayout(cameraBoxView, cameraBoxLayoutParams);
     } catch (RuntimeException e) {
-      Log.w(TAG, "windowManager failed to update floatCamView: " + e.getMessage());
+      AppLog.w(TAG, "windowManager failed to update floatCamView: {}", e.getMessage());
     }
   }
 
@@ -558,6 +666,15 @@ public class ServiceUiManager {
     fullScreenCanvasParams.gravity = Gravity.TOP | Gravity.START;
     fullScreenCanvas.bringToFront();
 
+    // Same image and size as the cursor window.
+    int cursorSizePx = -2 * shiftCursorImageX;
+    Bitmap cursorBitmap =
+        BitmapFactory.decodeResource(parentContext.getResources(), R.mipmap.mouse_pointer);
+    if (cursorBitmap != null) {
+      fullScreenCanvas.setCursorBitmap(
+          Bitmap.createScaledBitmap(cursorBitmap, cursorSizePx, cursorSizePx, /* filter= */ true));
+    }
+
 
   }
 
@@ -565,7 +682,7 @@ public class ServiceUiManager {
     try {
       windowManager.addView(fullScreenCanvasView, fullScreenCanvasParams);
     } catch (RuntimeException e) {
-      Log.w(TAG, "windowManager failed to add fullScreenCanvasView: " + e.getMessage());
+      AppLog.w(TAG, "windowManager failed to add fullScreenCanvasView: {}", e.getMessage());
     }
   }
 
@@ -573,13 +690,13 @@ public class ServiceUiManager {
     try {
       windowManager.removeView(fullScreenCanvasView);
     } catch (RuntimeException e) {
-      Log.w(TAG, "windowManager failed to remove fullScreenCanvasView, might not attached.");
+      AppLog.w(TAG, "windowManager failed to remove fullScreenCanvasView, might not attached.");
     }
   }
 
   /** Save default camera box position to make it persistent when open the app. */
   private void saveCameraBoxPosition(String key, float value) {
-    Log.i(TAG, "saveDefaultPosition: " + key + " " + value);
+    AppLog.i(TAG, "saveDefaultPosition: {} {}", key, value);
     SharedPreferences preferences =
         parentContext.getSharedPreferences("GameFaceLocalConfig", Context.MODE_PRIVATE);
     SharedPreferences.Editor editor = preferences.edit();
@@ -593,18 +710,58 @@ public class ServiceUiManager {
    */
   public void updateCursorImagePositionOnScreen(
       int[] cursorPosition) {
+    long startNs = SystemClock.elapsedRealtimeNanos();
+
+    if (isCanvasCursor) {
+      if (fullScreenCanvas.setCursorPosition(
+          cursorPosition[0] + avoidNavBarX, cursorPosition[1] + avoidNavBarY)) {
+        cursorRedrawCount++;
+      } else {
+        cursorSkippedCount++;
+      }
+    } else {
+      cursorLayoutParams.x = cursorPosition[0] + shiftCursorImageX;// + avoidNavBarX;
+      cursorLayoutParams.y = cursorPosition[1] + shiftCursorImageY;// + avoidNavBarY;
+
+      try {
+        windowManager.updateViewLayout(cursorView, cursorLayoutParams);
+        cursorView.requestLayout();
+        cursorLayoutCallCount++;
+      } catch (RuntimeException e) {
+        AppLog.w(TAG, "updateCursorImagePositionOnScreen: {}", e.getMessage());
+      }
+    }
 
-    cursorLayoutParams.x = cursorPosition[0] + shiftCursorImageX;// + avoidNavBarX;
-    cursorLayoutParams.y = cursorPosition[1] + shiftCursorImageY;// + avoidNavBarY;
+    long updateTimeUs = (SystemClock.elapsedRealtimeNanos() - startNs) / 1000;
+    cursorUpdateP50Us.add(updateTimeUs);
+    cursorUpdateP90Us.add(updateTimeUs);
+  }
 
-    try {
-      windowManager.updateViewLayout(cursorView, cursorLayoutParams);
-      cursorView.requestLayout();
-    } catch (RuntimeException e) {
-      Log.w(TAG, "updateCursorImagePositionOnScreen: " + e.getMessage());
-    }
+  int getCursorLayoutCallCount() {
+    return cursorLayoutCallCount;
+  }
+
+  int getCursorRedrawCount() {
+    return cursorRedrawCount;
+  }
 
+  int getCursorSkippedCount() {
+    return cursorSkippedCount;
+  }
 
+  /**
+   * Cost of moving the cursor: time per update on the UI thread, WindowManager calls of the window
+   * renderer, redraws and unchanged positions of the canvas renderer, and canvas draw time.
+   */
+  public String getCursorRenderStatsSummary() {
+    return "renderer=" + (isCanvasCursor ? "canvas" : "window")
+        + " updateP50Us=" + (float) cursorUpdateP50Us.get()
+        + " updateP90Us=" + (float) cursorUpdateP90Us.get()
+        + " layoutCalls=" + cursorLayoutCallCount
+        + " redraws=" + cursorRedrawCount
+        + " skipped=" + cursorSkippedCount
+        + " drawP50Us=" + fullScreenCanvas.getDrawTimeP50Us()
+        + " drawP90Us=" + fullScreenCanvas.getDrawTimeP90Us();
   }
 
   public void setDragLineStart(float x, float y) {
@@ -617,17 +774,38 @@ public class ServiceUiManager {
         cursorPosition[1] + avoidNavBarY);
   }
 
+  public void setDebugOverlayEnabled(boolean isEnabled) {
+    cameraBoxOverlay.setDebugEnabled(isEnabled);
+  }
+
+  /** Whether the camera box shows the preview, it does not when minimized or hidden. */
+  public boolean isCameraPreviewVisible() {
+    return isCameraBoxShown && cameraBoxState == CameraBoxState.MAXIMIZE;
+  }
+
   /**
-   * If {@value SHOW_DEBUG_TEXT}, Update the information overlay on camera box.
+   * Whether the debug overlay can be seen: turned on, and the camera box attached, maximized and
+   * showing its overlay. Debug values need not be computed otherwise.
+   */
+  public boolean isDebugOverlayActive() {
+    return cameraBoxOverlay.isDebugEnabled()
+        && isCameraBoxShown
+        && cameraBoxState == CameraBoxState.MAXIMIZE
+        && cameraBoxOverlay.getVisibility() == View.VISIBLE;
+  }
+
+  /**
+   * Update the information overlay on camera box.
    *
    * @param preprocessValue Time of the image preprocessing.
    * @param mediapipeValue Time of the MediaPipe processing.
    */
   public void updateDebugTextOverlay(long preprocessValue, long mediapipeValue, boolean isPausing) {
-    if (SHOW_DEBUG_TEXT) {
-      cameraBoxOverlay.setOverlayInfo(preprocessValue, mediapipeValue);
-      cameraBoxOverlay.setPauseIndicator(isPausing);
+    if (!isDebugOverlayActive()) {
+      return;
     }
+    cameraBoxOverlay.setOverlayInfo(preprocessValue, mediapipeValue);
+    cameraBoxOverlay.setPauseIndicator(isPausing);
   }
 
   /**
@@ -638,18 +816,27 @@ public class ServiceUiManager {
    * @param mpImageHeight MediaPipe's image height for normalization.
    */
   public void drawHeadCenter(float[] headCoord, int mpImageWidth, int mpImageHeight) {
+    if (!isDebugOverlayActive()) {
+      return;
+    }
     cameraBoxOverlay.setWhiteDot(
         headCoord[0] * innerCameraImageView.getWidth() / mpImageWidth,
         headCoord[1] * innerCameraImageView.getHeight() / mpImageHeight);
   }
 
   public void drawNoseTip(float[] noseCoord, int mpImageWidth, int mpImageHeight) {
+    if (!isDebugOverlayActive()) {
+      return;
+    }
     cameraBoxOverlay.setNoseDot(
         noseCoord[0] * innerCameraImageView.getWidth() / mpImageWidth,
         noseCoord[1] * innerCameraImageView.getHeight() / mpImageHeight);
   }
 
   public void drawGaze(float[] noseBridgeCoord, float[] faceNormal, boolean isLooking, boolean gazeEnabled, boolean isWaiting, int failedCheck, int mpImageWidth, int mpImageHeight) {
+    if (!isDebugOverlayActive()) {
+      return;
+    }
     float bridgeX = noseBridgeCoord[0] * innerCameraImageView.getWidth() / mpImageWidth;
     float bridgeY = noseBridgeCoord[1] * innerCameraImageView.getHeight() / mpImageHeight;
     // Pass full 3D normal for debug display, X/Y used for line direction
@@ -661,7 +848,7 @@ public class ServiceUiManager {
       new BroadcastReceiver() {
         @Override
         public void onReceive(Context context, Intent intent) {
-          Log.i(TAG, "flyInWindowReceiver");
+          AppLog.i(TAG, "flyInWindowReceiver");
 
           if (cameraBoxState == CameraBoxState.MINIMIZE) {
             maximizeCameraBox();
@@ -777,7 +964,7 @@ public class ServiceUiManager {
     try {
       windowManager.updateViewLayout(cameraBoxView, cameraBoxLayoutParams);
     } catch (RuntimeException e) {
-      Log.w(TAG, "WindowManager failed to update view layout: " + e.getMessage());
+      AppLog.w(TAG, "WindowManager failed to update view layout: {}", e.getMessage());
     }
 
     if (cameraBoxState == CameraBoxState.MINIMIZE) {
@@ -0,0 +1,155 @@
+/*
+ * Copyright 2024 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * MODIFICATION NOTICE
+ * as per the licence its required to give notice that this code has been modified by a third party.
+ * 2026 - Helgi Steinarr Juliusson, changes can be found in version control.
+ */
+package com.google.projectgameface;
+
+import java.util.Arrays;
+
+/**
+ * Constant memory estimate of one quantile over a stream, using the P-square algorithm (Jain and
+ * Chlamtac, 1985). Five markers are kept no matter how many samples are added.
+ */
+class StreamingQuantile {
+  private static final int MARKERS = 5;
+
+  private final double quantile;
+
+  /** Marker heights. */
+  private final double[] heights = new double[MARKERS];
+
+  /** Actual marker positions, 1-based. */
+  private final double[] positions = new double[MARKERS];
+
+  /** Desired marker positions. */
+  private final double[] desired = new double[MARKERS];
+
+  /** Increment of the desired positions per sample. */
+  private final double[] increments = new double[MARKERS];
+
+  private long count = 0;
+
+  /** @param quantile Target quantile, range 0 - 1.0. */
+  StreamingQuantile(double quantile) {
+    this.quantile = quantile;
+    reset();
+  }
+
+  /** Forget every sample. */
+  void reset() {
+    count = 0;
+    for (int i = 0; i < MARKERS; i++) {
+      positions[i] = i + 1;
+    }
+    desired[0] = 1;
+    desired[1] = 1 + 2 * quantile;
+    desired[2] = 1 + 4 * quantile;
+    desired[3] = 3 + 2 * quantile;
+    desired[4] = 5;
+    increments[0] = 0;
+    increments[1] = quantile / 2;
+    increments[2] = quantile;
+    increments[3] = (1 + quantile) / 2;
+    increments[4] = 1;
+  }
+
+  long getCount() {
+    return count;
+  }
+
+  void add(double x) {
+    // Collect the first five samples as the initial markers.
+    if (count < MARKERS) {
+      heights[(int) count] = x;
+      count++;
+      if (count == MARKERS) {
+        Arrays.sort(heights);
+      }
+      return;
+    }
+    count++;
+
+    // Find cell k that x falls in, extend the extremes if needed.
+    int k;
+    if (x < heights[0]) {
+      heights[0] = x;
+      k = 0;
+    } else if (x >= heights[MARKERS - 1]) {
+      heights[MARKERS - 1] = x;
+      k = MARKERS - 2;
+    } else {
+      k = 0;
+      while (k < MARKERS - 2 && x >= heights[k + 1]) {
+        k++;
+      }
+    }
+
+    for (int i = k + 1; i < MARKERS; i++) {
+      positions[i]++;
+    }
+    for (int i = 0; i < MARKERS; i++) {
+      desired[i] += increments[i];
+    }
+
+    // Move the middle markers toward their desired position.
+    for (int i = 1; i < MARKERS - 1; i++) {
+      double d = desired[i] - positions[i];
+      if ((d >= 1 && positions[i + 1] - positions[i] > 1)
+          || (d <= -1 && positions[i - 1] - positions[i] < -1)) {
+        int sign = d > 0 ? 1 : -1;
+        double candidate = parabolic(i, sign);
+        if (heights[i - 1] < candidate && candidate < heights[i + 1]) {
+          heights[i] = candidate;
+        } else {
+          heights[i] = linear(i, sign);
+        }
+        positions[i] += sign;
+      }
+    }
+  }
+
+  private double parabolic(int i, int sign) {
+    double nPrev = positions[i - 1];
+    double n = positions[i];
+    double nNext = positions[i + 1];
+    return heights[i]
+        + sign
+            / (nNext - nPrev)
+            * ((n - nPrev + sign) * (heights[i + 1] - heights[i]) / (nNext - n)
+                + (nNext - n - sign) * (heights[i] - heights[i - 1]) / (n - nPrev));
+  }
+
+  private double linear(int i, int sign) {
+    return heights[i] + sign * (heights[i + sign] - heights[i]) / (positions[i + sign] - positions[i]);
+  }
+
+  /** Current estimate, exact while fewer than five samples were added. 0 if empty. */
+  double get() {
+    if (count == 0) {
+      return 0;
+    }
+    if (count < MARKERS) {
+      // Small sample, pick the nearest rank from a sorted copy.
+      double[] sorted = Arrays.copyOf(heights, (int) count);
+      Arrays.sort(sorted);
+      int index = (int) Math.round(quantile * (count - 1));
+      return sorted[index];
+    }
+    return heights[2];
+  }
+}
@@ -0,0 +1,194 @@
+/*
+ * Copyright 2024 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * MODIFICATION NOTICE
+ * as per the licence its required to give notice that this code has been modified by a third party.
+ * 2026 - Helgi Steinarr Juliusson, changes can be found in version control.
+ */
+package com.google.projectgameface;
+
+
+/**
+ * Helps hitting small targets, using the bounds from {@link ClickableNodeIndex}.
+ *
+ * <p>Sticky: cursor gain is lowered inside a target and ramps back up over
+ * {@value STICKY_RADIUS_PX} px around it, so the cursor is easier to stop on it. Snap: a touch
+ * that misses every target lands on the center of the nearest one within {@value SNAP_RADIUS_PX}
+ * px instead.
+ *
+ * <p>Also measures selection time, from when the cursor starts moving until the touch, separately
+ * for touches with and without assist.
+ */
+class TargetAssist {
+  private static final String TAG = "TargetAssist";
+
+  static final int MODE_OFF = 0;
+  static final int MODE_STICKY = 1;
+  static final int MODE_STICKY_SNAP = 2;
+
+  /** Gain inside a target. */
+  static final float STICKY_GAIN = 0.5f;
+
+  /** Gain is back to full this far outside a target. */
+  static final float STICKY_RADIUS_PX = 48.f;
+
+  /** Larger targets, like a clickable background, are neither sticky nor snapped to. */
+  static final float MAX_TARGET_SCREEN_FRACTION = 0.1f;
+
+  /** Snap to targets at most this far from the cursor. */
+  static final float SNAP_RADIUS_PX = 64.f;
+
+  private static final int TARGET_FLAGS =
+      ClickableNodeIndex.FLAG_CLICKABLE | ClickableNodeIndex.FLAG_LONG_CLICKABLE;
+
+  /** Cursor moving this far from where it rested starts a selection. */
+  private static final float SELECTION_START_PX = 10.f;
+
+  /** Longer selections are the user doing something else, they are not counted. */
+  private static final long MAX_SELECTION_MS = 10000;
+
+  private static final int STATS_LOG_INTERVAL = 20;
+
+  private float restX = 0.f;
+  private float restY = 0.f;
+  private boolean isSelecting = false;
+  private long selectionStartMs = 0;
+
+  private int snapCount = 0;
+  private final SelectionStats assistedStats = new SelectionStats();
+  private final SelectionStats unassistedStats = new SelectionStats();
+
+  /** Selection times of one mode. */
+  private static final class SelectionStats {
+    final StreamingQuantile medianMs = new StreamingQuantile(0.5);
+    long sumMs = 0;
+    int count = 0;
+
+    void add(long durationMs) {
+      medianMs.add(durationMs);
+      sumMs += durationMs;
+      count++;
+    }
+
+    float getMeanMs() {
+      return count == 0 ? 0.f : (float) sumMs / count;
+    }
+  }
+
+  /**
+   * Cursor gain at a point, range {@value STICKY_GAIN} - 1.0.
+   *
+   * @param snapshot Targets on screen, may be null.
+   * @param screenArea For ignoring targets that cover much of the screen.
+   */
+  static float getGain(ClickableNodeIndex.Snapshot snapshot, float x, float y, float screenArea) {
+    if (snapshot == null) {
+      return 1.f;
+    }
+    int target = snapshot.findNearest(
+        x, y, STICKY_RADIUS_PX, TARGET_FLAGS, getMaxTargetArea(screenArea));
+    if (target < 0) {
+      return 1.f;
+    }
+    float t = snapshot.getDistance(target, x, y) / STICKY_RADIUS_PX;
+    return STICKY_GAIN + (1.f - STICKY_GAIN) * t;
+  }
+
+  private static long getMaxTargetArea(float screenArea) {
+    return (long) (screenArea * MAX_TARGET_SCREEN_FRACTION);
+  }
+
+  /**
+   * Where a touch at the cursor should land.
+   *
+   * @param snapshot Targets on screen, may be null.
+   * @param screenArea For ignoring targets that cover much of the screen.
+   * @param outXy Receives the snapped point, untouched if false is returned.
+   * @return true if the touch was moved onto a target.
+   */
+  boolean snap(ClickableNodeIndex.Snapshot snapshot, float x, float y, float screenArea,
+      float[] outXy) {
+    if (snapshot == null) {
+      return false;
+    }
+    long maxArea = getMaxTargetArea(screenArea);
+    if (snapshot.findAt(x, y, TARGET_FLAGS, maxArea) >= 0) {
+      return false;
+    }
+    int target = snapshot.findNearest(x, y, SNAP_RADIUS_PX, TARGET_FLAGS, maxArea);
+    if (target < 0) {
+      return false;
+    }
+    outXy[0] = snapshot.getCenterX(target);
+    outXy[1] = snapshot.getCenterY(target);
+    snapCount++;
+    return true;
+  }
+
+  /** Feed the cursor position of every tick, for detecting when a selection starts. */
+  void onCursorMoved(float x, float y, long timeMs) {
+    if (!isSelecting && Math.hypot(x - restX, y - restY) > SELECTION_START_PX) {
+      isSelecting = true;
+      selectionStartMs = timeMs;
+    }
+  }
+
+  /**
+   * A touch was dispatched, ending the selection.
+   *
+   * @param isAssisted Whether target assist was on for this selection.
+   */
+  void onTouch(float x, float y, long timeMs, boolean isAssisted) {
+    if (isSelecting) {
+      long durationMs = timeMs - selectionStartMs;
+      if (durationMs <= MAX_SELECTION_MS) {
+        SelectionStats stats = isAssisted ? assistedStats : unassistedStats;
+        stats.add(durationMs);
+        if (stats.count % STATS_LOG_INTERVAL == 0) {
+          AppLog.i(TAG, getStatsSummary());
+        }
+      }
+    }
+    isSelecting = false;
+    restX = x;
+    restY = y;
+  }
+
+  int getSnapCount() {
+    return snapCount;
+  }
+
+  int getSelectionCount(boolean isAssisted) {
+    return (isAssisted ? assistedStats : unassistedStats).count;
+  }
+
+  float getMeanSelectionMs(boolean isAssisted) {
+    return (isAssisted ? assistedStats : unassistedStats).getMeanMs();
+  }
+
+  float getMedianSelectionMs(boolean isAssisted) {
+    return (float) (isAssisted ? assistedStats : unassistedStats).medianMs.get();
+  }
+
+  String getStatsSummary() {
+    return "assisted n=" + assistedStats.count
+        + " mean=" + assistedStats.getMeanMs()
+        + " median=" + getMedianSelectionMs(true)
+        + " unassisted n=" + unassistedStats.count
+        + " mean=" + unassistedStats.getMeanMs()
+        + " median=" + getMedianSelectionMs(false)
+        + " snaps=" + snapCount;
+  }
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright 2024 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * MODIFICATION NOTICE
+ * as per the licence its required to give notice that this code has been modified by a third party.
+ * 2026 - Helgi Steinarr Juliusson, changes can be found in version control.
+ */
+package com.google.projectgameface;
+
+import java.util.Arrays;
+
+/**
+ * Fixed size ring of the latest timings. One thread adds, readers copy out the values; a reader
+ * racing the writer may see one value of the newer frame, which is fine for display.
+ */
+class TimingRing {
+  private final float[] values;
+  private volatile long addedCount = 0;
+
+  TimingRing(int capacity) {
+    values = new float[capacity];
+  }
+
+  void add(float value) {
+    long count = addedCount;
+    values[(int) (count % values.length)] = value;
+    addedCount = count + 1;
+  }
+
+  int getCapacity() {
+    return values.length;
+  }
+
+  /** Number of values held, up to the capacity. */
+  int size() {
+    return (int) Math.min(addedCount, values.length);
+  }
+
+  long getAddedCount() {
+    return addedCount;
+  }
+
+  /**
+   * Copy the held values into {@code out}, oldest first.
+   *
+   * @return Number of values copied.
+   */
+  int copyTo(float[] out) {
+    long count = addedCount;
+    int size = (int) Math.min(count, values.length);
+    int start = (int) ((count - size) % values.length);
+    for (int i = 0; i < size; i++) {
+      out[i] = values[(start + i) % values.length];
+    }
+    return size;
+  }
+
+  /**
+   * Quantiles of the held values.
+   *
+   * @param scratch At least {@link #getCapacity()} long, overwritten.
+   * @param quantiles Wanted quantiles, range 0 - 1.0.
+   * @param out Receives one value per quantile, 0 when empty.
+   */
+  void getQuantiles(float[] scratch, float[] quantiles, float[] out) {
+    int size = copyTo(scratch);
+    if (size == 0) {
+      Arrays.fill(out, 0, quantiles.length, 0.f);
+      return;
+    }
+    Arrays.sort(scratch, 0, size);
+    for (int i = 0; i < quantiles.length; i++) {
+      int index = (int) Math.ceil(quantiles[i] * size) - 1;
+      out[i] = scratch[Math.max(0, Math.min(size - 1, index))];
+    }
+  }
+}
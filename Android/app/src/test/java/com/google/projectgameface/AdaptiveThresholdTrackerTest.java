@@ -0,0 +1,64 @@
+/*
+ * Copyright 2024 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * MODIFICATION NOTICE
+ * as per the licence its required to give notice that this code has been modified by a third party.
+ * 2026 - Helgi Steinarr Juliusson, changes can be found in version control.
+ */
+package com.google.projectgameface;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.assertEquals;
+
+@RunWith(AndroidJUnit4.class)
+public class AdaptiveThresholdTrackerTest {
+  private static final BlendshapeEventTriggerConfig.Blendshape SHAPE =
+      BlendshapeEventTriggerConfig.Blendshape.MOUTH_LEFT;
+
+  private static void feed(AdaptiveThresholdTracker tracker, float score, int count) {
+    for (int i = 0; i < count; i++) {
+      // Small jitter around the resting score.
+      tracker.addIdleSample(SHAPE, score + ((i % 3) - 1) * 0.005f);
+    }
+  }
+
+  @Test
+  public void getEffectiveThreshold_baselineDrifts_thresholdFollows() {
+    AdaptiveThresholdTracker tracker = new AdaptiveThresholdTracker();
+    feed(tracker, 0.10f, AdaptiveThresholdTracker.MIN_SAMPLES);
+    assertEquals(0.10f, tracker.getBaseline(SHAPE), 0.01);
+    assertEquals(0.f, tracker.getDrift(SHAPE), 0.01);
+
+    // Lighting changes, resting score goes up by 0.05.
+    feed(tracker, 0.15f, AdaptiveThresholdTracker.WINDOW_SAMPLES * 2);
+    assertEquals(0.05f, tracker.getDrift(SHAPE), 0.01);
+    assertEquals(0.55f, tracker.getEffectiveThreshold(SHAPE, 0.5f), 0.01);
+  }
+
+  @Test
+  public void getEffectiveThreshold_largeDrift_clampedToSafeBounds() {
+    AdaptiveThresholdTracker tracker = new AdaptiveThresholdTracker();
+    feed(tracker, 0.10f, AdaptiveThresholdTracker.MIN_SAMPLES);
+    feed(tracker, 0.60f, AdaptiveThresholdTracker.WINDOW_SAMPLES * 2);
+
+    assertEquals(AdaptiveThresholdTracker.MAX_DRIFT, tracker.getDrift(SHAPE), 0.0001);
+    assertEquals(AdaptiveThresholdTracker.MAX_THRESHOLD, tracker.getEffectiveThreshold(SHAPE, 0.9f), 0.0001);
+    // User's own threshold is never overridden by the bounds.
+    assertEquals(1.f, AdaptiveThresholdTracker.applyDrift(1.f, 0.f), 0.0001);
+  }
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright 2024 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * MODIFICATION NOTICE
+ * as per the licence its required to give notice that this code has been modified by a third party.
+ * 2026 - Helgi Steinarr Juliusson, changes can be found in version control.
+ */
+package com.google.projectgameface;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class AnomalyDetectorTest {
+  private static final int WIDTH = 1080;
+  private static final int HEIGHT = 2400;
+
+  private final AnomalyDetector detector = new AnomalyDetector();
+
+  private String check(long timeMs, int cursorX, boolean isEventFired, long resultAgeMs,
+      int errorCount) {
+    return detector.check(timeMs, true, cursorX, 1000, false, WIDTH, HEIGHT, isEventFired,
+        resultAgeMs, errorCount);
+  }
+
+  @Test
+  public void check_steadyTicks_nothing() {
+    for (int i = 0; i < 100; i++) {
+      assertNull(check(i * 16, 500 + i, false, 30, 0));
+    }
+  }
+
+  @Test
+  public void check_largeJump_cursorJump() {
+    assertNull(check(0, 100, false, 30, 0));
+
+    assertEquals(AnomalyDetector.REASON_CURSOR_JUMP, check(16, 1000, false, 30, 0));
+  }
+
+  @Test
+  public void check_jumpAfterPause_nothing() {
+    assertNull(check(0, 100, false, 30, 0));
+    assertNull(detector.check(16, false, 100, 1000, false, WIDTH, HEIGHT, false, 30, 0));
+
+    assertNull(check(32, 1000, false, 30, 0));
+  }
+
+  @Test
+  public void check_requestedMove_nothing() {
+    assertNull(check(0, 100, false, 30, 0));
+    assertNull(detector.check(16, true, 1000, 1000, true, WIDTH, HEIGHT, false, 30, 0));
+
+    // Measured from where the requested move ended.
+    assertNull(check(32, 1010, false, 30, 0));
+    assertEquals(AnomalyDetector.REASON_CURSOR_JUMP, check(48, 100, false, 30, 0));
+  }
+
+  @Test
+  public void check_manyGesturesInOneSecond_burstOnce() {
+    for (int i = 0; i < AnomalyDetector.BURST_EVENT_COUNT - 1; i++) {
+      assertNull(check(i * 100, 500, true, 30, 0));
+    }
+
+    assertEquals(AnomalyDetector.REASON_GESTURE_BURST, check(500, 500, true, 30, 0));
+    assertNull(check(600, 500, true, 30, 0));
+  }
+
+  @Test
+  public void check_gesturesSpreadOut_nothing() {
+    for (int i = 0; i < 20; i++) {
+      assertNull(check(i * 500, 500, true, 30, 0));
+    }
+  }
+
+  @Test
+  public void check_longFrameGap_reportedOncePerGap() {
+    assertEquals(AnomalyDetector.REASON_FRAME_GAP,
+        check(0, 500, false, AnomalyDetector.FRAME_GAP_MS, 0));
+    assertNull(check(16, 500, false, AnomalyDetector.FRAME_GAP_MS + 16, 0));
+    assertNull(check(32, 500, false, 10, 0));
+
+    assertEquals(AnomalyDetector.REASON_FRAME_GAP,
+        check(48, 500, false, AnomalyDetector.FRAME_GAP_MS, 0));
+  }
+
+  @Test
+  public void check_landmarkerError_reported() {
+    assertEquals(AnomalyDetector.REASON_LANDMARKER_ERROR, check(0, 500, false, 30, 1));
+    assertNull(check(16, 500, false, 30, 1));
+  }
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright 2024 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * MODIFICATION NOTICE
+ * as per the licence its required to give notice that this code has been modified by a third party.
+ * 2026 - Helgi Steinarr Juliusson, changes can be found in version control.
+ */
+package com.google.projectgameface;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import androidx.test.core.app.ApplicationProvider;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(AndroidJUnit4.class)
+public class AppProfileSwitcherTest {
+  private static final String GAME = "com.example.game";
+  private static final String BROWSER = "com.example.browser";
+
+  private final List<String> switched = new ArrayList<>();
+  private ProfileStore store;
+  private AppProfileSwitcher switcher;
+
+  @Before
+  public void setUp() {
+    Context context = ApplicationProvider.getApplicationContext();
+    File directory = new File(context.getCacheDir(), "AppProfileSwitcherTest");
+    File[] files = directory.listFiles();
+    if (files != null) {
+      for (File file : files) {
+        file.delete();
+      }
+    }
+    SharedPreferences preferences =
+        context.getSharedPreferences("AppProfileSwitcherTest", Context.MODE_PRIVATE);
+    preferences.edit().clear().commit();
+    store = new ProfileStore(directory, preferences, new ConfigRepository(preferences));
+    store.save(new Profile("Gaming"));
+    store.setAppProfile(GAME, "Gaming");
+    store.addListener(snapshot -> switched.add(snapshot.name));
+    switcher = new AppProfileSwitcher(store, "com.google.projectgameface");
+    switcher.setEnabled(true);
+  }
+
+  @Test
+  public void settle_appWithProfile_switched() {
+    switcher.onForegroundPackage(GAME);
+    switcher.settle();
+
+    assertEquals(1, switched.size());
+    assertEquals("Gaming", store.getActiveProfileName());
+  }
+
+  @Test
+  public void settle_leftAppWithProfile_backToBaseProfile() {
+    switcher.onForegroundPackage(GAME);
+    switcher.settle();
+    switcher.onForegroundPackage(BROWSER);
+    switcher.settle();
+
+    assertEquals(ProfileStore.DEFAULT_PROFILE_NAME, store.getActiveProfileName());
+    assertEquals(2, switcher.getSwitchCount());
+  }
+
+  @Test
+  public void onForegroundPackage_systemWindow_ignored() {
+    switcher.onForegroundPackage(GAME);
+    switcher.settle();
+    switcher.onForegroundPackage("com.android.systemui");
+    switcher.settle();
+
+    assertEquals("Gaming", store.getActiveProfileName());
+    assertEquals(1, switched.size());
+  }
+
+  @Test
+  public void onForegroundPackage_leftBeforeSettled_debounced() {
+    switcher.onForegroundPackage(GAME);
+    switcher.onForegroundPackage(BROWSER);
+    switcher.settle();
+
+    assertTrue(switched.isEmpty());
+    assertEquals(1, switcher.getDebouncedCount());
+  }
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright 2024 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * MODIFICATION NOTICE
+ * as per the licence its required to give notice that this code has been modified by a third party.
+ * 2026 - Helgi Steinarr Juliusson, changes can be found in version control.
+ */
+package com.google.projectgameface;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import androidx.test.core.app.ApplicationProvider;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(AndroidJUnit4.class)
+public class BlendshapeCalibrationTest {
+
+  private static final BlendshapeEventTriggerConfig.Blendshape SHAPE =
+      BlendshapeEventTriggerConfig.Blendshape.MOUTH_LEFT;
+
+  /** Neutral face jitters around 0.3 by +-0.01, user can reach 0.7. */
+  private static BlendshapeCalibration createCalibrated() {
+    BlendshapeCalibration calibration = new BlendshapeCalibration();
+    calibration.startSession();
+    calibration.startNeutralPhase();
+    float[] frame = new float[BlendshapeCalibration.TOTAL_BLENDSHAPES];
+    for (int i = 0; i < 40; i++) {
+      frame[SHAPE.value] = (i % 2 == 0) ? 0.29f : 0.31f;
+      calibration.addSample(frame);
+    }
+    calibration.startMaxPhase(SHAPE);
+    frame[SHAPE.value] = 0.7f;
+    calibration.addSample(frame);
+    calibration.stopPhase();
+    assertTrue(calibration.finishSession());
+    return calibration;
+  }
+
+  @Test
+  public void normalize_calibrated_mapsNeutralToZeroAndMaxToOne() {
+    BlendshapeCalibration calibration = createCalibrated();
+
+    assertTrue(calibration.isCalibrated(SHAPE));
+    // Resting face and its noise must not count as a gesture.
+    assertEquals(0.f, calibration.normalize(SHAPE, 0.31f), 0.0001);
+    assertEquals(1.f, calibration.normalize(SHAPE, 0.7f), 0.0001);
+    assertEquals(0.5f, calibration.normalize(SHAPE, 0.5f), 0.01);
+  }
+
+  @Test
+  public void normalize_notCalibrated_returnRawScore() {
+    BlendshapeCalibration calibration = createCalibrated();
+
+    // Max phase was never recorded for this channel.
+    BlendshapeEventTriggerConfig.Blendshape other = BlendshapeEventTriggerConfig.Blendshape.OPEN_MOUTH;
+    assertFalse(calibration.isCalibrated(other));
+    assertEquals(0.42f, calibration.normalize(other, 0.42f), 0.0001);
+  }
+
+  @Test
+  public void finishSession_notEnoughNeutralSamples_keepPreviousCalibration() {
+    BlendshapeCalibration calibration = new BlendshapeCalibration();
+    calibration.startSession();
+    calibration.startNeutralPhase();
+    calibration.addSample(new float[BlendshapeCalibration.TOTAL_BLENDSHAPES]);
+
+    assertFalse(calibration.finishSession());
+    assertFalse(calibration.isCalibrated(SHAPE));
+  }
+
+  @Test
+  public void sharedPreference_writeAndLoad_sameNormalizedScore() {
+    SharedPreferences preferences =
+        ApplicationProvider.getApplicationContext()
+            .getSharedPreferences("GameFaceLocalConfig", Context.MODE_PRIVATE);
+    BlendshapeCalibration calibration = createCalibrated();
+    calibration.writeToSharedPreference(preferences);
+
+    BlendshapeCalibration loaded = new BlendshapeCalibration();
+    loaded.updateFromSharedPreference(preferences);
+
+    assertTrue(loaded.isCalibrated(SHAPE));
+    assertEquals(calibration.normalize(SHAPE, 0.5f), loaded.normalize(SHAPE, 0.5f), 0.0001);
+  }
+}
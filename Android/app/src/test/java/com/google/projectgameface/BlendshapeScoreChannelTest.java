@@ -0,0 +1,91 @@
+/*
+ * Copyright 2024 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * MODIFICATION NOTICE
+ * as per the licence its required to give notice that this code has been modified by a third party.
+ * 2026 - Helgi Steinarr Juliusson, changes can be found in version control.
+ */
+package com.google.projectgameface;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import com.google.projectgameface.BlendshapeEventTriggerConfig.Blendshape;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(AndroidJUnit4.class)
+public class BlendshapeScoreChannelTest {
+  private final BlendshapeScoreChannel channel = new BlendshapeScoreChannel();
+  private final float[] rawScores = new float[BlendshapeScoreChannel.RAW_CHANNEL_COUNT];
+  private final float[] triggerValues = new float[BlendshapeScoreChannel.TRIGGER_CHANNEL_COUNT];
+
+  /** Frame i has raw score i on every blendshape and trigger score i / 10 on OPEN_MOUTH. */
+  private void publish(int i) {
+    Arrays.fill(rawScores, i);
+    triggerValues[BlendshapeScoreChannel.scoreChannel(Blendshape.OPEN_MOUTH)
+        - BlendshapeScoreChannel.RAW_CHANNEL_COUNT] = i / 10.f;
+    channel.publish(1000 + i, rawScores, triggerValues);
+  }
+
+  @Test
+  public void poll_subsetOfChannels_everyFrameOnce() {
+    publish(0);
+    BlendshapeScoreChannel.Reader reader = channel.openReader(new int[] {
+        BlendshapeScoreChannel.rawChannel(Blendshape.MOUTH_LEFT.value),
+        BlendshapeScoreChannel.scoreChannel(Blendshape.OPEN_MOUTH)});
+    publish(1);
+    publish(2);
+    float[] values = new float[8];
+    long[] timestamps = new long[4];
+
+    assertEquals(2, reader.poll(values, timestamps, 4));
+    assertEquals(1.f, values[0], 0.f);
+    assertEquals(0.1f, values[1], 0.0001f);
+    assertEquals(2.f, values[2], 0.f);
+    assertEquals(1002, timestamps[1]);
+    assertEquals(0, reader.poll(values, timestamps, 4));
+  }
+
+  @Test
+  public void poll_fewerThanPublished_keepsNewestAndCountsMissed() {
+    BlendshapeScoreChannel.Reader reader = channel.openReader(new int[] {0});
+    for (int i = 0; i < BlendshapeScoreChannel.CAPACITY + 10; i++) {
+      publish(i);
+    }
+    float[] values = new float[1];
+    long[] timestamps = new long[1];
+
+    assertEquals(1, reader.poll(values, timestamps, 1));
+    assertEquals(BlendshapeScoreChannel.CAPACITY + 9, values[0], 0.f);
+    assertEquals(BlendshapeScoreChannel.CAPACITY + 9, reader.getMissedFrameCount());
+  }
+
+  @Test
+  public void close_lastReader_noReaders() {
+    BlendshapeScoreChannel.Reader first = channel.openReader(new int[] {0});
+    BlendshapeScoreChannel.Reader second = channel.openReader(new int[] {1});
+    first.close();
+    first.close();
+
+    assertTrue(channel.hasReaders());
+    second.close();
+    assertFalse(channel.hasReaders());
+  }
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright 2024 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * MODIFICATION NOTICE
+ * as per the licence its required to give notice that this code has been modified by a third party.
+ * 2026 - Helgi Steinarr Juliusson, changes can be found in version control.
+ */
+package com.google.projectgameface;
+
+import androidx.test.core.app.ApplicationProvider;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(AndroidJUnit4.class)
+public class CameraBoxOverlayTest {
+  private final char[] buffer = new char[40];
+
+  /** Records the invalidated regions as {left, top, right, bottom}. */
+  private static final class RecordingOverlay extends CameraBoxOverlay {
+    final List<int[]> regions = new ArrayList<>();
+
+    RecordingOverlay() {
+      super(ApplicationProvider.getApplicationContext(), null);
+    }
+
+    @Override
+    public void invalidate(int left, int top, int right, int bottom) {
+      regions.add(new int[] {left, top, right, bottom});
+    }
+  }
+
+  private String text(int length) {
+    return new String(buffer, 0, length);
+  }
+
+  @Test
+  public void formatNormal_sameAsStringFormat() {
+    int length = CameraBoxOverlay.formatNormal(buffer, 5, -120, 0);
+
+    assertEquals(String.format(Locale.ROOT, "N:(%.2f,%.2f,%.2f)", 0.05f, -1.2f, 0.f),
+        text(length));
+  }
+
+  @Test
+  public void formatNormal_negativeBelowOne_keepsSign() {
+    int length = CameraBoxOverlay.formatNormal(buffer, -7, 99, -100);
+
+    assertEquals("N:(-0.07,0.99,-1.00)", text(length));
+  }
+
+  @Test
+  public void formatTime_appendsUnit() {
+    assertEquals("pre: 0 ms", text(CameraBoxOverlay.formatTime(buffer, "pre: ", 0)));
+    assertEquals("med: 1234 ms", text(CameraBoxOverlay.formatTime(buffer, "med: ", 1234)));
+    assertEquals("med: -1 ms", text(CameraBoxOverlay.formatTime(buffer, "med: ", -1)));
+  }
+
+  @Test
+  public void formatValidation_includesCheck() {
+    assertEquals("Validation failed (check 3)",
+        text(CameraBoxOverlay.formatValidation(buffer, 3)));
+  }
+
+  @Test
+  public void setters_unchangedValues_noInvalidate() {
+    RecordingOverlay overlay = new RecordingOverlay();
+    overlay.setWhiteDot(10.2f, 20.4f);
+    overlay.setOverlayInfo(5, 12);
+    overlay.setGaze(100, 100, 0.1f, 0.2f, 0.9f, true, true, false, 0);
+    overlay.setPauseIndicator(true);
+    int count = overlay.getInvalidateCount();
+
+    // Same after rounding to pixels and to the shown precision.
+    overlay.setWhiteDot(9.6f, 19.8f);
+    overlay.setOverlayInfo(5, 12);
+    overlay.setGaze(100.3f, 99.8f, 0.101f, 0.199f, 0.901f, true, true, false, 0);
+    overlay.setPauseIndicator(true);
+
+    assertEquals(count, overlay.getInvalidateCount());
+  }
+
+  @Test
+  public void setters_changedValue_invalidateOnlyItsRegion() {
+    RecordingOverlay overlay = new RecordingOverlay();
+    overlay.setOverlayInfo(5, 12);
+    overlay.regions.clear();
+
+    overlay.setOverlayInfo(5, 13);
+    // Only the inference time line, below the preprocess time line.
+    assertEquals(1, overlay.regions.size());
+    int[] line = overlay.regions.get(0);
+    assertTrue(line[1] > 250 && line[1] <= 300 && line[3] >= 300);
+
+    overlay.regions.clear();
+    overlay.setNoseDot(100, 100);
+    // Where the dot was and where it is now, a few pixels each.
+    assertEquals(2, overlay.regions.size());
+    int[] dot = overlay.regions.get(1);
+    assertTrue(dot[0] < 100 && dot[2] > 100 && dot[1] < 100 && dot[3] > 100);
+    assertTrue(dot[2] - dot[0] <= 16 && dot[3] - dot[1] <= 16);
+  }
+}
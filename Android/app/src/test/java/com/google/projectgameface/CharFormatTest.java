@@ -0,0 +1,59 @@
+/*
+ * Copyright 2024 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * MODIFICATION NOTICE
+ * as per the licence its required to give notice that this code has been modified by a third party.
+ * 2026 - Helgi Steinarr Juliusson, changes can be found in version control.
+ */
+package com.google.projectgameface;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.assertEquals;
+
+@RunWith(AndroidJUnit4.class)
+public class CharFormatTest {
+  private final char[] buffer = new char[32];
+
+  private String text(int length) {
+    return new String(buffer, 0, length);
+  }
+
+  @Test
+  public void appendLong_sameAsToString() {
+    long[] values = {0, 7, -7, 10, 1234567890123L, -1000};
+    for (long value : values) {
+      assertEquals(Long.toString(value), text(CharFormat.appendLong(buffer, 0, value)));
+    }
+  }
+
+  @Test
+  public void appendOneDecimal_rounds() {
+    assertEquals("1.3", text(CharFormat.appendOneDecimal(buffer, 0, 1.25f)));
+    assertEquals("0.0", text(CharFormat.appendOneDecimal(buffer, 0, 0.04f)));
+    assertEquals("-0.5", text(CharFormat.appendOneDecimal(buffer, 0, -0.5f)));
+    assertEquals("16.0", text(CharFormat.appendOneDecimal(buffer, 0, 16.f)));
+  }
+
+  @Test
+  public void append_atOffset_returnsEnd() {
+    int length = CharFormat.appendText(buffer, 0, "p95 ");
+    length = CharFormat.appendHundredths(buffer, length, 305);
+
+    assertEquals("p95 3.05", text(length));
+  }
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright 2024 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * MODIFICATION NOTICE
+ * as per the licence its required to give notice that this code has been modified by a third party.
+ * 2026 - Helgi Steinarr Juliusson, changes can be found in version control.
+ */
+package com.google.projectgameface;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(AndroidJUnit4.class)
+public class ClickableNodeIndexTest {
+  private static final int ALL = ClickableNodeIndex.FLAG_CLICKABLE
+      | ClickableNodeIndex.FLAG_LONG_CLICKABLE | ClickableNodeIndex.FLAG_SCROLLABLE;
+
+  @Test
+  public void findAt_returnsInnermostTarget() {
+    ClickableNodeIndex.Snapshot snapshot = new ClickableNodeIndex.Snapshot.Builder()
+        .add(0, 0, 1080, 2000, ClickableNodeIndex.FLAG_SCROLLABLE, 1, null)
+        .add(0, 400, 1080, 600, ClickableNodeIndex.FLAG_CLICKABLE, 1, null)
+        .add(900, 450, 1000, 550, ClickableNodeIndex.FLAG_CLICKABLE, 1, null)
+        .build();
+
+    assertEquals(2, snapshot.findAt(950, 500, ALL));
+    assertEquals(1, snapshot.findAt(100, 500, ALL));
+    assertEquals(0, snapshot.findAt(100, 1500, ALL));
+    assertEquals(-1, snapshot.findAt(100, 1500, ClickableNodeIndex.FLAG_CLICKABLE));
+    assertEquals(-1, snapshot.findAt(100, 2500, ALL));
+  }
+
+  @Test
+  public void findNearest_usesDistanceToEdge() {
+    ClickableNodeIndex.Snapshot snapshot = new ClickableNodeIndex.Snapshot.Builder()
+        .add(100, 100, 200, 200, ClickableNodeIndex.FLAG_CLICKABLE, 1, null)
+        .add(500, 100, 900, 200, ClickableNodeIndex.FLAG_CLICKABLE, 1, null)
+        .build();
+
+    // Closer to the wide target's edge than to the small target's.
+    assertEquals(1, snapshot.findNearest(400, 150, 300, ALL));
+    assertEquals(0, snapshot.findNearest(250, 150, 300, ALL));
+    assertEquals(-1, snapshot.findNearest(350, 600, 100, ALL));
+    assertEquals(100.f, snapshot.getDistance(1, 400, 150), 1e-3f);
+    assertEquals(0.f, snapshot.getDistance(0, 150, 150), 1e-3f);
+  }
+
+  @Test
+  public void builder_keepsUnchangedWindows() {
+    ClickableNodeIndex.Snapshot previous = new ClickableNodeIndex.Snapshot.Builder()
+        .addIndexedWindow(1)
+        .addIndexedWindow(2)
+        .add(0, 0, 100, 100, ClickableNodeIndex.FLAG_CLICKABLE, 1, null)
+        .add(0, 200, 100, 300, ClickableNodeIndex.FLAG_CLICKABLE, 2, null)
+        .build();
+    assertTrue(previous.hasWindow(2));
+
+    // Window 2 changed and now has no targets, window 1 is carried over.
+    ClickableNodeIndex.Snapshot next = new ClickableNodeIndex.Snapshot.Builder()
+        .addWindowFrom(previous, 1)
+        .addIndexedWindow(2)
+        .build();
+
+    assertEquals(1, next.size());
+    assertEquals(0, next.findAt(50, 50, ALL));
+    assertEquals(-1, next.findAt(50, 250, ALL));
+    assertTrue(next.hasWindow(2));
+    assertFalse(next.hasWindow(3));
+  }
+
+  @Test
+  public void snapshot_dropsEmptyAndOffscreenBounds() {
+    ClickableNodeIndex.Snapshot snapshot = new ClickableNodeIndex.Snapshot.Builder()
+        .add(10, 10, 10, 50, ClickableNodeIndex.FLAG_CLICKABLE, 1, null)
+        .add(-200, -200, -100, -100, ClickableNodeIndex.FLAG_CLICKABLE, 1, null)
+        .build();
+
+    assertEquals(0, snapshot.size());
+    assertEquals(-1, snapshot.findNearest(0, 0, 1000, ALL));
+  }
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright 2024 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * MODIFICATION NOTICE
+ * as per the licence its required to give notice that this code has been modified by a third party.
+ * 2026 - Helgi Steinarr Juliusson, changes can be found in version control.
+ */
+package com.google.projectgameface;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import androidx.test.core.app.ApplicationProvider;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import com.google.projectgameface.CursorMovementConfig.CursorMovementConfigType;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+@RunWith(AndroidJUnit4.class)
+public class ConfigRepositoryTest {
+  private final List<String> changes = new ArrayList<>();
+  private SharedPreferences preferences;
+  private ConfigRepository repository;
+
+  @Before
+  public void setUp() {
+    Context context = ApplicationProvider.getApplicationContext();
+    preferences = context.getSharedPreferences("ConfigRepositoryTest", Context.MODE_PRIVATE);
+    preferences.edit().clear().commit();
+    repository = new ConfigRepository(preferences);
+    repository.addListener(new ConfigRepository.Listener() {
+      @Override
+      public void onCursorMovementConfigChanged(CursorMovementConfigType type, int rawValue) {
+        changes.add(type.name() + "=" + rawValue);
+      }
+
+      @Override
+      public void onGestureConfigChanged(String configName) {
+        changes.add(configName);
+      }
+    });
+  }
+
+  @Test
+  public void setCursorMovementConfig_dragged_coalescedPerFrame() {
+    for (int value = 1; value <= 10; value++) {
+      repository.setCursorMovementConfig(CursorMovementConfigType.UP_SPEED, value);
+    }
+    repository.setCursorMovementConfig(CursorMovementConfigType.DOWN_SPEED, 3);
+    repository.deliverPendingChanges();
+
+    assertEquals(2, changes.size());
+    assertEquals("UP_SPEED=10", changes.get(0));
+    assertEquals("DOWN_SPEED=3", changes.get(1));
+  }
+
+  @Test
+  public void setCursorMovementConfig_storedOnceOnFlush() {
+    for (int value = 1; value <= 10; value++) {
+      repository.setCursorMovementConfig(CursorMovementConfigType.UP_SPEED, value);
+    }
+
+    assertEquals(10, repository.getCursorMovementConfig(CursorMovementConfigType.UP_SPEED, 0));
+    assertEquals(-1, preferences.getInt("UP_SPEED", -1));
+
+    repository.flush();
+    assertEquals(10, preferences.getInt("UP_SPEED", -1));
+    assertEquals(1, repository.getPersistCount());
+  }
+
+  @Test
+  public void notifyGestureConfigChanged_deliveredRightAway() {
+    repository.notifyGestureConfigChanged(BlendshapeCalibration.CONFIG_NAME);
+
+    assertEquals(1, changes.size());
+    assertEquals(BlendshapeCalibration.CONFIG_NAME, changes.get(0));
+  }
+}
@@ -0,0 +1,165 @@
+/*
+ * Copyright 2024 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * MODIFICATION NOTICE
+ * as per the licence its required to give notice that this code has been modified by a third party.
+ * 2026 - Helgi Steinarr Juliusson, changes can be found in version control.
+ */
+package com.google.projectgameface;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class CpuAccountingTest {
+
+  @Test
+  public void rollUp_unmeasuredProcessCpu_chargedToOther() {
+    CpuAccounting accounting = new CpuAccounting();
+    accounting.startSession(0, 1000);
+
+    accounting.addCpuNs(CpuAccounting.STAGE_TICK, 2_000_000_000L);
+    accounting.addCpuNs(CpuAccounting.STAGE_PREPROCESS, 1_000_000_000L);
+    accounting.rollUp(CpuAccounting.MINUTE_MS, 1000 + 5000);
+
+    assertEquals(2_000_000, accounting.getSessionCpuUs(CpuAccounting.STAGE_TICK));
+    assertEquals(1_000_000, accounting.getSessionCpuUs(CpuAccounting.STAGE_PREPROCESS));
+    assertEquals(2_000_000, accounting.getSessionCpuUs(CpuAccounting.OTHER));
+    assertEquals(1, accounting.getMinuteCount());
+  }
+
+  @Test
+  public void rollUp_stagesStartOverEachMinute() {
+    CpuAccounting accounting = new CpuAccounting();
+    accounting.startSession(0, 0);
+
+    accounting.addCpuNs(CpuAccounting.STAGE_TICK, 1_000_000_000L);
+    accounting.rollUp(CpuAccounting.MINUTE_MS, 1000);
+    accounting.rollUp(2 * CpuAccounting.MINUTE_MS, 1000);
+
+    assertEquals(1_000_000, accounting.getSessionCpuUs(CpuAccounting.STAGE_TICK));
+    assertEquals(0, accounting.getSessionCpuUs(CpuAccounting.OTHER));
+    assertEquals(2, accounting.getMinuteCount());
+  }
+
+  @Test
+  public void rollUp_moreThanKept_oldestDropped() {
+    CpuAccounting accounting = new CpuAccounting();
+    accounting.startSession(0, 0);
+
+    for (int i = 1; i <= CpuAccounting.MINUTES_KEPT + 5; i++) {
+      accounting.rollUp(i * CpuAccounting.MINUTE_MS, 0);
+    }
+
+    assertEquals(CpuAccounting.MINUTES_KEPT, accounting.getMinuteCount());
+  }
+
+  @Test
+  public void getCurrentFit_currentFollowsLoad_slopePerCore() {
+    CpuAccounting accounting = new CpuAccounting();
+    accounting.startSession(0, 0);
+
+    // 300 mA idle plus 400 mA per busy core.
+    long processCpuMs = 0;
+    for (int i = 1; i <= 4; i++) {
+      double cores = 0.25 * i;
+      processCpuMs += (long) (cores * CpuAccounting.MINUTE_MS);
+      accounting.addCurrentSample(-(int) ((300 + 400 * cores) * 1000));
+      accounting.rollUp(i * CpuAccounting.MINUTE_MS, processCpuMs);
+    }
+
+    double[] fit = accounting.getCurrentFit();
+    assertEquals(400, fit[0], 1);
+    assertEquals(300, fit[1], 1);
+    assertEquals(1, fit[2], 0.01);
+  }
+
+  @Test
+  public void getCurrentFit_noCurrentReadings_null() {
+    CpuAccounting accounting = new CpuAccounting();
+    accounting.startSession(0, 0);
+
+    for (int i = 1; i <= 4; i++) {
+      accounting.addCurrentSample(Integer.MIN_VALUE);
+      accounting.addCurrentSample(0);
+      accounting.rollUp(i * CpuAccounting.MINUTE_MS, i * 1000);
+    }
+
+    assertNull(accounting.getCurrentFit());
+    assertTrue(accounting.getSummary().contains("battery current not available"));
+  }
+
+  @Test
+  public void getSummary_perMode_listed() {
+    CpuAccounting accounting = new CpuAccounting();
+    accounting.startSession(0, 0);
+
+    accounting.setMode("enable/window/preview");
+    accounting.rollUp(CpuAccounting.MINUTE_MS, 6000);
+    accounting.setMode("enable/canvas/headless");
+    accounting.rollUp(2 * CpuAccounting.MINUTE_MS, 9000);
+
+    String summary = accounting.getSummary();
+    assertTrue(summary.contains("mode enable/window/preview, 1 min\n"));
+    assertTrue(summary.contains("mode enable/canvas/headless, 1 min\n"));
+    assertTrue(summary.contains("  other 10.0%\n"));
+    assertTrue(summary.contains("  other 5.0%\n"));
+  }
+
+  @Test
+  public void parseTaskStat_nameWithSpaces_utimePlusStime() {
+    String line = "1234 (Camera (x) 1) S 1 1 0 0 -1 4194368 100 0 0 0 250 75 0 0 20 0 1 0";
+
+    String[] parsed = CpuAccounting.parseTaskStat(line);
+
+    assertEquals("Camera (x) 1", parsed[0]);
+    assertEquals("325", parsed[1]);
+  }
+
+  @Test
+  public void parseTaskStat_truncated_null() {
+    assertNull(CpuAccounting.parseTaskStat("1234 (main) S 1 1"));
+    assertNull(CpuAccounting.parseTaskStat(null));
+  }
+
+  @Test
+  public void setCameraMode_chargesUsageSinceLastSwitch() {
+    CpuAccounting accounting = new CpuAccounting();
+    accounting.startSession(0, 0);
+
+    accounting.setCameraMode(CpuAccounting.CAMERA_MODE_PREVIEW, 0, 1000, 100);
+    accounting.addCurrentSample(-400_000);
+    accounting.setCameraMode(CpuAccounting.CAMERA_MODE_HEADLESS, 60_000, 31_000, 4_100);
+    accounting.addCurrentSample(-300_000);
+    accounting.setCameraMode(CpuAccounting.CAMERA_MODE_NONE, 120_000, 49_000, 4_700);
+    accounting.setCameraMode(CpuAccounting.CAMERA_MODE_PREVIEW, 180_000, 60_000, 5_000);
+
+    assertEquals(60_000, accounting.getCameraModeLengthMs(CpuAccounting.CAMERA_MODE_PREVIEW));
+    assertEquals(30_000, accounting.getCameraModeCpuMs(CpuAccounting.CAMERA_MODE_PREVIEW));
+    assertEquals(60_000, accounting.getCameraModeLengthMs(CpuAccounting.CAMERA_MODE_HEADLESS));
+    assertEquals(18_000, accounting.getCameraModeCpuMs(CpuAccounting.CAMERA_MODE_HEADLESS));
+
+    accounting.rollUp(CpuAccounting.MINUTE_MS, 1000);
+    String summary = accounting.getSummary();
+    assertTrue(summary, summary.contains(
+        "camera preview, 1 min: 50.0% process, 6.7% render thread, 400 mA"));
+    assertTrue(summary, summary.contains(
+        "camera headless, 1 min: 30.0% process, 1.0% render thread, 300 mA"));
+    assertTrue(summary, summary.contains(
+        "headless vs preview: -20.0% process, -5.7% render thread, -100 mA"));
+  }
+}
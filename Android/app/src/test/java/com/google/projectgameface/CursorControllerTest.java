@@ -12,15 +12,22 @@
  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
  * See the License for the specific language governing permissions and
  * limitations under the License.
+ *
+ * MODIFICATION NOTICE
+ * as per the licence its required to give notice that this code has been modified by a third party.
+ * 2026 - Helgi Steinarr Juliusson, changes can be found in version control.
  */
 package com.google.projectgameface;
 
+import android.content.Context;
+import android.content.SharedPreferences;
 import androidx.test.core.app.ApplicationProvider;
 import androidx.test.ext.junit.runners.AndroidJUnit4;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 @RunWith(AndroidJUnit4.class)
 public class CursorControllerTest {
@@ -37,4 +44,80 @@ public class CursorControllerTest {
     float[] foreheadF2 = {510.f, 510.f};
     assertEquals(cursorController.getCursorTranslateXY(foreheadF2, 100)[0], 426.66666f, 0.000001);
   }
+
+  /**
+   * Replay a recorded-style session: aim at a target, hold still, then open the mouth to touch.
+   * Opening the mouth pulls the forehead landmark down, like it does on a real face.
+   *
+   * @return Distance in pixels between the aimed target and where the touch was dispatched.
+   */
+  private static float replayClickSession(boolean driftCompensation) {
+    Context context = ApplicationProvider.getApplicationContext();
+    SharedPreferences preferences =
+        context.getSharedPreferences("GameFaceLocalConfig", Context.MODE_PRIVATE);
+    preferences.edit()
+        .putInt(String.valueOf(BlendshapeEventTriggerConfig.EventType.CURSOR_TOUCH),
+            BlendshapeEventTriggerConfig.BLENDSHAPE_FROM_ORDER_IN_UI.indexOf(
+                BlendshapeEventTriggerConfig.Blendshape.OPEN_MOUTH))
+        .putInt(BlendshapeEventTriggerConfig.EventType.CURSOR_TOUCH + "_size", 50)
+        .putInt(String.valueOf(CursorMovementConfig.CursorMovementConfigType.DRIFT_COMPENSATION),
+            driftCompensation ? 1 : 0)
+        .commit();
+    CursorController cursorController = new CursorController(context);
+
+    float[] blendshapes = new float[BlendshapeCalibration.TOTAL_BLENDSHAPES];
+    float[] forehead = {200.f, 200.f};
+    int[] target = null;
+    long timeMs = 0;
+    // 16 ms UI ticks, new face landmarks every other tick.
+    for (int tick = 0; tick < 200; tick++) {
+      timeMs += 16;
+      int frame = tick / 2;
+      if (frame < 30) {
+        // Aim toward the target.
+        forehead[0] = 200.f + frame * 0.3f;
+      } else if (frame < 50) {
+        // Hold still on the target.
+        target = cursorController.getCursorPositionXY().clone();
+      } else if (frame < 60) {
+        // Open the mouth over ~300 ms, forehead drops with it.
+        float progress = (frame - 49) / 10.f;
+        blendshapes[BlendshapeEventTriggerConfig.Blendshape.OPEN_MOUTH.value] = 0.8f * progress;
+        forehead[1] = 200.f + 2.f * progress;
+      }
+
+      cursorController.updateInternalCursorPosition(forehead, 2, 1000, 1000, timeMs);
+      if (cursorController.createCursorEvent(blendshapes)
+          == BlendshapeEventTriggerConfig.EventType.CURSOR_TOUCH) {
+        int[] click = cursorController.getCursorPositionXY();
+        return (float) Math.hypot(click[0] - target[0], click[1] - target[1]);
+      }
+    }
+    throw new AssertionError("Touch was never triggered.");
+  }
+
+  @Test
+  public void createCursorEvent_driftCompensation_touchLandsCloserToTarget() {
+    float errorWithout = replayClickSession(false);
+    float errorWith = replayClickSession(true);
+
+    assertTrue("Session should drift without compensation: " + errorWithout, errorWithout > 20.f);
+    assertTrue(errorWith + " px vs " + errorWithout + " px", errorWith < errorWithout / 4);
+  }
+
+  @Test
+  public void cursorPositionHistory_getPositionAt_returnLatestAtOrBefore() {
+    CursorPositionHistory history = new CursorPositionHistory(3);
+    float[] xy = new float[2];
+    for (int i = 1; i <= 4; i++) {
+      history.add(i * 10, i, i);
+    }
+
+    assertEquals(3, history.size());
+    assertTrue(history.getPositionAt(35, xy));
+    assertEquals(3.f, xy[0], 0.0001);
+    // Oldest sample kept is at 20 ms.
+    assertTrue(history.getPositionAt(5, xy));
+    assertEquals(2.f, xy[0], 0.0001);
+  }
 }
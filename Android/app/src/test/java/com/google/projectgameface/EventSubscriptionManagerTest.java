@@ -0,0 +1,76 @@
+/*
+ * Copyright 2024 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * MODIFICATION NOTICE
+ * as per the licence its required to give notice that this code has been modified by a third party.
+ * 2026 - Helgi Steinarr Juliusson, changes can be found in version control.
+ */
+package com.google.projectgameface;
+
+import android.accessibilityservice.AccessibilityServiceInfo;
+import android.view.accessibility.AccessibilityEvent;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+@RunWith(AndroidJUnit4.class)
+public class EventSubscriptionManagerTest {
+
+  @Test
+  public void getEventTypes_noFeature_subscribeToNothing() {
+    assertEquals(0, EventSubscriptionManager.getEventTypes(0));
+    assertEquals(0, EventSubscriptionManager.getFlags(0)
+        & AccessibilityServiceInfo.FLAG_RETRIEVE_INTERACTIVE_WINDOWS);
+  }
+
+  @Test
+  public void getEventTypes_targetIndex_subscribeToWindowChanges() {
+    int features = EventSubscriptionManager.FEATURE_TARGET_INDEX;
+    int eventTypes = EventSubscriptionManager.getEventTypes(features);
+
+    assertNotEquals(0, eventTypes & AccessibilityEvent.TYPE_WINDOW_CONTENT_CHANGED);
+    assertNotEquals(0, eventTypes & AccessibilityEvent.TYPE_WINDOWS_CHANGED);
+    assertEquals(0, eventTypes & AccessibilityEvent.TYPE_VIEW_CLICKED);
+    assertNotEquals(0, EventSubscriptionManager.getFlags(features)
+        & AccessibilityServiceInfo.FLAG_RETRIEVE_INTERACTIVE_WINDOWS);
+  }
+
+  @Test
+  public void getEventTypes_foregroundApp_onlyWindowStateChanges() {
+    int features = EventSubscriptionManager.FEATURE_FOREGROUND_APP;
+
+    assertEquals(AccessibilityEvent.TYPE_WINDOW_STATE_CHANGED,
+        EventSubscriptionManager.getEventTypes(features));
+    assertEquals(0, EventSubscriptionManager.getFlags(features)
+        & AccessibilityServiceInfo.FLAG_RETRIEVE_INTERACTIVE_WINDOWS);
+  }
+
+  @Test
+  public void onEvent_averageOverWindow() {
+    EventSubscriptionManager manager = new EventSubscriptionManager(null);
+
+    // 50 events over the first 10 s window.
+    for (int i = 0; i < 50; i++) {
+      manager.onEvent(i * 200);
+    }
+    manager.onEvent(EventSubscriptionManager.RATE_WINDOW_MS);
+
+    assertEquals(51, manager.getTotalEventCount());
+    assertEquals(5.f, manager.getEventsPerSecond(), 1e-3f);
+  }
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright 2024 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * MODIFICATION NOTICE
+ * as per the licence its required to give notice that this code has been modified by a third party.
+ * 2026 - Helgi Steinarr Juliusson, changes can be found in version control.
+ */
+package com.google.projectgameface;
+
+import com.google.projectgameface.BlendshapeEventTriggerConfig.EventType;
+import com.google.projectgameface.CursorAccessibilityService.ServiceState;
+import com.google.projectgameface.CursorMovementConfig.CursorMovementConfigType;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import static org.junit.Assert.assertEquals;
+
+public class FlightRecorderTest {
+
+  private static void recordTicks(FlightRecorder recorder, int count) {
+    float[] blendshapes = new float[FaceLandmarkerHelper.TOTAL_BLENDSHAPES];
+    for (int i = 0; i < count; i++) {
+      blendshapes[0] = i / 1000.f;
+      recorder.record(i * 16, i * 16 - 5, i, -i, 1, blendshapes, i * 2, i * 3,
+          ServiceState.ENABLE, i / 100, i % 50 == 0 ? EventType.CURSOR_TOUCH : EventType.NONE);
+    }
+  }
+
+  private static FlightRecording writeAndRead(FlightRecorder recorder, Profile profile)
+      throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    recorder.writeTo(out, "test", 1234, 1080, 2400, profile);
+    return FlightRecording.read(new ByteArrayInputStream(out.toByteArray()));
+  }
+
+  @Test
+  public void writeTo_read_sameTicks() throws IOException {
+    FlightRecorder recorder = new FlightRecorder();
+    recordTicks(recorder, 100);
+    Profile profile = new Profile("Default");
+    profile.movement.put(CursorMovementConfigType.UP_SPEED, 8);
+
+    FlightRecording recording = writeAndRead(recorder, profile);
+
+    assertEquals("test", recording.reason);
+    assertEquals(1080, recording.screenWidth);
+    assertEquals(8, (int) recording.profile.movement.get(CursorMovementConfigType.UP_SPEED));
+    assertEquals(100, recording.size);
+    assertEquals(99 * 16, recording.timeMs[99]);
+    assertEquals(-99.f, recording.headY[99], 0.f);
+    assertEquals(0.099f, recording.blendshapes[99][0], 1e-6f);
+    assertEquals(198, recording.cursorX[99]);
+    assertEquals(ServiceState.ENABLE, recording.state[99]);
+    assertEquals(EventType.CURSOR_TOUCH, recording.event[50]);
+    assertEquals(EventType.NONE, recording.event[51]);
+  }
+
+  @Test
+  public void record_moreThanCapacity_keepsNewestOldestFirst() throws IOException {
+    FlightRecorder recorder = new FlightRecorder();
+    recordTicks(recorder, FlightRecorder.CAPACITY + 10);
+
+    FlightRecording recording = writeAndRead(recorder, new Profile("Default"));
+
+    assertEquals(FlightRecorder.CAPACITY, recording.size);
+    assertEquals(10 * 16, recording.timeMs[0]);
+    assertEquals((FlightRecorder.CAPACITY + 9) * 16, recording.timeMs[recording.size - 1]);
+  }
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright 2024 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * MODIFICATION NOTICE
+ * as per the licence its required to give notice that this code has been modified by a third party.
+ * 2026 - Helgi Steinarr Juliusson, changes can be found in version control.
+ */
+package com.google.projectgameface;
+
+import android.content.Context;
+import androidx.test.core.app.ApplicationProvider;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import com.google.projectgameface.BlendshapeEventTriggerConfig.EventType;
+import com.google.projectgameface.CursorAccessibilityService.ServiceState;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import static org.junit.Assert.assertEquals;
+
+@RunWith(AndroidJUnit4.class)
+public class FlightReplayerTest {
+  private static final int WIDTH = 1080;
+  private static final int HEIGHT = 2400;
+
+  /** Record 120 ticks of the pipeline, the settings change to generation 1 at the given tick. */
+  private static FlightRecording record(Context context, int generationChangeTick)
+      throws IOException {
+    CursorController recorded = new CursorController(context);
+    FlightRecorder recorder = new FlightRecorder();
+    float[] blendshapes = new float[FaceLandmarkerHelper.TOTAL_BLENDSHAPES];
+    recorded.resetMotion(WIDTH / 2, HEIGHT / 2, 100.f, 100.f);
+    for (int i = 0; i < 120; i++) {
+      float[] head = {100.f + (float) Math.sin(i / 10.0) * 20.f, 100.f + i * 0.5f};
+      if (i > 0) {
+        recorded.updateInternalCursorPosition(head, 1, WIDTH, HEIGHT, i * 16);
+      }
+      EventType event = recorded.createCursorEvent(blendshapes, i * 16);
+      recorder.record(i * 16, i * 16, head[0], head[1], 1, blendshapes,
+          recorded.getCursorX(), recorded.getCursorY(), ServiceState.ENABLE,
+          i < generationChangeTick ? 0 : 1, event);
+    }
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    recorder.writeTo(out, "test", 0, WIDTH, HEIGHT,
+        Profile.fromSharedPreferences("Default", context.getSharedPreferences(
+            ConfigRepository.PREFERENCES_NAME, Context.MODE_PRIVATE)));
+    return FlightRecording.read(new ByteArrayInputStream(out.toByteArray()));
+  }
+
+  @Test
+  public void replay_recordedPipeline_sameCursorAndEvents() throws IOException {
+    Context context = ApplicationProvider.getApplicationContext();
+    FlightRecording recording = record(context, 0);
+
+    FlightReplayer.Result result =
+        FlightReplayer.replay(recording, new CursorController(context));
+
+    assertEquals(0, result.firstReplayedTick);
+    assertEquals(0, result.eventMismatchCount);
+    assertEquals(0.f, result.maxCursorErrorPx, 1.5f);
+    assertEquals(recording.cursorX[119], result.cursorX[119]);
+  }
+
+  @Test
+  public void replay_settingsChanged_replayFromChange() throws IOException {
+    Context context = ApplicationProvider.getApplicationContext();
+    FlightRecording recording = record(context, 60);
+
+    FlightReplayer.Result result =
+        FlightReplayer.replay(recording, new CursorController(context));
+
+    assertEquals(60, result.firstReplayedTick);
+    assertEquals(recording.cursorX[30], result.cursorX[30]);
+    assertEquals(0, result.eventMismatchCount);
+  }
+}
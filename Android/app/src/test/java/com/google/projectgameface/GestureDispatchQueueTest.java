@@ -0,0 +1,155 @@
+/*
+ * Copyright 2024 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * MODIFICATION NOTICE
+ * as per the licence its required to give notice that this code has been modified by a third party.
+ * 2026 - Helgi Steinarr Juliusson, changes can be found in version control.
+ */
+package com.google.projectgameface;
+
+import android.accessibilityservice.AccessibilityService;
+import android.accessibilityservice.GestureDescription;
+import android.os.Handler;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+
+@RunWith(AndroidJUnit4.class)
+public class GestureDispatchQueueTest {
+
+  /** Records dispatched gestures, the test decides when they finish. */
+  private static class FakeTarget implements GestureDispatchQueue.Target {
+    final List<GestureDescription> gestures = new ArrayList<>();
+    final List<AccessibilityService.GestureResultCallback> callbacks = new ArrayList<>();
+    boolean accept = true;
+
+    @Override
+    public boolean dispatchGesture(
+        GestureDescription gesture, AccessibilityService.GestureResultCallback callback, Handler handler) {
+      if (!accept) {
+        return false;
+      }
+      gestures.add(gesture);
+      callbacks.add(callback);
+      return true;
+    }
+
+    @Override
+    public boolean performGlobalAction(int action) {
+      return true;
+    }
+
+    void completeLast() {
+      callbacks.get(callbacks.size() - 1).onCompleted(gestures.get(gestures.size() - 1));
+    }
+
+    void cancelLast() {
+      callbacks.get(callbacks.size() - 1).onCancelled(gestures.get(gestures.size() - 1));
+    }
+  }
+
+  private static GestureDescription click() {
+    return CursorUtils.createClick(100, 100, 0, 1);
+  }
+
+  @Test
+  public void enqueue_previousInFlight_waitForItsCallback() {
+    FakeTarget target = new FakeTarget();
+    GestureDispatchQueue queue = new GestureDispatchQueue(target);
+    GestureDescription second = click();
+
+    queue.enqueue(click());
+    queue.enqueue(second);
+    assertEquals(1, target.gestures.size());
+    assertEquals(1, queue.getPendingCount());
+
+    target.completeLast();
+    assertEquals(2, target.gestures.size());
+    assertSame(second, target.gestures.get(1));
+    assertEquals(1, queue.getCompletedCount());
+  }
+
+  @Test
+  public void enqueue_sameCoalesceKeyPending_keepOnlyLatest() {
+    FakeTarget target = new FakeTarget();
+    GestureDispatchQueue queue = new GestureDispatchQueue(target);
+    GestureDescription latestSwipe = CursorUtils.createSwipe(100, 100, -500, 0, 100);
+
+    queue.enqueue(click());
+    queue.enqueue(CursorUtils.createSwipe(100, 100, -500, 0, 100), 4);
+    queue.enqueue(latestSwipe, 4);
+    queue.enqueue(click());
+    assertEquals(2, queue.getPendingCount());
+    assertEquals(1, queue.getCoalescedCount());
+
+    target.completeLast();
+    assertSame(latestSwipe, target.gestures.get(1));
+  }
+
+  @Test
+  public void onCancelled_countAndDispatchNext() {
+    FakeTarget target = new FakeTarget();
+    GestureDispatchQueue queue = new GestureDispatchQueue(target);
+
+    queue.enqueue(click());
+    queue.enqueue(click());
+    target.cancelLast();
+
+    assertEquals(1, queue.getCancelledCount());
+    assertEquals(2, target.gestures.size());
+    // A late callback of the cancelled gesture must not finish the next one.
+    target.callbacks.get(0).onCompleted(target.gestures.get(0));
+    assertEquals(0, queue.getCompletedCount());
+  }
+
+  @Test
+  public void enqueue_dispatchRejected_dropAndStayIdle() {
+    FakeTarget target = new FakeTarget();
+    GestureDispatchQueue queue = new GestureDispatchQueue(target);
+    target.accept = false;
+
+    queue.enqueue(click());
+
+    assertEquals(1, queue.getDroppedCount());
+    assertFalse(queue.isBusy());
+  }
+
+  @Test
+  public void enqueue_withListener_toldOnceWithResult() {
+    FakeTarget target = new FakeTarget();
+    GestureDispatchQueue queue = new GestureDispatchQueue(target);
+    List<Boolean> results = new ArrayList<>();
+
+    queue.enqueue(click(), GestureDispatchQueue.NO_COALESCE, results::add);
+    queue.enqueue(click(), /* coalesceKey= */ 1, results::add);
+    // Replaces the pending one above.
+    queue.enqueue(click(), /* coalesceKey= */ 1, results::add);
+    assertEquals(1, results.size());
+    assertFalse(results.get(0));
+
+    target.completeLast();
+    target.cancelLast();
+    assertEquals(3, results.size());
+    assertEquals(true, results.get(1));
+    assertFalse(results.get(2));
+  }
+}
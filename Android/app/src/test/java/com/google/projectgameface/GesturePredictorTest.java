@@ -0,0 +1,154 @@
+/*
+ * Copyright 2024 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * MODIFICATION NOTICE
+ * as per the licence its required to give notice that this code has been modified by a third party.
+ * 2026 - Helgi Steinarr Juliusson, changes can be found in version control.
+ */
+package com.google.projectgameface;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(AndroidJUnit4.class)
+public class GesturePredictorTest {
+  private static final float THRESHOLD = 0.55f;
+
+  /** Landmarker frame interval, each frame is seen by two UI ticks. */
+  private static final long FRAME_MS = 32;
+
+  private GesturePredictor predictor;
+  private long timeMs;
+
+  @Before
+  public void setUp() {
+    predictor = new GesturePredictor();
+    timeMs = 0;
+  }
+
+  /** Feed one landmarker frame, return the first non-NONE action of its ticks. */
+  private GesturePredictor.Action feedFrame(float score) {
+    GesturePredictor.Action action = predictor.update(score, THRESHOLD, timeMs);
+    GesturePredictor.Action repeated = predictor.update(score, THRESHOLD, timeMs + FRAME_MS / 2);
+    assertEquals(GesturePredictor.Action.NONE, repeated);
+    timeMs += FRAME_MS;
+    return action;
+  }
+
+  /** Rest, rise by 0.1 per frame up to the peak, hold, then drop back. */
+  private GesturePredictor.Action[] feedGesture(float peak) {
+    int steps = Math.round(peak * 10);
+    GesturePredictor.Action[] actions = new GesturePredictor.Action[5 + steps + 5];
+    int i = 0;
+    for (int k = 0; k < 5; k++) {
+      actions[i++] = feedFrame(0.f);
+    }
+    for (int k = 1; k <= steps; k++) {
+      actions[i++] = feedFrame(k * 0.1f);
+    }
+    for (int k = 0; k < 5; k++) {
+      actions[i++] = feedFrame(k == 0 ? peak : 0.f);
+    }
+    return actions;
+  }
+
+  private static int indexOf(GesturePredictor.Action[] actions, GesturePredictor.Action action) {
+    for (int i = 0; i < actions.length; i++) {
+      if (actions[i] == action) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  @Test
+  public void update_learnedProfile_clickBeforeCrossing() {
+    for (int i = 0; i < GesturePredictor.MIN_PROFILE_SAMPLES; i++) {
+      assertEquals(-1, indexOf(feedGesture(0.8f), GesturePredictor.Action.PRESS));
+    }
+    assertEquals(GesturePredictor.MIN_PROFILE_SAMPLES, predictor.getProfileSamples());
+
+    GesturePredictor.Action[] actions = feedGesture(0.8f);
+    int press = indexOf(actions, GesturePredictor.Action.PRESS);
+    int release = indexOf(actions, GesturePredictor.Action.RELEASE);
+    int crossed = indexOf(actions, GesturePredictor.Action.CROSSED);
+    // Sixth rising frame (0.6) is the first one above the threshold.
+    assertEquals(5 + 5, crossed);
+    assertTrue("Pressed at frame " + press, press >= 0 && press < release);
+    assertTrue("Released at frame " + release, release < crossed);
+    assertEquals((crossed - release) * FRAME_MS, predictor.getMeanClickTimeSavedMs(), 0.0001);
+    assertEquals(0.f, predictor.getFalseTriggerRate(), 0.0001);
+    assertEquals(0.f, predictor.getFalseClickRate(), 0.0001);
+  }
+
+  @Test
+  public void update_gestureStopsJustShort_countFalseClick() {
+    for (int i = 0; i < GesturePredictor.MIN_PROFILE_SAMPLES; i++) {
+      feedGesture(0.8f);
+    }
+
+    GesturePredictor.Action[] actions = feedGesture(0.5f);
+    assertTrue(indexOf(actions, GesturePredictor.Action.RELEASE) >= 0);
+    assertEquals(-1, indexOf(actions, GesturePredictor.Action.CROSSED));
+    assertEquals(-1, indexOf(actions, GesturePredictor.Action.CANCEL));
+    assertEquals(1, predictor.getFalseClickCount());
+    assertEquals(1.f, predictor.getFalseClickRate(), 0.0001);
+  }
+
+  @Test
+  public void update_gestureStopsShort_cancelAndCountFalseTrigger() {
+    for (int i = 0; i < GesturePredictor.MIN_PROFILE_SAMPLES; i++) {
+      feedGesture(0.8f);
+    }
+
+    GesturePredictor.Action[] actions = feedGesture(0.4f);
+    int press = indexOf(actions, GesturePredictor.Action.PRESS);
+    int cancel = indexOf(actions, GesturePredictor.Action.CANCEL);
+    assertTrue(press >= 0 && cancel > press);
+    assertEquals(-1, indexOf(actions, GesturePredictor.Action.RELEASE));
+    assertEquals(1, predictor.getFalseTriggerCount());
+
+    feedGesture(0.8f);
+    assertEquals(0.5f, predictor.getFalseTriggerRate(), 0.0001);
+  }
+
+  @Test
+  public void update_trackingStallsAfterPress_cancelOnceTimedOut() {
+    for (int i = 0; i < GesturePredictor.MIN_PROFILE_SAMPLES; i++) {
+      feedGesture(0.8f);
+    }
+    float score = 0.f;
+    while (!predictor.isPredicting()) {
+      score += 0.1f;
+      feedFrame(score);
+    }
+    long pressTimeMs = timeMs - FRAME_MS;
+
+    // Same frame seen by every tick, only the clock moves.
+    GesturePredictor.Action action = GesturePredictor.Action.NONE;
+    while (action == GesturePredictor.Action.NONE) {
+      timeMs += FRAME_MS / 2;
+      action = predictor.update(score, THRESHOLD, timeMs);
+    }
+    assertEquals(GesturePredictor.Action.CANCEL, action);
+    assertTrue(timeMs - pressTimeMs > GesturePredictor.CONFIRM_TIMEOUT_MS);
+    assertTrue(timeMs - pressTimeMs <= GesturePredictor.CONFIRM_TIMEOUT_MS + FRAME_MS);
+  }
+}
@@ -0,0 +1,206 @@
+/*
+ * Copyright 2024 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * MODIFICATION NOTICE
+ * as per the licence its required to give notice that this code has been modified by a third party.
+ * 2026 - Helgi Steinarr Juliusson, changes can be found in version control.
+ */
+package com.google.projectgameface;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import androidx.test.core.app.ApplicationProvider;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import com.google.mediapipe.tasks.components.containers.Category;
+import com.google.mediapipe.tasks.components.containers.NormalizedLandmark;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntConsumer;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeTrue;
+
+/**
+ * Allocation budgets of the per-frame code paths. Each component is driven through thousands of
+ * synthetic frames and the bytes the test thread allocated are averaged per frame.
+ *
+ * <p>A budget below 16 bytes, the smallest object, means no allocation on every frame; rare ones,
+ * like a log line when a gesture fires, still fit. To cover a new component add a test that sets it
+ * up and calls {@link #assertAllocationWithinBudget} with one frame of its work.
+ */
+@RunWith(AndroidJUnit4.class)
+public class HotPathAllocationTest {
+
+  /** Lets the JIT settle and lazily created state get created before measuring. */
+  private static final int WARMUP_FRAMES = 2000;
+  private static final int MEASURED_FRAMES = 10000;
+
+  private static final long TICK_BUDGET_BYTES = 8;
+  /** A little more, drift compensation and the predictor log when a gesture fires. */
+  private static final long GESTURE_BUDGET_BYTES = 12;
+  private static final long POSTPROCESS_BUDGET_BYTES = 8;
+
+  private static final int SCREEN_WIDTH = 1080;
+  private static final int SCREEN_HEIGHT = 2400;
+
+  /** Landmarks of the MediaPipe face mesh with irises. */
+  private static final int LANDMARK_COUNT = 478;
+
+  /**
+   * Run {@code frame} through warm up and measured frames and fail if the measured frames
+   * allocated more than {@code budgetBytesPerFrame} on average.
+   */
+  private static void assertAllocationWithinBudget(
+      String component, long budgetBytesPerFrame, IntConsumer frame) {
+    java.lang.management.ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+    assumeTrue("Thread allocation counters not available",
+        threadBean instanceof com.sun.management.ThreadMXBean);
+    com.sun.management.ThreadMXBean allocationBean = (com.sun.management.ThreadMXBean) threadBean;
+    assumeTrue("Thread allocation counters not available",
+        allocationBean.isThreadAllocatedMemorySupported()
+            && allocationBean.isThreadAllocatedMemoryEnabled());
+    long threadId = Thread.currentThread().getId();
+
+    for (int i = 0; i < WARMUP_FRAMES; i++) {
+      frame.accept(i);
+    }
+    long startBytes = allocationBean.getThreadAllocatedBytes(threadId);
+    for (int i = 0; i < MEASURED_FRAMES; i++) {
+      frame.accept(WARMUP_FRAMES + i);
+    }
+    long allocatedBytes = allocationBean.getThreadAllocatedBytes(threadId) - startBytes;
+
+    double bytesPerFrame = (double) allocatedBytes / MEASURED_FRAMES;
+    assertTrue(component + " allocated " + bytesPerFrame + " bytes per frame, budget is "
+            + budgetBytesPerFrame,
+        bytesPerFrame <= budgetBytesPerFrame);
+  }
+
+  /** Head circling slowly around the middle of the camera frame. */
+  private static void syntheticHead(int frame, float[] outXy) {
+    outXy[0] = 240.f + 40.f * (float) Math.sin(frame * 0.05);
+    outXy[1] = 320.f + 30.f * (float) Math.cos(frame * 0.03);
+  }
+
+  /** Resting face with some noise, the mouth opens for a while every 90 frames. */
+  private static void syntheticBlendshapes(int frame, float[] outBlendshapes) {
+    for (int i = 0; i < outBlendshapes.length; i++) {
+      outBlendshapes[i] = 0.05f + 0.02f * (float) Math.sin(frame * 0.7 + i);
+    }
+    int phase = frame % 90;
+    if (phase >= 60) {
+      outBlendshapes[BlendshapeEventTriggerConfig.Blendshape.OPEN_MOUTH.value] =
+          Math.min(0.9f, (phase - 60) * 0.1f);
+    }
+  }
+
+  private static CursorController createCursorController(int adaptiveThreshold,
+      int driftCompensation, int predictiveTrigger, int scrollMode) {
+    Context context = ApplicationProvider.getApplicationContext();
+    SharedPreferences preferences =
+        context.getSharedPreferences("GameFaceLocalConfig", Context.MODE_PRIVATE);
+    preferences.edit()
+        .putInt(String.valueOf(BlendshapeEventTriggerConfig.EventType.CURSOR_TOUCH),
+            BlendshapeEventTriggerConfig.BLENDSHAPE_FROM_ORDER_IN_UI.indexOf(
+                BlendshapeEventTriggerConfig.Blendshape.OPEN_MOUTH))
+        .putInt(BlendshapeEventTriggerConfig.EventType.CURSOR_TOUCH + "_size", 50)
+        .putInt(String.valueOf(CursorMovementConfig.CursorMovementConfigType.ADAPTIVE_THRESHOLD),
+            adaptiveThreshold)
+        .putInt(String.valueOf(CursorMovementConfig.CursorMovementConfigType.DRIFT_COMPENSATION),
+            driftCompensation)
+        .putInt(String.valueOf(CursorMovementConfig.CursorMovementConfigType.PREDICTIVE_TRIGGER),
+            predictiveTrigger)
+        .putInt(String.valueOf(CursorMovementConfig.CursorMovementConfigType.SCROLL_MODE),
+            scrollMode)
+        .commit();
+    return new CursorController(context);
+  }
+
+  @Test
+  public void tick_withinBudget() {
+    CursorController cursorController = createCursorController(0, 0, 0,
+        CursorController.SCROLL_MODE_ROLL);
+    float[] headXy = new float[2];
+    float[] blendshapes = new float[BlendshapeCalibration.TOTAL_BLENDSHAPES];
+    int[] cursorXy = new int[2];
+    float[] scrollVelocity = new float[2];
+
+    assertAllocationWithinBudget("Tick", TICK_BUDGET_BYTES, frame -> {
+      syntheticHead(frame, headXy);
+      syntheticBlendshapes(frame, blendshapes);
+      cursorController.updateInternalCursorPosition(
+          headXy, 2, SCREEN_WIDTH, SCREEN_HEIGHT, frame * 16L);
+      cursorController.getCursorPositionXY(cursorXy);
+      cursorController.getScrollTargetVelocity(blendshapes, 5.f, scrollVelocity);
+      cursorController.isDragBlendshapeHeld(blendshapes);
+    });
+  }
+
+  @Test
+  public void gestureEvaluation_withinBudget() {
+    CursorController cursorController = createCursorController(1, 1, 1,
+        CursorController.SCROLL_MODE_OFF);
+    float[] headXy = new float[2];
+    float[] blendshapes = new float[BlendshapeCalibration.TOTAL_BLENDSHAPES];
+
+    assertAllocationWithinBudget("Gesture evaluation", GESTURE_BUDGET_BYTES, frame -> {
+      syntheticHead(frame, headXy);
+      syntheticBlendshapes(frame, blendshapes);
+      cursorController.updateInternalCursorPosition(
+          headXy, 2, SCREEN_WIDTH, SCREEN_HEIGHT, frame * 16L);
+      cursorController.updateAdaptiveThresholds(blendshapes);
+      cursorController.createCursorEvent(blendshapes);
+    });
+  }
+
+  @Test
+  public void landmarkPostProcessing_withinBudget() {
+    FaceLandmarkerHelper faceLandmarkerHelper = new FaceLandmarkerHelper();
+    faceLandmarkerHelper.mpInputWidth = 480;
+    faceLandmarkerHelper.mpInputHeight = 640;
+
+    // MediaPipe hands out new results, build a few faces up front so only processing is measured.
+    int faceCount = 16;
+    List<List<NormalizedLandmark>> faces = new ArrayList<>();
+    List<List<Category>> faceBlendshapes = new ArrayList<>();
+    float[] scores = new float[BlendshapeCalibration.TOTAL_BLENDSHAPES];
+    for (int f = 0; f < faceCount; f++) {
+      List<NormalizedLandmark> landmarks = new ArrayList<>();
+      for (int i = 0; i < LANDMARK_COUNT; i++) {
+        // A roughly frontal face: a disc of points, slightly turned with f.
+        double angle = i * 2 * Math.PI / LANDMARK_COUNT;
+        float radius = 0.1f + 0.2f * (i % 7) / 7.f;
+        landmarks.add(NormalizedLandmark.create(
+            0.5f + radius * (float) Math.cos(angle),
+            0.5f + radius * (float) Math.sin(angle),
+            -0.05f + 0.01f * f / faceCount));
+      }
+      faces.add(landmarks);
+      syntheticBlendshapes(f * 7, scores);
+      List<Category> categories = new ArrayList<>();
+      for (int i = 0; i < scores.length; i++) {
+        categories.add(Category.create(scores[i], i, "", ""));
+      }
+      faceBlendshapes.add(categories);
+    }
+
+    assertAllocationWithinBudget("Landmark post-processing", POSTPROCESS_BUDGET_BYTES, frame ->
+        faceLandmarkerHelper.processFaceLandmarks(
+            faces.get(frame % faceCount), faceBlendshapes.get(frame % faceCount)));
+  }
+}
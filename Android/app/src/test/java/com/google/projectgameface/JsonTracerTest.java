@@ -0,0 +1,98 @@
+/*
+ * Copyright 2024 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * MODIFICATION NOTICE
+ * as per the licence its required to give notice that this code has been modified by a third party.
+ * 2026 - Helgi Steinarr Juliusson, changes can be found in version control.
+ */
+package com.google.projectgameface;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class JsonTracerTest {
+
+  @Test
+  public void writeTo_sectionsAndAsyncSlices_writtenWithPhases() throws IOException {
+    JsonTracer tracer = new JsonTracer(16);
+    tracer.add(JsonTracer.PHASE_BEGIN, FrameTrace.TICK, 0);
+    tracer.add(JsonTracer.PHASE_ASYNC_BEGIN, FrameTrace.SLICE_FRAME, 7);
+    tracer.add(JsonTracer.PHASE_END, FrameTrace.TICK, 0);
+    tracer.add(JsonTracer.PHASE_ASYNC_END, FrameTrace.SLICE_FRAME, 7);
+
+    StringWriter writer = new StringWriter();
+    tracer.writeTo(writer);
+    String json = writer.toString();
+
+    assertEquals(4, tracer.size());
+    assertTrue(json.startsWith("{\"displayTimeUnit\":\"ms\",\"traceEvents\":["));
+    assertTrue(json.contains("\"name\":\"thread_name\",\"ph\":\"M\""));
+    assertTrue(json.contains("\"name\":\"" + FrameTrace.TICK + "\",\"cat\":\"gameface\",\"ph\":\"B\""));
+    assertTrue(json.contains("\"name\":\"" + FrameTrace.TICK + "\",\"cat\":\"gameface\",\"ph\":\"E\""));
+    assertTrue(json.contains("\"ph\":\"b\""));
+    assertTrue(json.contains("\"ph\":\"e\""));
+    assertTrue(json.contains(",\"id\":7}"));
+    assertTrue(json.trim().endsWith("]}"));
+  }
+
+  @Test
+  public void writeTo_asyncSlicesSameId_categoryPerSlice() throws IOException {
+    JsonTracer tracer = new JsonTracer(4);
+    tracer.add(JsonTracer.PHASE_ASYNC_BEGIN, FrameTrace.SLICE_FRAME, 3);
+    tracer.add(JsonTracer.PHASE_ASYNC_BEGIN, FrameTrace.SLICE_GESTURE, 3);
+
+    StringWriter writer = new StringWriter();
+    tracer.writeTo(writer);
+    String json = writer.toString();
+
+    assertTrue(json.contains("\"name\":\"" + FrameTrace.SLICE_FRAME
+        + "\",\"cat\":\"gameface." + FrameTrace.SLICE_FRAME + "\""));
+    assertTrue(json.contains("\"name\":\"" + FrameTrace.SLICE_GESTURE
+        + "\",\"cat\":\"gameface." + FrameTrace.SLICE_GESTURE + "\""));
+  }
+
+  @Test
+  public void writeTo_sections_haveNoId() throws IOException {
+    JsonTracer tracer = new JsonTracer(4);
+    tracer.add(JsonTracer.PHASE_BEGIN, FrameTrace.DISPATCH, 0);
+    tracer.add(JsonTracer.PHASE_END, FrameTrace.DISPATCH, 0);
+
+    StringWriter writer = new StringWriter();
+    tracer.writeTo(writer);
+
+    assertFalse(writer.toString().contains("\"id\""));
+  }
+
+  @Test
+  public void add_beyondCapacity_dropped() throws IOException {
+    JsonTracer tracer = new JsonTracer(2);
+    tracer.add(JsonTracer.PHASE_BEGIN, FrameTrace.TICK, 0);
+    tracer.add(JsonTracer.PHASE_END, FrameTrace.TICK, 0);
+    tracer.add(JsonTracer.PHASE_BEGIN, FrameTrace.TICK, 0);
+
+    StringWriter writer = new StringWriter();
+    tracer.writeTo(writer);
+
+    assertEquals(2, tracer.size());
+    assertEquals(1, tracer.getDroppedCount());
+    assertEquals(1, writer.toString().split("\"ph\":\"B\"", -1).length - 1);
+  }
+}
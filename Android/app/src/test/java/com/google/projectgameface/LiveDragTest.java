@@ -0,0 +1,141 @@
+/*
+ * Copyright 2024 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * MODIFICATION NOTICE
+ * as per the licence its required to give notice that this code has been modified by a third party.
+ * 2026 - Helgi Steinarr Juliusson, changes can be found in version control.
+ */
+package com.google.projectgameface;
+
+import android.accessibilityservice.AccessibilityService;
+import android.accessibilityservice.GestureDescription;
+import android.os.Handler;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(AndroidJUnit4.class)
+public class LiveDragTest {
+  private final List<GestureDescription> gestures = new ArrayList<>();
+  private final List<AccessibilityService.GestureResultCallback> callbacks = new ArrayList<>();
+  private GestureDispatchQueue queue;
+  private LiveDrag liveDrag;
+
+  @Before
+  public void setUp() {
+    queue = new GestureDispatchQueue(new GestureDispatchQueue.Target() {
+      @Override
+      public boolean dispatchGesture(
+          GestureDescription gesture, AccessibilityService.GestureResultCallback callback, Handler handler) {
+        gestures.add(gesture);
+        callbacks.add(callback);
+        return true;
+      }
+
+      @Override
+      public boolean performGlobalAction(int action) {
+        return true;
+      }
+    });
+    liveDrag = new LiveDrag();
+  }
+
+  private void completeLast() {
+    callbacks.get(callbacks.size() - 1).onCompleted(gestures.get(gestures.size() - 1));
+  }
+
+  private GestureDescription.StrokeDescription lastStroke() {
+    return gestures.get(gestures.size() - 1).getStroke(0);
+  }
+
+  @Test
+  public void update_cursorMoves_extendStrokeAtBoundedRate() {
+    liveDrag.start(queue, 100, 100, 0);
+    assertTrue(lastStroke().willContinue());
+    completeLast();
+
+    // Too soon after the press.
+    liveDrag.update(queue, 110, 100, 10);
+    assertEquals(1, gestures.size());
+
+    liveDrag.update(queue, 120, 100, LiveDrag.SEGMENT_INTERVAL_MS);
+    assertEquals(2, gestures.size());
+    assertTrue(lastStroke().willContinue());
+
+    // Previous segment is still being injected, hold the next one back.
+    liveDrag.update(queue, 140, 100, LiveDrag.SEGMENT_INTERVAL_MS * 2);
+    assertEquals(2, gestures.size());
+    assertEquals(1, liveDrag.getSkippedSegmentCount());
+
+    completeLast();
+    liveDrag.update(queue, 140, 100, LiveDrag.SEGMENT_INTERVAL_MS * 2 + 1);
+    assertEquals(3, gestures.size());
+  }
+
+  @Test
+  public void end_liftFinger() {
+    liveDrag.start(queue, 100, 100, 0);
+    completeLast();
+
+    liveDrag.end(queue, 300, 100);
+
+    assertFalse(liveDrag.isActive());
+    assertEquals(2, gestures.size());
+    assertFalse(lastStroke().willContinue());
+  }
+
+  @Test
+  public void cancel_notActive_dispatchNothing() {
+    liveDrag.cancel(queue);
+    assertEquals(0, gestures.size());
+
+    liveDrag.start(queue, 100, 100, 0);
+    completeLast();
+    liveDrag.cancel(queue);
+    assertFalse(lastStroke().willContinue());
+    assertEquals(LiveDrag.CANCEL_DURATION_MS, lastStroke().getDuration());
+  }
+
+  @Test
+  public void update_segmentCancelled_dragInactiveUntilNextStart() {
+    liveDrag.start(queue, 100, 100, 0);
+    completeLast();
+    liveDrag.update(queue, 120, 100, LiveDrag.SEGMENT_INTERVAL_MS);
+    callbacks.get(callbacks.size() - 1).onCancelled(gestures.get(gestures.size() - 1));
+
+    assertFalse(liveDrag.isActive());
+    assertTrue(liveDrag.isBroken());
+    assertEquals(1, liveDrag.getBrokenDragCount());
+    liveDrag.update(queue, 140, 100, LiveDrag.SEGMENT_INTERVAL_MS * 2);
+    assertEquals(2, gestures.size());
+
+    // Ending it sends nothing, the system already lifted the finger.
+    liveDrag.end(queue, 140, 100);
+    assertFalse(liveDrag.isBroken());
+    assertEquals(2, gestures.size());
+
+    liveDrag.start(queue, 200, 200, LiveDrag.SEGMENT_INTERVAL_MS * 3);
+    assertTrue(liveDrag.isActive());
+    assertTrue(lastStroke().willContinue());
+  }
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright 2024 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * MODIFICATION NOTICE
+ * as per the licence its required to give notice that this code has been modified by a third party.
+ * 2026 - Helgi Steinarr Juliusson, changes can be found in version control.
+ */
+package com.google.projectgameface;
+
+import android.util.Log;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class LogRingTest {
+
+  @Test
+  public void format_replacesPlaceholdersInOrder() {
+    assertEquals("a 1 b 2.5 c x",
+        LogRing.format("a {} b {} c {}", 3, 1, 2.5f, "x"));
+  }
+
+  @Test
+  public void format_missingArgument_placeholderKept() {
+    assertEquals("moved 3 px in {} ms", LogRing.format("moved {} px in {} ms", 1, 3, null, null));
+    assertEquals("no args {}", LogRing.format("no args {}", 0, null, null, null));
+  }
+
+  @Test
+  public void format_extraArgument_ignored() {
+    assertEquals("only 1", LogRing.format("only {}", 2, 1, 2, null));
+  }
+
+  @Test
+  public void dump_printsPriorityTagAndMessage() {
+    LogRing ring = new LogRing(4);
+    ring.add(0, Log.WARN, "Tag", "Cannot write {}: {}", 2, "file", "full", null, null);
+
+    String[] lines = dump(ring);
+
+    assertEquals(2, lines.length);
+    assertTrue(lines[0], lines[0].endsWith(" W Tag: Cannot write file: full"));
+    assertEquals("1 records logged, 1 kept, 0 skipped while written", lines[1]);
+  }
+
+  @Test
+  public void add_moreThanCapacity_oldestOverwritten() {
+    LogRing ring = new LogRing(3);
+    for (int i = 0; i < 5; i++) {
+      ring.add(0, Log.DEBUG, "Tag", "record {}", 1, i, null, null, null);
+    }
+
+    String[] lines = dump(ring);
+
+    assertEquals(4, lines.length);
+    assertTrue(lines[0].endsWith(" D Tag: record 2"));
+    assertTrue(lines[2].endsWith(" D Tag: record 4"));
+    assertEquals("5 records logged, 3 kept, 0 skipped while written", lines[3]);
+    assertEquals(5, ring.getAddedCount());
+  }
+
+  @Test
+  public void dump_throwable_printedBelowMessage() {
+    LogRing ring = new LogRing(2);
+    ring.add(0, Log.ERROR, "Tag", "failed", 0, null, null, null, new IllegalStateException("x"));
+
+    String[] lines = dump(ring);
+
+    assertTrue(lines[0].endsWith(" E Tag: failed"));
+    assertEquals("    java.lang.IllegalStateException: x", lines[1]);
+  }
+
+  @Test
+  public void priorityOf_inverseOfPriorityLetter() {
+    for (int priority = Log.VERBOSE; priority <= Log.ASSERT; priority++) {
+      assertEquals(priority, LogRing.priorityOf(LogRing.priorityLetter(priority)));
+    }
+    assertEquals(Log.DEBUG, LogRing.priorityOf('d'));
+    assertEquals(-1, LogRing.priorityOf('x'));
+  }
+
+  private static String[] dump(LogRing ring) {
+    StringWriter output = new StringWriter();
+    PrintWriter writer = new PrintWriter(output);
+    ring.dump(writer);
+    writer.flush();
+    return output.toString().split(System.lineSeparator());
+  }
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright 2024 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * MODIFICATION NOTICE
+ * as per the licence its required to give notice that this code has been modified by a third party.
+ * 2026 - Helgi Steinarr Juliusson, changes can be found in version control.
+ */
+package com.google.projectgameface;
+
+import org.junit.Test;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.util.Locale;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class MetricsRegistryTest {
+
+  @Test
+  public void histogram_record_countedInBucket() {
+    MetricsRegistry registry = new MetricsRegistry();
+    MetricsRegistry.Histogram histogram = registry.histogram("latency_ms", 10, 20, 50);
+
+    histogram.record(5);
+    histogram.record(10);
+    histogram.record(11);
+    histogram.record(100);
+
+    assertEquals(4, histogram.getCount());
+    assertEquals(2, histogram.getBucketCount(0));
+    assertEquals(1, histogram.getBucketCount(1));
+    assertEquals(0, histogram.getBucketCount(2));
+    assertEquals(1, histogram.getBucketCount(3));
+    assertEquals(10, histogram.getQuantileBound(0.5));
+    assertEquals(Long.MAX_VALUE, histogram.getQuantileBound(1.0));
+  }
+
+  @Test
+  public void reset_countersAndHistogramsZeroed_gaugesKept() {
+    MetricsRegistry registry = new MetricsRegistry();
+    MetricsRegistry.Counter counter = registry.counter("frames");
+    MetricsRegistry.Gauge gauge = registry.gauge("state");
+    MetricsRegistry.Histogram histogram = registry.histogram("latency_ms", 10);
+    counter.add(3);
+    gauge.set(2);
+    histogram.record(1);
+
+    registry.reset();
+
+    assertEquals(0, counter.get());
+    assertEquals(0, histogram.getCount());
+    assertEquals(2.0, gauge.get(), 0.0);
+  }
+
+  @Test
+  public void dumpJson_containsEveryMetric() {
+    MetricsRegistry registry = new MetricsRegistry();
+    registry.counter("frames").add(7);
+    registry.gauge("state").set(1);
+    registry.histogram("latency_ms", 10, 20).record(15);
+    StringWriter out = new StringWriter();
+
+    registry.dumpJson(new PrintWriter(out));
+
+    String json = out.toString();
+    assertTrue(json, json.contains("\"counters\":{\"frames\":7}"));
+    assertTrue(json, json.contains("\"gauges\":{\"state\":1.0}"));
+    assertTrue(json, json.contains(
+        "\"latency_ms\":{\"bounds\":[10,20],\"counts\":[0,1,0],\"count\":1,\"sum\":15}"));
+  }
+
+  @Test
+  public void dumpJson_nonFiniteGauge_null() {
+    MetricsRegistry registry = new MetricsRegistry();
+    registry.gauge("ratio").set(Double.NaN);
+    registry.gauge("rate").set(Double.POSITIVE_INFINITY);
+    StringWriter out = new StringWriter();
+
+    registry.dumpJson(new PrintWriter(out));
+
+    String json = out.toString();
+    assertTrue(json, json.contains("\"gauges\":{\"ratio\":null,\"rate\":null}"));
+  }
+
+  @Test
+  public void dump_commaDecimalLocale_pointDecimals() {
+    Locale defaultLocale = Locale.getDefault();
+    Locale.setDefault(Locale.GERMANY);
+    try {
+      MetricsRegistry registry = new MetricsRegistry();
+      MetricsRegistry.Histogram histogram = registry.histogram("dispatch_ms", 10);
+      histogram.record(1);
+      histogram.record(2);
+      StringWriter out = new StringWriter();
+
+      registry.dump(new PrintWriter(out));
+
+      assertTrue(out.toString(), out.toString().contains("dispatch_ms: count=2 mean=1.5 "));
+    } finally {
+      Locale.setDefault(defaultLocale);
+    }
+  }
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright 2024 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * MODIFICATION NOTICE
+ * as per the licence its required to give notice that this code has been modified by a third party.
+ * 2026 - Helgi Steinarr Juliusson, changes can be found in version control.
+ */
+package com.google.projectgameface;
+
+import android.accessibilityservice.AccessibilityService;
+import android.accessibilityservice.GestureDescription;
+import android.os.Handler;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+@RunWith(AndroidJUnit4.class)
+public class NodeClickDispatcherTest {
+  private static final float SCREEN_AREA = 1080.f * 2400.f;
+
+  private final List<GestureDescription> gestures = new ArrayList<>();
+  private final List<AccessibilityService.GestureResultCallback> callbacks = new ArrayList<>();
+  private NodeClickDispatcher nodeClickDispatcher;
+
+  @Before
+  public void setUp() {
+    GestureDispatchQueue queue = new GestureDispatchQueue(new GestureDispatchQueue.Target() {
+      @Override
+      public boolean dispatchGesture(
+          GestureDescription gesture, AccessibilityService.GestureResultCallback callback, Handler handler) {
+        gestures.add(gesture);
+        callbacks.add(callback);
+        return true;
+      }
+
+      @Override
+      public boolean performGlobalAction(int action) {
+        return true;
+      }
+    });
+    nodeClickDispatcher = new NodeClickDispatcher(queue);
+  }
+
+  @Test
+  public void click_noSnapshot_injectGesture() {
+    GestureDescription gesture = CursorUtils.createClick(100, 100, 0, 1);
+
+    nodeClickDispatcher.click(null, 100, 100, SCREEN_AREA, /* isLongClick= */ false, gesture);
+    assertEquals(1, gestures.size());
+    assertSame(gesture, gestures.get(0));
+
+    // Latency is counted once the gesture finished.
+    assertEquals(0, nodeClickDispatcher.getGestureClickCount());
+    callbacks.get(0).onCompleted(gesture);
+    assertEquals(1, nodeClickDispatcher.getGestureClickCount());
+    assertEquals(0, nodeClickDispatcher.getNodeClickCount());
+  }
+
+  @Test
+  public void click_noSuitableNode_injectGesture() {
+    ClickableNodeIndex.Snapshot snapshot = new ClickableNodeIndex.Snapshot.Builder()
+        // Clickable but too large, and a small target without a node.
+        .add(0, 0, 1080, 2400, ClickableNodeIndex.FLAG_CLICKABLE, 1, null)
+        .add(50, 50, 150, 150, ClickableNodeIndex.FLAG_CLICKABLE, 1, null)
+        .build();
+
+    nodeClickDispatcher.click(snapshot, 500, 500, SCREEN_AREA, /* isLongClick= */ false,
+        CursorUtils.createClick(500, 500, 0, 1));
+    nodeClickDispatcher.click(snapshot, 100, 100, SCREEN_AREA, /* isLongClick= */ false,
+        CursorUtils.createClick(100, 100, 0, 1));
+    // Only long clickable nodes are long clicked.
+    nodeClickDispatcher.click(snapshot, 100, 100, SCREEN_AREA, /* isLongClick= */ true,
+        CursorUtils.createClick(100, 100, 0, 500));
+
+    assertEquals(1, gestures.size());
+    callbacks.get(0).onCompleted(gestures.get(0));
+    assertEquals(2, gestures.size());
+    callbacks.get(1).onCompleted(gestures.get(1));
+    assertEquals(3, gestures.size());
+  }
+}
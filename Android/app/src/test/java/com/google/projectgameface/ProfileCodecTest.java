@@ -0,0 +1,112 @@
+/*
+ * Copyright 2024 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * MODIFICATION NOTICE
+ * as per the licence its required to give notice that this code has been modified by a third party.
+ * 2026 - Helgi Steinarr Juliusson, changes can be found in version control.
+ */
+package com.google.projectgameface;
+
+import com.google.projectgameface.BlendshapeEventTriggerConfig.Blendshape;
+import com.google.projectgameface.BlendshapeEventTriggerConfig.EventType;
+import com.google.projectgameface.CursorMovementConfig.CursorMovementConfigType;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.zip.CRC32;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class ProfileCodecTest {
+
+  private static Profile createProfile() {
+    Profile profile = new Profile("Gaming");
+    profile.movement.put(CursorMovementConfigType.UP_SPEED, 7);
+    profile.movement.put(CursorMovementConfigType.SMOOTH_POINTER, 3);
+    profile.bindings.put(EventType.CURSOR_TOUCH, new Profile.Binding(Blendshape.OPEN_MOUTH, 40));
+    profile.calibration.put(Blendshape.OPEN_MOUTH, new Profile.Calibration(0.1f, 0.02f, 0.8f));
+    return profile;
+  }
+
+  @Test
+  public void decode_encoded_sameProfile() throws IOException {
+    Profile profile = ProfileCodec.decode(ProfileCodec.encode(createProfile()));
+
+    assertEquals("Gaming", profile.name);
+    assertEquals(2, profile.movement.size());
+    assertEquals(7, (int) profile.movement.get(CursorMovementConfigType.UP_SPEED));
+    assertEquals(3, (int) profile.movement.get(CursorMovementConfigType.SMOOTH_POINTER));
+    assertEquals(Blendshape.OPEN_MOUTH, profile.bindings.get(EventType.CURSOR_TOUCH).blendshape);
+    assertEquals(40, profile.bindings.get(EventType.CURSOR_TOUCH).thresholdInUi);
+    assertEquals(0.8f, profile.calibration.get(Blendshape.OPEN_MOUTH).max, 0.f);
+  }
+
+  @Test
+  public void toProfile_compiled_sameProfile() {
+    Profile profile = createProfile().compile().toProfile();
+
+    assertEquals("Gaming", profile.name);
+    assertEquals(2, profile.movement.size());
+    assertEquals(7, (int) profile.movement.get(CursorMovementConfigType.UP_SPEED));
+    assertEquals(40, profile.bindings.get(EventType.CURSOR_TOUCH).thresholdInUi);
+    assertEquals(0.02f, profile.calibration.get(Blendshape.OPEN_MOUTH).std, 0.f);
+  }
+
+  @Test
+  public void decode_damaged_rejected() {
+    byte[] data = ProfileCodec.encode(createProfile());
+    data[data.length / 2] ^= 0x01;
+    try {
+      ProfileCodec.decode(data);
+      fail("Damaged profile was accepted.");
+    } catch (IOException expected) {
+      assertTrue(expected.getMessage().contains("checksum"));
+    }
+  }
+
+  @Test
+  public void decode_newerVersion_rejected() {
+    byte[] data = ProfileCodec.encode(createProfile());
+    // Version follows the 4 byte magic, then fix up the checksum.
+    data[5] = (byte) (ProfileCodec.FORMAT_VERSION + 1);
+    CRC32 crc = new CRC32();
+    crc.update(data, 0, data.length - 8);
+    long value = crc.getValue();
+    for (int i = 0; i < 8; i++) {
+      data[data.length - 1 - i] = (byte) (value >>> (8 * i));
+    }
+    try {
+      ProfileCodec.decode(data);
+      fail("Newer profile version was accepted.");
+    } catch (IOException expected) {
+      assertTrue(expected.getMessage().contains("version"));
+    }
+  }
+
+  @Test
+  public void compile_onlySetValues() {
+    ProfileSnapshot snapshot = createProfile().compile();
+
+    assertTrue(snapshot.hasMovement(CursorMovementConfigType.UP_SPEED));
+    assertFalse(snapshot.hasMovement(CursorMovementConfigType.DOWN_SPEED));
+    assertEquals(7, snapshot.getMovement(CursorMovementConfigType.UP_SPEED));
+    assertEquals(0.4f, snapshot.getBindings().get(EventType.CURSOR_TOUCH).threshold(), 1e-6f);
+    assertNull(snapshot.getCalibration(Blendshape.MOUTH_LEFT));
+  }
+}
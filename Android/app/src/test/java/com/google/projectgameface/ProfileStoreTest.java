@@ -0,0 +1,143 @@
+/*
+ * Copyright 2024 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * MODIFICATION NOTICE
+ * as per the licence its required to give notice that this code has been modified by a third party.
+ * 2026 - Helgi Steinarr Juliusson, changes can be found in version control.
+ */
+package com.google.projectgameface;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import androidx.test.core.app.ApplicationProvider;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import com.google.projectgameface.CursorMovementConfig.CursorMovementConfigType;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(AndroidJUnit4.class)
+public class ProfileStoreTest {
+  private final List<ProfileSnapshot> switched = new ArrayList<>();
+  private File directory;
+  private SharedPreferences preferences;
+  private ProfileStore store;
+
+  @Before
+  public void setUp() {
+    Context context = ApplicationProvider.getApplicationContext();
+    directory = new File(context.getCacheDir(), "ProfileStoreTest");
+    File[] files = directory.listFiles();
+    if (files != null) {
+      for (File file : files) {
+        file.delete();
+      }
+    }
+    preferences = context.getSharedPreferences("ProfileStoreTest", Context.MODE_PRIVATE);
+    preferences.edit().clear().commit();
+    preferences.edit().putInt(CursorMovementConfigType.UP_SPEED.name(), 5).commit();
+    store = new ProfileStore(directory, preferences, new ConfigRepository(preferences));
+    store.addListener(switched::add);
+  }
+
+  @Test
+  public void create_noProfiles_migratesSettings() {
+    assertEquals(1, store.listProfiles().size());
+    assertEquals(ProfileStore.DEFAULT_PROFILE_NAME, store.getActiveProfileName());
+    assertEquals(5, store.getSnapshot(ProfileStore.DEFAULT_PROFILE_NAME)
+        .getMovement(CursorMovementConfigType.UP_SPEED));
+  }
+
+  @Test
+  public void switchTo_otherProfile_appliedAndWorkingCopyKept() {
+    Profile gaming = new Profile("Gaming");
+    gaming.movement.put(CursorMovementConfigType.UP_SPEED, 9);
+    store.save(gaming);
+    preferences.edit().putInt(CursorMovementConfigType.UP_SPEED.name(), 6).commit();
+
+    assertTrue(store.switchTo("Gaming"));
+
+    assertEquals(1, switched.size());
+    assertEquals("Gaming", switched.get(0).name);
+    assertEquals("Gaming", store.getActiveProfileName());
+    assertEquals(9, preferences.getInt(CursorMovementConfigType.UP_SPEED.name(), -1));
+    // Edits made before the switch belong to the profile that was left.
+    assertEquals(6, store.load(ProfileStore.DEFAULT_PROFILE_NAME)
+        .movement.get(CursorMovementConfigType.UP_SPEED).intValue());
+  }
+
+  @Test
+  public void switchTo_missingProfile_nothingChanged() {
+    assertFalse(store.switchTo("Missing"));
+
+    assertTrue(switched.isEmpty());
+    assertEquals(ProfileStore.DEFAULT_PROFILE_NAME, store.getActiveProfileName());
+  }
+
+  @Test
+  public void importFrom_exported_sameValues() {
+    Profile reading = new Profile("Reading");
+    reading.movement.put(CursorMovementConfigType.SMOOTH_POINTER, 20);
+    store.save(reading);
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    assertTrue(store.exportTo("Reading", out));
+    store.delete("Reading");
+
+    assertEquals("Reading", store.importFrom(new ByteArrayInputStream(out.toByteArray())));
+    assertEquals(20, store.getSnapshot("Reading")
+        .getMovement(CursorMovementConfigType.SMOOTH_POINTER));
+  }
+
+  @Test
+  public void delete_activeProfile_refused() {
+    assertFalse(store.delete(ProfileStore.DEFAULT_PROFILE_NAME));
+  }
+
+  @Test
+  public void switchTo_queuedExecutor_workingCopyAppliedFileWrittenLater() {
+    List<Runnable> writes = new ArrayList<>();
+    store = new ProfileStore(directory, preferences, new ConfigRepository(preferences), writes::add);
+    store.addListener(switched::add);
+    Profile gaming = new Profile("Gaming");
+    gaming.movement.put(CursorMovementConfigType.UP_SPEED, 9);
+    store.save(gaming);
+    preferences.edit().putInt(CursorMovementConfigType.UP_SPEED.name(), 6).commit();
+
+    assertTrue(store.switchTo("Gaming"));
+
+    assertEquals(1, switched.size());
+    assertEquals("Gaming", store.getActiveProfileName());
+    // Setting pages read the new profile right away, only the old profile's file waits.
+    assertEquals(9, preferences.getInt(CursorMovementConfigType.UP_SPEED.name(), -1));
+    assertEquals("Gaming", preferences.getString(ProfileStore.ACTIVE_PROFILE_KEY, null));
+    assertEquals(1, writes.size());
+
+    for (Runnable write : writes) {
+      write.run();
+    }
+    assertEquals(6, store.load(ProfileStore.DEFAULT_PROFILE_NAME)
+        .movement.get(CursorMovementConfigType.UP_SPEED).intValue());
+  }
+}
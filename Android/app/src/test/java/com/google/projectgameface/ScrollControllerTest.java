@@ -0,0 +1,144 @@
+/*
+ * Copyright 2024 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * MODIFICATION NOTICE
+ * as per the licence its required to give notice that this code has been modified by a third party.
+ * 2026 - Helgi Steinarr Juliusson, changes can be found in version control.
+ */
+package com.google.projectgameface;
+
+import android.accessibilityservice.AccessibilityService;
+import android.accessibilityservice.GestureDescription;
+import android.os.Handler;
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(AndroidJUnit4.class)
+public class ScrollControllerTest {
+  private final List<GestureDescription> gestures = new ArrayList<>();
+  private final List<AccessibilityService.GestureResultCallback> callbacks = new ArrayList<>();
+  private GestureDispatchQueue queue;
+  private ScrollController scrollController;
+  private long timeMs;
+
+  @Before
+  public void setUp() {
+    queue = new GestureDispatchQueue(new GestureDispatchQueue.Target() {
+      @Override
+      public boolean dispatchGesture(
+          GestureDescription gesture, AccessibilityService.GestureResultCallback callback, Handler handler) {
+        gestures.add(gesture);
+        callbacks.add(callback);
+        return true;
+      }
+
+      @Override
+      public boolean performGlobalAction(int action) {
+        return true;
+      }
+    });
+    scrollController = new ScrollController();
+    timeMs = 0;
+  }
+
+  /** Run UI ticks for a while, each dispatched gesture is injected before the next tick. */
+  private void tick(float targetVy, long durationMs) {
+    for (long end = timeMs + durationMs; timeMs < end; timeMs += CursorAccessibilityService.UI_UPDATE) {
+      scrollController.update(queue, 0.f, targetVy, 500, 1000, 1080, 2000, timeMs);
+      while (queue.isBusy()) {
+        callbacks.get(callbacks.size() - 1).onCompleted(gestures.get(gestures.size() - 1));
+      }
+    }
+  }
+
+  private GestureDescription.StrokeDescription lastStroke() {
+    return gestures.get(gestures.size() - 1).getStroke(0);
+  }
+
+  @Test
+  public void update_belowMinSpeed_dispatchNothing() {
+    tick(ScrollController.MIN_SPEED_PX_PER_S / 2, 1000);
+
+    assertEquals(0, gestures.size());
+    assertFalse(scrollController.isScrolling());
+  }
+
+  @Test
+  public void update_heldVelocity_smoothedAndRateCapped() {
+    tick(-ScrollController.MAX_SPEED_PX_PER_S, 1000);
+
+    assertTrue(scrollController.isScrolling());
+    assertTrue(lastStroke().willContinue());
+    // Velocity ramps up instead of jumping.
+    assertEquals(-ScrollController.MAX_SPEED_PX_PER_S, scrollController.getVelocityY(), 1.f);
+    // Press plus at most one segment per step interval.
+    assertTrue(gestures.size() <= 1 + 1000 / ScrollController.STEP_INTERVAL_MS);
+  }
+
+  @Test
+  public void update_velocityReleased_settleThenLift() {
+    tick(-ScrollController.MAX_SPEED_PX_PER_S, 500);
+    tick(0.f, 1000);
+
+    assertFalse(scrollController.isScrolling());
+    assertFalse(lastStroke().willContinue());
+    // Lifting step does not move, neither did the one before it, so there is no fling.
+    GestureDescription.StrokeDescription settle =
+        gestures.get(gestures.size() - 2).getStroke(0);
+    assertTrue(settle.willContinue());
+    assertEquals(ScrollController.STEP_INTERVAL_MS, settle.getDuration());
+  }
+
+  @Test
+  public void stop_scrolling_liftFinger() {
+    tick(ScrollController.MAX_SPEED_PX_PER_S, 300);
+    scrollController.stop(queue);
+
+    assertFalse(scrollController.isScrolling());
+    assertFalse(lastStroke().willContinue());
+    assertEquals(0.f, scrollController.getVelocityY(), 0.0001);
+  }
+
+  @Test
+  public void update_segmentCancelled_pressAgainOnNextStep() {
+    tick(-ScrollController.MAX_SPEED_PX_PER_S, 500);
+    assertTrue(scrollController.isScrolling());
+    int gestureCount = gestures.size();
+
+    // Next segment is cancelled by the system.
+    timeMs += ScrollController.STEP_INTERVAL_MS;
+    scrollController.update(queue, 0.f, -ScrollController.MAX_SPEED_PX_PER_S,
+        500, 1000, 1080, 2000, timeMs);
+    assertEquals(gestureCount + 1, gestures.size());
+    callbacks.get(callbacks.size() - 1).onCancelled(gestures.get(gestures.size() - 1));
+    assertFalse(scrollController.isScrolling());
+    assertEquals(1, scrollController.getBrokenStrokeCount());
+
+    timeMs += CursorAccessibilityService.UI_UPDATE;
+    scrollController.update(queue, 0.f, -ScrollController.MAX_SPEED_PX_PER_S,
+        500, 1000, 1080, 2000, timeMs);
+    assertTrue(scrollController.isScrolling());
+    assertTrue(lastStroke().willContinue());
+  }
+}
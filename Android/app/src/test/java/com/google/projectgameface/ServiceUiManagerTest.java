@@ -12,6 +12,10 @@
  * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
  * See the License for the specific language governing permissions and
  * limitations under the License.
+ *
+ * MODIFICATION NOTICE
+ * as per the licence its required to give notice that this code has been modified by a third party.
+ * 2026 - Helgi Steinarr Juliusson, changes can be found in version control.
  */
 package com.google.projectgameface;
 
@@ -57,4 +61,21 @@ public class ServiceUiManagerTest {
     assertEquals(testUiServiceManager.cameraBoxLayoutParams.width, newWidth);
     assertEquals(testUiServiceManager.cameraBoxLayoutParams.height, newHeight);
   }
+
+  @Test
+  public void updateCursorImagePositionOnScreen_canvasRenderer_redrawOnlyWhenMoved() {
+    Context context = ApplicationProvider.getApplicationContext();
+    WindowManager windowManager = ContextCompat.getSystemService(context, WindowManager.class);
+    ServiceUiManager testUiServiceManager = new ServiceUiManager(context, windowManager);
+    testUiServiceManager.setCanvasCursorEnabled(true);
+    testUiServiceManager.showCursor();
+
+    testUiServiceManager.updateCursorImagePositionOnScreen(new int[] {100, 200});
+    testUiServiceManager.updateCursorImagePositionOnScreen(new int[] {100, 200});
+    testUiServiceManager.updateCursorImagePositionOnScreen(new int[] {101, 200});
+
+    assertEquals(2, testUiServiceManager.getCursorRedrawCount());
+    assertEquals(1, testUiServiceManager.getCursorSkippedCount());
+    assertEquals(0, testUiServiceManager.getCursorLayoutCallCount());
+  }
 }
@@ -0,0 +1,73 @@
+/*
+ * Copyright 2024 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * MODIFICATION NOTICE
+ * as per the licence its required to give notice that this code has been modified by a third party.
+ * 2026 - Helgi Steinarr Juliusson, changes can be found in version control.
+ */
+package com.google.projectgameface;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import java.util.Random;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.assertEquals;
+
+@RunWith(AndroidJUnit4.class)
+public class StreamingQuantileTest {
+  @Test
+  public void get_uniformStream_returnMedian() {
+    StreamingQuantile median = new StreamingQuantile(0.5);
+    Random random = new Random(42);
+    for (int i = 0; i < 5000; i++) {
+      median.add(random.nextDouble());
+    }
+    assertEquals(0.5, median.get(), 0.03);
+  }
+
+  @Test
+  public void get_skewedStream_returnHighQuantile() {
+    StreamingQuantile p90 = new StreamingQuantile(0.9);
+    // 0..999 shuffled, exact 90th percentile is about 900.
+    Random random = new Random(7);
+    int[] values = new int[1000];
+    for (int i = 0; i < values.length; i++) {
+      values[i] = i;
+    }
+    for (int i = values.length - 1; i > 0; i--) {
+      int j = random.nextInt(i + 1);
+      int tmp = values[i];
+      values[i] = values[j];
+      values[j] = tmp;
+    }
+    for (int value : values) {
+      p90.add(value);
+    }
+    assertEquals(900, p90.get(), 30);
+  }
+
+  @Test
+  public void get_fewSamples_returnExactQuantile() {
+    StreamingQuantile median = new StreamingQuantile(0.5);
+    median.add(3);
+    median.add(1);
+    median.add(2);
+    assertEquals(2, median.get(), 0.0001);
+
+    median.reset();
+    assertEquals(0, median.get(), 0.0001);
+  }
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright 2024 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * MODIFICATION NOTICE
+ * as per the licence its required to give notice that this code has been modified by a third party.
+ * 2026 - Helgi Steinarr Juliusson, changes can be found in version control.
+ */
+package com.google.projectgameface;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(AndroidJUnit4.class)
+public class TargetAssistTest {
+  private static final float SCREEN_AREA = 1080.f * 2400.f;
+
+  private static ClickableNodeIndex.Snapshot createSnapshot() {
+    return new ClickableNodeIndex.Snapshot.Builder()
+        // Small button.
+        .add(100, 100, 200, 160, ClickableNodeIndex.FLAG_CLICKABLE, 1, null)
+        // Clickable background covering the whole screen.
+        .add(0, 0, 1080, 2400, ClickableNodeIndex.FLAG_CLICKABLE, 1, null)
+        // Scrollable list, not a target.
+        .add(0, 1000, 1080, 2000, ClickableNodeIndex.FLAG_SCROLLABLE, 1, null)
+        .build();
+  }
+
+  @Test
+  public void getGain_rampsUpAwayFromSmallTargets() {
+    ClickableNodeIndex.Snapshot snapshot = createSnapshot();
+
+    assertEquals(TargetAssist.STICKY_GAIN, TargetAssist.getGain(snapshot, 150, 130, SCREEN_AREA), 1e-4f);
+    float halfway = TargetAssist.STICKY_GAIN + (1.f - TargetAssist.STICKY_GAIN) / 2;
+    assertEquals(halfway,
+        TargetAssist.getGain(snapshot, 200 + TargetAssist.STICKY_RADIUS_PX / 2, 130, SCREEN_AREA), 1e-4f);
+    // Only the full screen background and the list are here.
+    assertEquals(1.f, TargetAssist.getGain(snapshot, 500, 1500, SCREEN_AREA), 1e-4f);
+    assertEquals(1.f, TargetAssist.getGain(null, 150, 130, SCREEN_AREA), 1e-4f);
+  }
+
+  @Test
+  public void snap_movesMissedTouchToNearestTargetCenter() {
+    ClickableNodeIndex.Snapshot snapshot = createSnapshot();
+    TargetAssist targetAssist = new TargetAssist();
+    float[] xy = new float[2];
+
+    assertTrue(targetAssist.snap(snapshot, 230, 130, SCREEN_AREA, xy));
+    assertEquals(150.f, xy[0], 1e-4f);
+    assertEquals(130.f, xy[1], 1e-4f);
+
+    // Already on the target, or too far away.
+    assertFalse(targetAssist.snap(snapshot, 120, 120, SCREEN_AREA, xy));
+    assertFalse(targetAssist.snap(snapshot, 400, 130, SCREEN_AREA, xy));
+    assertEquals(1, targetAssist.getSnapCount());
+  }
+
+  @Test
+  public void onTouch_measuresSelectionTimePerMode() {
+    TargetAssist targetAssist = new TargetAssist();
+
+    // Cursor starts moving at 1000 ms, touch at 1800 ms.
+    targetAssist.onCursorMoved(5, 0, 900);
+    targetAssist.onCursorMoved(50, 0, 1000);
+    targetAssist.onCursorMoved(300, 0, 1500);
+    targetAssist.onTouch(300, 0, 1800, /* isAssisted= */ true);
+
+    // Second touch without moving is not a selection.
+    targetAssist.onTouch(300, 0, 2500, /* isAssisted= */ true);
+
+    targetAssist.onCursorMoved(400, 0, 3000);
+    targetAssist.onTouch(400, 0, 4200, /* isAssisted= */ false);
+
+    assertEquals(1, targetAssist.getSelectionCount(true));
+    assertEquals(800.f, targetAssist.getMeanSelectionMs(true), 1e-3f);
+    assertEquals(1, targetAssist.getSelectionCount(false));
+    assertEquals(1200.f, targetAssist.getMeanSelectionMs(false), 1e-3f);
+  }
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright 2024 Google LLC
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ *
+ * MODIFICATION NOTICE
+ * as per the licence its required to give notice that this code has been modified by a third party.
+ * 2026 - Helgi Steinarr Juliusson, changes can be found in version control.
+ */
+package com.google.projectgameface;
+
+import androidx.test.ext.junit.runners.AndroidJUnit4;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+@RunWith(AndroidJUnit4.class)
+public class TimingRingTest {
+  private static final float[] QUANTILES = {0.5f, 0.95f};
+
+  @Test
+  public void copyTo_overfilled_keepsNewestOldestFirst() {
+    TimingRing ring = new TimingRing(3);
+    for (int i = 1; i <= 5; i++) {
+      ring.add(i);
+    }
+    float[] out = new float[3];
+
+    assertEquals(3, ring.copyTo(out));
+    assertArrayEquals(new float[] {3, 4, 5}, out, 0.f);
+    assertEquals(5, ring.getAddedCount());
+  }
+
+  @Test
+  public void getQuantiles_ofHeldValues() {
+    TimingRing ring = new TimingRing(100);
+    // Added out of order, quantiles must not depend on it.
+    for (int i = 100; i >= 1; i--) {
+      ring.add(i);
+    }
+    float[] out = new float[2];
+
+    ring.getQuantiles(new float[100], QUANTILES, out);
+
+    assertEquals(50.f, out[0], 0.f);
+    assertEquals(95.f, out[1], 0.f);
+  }
+
+  @Test
+  public void getQuantiles_empty_zero() {
+    TimingRing ring = new TimingRing(10);
+    float[] out = {1.f, 1.f};
+
+    ring.getQuantiles(new float[10], QUANTILES, out);
+
+    assertArrayEquals(new float[] {0.f, 0.f}, out, 0.f);
+  }
+}